@@ -0,0 +1,41 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The JMH main, with a machine readable result by default:
+ * {@code java -jar target/benchmarks.jar} writes the results to jmh-result.json. Use
+ * {@code -rf} and {@code -rff} to change the format or the file.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> argList = new ArrayList<String>(Arrays.asList(args));
+        if (!argList.contains("-rf")) {
+            argList.addAll(0, Arrays.asList("-rf", "json", "-rff", "jmh-result.json"));
+        }
+        Main.main(argList.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.processor.FieldProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse and format a column of values, for every field processor type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldProcessorBenchmark {
+    private static final int SIZE = 1024;
+
+    @Param({"BOOLEAN", "CURRENCY_DECIMAL", "CURRENCY_INTEGER", "DATE", "DATETIME", "DECIMAL",
+            "FLOAT", "INTEGER", "PERCENTAGE_DECIMAL", "PERCENTAGE_FLOAT", "TEXT"})
+    public SyntheticData.ColumnType columnType;
+
+    private FieldProcessor<Object> processor;
+    private String[] texts;
+    private Object[] values;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        SyntheticData syntheticData = SyntheticData.create(
+                new SyntheticData.ColumnType[]{this.columnType}, SIZE, 42L);
+        this.processor = (FieldProcessor<Object>) syntheticData.getData().getDescription(0)
+                .toFieldProcessor("");
+        List<List<Object>> rows = syntheticData.getRows();
+        this.values = new Object[SIZE];
+        this.texts = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            this.values[i] = rows.get(i).get(0);
+            this.texts[i] = this.processor.toString(this.values[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void parse(Blackhole blackhole) throws MetaCSVReadException {
+        for (String text : this.texts) {
+            blackhole.consume(this.processor.toObject(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void format(Blackhole blackhole) {
+        for (Object value : this.values) {
+            blackhole.consume(this.processor.toString(value));
+        }
+    }
+}
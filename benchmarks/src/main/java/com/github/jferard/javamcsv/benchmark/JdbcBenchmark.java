@@ -0,0 +1,219 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRenderer;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.tool.ConnectionSupplier;
+import com.github.jferard.javamcsv.tool.MetaCSVBulkLoader;
+import com.github.jferard.javamcsv.tool.MetaCSVReaderResultSet;
+import com.github.jferard.javamcsv.tool.ResultSetMetaCSVWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JDBC bridges, against an in-memory H2 database, and the MetaCSV driver. The result
+ * is the time per table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcBenchmark {
+    private static final String URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"9"})
+    public int columns;
+
+    private MetaCSVData data;
+    private byte[] csv;
+    private Connection connection;
+    private File directory;
+    private ConnectionSupplier supplier;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticData syntheticData = SyntheticData.create(SyntheticData.Shape.MIXED,
+                this.rows, this.columns, 42L);
+        this.data = syntheticData.getData();
+        this.csv = syntheticData.toCSV();
+        this.connection = DriverManager.getConnection(URL);
+        this.supplier = new ConnectionSupplier() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(URL);
+            }
+        };
+        Statement statement = this.connection.createStatement();
+        String columnsDDL = this.getColumnsDDL();
+        statement.execute("CREATE TABLE source (" + columnsDDL + ")");
+        statement.execute("CREATE TABLE target (" + columnsDDL + ")");
+        statement.close();
+        new MetaCSVBulkLoader(this.supplier, "source").load(this.openReader());
+
+        this.directory = File.createTempFile("benchmark", "");
+        this.directory.delete();
+        this.directory.mkdir();
+        OutputStream out = new FileOutputStream(new File(this.directory, "data.csv"));
+        out.write(this.csv);
+        out.close();
+        OutputStream metaOut = new FileOutputStream(new File(this.directory, "data.mcsv"));
+        MetaCSVRenderer.create(metaOut).render(this.data);
+        metaOut.close();
+    }
+
+    private String getColumnsDDL() {
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < this.columns; c++) {
+            if (c > 0) {
+                sb.append(", ");
+            }
+            sb.append("col").append(c).append(' ');
+            switch (SyntheticData.Shape.MIXED.getColumnType(c)) {
+                case BOOLEAN:
+                    sb.append("BOOLEAN");
+                    break;
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    sb.append("BIGINT");
+                    break;
+                case DATE:
+                    sb.append("DATE");
+                    break;
+                case DATETIME:
+                    sb.append("TIMESTAMP");
+                    break;
+                case DECIMAL:
+                    sb.append("DECIMAL(20, 2)");
+                    break;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    sb.append("DOUBLE");
+                    break;
+                default:
+                    sb.append("VARCHAR(20)");
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private MetaCSVReader openReader() throws Exception {
+        return MetaCSVReader.create(new ByteArrayInputStream(this.csv), this.data);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Statement statement = this.connection.createStatement();
+        statement.execute("DROP ALL OBJECTS");
+        statement.close();
+        this.connection.close();
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+        this.directory.delete();
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTarget() throws SQLException {
+        Statement statement = this.connection.createStatement();
+        statement.execute("TRUNCATE TABLE target");
+        statement.close();
+    }
+
+    @Benchmark
+    public int exportResultSet() throws Exception {
+        Statement statement = this.connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT * FROM source");
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.csv.length);
+        ResultSetMetaCSVWriter resultSetWriter = new ResultSetMetaCSVWriter(resultSet);
+        resultSetWriter.writeCSV(MetaCSVWriter.create(out, resultSetWriter.getMetaCSVData()));
+        statement.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public long bulkLoad() throws Exception {
+        return new MetaCSVBulkLoader(this.supplier, "target").load(this.openReader());
+    }
+
+    @Benchmark
+    public long bulkLoadFile() throws Exception {
+        return new MetaCSVBulkLoader(this.supplier, "target").load(
+                new File(this.directory, "data.csv"), this.data, OnError.WRAP);
+    }
+
+    @Benchmark
+    public void readResultSet(Blackhole blackhole) throws Exception {
+        ResultSet resultSet = new MetaCSVReaderResultSet(this.openReader());
+        while (resultSet.next()) {
+            for (int c = 1; c <= this.columns; c++) {
+                blackhole.consume(resultSet.getObject(c));
+            }
+        }
+        resultSet.close();
+    }
+
+    @Benchmark
+    public void driverSelect(Blackhole blackhole) throws Exception {
+        Connection mcsvConnection = DriverManager.getConnection(
+                "jdbc:mcsv:" + this.directory.getPath());
+        ResultSet resultSet = mcsvConnection.createStatement().executeQuery(
+                "SELECT col6, col8 FROM data WHERE col6 > 0");
+        while (resultSet.next()) {
+            blackhole.consume(resultSet.getLong(1));
+            blackhole.consume(resultSet.getString(2));
+        }
+        resultSet.close();
+        mcsvConnection.close();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVReaderBuilder;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read a whole synthetic file from memory. The result is the time per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+    @Param({"MIXED", "NUMERIC", "TEXT"})
+    public SyntheticData.Shape shape;
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"8"})
+    public int columns;
+
+    private MetaCSVData data;
+    private byte[] csv;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticData syntheticData = SyntheticData.create(this.shape, this.rows, this.columns,
+                42L);
+        this.data = syntheticData.getData();
+        this.csv = syntheticData.toCSV();
+    }
+
+    @Benchmark
+    public void readList(Blackhole blackhole) throws Exception {
+        MetaCSVReader reader = MetaCSVReader.create(new ByteArrayInputStream(this.csv), this.data);
+        for (MetaCSVRecord record : reader) {
+            blackhole.consume(record.toList());
+        }
+        reader.close();
+    }
+
+    @Benchmark
+    public void readCompiled(Blackhole blackhole) throws Exception {
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(new ByteArrayInputStream(this.csv))
+                .metaData(this.data).compileDecoder(true).build();
+        for (MetaCSVRecord record : reader) {
+            blackhole.consume(record.toList());
+        }
+        reader.close();
+    }
+
+    @Benchmark
+    public void readObjects(Blackhole blackhole) throws Exception {
+        MetaCSVReader reader = MetaCSVReader.create(new ByteArrayInputStream(this.csv), this.data);
+        for (MetaCSVRecord record : reader) {
+            for (int c = 0; c < this.columns; c++) {
+                blackhole.consume(record.getObject(c));
+            }
+        }
+        reader.close();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic, seeded data: the same shape, size and seed always give the same rows.
+ */
+public class SyntheticData {
+    public enum ColumnType {
+        BOOLEAN("boolean/T/F") {
+            @Override
+            Object next(Random random) {
+                return random.nextBoolean();
+            }
+        },
+        CURRENCY_DECIMAL("currency/pre/$/decimal//.") {
+            @Override
+            Object next(Random random) {
+                return BigDecimal.valueOf(random.nextInt(100000000) - 50000000, 2);
+            }
+        },
+        CURRENCY_INTEGER("\"currency/pre/$/integer/,\"") {
+            @Override
+            Object next(Random random) {
+                return (long) random.nextInt(2000000) - 1000000;
+            }
+        },
+        DATE("date/yyyy-MM-dd") {
+            @Override
+            Object next(Random random) {
+                return new Date(random.nextInt(20000) * 86400000L);
+            }
+        },
+        DATETIME("datetime/yyyy-MM-dd HH:mm:ss") {
+            @Override
+            Object next(Random random) {
+                return new Date(random.nextInt(20000) * 86400000L + random.nextInt(86400) * 1000L);
+            }
+        },
+        DECIMAL("decimal//.") {
+            @Override
+            Object next(Random random) {
+                return BigDecimal.valueOf(random.nextInt(100000000) - 50000000, 2);
+            }
+        },
+        FLOAT("float//.") {
+            @Override
+            Object next(Random random) {
+                return (random.nextInt(2000000) - 1000000) / 64.0;
+            }
+        },
+        INTEGER("integer") {
+            @Override
+            Object next(Random random) {
+                return (long) random.nextInt();
+            }
+        },
+        PERCENTAGE_DECIMAL("percentage/post/%/decimal//.") {
+            @Override
+            Object next(Random random) {
+                return BigDecimal.valueOf(random.nextInt(10000), 4);
+            }
+        },
+        PERCENTAGE_FLOAT("percentage/post/%/float//.") {
+            @Override
+            Object next(Random random) {
+                return random.nextInt(10000) / 10000.0;
+            }
+        },
+        TEXT("text") {
+            @Override
+            Object next(Random random) {
+                int length = 3 + random.nextInt(10);
+                StringBuilder sb = new StringBuilder(length);
+                for (int i = 0; i < length; i++) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+                return sb.toString();
+            }
+        };
+
+        private final String description;
+
+        ColumnType(String description) {
+            this.description = description;
+        }
+
+        /**
+         * @return the type, as in a .mcsv file (CSV escaped).
+         */
+        public String getDescription() {
+            return this.description;
+        }
+
+        abstract Object next(Random random);
+    }
+
+    public enum Shape {
+        MIXED(ColumnType.values()),
+        NUMERIC(ColumnType.INTEGER, ColumnType.FLOAT, ColumnType.DECIMAL),
+        TEXT(ColumnType.TEXT);
+
+        private final ColumnType[] columnTypes;
+
+        Shape(ColumnType... columnTypes) {
+            this.columnTypes = columnTypes;
+        }
+
+        public ColumnType getColumnType(int c) {
+            return this.columnTypes[c % this.columnTypes.length];
+        }
+    }
+
+    /**
+     * @param shape the shape of the rows
+     * @param rowCount the number of rows
+     * @param columnCount the number of columns
+     * @param seed the seed
+     * @return the data
+     * @throws IOException never
+     * @throws MetaCSVParseException never
+     * @throws MetaCSVDataException never
+     */
+    public static SyntheticData create(Shape shape, int rowCount, int columnCount, long seed)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        ColumnType[] columnTypes = new ColumnType[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            columnTypes[c] = shape.getColumnType(c);
+        }
+        return create(columnTypes, rowCount, seed);
+    }
+
+    /**
+     * @param columnTypes the types of the columns
+     * @param rowCount the number of rows
+     * @param seed the seed
+     * @return the data
+     * @throws IOException never
+     * @throws MetaCSVParseException never
+     * @throws MetaCSVDataException never
+     */
+    public static SyntheticData create(ColumnType[] columnTypes, int rowCount, long seed)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        String[] directives = new String[columnTypes.length];
+        List<String> header = new ArrayList<String>(columnTypes.length);
+        for (int c = 0; c < columnTypes.length; c++) {
+            directives[c] = "data,col/" + c + "/type," + columnTypes[c].getDescription();
+            header.add("col" + c);
+        }
+        MetaCSVData data = new MetaCSVParserBuilder().metaCSVDirectives(directives).buildData();
+        Random random = new Random(seed);
+        List<List<Object>> rows = new ArrayList<List<Object>>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            List<Object> row = new ArrayList<Object>(columnTypes.length);
+            for (ColumnType columnType : columnTypes) {
+                row.add(columnType.next(random));
+            }
+            rows.add(row);
+        }
+        return new SyntheticData(data, header, rows);
+    }
+
+    private final MetaCSVData data;
+    private final List<String> header;
+    private final List<List<Object>> rows;
+
+    public SyntheticData(MetaCSVData data, List<String> header, List<List<Object>> rows) {
+        this.data = data;
+        this.header = header;
+        this.rows = rows;
+    }
+
+    public MetaCSVData getData() {
+        return this.data;
+    }
+
+    public List<String> getHeader() {
+        return this.header;
+    }
+
+    public List<List<Object>> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return the CSV file, with a header
+     * @throws IOException never
+     */
+    public byte[] toCSV() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaCSVWriter writer = MetaCSVWriter.create(out, this.data);
+        writer.writeHeader(this.header);
+        for (List<Object> row : this.rows) {
+            writer.writeRow(row);
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.benchmark;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write a whole synthetic file to memory. The result is the time per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+    @Param({"MIXED", "NUMERIC", "TEXT"})
+    public SyntheticData.Shape shape;
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"8"})
+    public int columns;
+
+    private MetaCSVData data;
+    private List<String> header;
+    private List<List<Object>> values;
+    private int size;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticData syntheticData = SyntheticData.create(this.shape, this.rows, this.columns,
+                42L);
+        this.data = syntheticData.getData();
+        this.header = syntheticData.getHeader();
+        this.values = syntheticData.getRows();
+        this.size = syntheticData.toCSV().length;
+    }
+
+    @Benchmark
+    public int writeRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.size);
+        MetaCSVWriter writer = MetaCSVWriter.create(out, this.data);
+        writer.writeHeader(this.header);
+        for (List<Object> row : this.values) {
+            writer.writeRow(row);
+        }
+        writer.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.size);
+        MetaCSVWriter writer = MetaCSVWriter.create(out, this.data);
+        writer.writeHeader(this.header);
+        for (List<Object> row : this.values) {
+            for (Object value : row) {
+                writer.writeValue(value);
+            }
+            writer.endRow();
+        }
+        writer.close();
+        return out.size();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.jfr;
+
+import com.github.jferard.javamcsv.InstrumentationStatistics;
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+
+/**
+ * A MetaCSVInstrumentation that emits JDK Flight Recorder events (JDK 8u262+ or 11+).
+ *
+ * The reader and the writer only sum the measures: the events "MetaCSV Read",
+ * "MetaCSV Write" and one "MetaCSV Column" per column are committed when the reader or the
+ * writer is closed. The cells are timed only if the "MetaCSV Column" event is enabled when
+ * the instrumentation is created. Cache accesses and queue depths are instant events.
+ *
+ * Use one instance per reader or writer:
+ * <pre>
+ * new MetaCSVReaderBuilder().csvFile(f).instrumentation(new JFRInstrumentation(f.getName()))
+ * </pre>
+ */
+public class JFRInstrumentation implements MetaCSVInstrumentation {
+    private final String source;
+    private final InstrumentationStatistics statistics;
+    private final ReadEvent readEvent;
+    private final WriteEvent writeEvent;
+
+    /**
+     * @param source the name of the file, for the events
+     */
+    public JFRInstrumentation(String source) {
+        this.source = source;
+        this.statistics = new InstrumentationStatistics(new ColumnEvent().isEnabled());
+        this.readEvent = new ReadEvent();
+        this.readEvent.begin();
+        this.writeEvent = new WriteEvent();
+        this.writeEvent.begin();
+    }
+
+    @Override
+    public boolean isColumnTimed() {
+        return this.statistics.isColumnTimed();
+    }
+
+    @Override
+    public void bytesRead(int count) {
+        this.statistics.bytesRead(count);
+    }
+
+    @Override
+    public void rowRead() {
+        this.statistics.rowRead();
+    }
+
+    @Override
+    public void cellParsed(int column, long nanos) {
+        this.statistics.cellParsed(column, nanos);
+    }
+
+    @Override
+    public void cellError(int column) {
+        this.statistics.cellError(column);
+    }
+
+    @Override
+    public void bytesWritten(int count) {
+        this.statistics.bytesWritten(count);
+    }
+
+    @Override
+    public void rowWritten() {
+        this.statistics.rowWritten();
+    }
+
+    @Override
+    public void cacheAccess(String cache, boolean hit) {
+        CacheEvent event = new CacheEvent();
+        if (event.isEnabled()) {
+            event.cache = cache;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void queueDepth(String queue, int depth) {
+        QueueEvent event = new QueueEvent();
+        if (event.isEnabled()) {
+            event.queue = queue;
+            event.depth = depth;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.statistics.close();
+        if (this.statistics.getBytesRead() > 0 || this.statistics.getRowsRead() > 0) {
+            this.commitReadEvents();
+        }
+        if (this.statistics.getBytesWritten() > 0 || this.statistics.getRowsWritten() > 0) {
+            this.writeEvent.end();
+            if (this.writeEvent.shouldCommit()) {
+                this.writeEvent.source = this.source;
+                this.writeEvent.rows = this.statistics.getRowsWritten();
+                this.writeEvent.bytes = this.statistics.getBytesWritten();
+                this.writeEvent.commit();
+            }
+        }
+    }
+
+    private void commitReadEvents() {
+        long errors = 0;
+        for (int c = 0; c < this.statistics.getColumnCount(); c++) {
+            errors += this.statistics.getErrorCount(c);
+            ColumnEvent columnEvent = new ColumnEvent();
+            if (columnEvent.isEnabled()) {
+                columnEvent.source = this.source;
+                columnEvent.column = c;
+                columnEvent.cells = this.statistics.getParsedCount(c);
+                columnEvent.parseTime = this.statistics.getParseNanos(c);
+                columnEvent.errors = this.statistics.getErrorCount(c);
+                columnEvent.commit();
+            }
+        }
+        this.readEvent.end();
+        if (this.readEvent.shouldCommit()) {
+            this.readEvent.source = this.source;
+            this.readEvent.rows = this.statistics.getRowsRead();
+            this.readEvent.bytes = this.statistics.getBytesRead();
+            this.readEvent.errors = errors;
+            this.readEvent.commit();
+        }
+    }
+}
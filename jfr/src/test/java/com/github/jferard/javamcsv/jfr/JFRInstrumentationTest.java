@@ -0,0 +1,104 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.jfr;
+
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVReaderBuilder;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.OnError;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JFRInstrumentationTest {
+    @Test
+    public void testEvents()
+            throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException {
+        String csv = "boolean,integer\r\n" +
+                "T,12\r\n" +
+                "X,foo\r\n" +
+                "F,3\r\n";
+        Recording recording = new Recording();
+        recording.enable("com.github.jferard.javamcsv.Read");
+        recording.enable("com.github.jferard.javamcsv.Column");
+        recording.enable("com.github.jferard.javamcsv.CacheAccess");
+        recording.start();
+        JFRInstrumentation instrumentation = new JFRInstrumentation("test.csv");
+        Assert.assertTrue(instrumentation.isColumnTimed());
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(
+                new ByteArrayInputStream(csv.getBytes("UTF-8")))
+                .metaCSVDirectives("data,col/0/type,boolean/T/F", "data,col/1/type,integer")
+                .onError(OnError.NULL).instrumentation(instrumentation).build();
+        for (MetaCSVRecord record : reader) {
+            record.toList();
+        }
+        reader.close();
+        instrumentation.cacheAccess("cache", true);
+        instrumentation.queueDepth("queue", 2);
+        recording.stop();
+
+        File file = File.createTempFile("test", ".jfr");
+        file.deleteOnExit();
+        recording.dump(file.toPath());
+        recording.close();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+        Map<String, Integer> countByName = new HashMap<String, Integer>();
+        for (RecordedEvent event : events) {
+            String name = event.getEventType().getName();
+            Integer count = countByName.get(name);
+            countByName.put(name, count == null ? 1 : count + 1);
+            if (name.equals("com.github.jferard.javamcsv.Read")) {
+                Assert.assertEquals("test.csv", event.getString("source"));
+                Assert.assertEquals(3, event.getLong("rows"));
+                Assert.assertEquals(csv.length(), event.getLong("bytes"));
+                Assert.assertEquals(2, event.getLong("errors"));
+            } else if (name.equals("com.github.jferard.javamcsv.Column")) {
+                Assert.assertEquals(3, event.getLong("cells"));
+                Assert.assertEquals(1, event.getLong("errors"));
+            }
+        }
+        Assert.assertEquals(Integer.valueOf(1),
+                countByName.get("com.github.jferard.javamcsv.Read"));
+        Assert.assertEquals(Integer.valueOf(2),
+                countByName.get("com.github.jferard.javamcsv.Column"));
+        Assert.assertEquals(Integer.valueOf(1),
+                countByName.get("com.github.jferard.javamcsv.CacheAccess"));
+        Assert.assertNull(countByName.get("com.github.jferard.javamcsv.Write"));
+    }
+
+    @Test
+    public void testNotRecording() {
+        Assert.assertFalse(new JFRInstrumentation("test.csv").isColumnTimed());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * Constants of the Arrow IPC format (see Message.fbs and Schema.fbs of the Arrow project).
+ */
+class ArrowFormat {
+    static final int CONTINUATION = 0xFFFFFFFF;
+    static final int METADATA_V4 = 3;
+    static final int METADATA_V5 = 4;
+
+    // MessageHeader
+    static final int HEADER_SCHEMA = 1;
+    static final int HEADER_RECORD_BATCH = 3;
+
+    // Type
+    static final int TYPE_INT = 2;
+    static final int TYPE_FLOATING_POINT = 3;
+    static final int TYPE_UTF8 = 5;
+    static final int TYPE_BOOL = 6;
+    static final int TYPE_DECIMAL = 7;
+    static final int TYPE_DATE = 8;
+    static final int TYPE_TIMESTAMP = 10;
+
+    static final int PRECISION_SINGLE = 1;
+    static final int PRECISION_DOUBLE = 2;
+    static final int DATE_UNIT_DAY = 0;
+    static final int DATE_UNIT_MILLISECOND = 1;
+    static final int TIME_UNIT_SECOND = 0;
+    static final int TIME_UNIT_MILLISECOND = 1;
+    static final int TIME_UNIT_MICROSECOND = 2;
+    static final int DECIMAL_PRECISION = 38;
+    static final int DECIMAL_BIT_WIDTH = 128;
+
+    static final long MILLIS_PER_DAY = 86400000L;
+
+    static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    static int pad8(int length) {
+        return (length + 7) & ~7;
+    }
+}
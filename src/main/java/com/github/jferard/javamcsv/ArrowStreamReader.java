@@ -0,0 +1,416 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a stream in the Arrow IPC streaming format, without dependency, as ColumnBatches. The
+ * Int64, Float64, Date64 and Timestamp(ms) columns are views of the body of the message, the
+ * other columns are converted. Dictionary batches and compressed bodies are not supported.
+ *
+ * Types: Bool is BOOLEAN, Int (signed) is INTEGER, FloatingPoint (single or double) is FLOAT,
+ * Decimal128 is DECIMAL, Date is DATE, Timestamp is DATETIME and Utf8 is TEXT.
+ */
+public class ArrowStreamReader implements Closeable {
+    /**
+     * @param in the stream
+     * @return the reader. The schema is read.
+     * @throws IOException if the stream can't be read or the schema is not supported
+     */
+    public static ArrowStreamReader create(InputStream in) throws IOException {
+        ArrowStreamReader reader = new ArrowStreamReader(new DataInputStream(in));
+        reader.readSchema();
+        return reader;
+    }
+
+    private final DataInputStream in;
+    private final List<String> header;
+    private DataType[] dataTypes;
+    private int[] arrowTypes;
+    private int[] parameters;
+    private int[] scales;
+    private FlatBufferReader metadata;
+    private int headerType;
+    private int messageHeader;
+    private ByteBuffer body;
+
+    private ArrowStreamReader(DataInputStream in) {
+        this.in = in;
+        this.header = new ArrayList<String>();
+    }
+
+    private void readSchema() throws IOException {
+        if (!this.readMessage() || this.headerType != ArrowFormat.HEADER_SCHEMA) {
+            throw new IOException("Schema expected");
+        }
+        FlatBufferReader schema = this.metadata;
+        int table = this.messageHeader;
+        if (schema.getShort(table, 0, 0) != 0) {
+            throw new IOException("Big endian streams are not supported");
+        }
+        int columnCount = schema.getVectorLength(table, 1);
+        this.dataTypes = new DataType[columnCount];
+        this.arrowTypes = new int[columnCount];
+        this.parameters = new int[columnCount];
+        this.scales = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            int field = schema.getTable(table, 1, c);
+            this.header.add(schema.getString(field, 0));
+            if (schema.getOffset(field, 4) != 0) {
+                throw new IOException("Dictionary encoded fields are not supported");
+            }
+            this.readType(c, schema.getByte(field, 2, 0), schema.getOffset(field, 3));
+        }
+    }
+
+    private void readType(int c, int arrowType, int type) throws IOException {
+        FlatBufferReader schema = this.metadata;
+        this.arrowTypes[c] = arrowType;
+        switch (arrowType) {
+            case ArrowFormat.TYPE_BOOL:
+                this.dataTypes[c] = DataType.BOOLEAN;
+                break;
+            case ArrowFormat.TYPE_INT:
+                int bitWidth = schema.getInt(type, 0, 0);
+                if (!schema.getBoolean(type, 1, false) || (bitWidth != 8 && bitWidth != 16 &&
+                        bitWidth != 32 && bitWidth != 64)) {
+                    throw new IOException("Unsupported Int type");
+                }
+                this.dataTypes[c] = DataType.INTEGER;
+                this.parameters[c] = bitWidth;
+                break;
+            case ArrowFormat.TYPE_FLOATING_POINT:
+                int precision = schema.getShort(type, 0, 0);
+                if (precision != ArrowFormat.PRECISION_SINGLE &&
+                        precision != ArrowFormat.PRECISION_DOUBLE) {
+                    throw new IOException("Unsupported FloatingPoint type");
+                }
+                this.dataTypes[c] = DataType.FLOAT;
+                this.parameters[c] = precision;
+                break;
+            case ArrowFormat.TYPE_DECIMAL:
+                if (schema.getInt(type, 2, ArrowFormat.DECIMAL_BIT_WIDTH) !=
+                        ArrowFormat.DECIMAL_BIT_WIDTH) {
+                    throw new IOException("Unsupported Decimal type");
+                }
+                this.dataTypes[c] = DataType.DECIMAL;
+                this.scales[c] = schema.getInt(type, 1, 0);
+                break;
+            case ArrowFormat.TYPE_DATE:
+                this.dataTypes[c] = DataType.DATE;
+                this.parameters[c] = schema.getShort(type, 0, ArrowFormat.DATE_UNIT_MILLISECOND);
+                break;
+            case ArrowFormat.TYPE_TIMESTAMP:
+                this.dataTypes[c] = DataType.DATETIME;
+                this.parameters[c] = schema.getShort(type, 0, 0);
+                break;
+            case ArrowFormat.TYPE_UTF8:
+                this.dataTypes[c] = DataType.TEXT;
+                break;
+            default:
+                throw new IOException("Unsupported Arrow type: " + arrowType);
+        }
+    }
+
+    /**
+     * @return the names of the columns
+     */
+    public List<String> getHeader() {
+        return Collections.unmodifiableList(this.header);
+    }
+
+    /**
+     * @return the types of the columns
+     */
+    public List<DataType> getDataTypes() {
+        return Collections.unmodifiableList(Arrays.asList(this.dataTypes));
+    }
+
+    /**
+     * @return the next batch, or null at the end of the stream.
+     * @throws IOException if the stream can't be read or the message is not supported
+     */
+    public ColumnBatch nextBatch() throws IOException {
+        if (!this.readMessage()) {
+            return null;
+        }
+        if (this.headerType != ArrowFormat.HEADER_RECORD_BATCH) {
+            throw new IOException("Unsupported message: " + this.headerType);
+        }
+        FlatBufferReader recordBatch = this.metadata;
+        int table = this.messageHeader;
+        if (recordBatch.getOffset(table, 3) != 0) {
+            throw new IOException("Compressed bodies are not supported");
+        }
+        int rowCount = (int) recordBatch.getLong(table, 0, 0);
+        int columnCount = this.dataTypes.length;
+        LongBuffer[] nullBits = new LongBuffer[columnCount];
+        LongBuffer[] longValues = new LongBuffer[columnCount];
+        DoubleBuffer[] doubleValues = new DoubleBuffer[columnCount];
+        IntBuffer[] codes = new IntBuffer[columnCount];
+        String[][] dictionaries = new String[columnCount][];
+        int b = 0;
+        for (int c = 0; c < columnCount; c++) {
+            long nullCount = recordBatch.getStructLong(table, 1, 2, c, 1);
+            ByteBuffer validity = this.getBuffer(recordBatch, table, b++);
+            nullBits[c] = LongBuffer.wrap(this.toNullBits(validity, nullCount, rowCount));
+            ByteBuffer values = this.getBuffer(recordBatch, table, b++);
+            switch (this.arrowTypes[c]) {
+                case ArrowFormat.TYPE_BOOL:
+                    long[] booleans = new long[rowCount];
+                    for (int r = 0; r < rowCount; r++) {
+                        booleans[r] = (values.get(r >>> 3) >>> (r & 7)) & 1;
+                    }
+                    longValues[c] = LongBuffer.wrap(booleans);
+                    break;
+                case ArrowFormat.TYPE_INT:
+                    longValues[c] = this.toLongs(values, this.parameters[c] / 8, 1, rowCount);
+                    break;
+                case ArrowFormat.TYPE_FLOATING_POINT:
+                    if (this.parameters[c] == ArrowFormat.PRECISION_DOUBLE) {
+                        doubleValues[c] = values.asDoubleBuffer();
+                    } else {
+                        double[] doubles = new double[rowCount];
+                        for (int r = 0; r < rowCount; r++) {
+                            doubles[r] = values.getFloat(4 * r);
+                        }
+                        doubleValues[c] = DoubleBuffer.wrap(doubles);
+                    }
+                    break;
+                case ArrowFormat.TYPE_DATE:
+                    if (this.parameters[c] == ArrowFormat.DATE_UNIT_DAY) {
+                        longValues[c] = this.toLongs(values, 4, ArrowFormat.MILLIS_PER_DAY,
+                                rowCount);
+                    } else {
+                        longValues[c] = values.asLongBuffer();
+                    }
+                    break;
+                case ArrowFormat.TYPE_TIMESTAMP:
+                    longValues[c] = this.toMillis(values, this.parameters[c], rowCount);
+                    break;
+                case ArrowFormat.TYPE_DECIMAL:
+                    this.readDecimals(values, this.scales[c], rowCount, nullBits[c], c, codes,
+                            dictionaries);
+                    break;
+                default:
+                    ByteBuffer data = this.getBuffer(recordBatch, table, b++);
+                    this.readUtf8(values, data, rowCount, nullBits[c], c, codes, dictionaries);
+                    break;
+            }
+        }
+        return new ColumnBatch(this.dataTypes, rowCount, nullBits, longValues, doubleValues,
+                codes, dictionaries);
+    }
+
+    private ByteBuffer getBuffer(FlatBufferReader recordBatch, int table, int b) {
+        int offset = (int) recordBatch.getStructLong(table, 2, 2, b, 0);
+        int length = (int) recordBatch.getStructLong(table, 2, 2, b, 1);
+        ByteBuffer buffer = this.body.duplicate();
+        buffer.position(offset);
+        buffer.limit(offset + length);
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private long[] toNullBits(ByteBuffer validity, long nullCount, int rowCount) {
+        int words = (rowCount + 63) / 64;
+        long[] nullBits = new long[words];
+        if (nullCount == 0 || validity.limit() == 0) {
+            return nullBits;
+        }
+        for (int w = 0; w < words; w++) {
+            long valid = 0;
+            for (int i = 0; i < 8 && 8 * w + i < validity.limit(); i++) {
+                valid |= (validity.get(8 * w + i) & 0xFFL) << (8 * i);
+            }
+            int remaining = rowCount - 64 * w;
+            nullBits[w] = ~valid & (remaining < 64 ? (1L << remaining) - 1 : -1L);
+        }
+        return nullBits;
+    }
+
+    private LongBuffer toLongs(ByteBuffer values, int size, long factor, int rowCount) {
+        if (size == 8 && factor == 1) {
+            return values.asLongBuffer();
+        }
+        long[] longs = new long[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            long value;
+            switch (size) {
+                case 1:
+                    value = values.get(r);
+                    break;
+                case 2:
+                    value = values.getShort(2 * r);
+                    break;
+                case 4:
+                    value = values.getInt(4 * r);
+                    break;
+                default:
+                    value = values.getLong(8 * r);
+                    break;
+            }
+            longs[r] = value * factor;
+        }
+        return LongBuffer.wrap(longs);
+    }
+
+    private LongBuffer toMillis(ByteBuffer values, int unit, int rowCount) {
+        if (unit == ArrowFormat.TIME_UNIT_MILLISECOND) {
+            return values.asLongBuffer();
+        } else if (unit == ArrowFormat.TIME_UNIT_SECOND) {
+            return this.toLongs(values, 8, 1000, rowCount);
+        }
+        long divisor = unit == ArrowFormat.TIME_UNIT_MICROSECOND ? 1000L : 1000000L;
+        long[] millis = new long[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            millis[r] = ArrowFormat.floorDiv(values.getLong(8 * r), divisor);
+        }
+        return LongBuffer.wrap(millis);
+    }
+
+    private void readDecimals(ByteBuffer values, int scale, int rowCount, LongBuffer nullBits,
+                              int c, IntBuffer[] codes, String[][] dictionaries) {
+        Map<String, Integer> codeByText = new HashMap<String, Integer>();
+        int[] columnCodes = new int[rowCount];
+        byte[] bigEndian = new byte[16];
+        for (int r = 0; r < rowCount; r++) {
+            if (this.isNull(nullBits, r)) {
+                columnCodes[r] = -1;
+                continue;
+            }
+            for (int i = 0; i < 16; i++) {
+                bigEndian[15 - i] = values.get(16 * r + i);
+            }
+            columnCodes[r] = this.code(codeByText,
+                    new BigDecimal(new BigInteger(bigEndian), scale).toString());
+        }
+        codes[c] = IntBuffer.wrap(columnCodes);
+        dictionaries[c] = this.toDictionary(codeByText);
+    }
+
+    private void readUtf8(ByteBuffer offsets, ByteBuffer data, int rowCount, LongBuffer nullBits,
+                          int c, IntBuffer[] codes, String[][] dictionaries) {
+        Map<String, Integer> codeByText = new HashMap<String, Integer>();
+        int[] columnCodes = new int[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            if (this.isNull(nullBits, r)) {
+                columnCodes[r] = -1;
+                continue;
+            }
+            int start = offsets.getInt(4 * r);
+            byte[] bytes = new byte[offsets.getInt(4 * r + 4) - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = data.get(start + i);
+            }
+            columnCodes[r] = this.code(codeByText, new String(bytes, Util.UTF_8_CHARSET));
+        }
+        codes[c] = IntBuffer.wrap(columnCodes);
+        dictionaries[c] = this.toDictionary(codeByText);
+    }
+
+    private boolean isNull(LongBuffer nullBits, int r) {
+        return (nullBits.get(r >>> 6) & (1L << r)) != 0;
+    }
+
+    private int code(Map<String, Integer> codeByText, String text) {
+        Integer code = codeByText.get(text);
+        if (code == null) {
+            code = codeByText.size();
+            codeByText.put(text, code);
+        }
+        return code;
+    }
+
+    private String[] toDictionary(Map<String, Integer> codeByText) {
+        String[] dictionary = new String[codeByText.size()];
+        for (Map.Entry<String, Integer> entry : codeByText.entrySet()) {
+            dictionary[entry.getValue()] = entry.getKey();
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return false at the end of the stream.
+     */
+    private boolean readMessage() throws IOException {
+        int length;
+        try {
+            length = this.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (length == ArrowFormat.CONTINUATION) {
+            length = this.readInt();
+        }
+        if (length == 0) {
+            return false;
+        }
+        byte[] metadataBytes = new byte[length];
+        this.in.readFully(metadataBytes);
+        this.metadata = new FlatBufferReader(
+                ByteBuffer.wrap(metadataBytes).order(ByteOrder.LITTLE_ENDIAN));
+        int message = this.metadata.getRoot();
+        int version = this.metadata.getShort(message, 0, 0);
+        if (version != ArrowFormat.METADATA_V4 && version != ArrowFormat.METADATA_V5) {
+            throw new IOException("Unsupported metadata version: " + version);
+        }
+        this.headerType = this.metadata.getByte(message, 1, 0);
+        this.messageHeader = this.metadata.getOffset(message, 2);
+        byte[] bodyBytes = new byte[(int) this.metadata.getLong(message, 3, 0)];
+        this.in.readFully(bodyBytes);
+        this.body = ByteBuffer.wrap(bodyBytes).order(ByteOrder.LITTLE_ENDIAN);
+        return true;
+    }
+
+    private int readInt() throws IOException {
+        int b0 = this.in.read();
+        if (b0 == -1) {
+            throw new EOFException();
+        }
+        int b1 = this.in.readUnsignedByte();
+        int b2 = this.in.readUnsignedByte();
+        int b3 = this.in.readUnsignedByte();
+        return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
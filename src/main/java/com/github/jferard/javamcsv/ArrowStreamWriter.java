@@ -0,0 +1,388 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes ColumnBatches in the Arrow IPC streaming format, without dependency: a Schema message,
+ * a RecordBatch message per batch and an end-of-stream marker.
+ *
+ * Types: BOOLEAN is Bool, INTEGER and CURRENCY_INTEGER are Int64, FLOAT and PERCENTAGE_FLOAT
+ * are Float64, DECIMAL, CURRENCY_DECIMAL and PERCENTAGE_DECIMAL are Decimal128 (precision 38,
+ * fixed scale), DATE is Date32, DATETIME is Timestamp(ms, "UTC"), TEXT and OBJECT are Utf8.
+ */
+public class ArrowStreamWriter implements Closeable {
+    public static final int DEFAULT_DECIMAL_SCALE = 10;
+    private static final BigInteger MAX_UNSCALED = BigInteger.TEN.pow(
+            ArrowFormat.DECIMAL_PRECISION);
+
+    /**
+     * Write all the batches of a reader to a stream. The reader and the stream are closed.
+     *
+     * @param reader the reader
+     * @param out    the stream
+     * @throws IOException if the file can't be read or the stream can't be written
+     */
+    public static void export(MetaCSVColumnReader reader, OutputStream out) throws IOException {
+        try {
+            ArrowStreamWriter writer = create(out, reader.getHeader(), reader.getDataTypes());
+            ColumnBatch batch = reader.nextBatch();
+            while (batch != null) {
+                writer.writeBatch(batch);
+                batch = reader.nextBatch();
+            }
+            writer.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    public static ArrowStreamWriter create(OutputStream out, List<String> header,
+                                           List<DataType> dataTypes) throws IOException {
+        return create(out, header, dataTypes, DEFAULT_DECIMAL_SCALE);
+    }
+
+    /**
+     * @param out          the stream
+     * @param header       the names of the columns
+     * @param dataTypes    the types of the columns
+     * @param decimalScale the scale of the Decimal128 columns
+     * @return the writer. The schema is written.
+     * @throws IOException if the stream can't be written
+     */
+    public static ArrowStreamWriter create(OutputStream out, List<String> header,
+                                           List<DataType> dataTypes, int decimalScale)
+            throws IOException {
+        ArrowStreamWriter writer = new ArrowStreamWriter(out,
+                dataTypes.toArray(new DataType[0]), decimalScale);
+        writer.writeSchema(header);
+        return writer;
+    }
+
+    private final OutputStream out;
+    private final DataType[] dataTypes;
+    private final int decimalScale;
+    private ByteBuffer body;
+    private long[] buffers;
+    private int bufferCount;
+
+    private ArrowStreamWriter(OutputStream out, DataType[] dataTypes, int decimalScale) {
+        this.out = out;
+        this.dataTypes = dataTypes;
+        this.decimalScale = decimalScale;
+        this.body = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffers = new long[16];
+    }
+
+    private void writeSchema(List<String> header) throws IOException {
+        List<FlatBufferWriter.Table> fields = new ArrayList<FlatBufferWriter.Table>();
+        for (int c = 0; c < this.dataTypes.length; c++) {
+            FlatBufferWriter.Table field = new FlatBufferWriter.Table()
+                    .addOffset(0, header.get(c))
+                    .addBoolean(1, true)
+                    .addOffset(5, new FlatBufferWriter.TableVector(
+                            new ArrayList<FlatBufferWriter.Table>()));
+            this.addType(field, this.dataTypes[c]);
+            fields.add(field);
+        }
+        FlatBufferWriter.Table schema = new FlatBufferWriter.Table()
+                .addShort(0, 0) // little endian
+                .addOffset(1, new FlatBufferWriter.TableVector(fields));
+        this.writeMessage(ArrowFormat.HEADER_SCHEMA, schema, 0);
+    }
+
+    private void addType(FlatBufferWriter.Table field, DataType dataType) {
+        FlatBufferWriter.Table type = new FlatBufferWriter.Table();
+        int typeId;
+        switch (dataType) {
+            case BOOLEAN:
+                typeId = ArrowFormat.TYPE_BOOL;
+                break;
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                typeId = ArrowFormat.TYPE_INT;
+                type.addInt(0, 64).addBoolean(1, true);
+                break;
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                typeId = ArrowFormat.TYPE_FLOATING_POINT;
+                type.addShort(0, ArrowFormat.PRECISION_DOUBLE);
+                break;
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                typeId = ArrowFormat.TYPE_DECIMAL;
+                type.addInt(0, ArrowFormat.DECIMAL_PRECISION).addInt(1, this.decimalScale)
+                        .addInt(2, ArrowFormat.DECIMAL_BIT_WIDTH);
+                break;
+            case DATE:
+                typeId = ArrowFormat.TYPE_DATE;
+                type.addShort(0, ArrowFormat.DATE_UNIT_DAY);
+                break;
+            case DATETIME:
+                typeId = ArrowFormat.TYPE_TIMESTAMP;
+                type.addShort(0, ArrowFormat.TIME_UNIT_MILLISECOND).addOffset(1, "UTC");
+                break;
+            default:
+                typeId = ArrowFormat.TYPE_UTF8;
+                break;
+        }
+        field.addByte(2, typeId).addOffset(3, type);
+    }
+
+    /**
+     * @param batch the batch, with the columns of the schema
+     * @throws IOException if the stream can't be written or a decimal does not fit the
+     *                     Decimal128 type
+     */
+    public void writeBatch(ColumnBatch batch) throws IOException {
+        if (batch.getColumnCount() != this.dataTypes.length) {
+            throw new IOException("Expected " + this.dataTypes.length + " columns, got " +
+                    batch.getColumnCount());
+        }
+        int rowCount = batch.getRowCount();
+        this.body.clear();
+        this.bufferCount = 0;
+        long[] nodes = new long[2 * this.dataTypes.length];
+        for (int c = 0; c < this.dataTypes.length; c++) {
+            nodes[2 * c] = rowCount;
+            nodes[2 * c + 1] = this.writeValidity(batch, c, rowCount);
+            switch (this.dataTypes[c]) {
+                case BOOLEAN:
+                    this.writeBits(batch.getLongValues(c), rowCount);
+                    break;
+                case CURRENCY_INTEGER:
+                case DATETIME:
+                case INTEGER:
+                    this.writeLongs(batch.getLongValues(c), rowCount);
+                    break;
+                case DATE:
+                    this.writeDays(batch.getLongValues(c), rowCount);
+                    break;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    this.writeDoubles(batch.getDoubleValues(c), rowCount);
+                    break;
+                case CURRENCY_DECIMAL:
+                case DECIMAL:
+                case PERCENTAGE_DECIMAL:
+                    this.writeDecimals(batch.getDictionary(c), batch.getCodes(c), rowCount);
+                    break;
+                default:
+                    this.writeUtf8(batch.getDictionary(c), batch.getCodes(c), rowCount);
+                    break;
+            }
+        }
+        FlatBufferWriter.Table recordBatch = new FlatBufferWriter.Table()
+                .addLong(0, rowCount)
+                .addOffset(1, new FlatBufferWriter.StructVector(2, nodes))
+                .addOffset(2, new FlatBufferWriter.StructVector(2,
+                        Arrays.copyOf(this.buffers, 2 * this.bufferCount)));
+        this.writeMessage(ArrowFormat.HEADER_RECORD_BATCH, recordBatch, this.body.position());
+        this.out.write(this.body.array(), 0, this.body.position());
+    }
+
+    private long writeValidity(ColumnBatch batch, int c, int rowCount) {
+        LongBuffer nullBits = batch.getNullBits(c);
+        int byteCount = (rowCount + 7) / 8;
+        this.startBuffer(byteCount);
+        long nullCount = 0;
+        for (int i = 0; i < byteCount; i += 8) {
+            int remaining = rowCount - 8 * i;
+            long mask = remaining < 64 ? (1L << remaining) - 1 : -1L;
+            long nulls = nullBits.get(i / 8) & mask;
+            nullCount += Long.bitCount(nulls);
+            long valid = ~nulls & mask;
+            for (int j = i; j < Math.min(i + 8, byteCount); j++) {
+                this.body.put((byte) (valid >>> (8 * (j - i))));
+            }
+        }
+        this.endBuffer();
+        return nullCount;
+    }
+
+    private void writeBits(LongBuffer values, int rowCount) {
+        int byteCount = (rowCount + 7) / 8;
+        this.startBuffer(byteCount);
+        for (int i = 0; i < byteCount; i++) {
+            int b = 0;
+            for (int r = 8 * i; r < Math.min(8 * i + 8, rowCount); r++) {
+                if (values.get(r) != 0) {
+                    b |= 1 << (r & 7);
+                }
+            }
+            this.body.put((byte) b);
+        }
+        this.endBuffer();
+    }
+
+    private void writeLongs(LongBuffer values, int rowCount) {
+        this.startBuffer(8 * rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            this.body.putLong(values.get(r));
+        }
+        this.endBuffer();
+    }
+
+    private void writeDays(LongBuffer values, int rowCount) {
+        this.startBuffer(4 * rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            this.body.putInt((int) ArrowFormat.floorDiv(values.get(r),
+                    ArrowFormat.MILLIS_PER_DAY));
+        }
+        this.endBuffer();
+    }
+
+    private void writeDoubles(DoubleBuffer values, int rowCount) {
+        this.startBuffer(8 * rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            this.body.putDouble(values.get(r));
+        }
+        this.endBuffer();
+    }
+
+    private void writeDecimals(String[] dictionary, IntBuffer codes, int rowCount)
+            throws IOException {
+        byte[][] entries = new byte[dictionary.length][];
+        for (int i = 0; i < dictionary.length; i++) {
+            entries[i] = this.toDecimal128(dictionary[i]);
+        }
+        byte[] zero = new byte[16];
+        this.startBuffer(16 * rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            int code = codes.get(r);
+            this.body.put(code == -1 ? zero : entries[code]);
+        }
+        this.endBuffer();
+    }
+
+    private byte[] toDecimal128(String text) throws IOException {
+        BigInteger unscaled;
+        try {
+            unscaled = new BigDecimal(text).setScale(this.decimalScale).unscaledValue();
+        } catch (ArithmeticException e) {
+            unscaled = null;
+        }
+        if (unscaled == null || unscaled.abs().compareTo(MAX_UNSCALED) >= 0) {
+            throw new IOException("Decimal " + text + " does not fit in Decimal128(" +
+                    ArrowFormat.DECIMAL_PRECISION + ", " + this.decimalScale + ")");
+        }
+        byte[] bigEndian = unscaled.toByteArray();
+        byte[] littleEndian = new byte[16];
+        Arrays.fill(littleEndian, (byte) (unscaled.signum() < 0 ? -1 : 0));
+        for (int i = 0; i < bigEndian.length; i++) {
+            littleEndian[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        return littleEndian;
+    }
+
+    private void writeUtf8(String[] dictionary, IntBuffer codes, int rowCount) {
+        byte[][] entries = new byte[dictionary.length][];
+        for (int i = 0; i < dictionary.length; i++) {
+            entries[i] = dictionary[i].getBytes(Util.UTF_8_CHARSET);
+        }
+        this.startBuffer(4 * (rowCount + 1));
+        int offset = 0;
+        this.body.putInt(offset);
+        for (int r = 0; r < rowCount; r++) {
+            int code = codes.get(r);
+            if (code != -1) {
+                offset += entries[code].length;
+            }
+            this.body.putInt(offset);
+        }
+        this.endBuffer();
+        this.startBuffer(offset);
+        for (int r = 0; r < rowCount; r++) {
+            int code = codes.get(r);
+            if (code != -1) {
+                this.body.put(entries[code]);
+            }
+        }
+        this.endBuffer();
+    }
+
+    private void startBuffer(int length) {
+        int needed = this.body.position() + ArrowFormat.pad8(length);
+        if (needed > this.body.capacity()) {
+            ByteBuffer newBody = ByteBuffer.allocate(Math.max(needed, 2 * this.body.capacity()))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.body.flip();
+            newBody.put(this.body);
+            this.body = newBody;
+        }
+        if (2 * this.bufferCount + 2 > this.buffers.length) {
+            this.buffers = Arrays.copyOf(this.buffers, 2 * this.buffers.length);
+        }
+        this.buffers[2 * this.bufferCount] = this.body.position();
+    }
+
+    private void endBuffer() {
+        int start = (int) this.buffers[2 * this.bufferCount];
+        this.buffers[2 * this.bufferCount + 1] = this.body.position() - start;
+        this.bufferCount++;
+        while (this.body.position() % 8 != 0) {
+            this.body.put((byte) 0);
+        }
+    }
+
+    private void writeMessage(int headerType, FlatBufferWriter.Table header, long bodyLength)
+            throws IOException {
+        FlatBufferWriter.Table message = new FlatBufferWriter.Table()
+                .addShort(0, ArrowFormat.METADATA_V5)
+                .addByte(1, headerType)
+                .addOffset(2, header)
+                .addLong(3, bodyLength);
+        byte[] metadata = FlatBufferWriter.toBytes(message);
+        this.writePrefix(metadata.length);
+        this.out.write(metadata);
+    }
+
+    private void writePrefix(int metadataLength) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        prefix.putInt(ArrowFormat.CONTINUATION).putInt(metadataLength);
+        this.out.write(prefix.array());
+    }
+
+    /**
+     * Write the end-of-stream marker and close the stream.
+     *
+     * @throws IOException if the stream can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.writePrefix(0);
+        this.out.close();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A record-aligned byte range of a CSV file.
+ */
+public class CSVChunk {
+    private final int index;
+    private final long start;
+    private final long end;
+
+    public CSVChunk(int index, long start, long end) {
+        this.index = index;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the index of the chunk in the file. The chunk 0 contains the header.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return the offset of the first byte
+     */
+    public long getStart() {
+        return this.start;
+    }
+
+    /**
+     * @return the offset after the last byte
+     */
+    public long getEnd() {
+        return this.end;
+    }
+
+    public long getLength() {
+        return this.end - this.start;
+    }
+
+    /**
+     * @param file the CSV file
+     * @return a stream on the bytes of the chunk
+     * @throws IOException if the file can't be opened
+     */
+    public InputStream openInputStream(File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        in.getChannel().position(this.start);
+        return new InputStream() {
+            private long remaining = CSVChunk.this.getLength();
+
+            @Override
+            public int read() throws IOException {
+                if (this.remaining <= 0) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b != -1) {
+                    this.remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (this.remaining <= 0) {
+                    return -1;
+                }
+                int count = in.read(b, off, (int) Math.min(len, this.remaining));
+                if (count > 0) {
+                    this.remaining -= count;
+                }
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "CSVChunk{index=" + this.index + ", start=" + this.start + ", end=" + this.end +
+                "}";
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a CSV file into record-aligned chunks at the byte level, without decoding the file.
+ *
+ * The file is cut into raw ranges that are scanned in parallel. Since the state of the lexer at
+ * the beginning of a range is unknown, the scan runs the quote/escape state machine from every
+ * possible state at once (the hypotheses merge quickly) and records, for each starting state,
+ * the first record boundary and the final state. A sequential pass then picks the real states
+ * and boundaries.
+ *
+ * This is only possible if the delimiter, quote, escape and line break characters are encoded
+ * as single bytes that never appear inside another character: see {@link #isSplittable()}.
+ */
+public class CSVChunker {
+    public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    static final int RECORD_START = 0;
+    static final int FIELD_START = 1;
+    static final int UNQUOTED = 2;
+    static final int QUOTED = 3;
+    static final int QUOTED_QUOTE = 4;
+    static final int ESCAPED_UNQUOTED = 5;
+    static final int ESCAPED_QUOTED = 6;
+    static final int CR = 7;
+    private static final int STATE_COUNT = 8;
+    static final int STATE_MASK = 0xF;
+    static final int END_AFTER = 0x10;
+    static final int END_BEFORE = 0x20;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @param data the data
+     * @return a chunker for the file described by data
+     */
+    public static CSVChunker create(MetaCSVData data) {
+        return new CSVChunker(data, data.getEncoding(), data.isUtf8BOM());
+    }
+
+    /**
+     * @param charset the charset
+     * @return true if the ASCII chars are single bytes that can't be part of another char.
+     */
+    public static boolean isByteAligned(Charset charset) {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") ||
+                name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+    }
+
+    private final int delimiter;
+    private final int quote;
+    private final int escape;
+    private final boolean skipSpaces;
+    private final int bomLength;
+    private final boolean splittable;
+
+    public CSVChunker(CSVParameters parameters, Charset charset, boolean utf8BOM) {
+        this.delimiter = parameters.getDelimiter();
+        char quoteChar = parameters.getQuoteChar();
+        this.quote = quoteChar == '\0' ? -1 : quoteChar;
+        char escapeChar = parameters.getEscapeChar();
+        if (parameters.isDoubleQuote() || escapeChar == '\0' || escapeChar == '"') {
+            this.escape = -1;
+        } else {
+            this.escape = escapeChar;
+        }
+        this.skipSpaces = parameters.isSkipInitialSpace();
+        this.bomLength = utf8BOM ? 3 : 0;
+        this.splittable = isByteAligned(charset) && this.delimiter < 0x80 &&
+                this.quote < 0x80 && this.escape < 0x80;
+    }
+
+    /**
+     * @return true if the file may be split in more than one chunk.
+     */
+    public boolean isSplittable() {
+        return this.splittable;
+    }
+
+    /**
+     * @return the length of the BOM, skipped by the first chunk.
+     */
+    public int getBOMLength() {
+        return this.bomLength;
+    }
+
+    /**
+     * @param file      the CSV file
+     * @param chunkSize the approximate size of a chunk
+     * @param executor  the executor for the scans
+     * @return the chunks, in file order. The first one starts after the BOM.
+     * @throws IOException if the file can't be read
+     */
+    public List<CSVChunk> split(final File file, long chunkSize, ExecutorService executor)
+            throws IOException {
+        long length = file.length();
+        long dataStart = Math.min(this.bomLength, length);
+        List<CSVChunk> chunks = new ArrayList<CSVChunk>();
+        if (!this.splittable || length - dataStart <= chunkSize) {
+            chunks.add(new CSVChunk(0, dataStart, length));
+            return chunks;
+        }
+        List<Future<ScanResult>> futures = new ArrayList<Future<ScanResult>>();
+        for (long start = dataStart; start < length; start += chunkSize) {
+            final long rangeStart = start;
+            final long rangeEnd = Math.min(start + chunkSize, length);
+            futures.add(executor.submit(new Callable<ScanResult>() {
+                @Override
+                public ScanResult call() throws IOException {
+                    return CSVChunker.this.scan(file, rangeStart, rangeEnd);
+                }
+            }));
+        }
+        long chunkStart = dataStart;
+        int state = RECORD_START;
+        for (int i = 0; i < futures.size(); i++) {
+            ScanResult result = get(futures.get(i));
+            if (i > 0) {
+                long boundary = state == RECORD_START ? result.start :
+                        result.firstBoundaryByState[state];
+                if (boundary > chunkStart && boundary < length) {
+                    chunks.add(new CSVChunk(chunks.size(), chunkStart, boundary));
+                    chunkStart = boundary;
+                }
+            }
+            state = result.endStateByState[state];
+        }
+        chunks.add(new CSVChunk(chunks.size(), chunkStart, length));
+        return chunks;
+    }
+
+    private static ScanResult get(Future<ScanResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Scan a range for every hypothesis on the starting state.
+     *
+     * @param file  the file
+     * @param start the start of the range
+     * @param end   the end of the range
+     * @return the result
+     * @throws IOException if the file can't be read
+     */
+    ScanResult scan(File file, long start, long end) throws IOException {
+        ScanResult result = new ScanResult(start);
+        int[] slotStates = new int[STATE_COUNT];
+        int[] slotMasks = new int[STATE_COUNT];
+        for (int s = 0; s < STATE_COUNT; s++) {
+            slotStates[s] = s;
+            slotMasks[s] = 1 << s;
+        }
+        int slotCount = STATE_COUNT;
+        int pending = (1 << STATE_COUNT) - 1;
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            channel.position(start);
+            byte[] bytes = new byte[BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long position = start;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int count = channel.read(buffer);
+                if (count <= 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    int b = bytes[i] & 0xFF;
+                    for (int s = 0; s < slotCount; s++) {
+                        int r = this.next(slotStates[s], b);
+                        if (r > STATE_MASK && (slotMasks[s] & pending) != 0) {
+                            long boundary = (r & END_BEFORE) != 0 ? position + i :
+                                    position + i + 1;
+                            pending = result.setBoundaries(slotMasks[s] & pending, boundary,
+                                    pending);
+                        }
+                        slotStates[s] = r & STATE_MASK;
+                    }
+                    if (slotCount > 1) {
+                        slotCount = merge(slotStates, slotMasks, slotCount);
+                    }
+                }
+                position += count;
+            }
+        } finally {
+            in.close();
+        }
+        for (int s = 0; s < slotCount; s++) {
+            for (int h = 0; h < STATE_COUNT; h++) {
+                if ((slotMasks[s] & (1 << h)) != 0) {
+                    result.endStateByState[h] = slotStates[s];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int merge(int[] slotStates, int[] slotMasks, int slotCount) {
+        for (int s = 0; s < slotCount; s++) {
+            for (int t = s + 1; t < slotCount; t++) {
+                if (slotStates[s] == slotStates[t]) {
+                    slotMasks[s] |= slotMasks[t];
+                    slotCount--;
+                    slotStates[t] = slotStates[slotCount];
+                    slotMasks[t] = slotMasks[slotCount];
+                    t--;
+                }
+            }
+        }
+        return slotCount;
+    }
+
+    /**
+     * @param state the current state
+     * @param b     the byte
+     * @return the next state, with the END_AFTER flag if a record ends after the byte and the
+     * END_BEFORE flag if a record ended before the byte.
+     */
+    int next(int state, int b) {
+        switch (state) {
+            case RECORD_START:
+            case FIELD_START:
+                if (b == '\n') {
+                    return RECORD_START | END_AFTER;
+                } else if (b == '\r') {
+                    return CR;
+                } else if (b == this.quote) {
+                    return QUOTED;
+                } else if (b == this.escape) {
+                    return ESCAPED_UNQUOTED;
+                } else if (b == this.delimiter) {
+                    return FIELD_START;
+                } else if (b == ' ' && this.skipSpaces) {
+                    return state;
+                } else {
+                    return UNQUOTED;
+                }
+            case UNQUOTED:
+                if (b == '\n') {
+                    return RECORD_START | END_AFTER;
+                } else if (b == '\r') {
+                    return CR;
+                } else if (b == this.escape) {
+                    return ESCAPED_UNQUOTED;
+                } else if (b == this.delimiter) {
+                    return FIELD_START;
+                } else {
+                    return UNQUOTED;
+                }
+            case QUOTED:
+                if (b == this.quote) {
+                    return QUOTED_QUOTE;
+                } else if (b == this.escape) {
+                    return ESCAPED_QUOTED;
+                } else {
+                    return QUOTED;
+                }
+            case QUOTED_QUOTE:
+                if (b == this.quote) {
+                    return QUOTED;
+                } else if (b == '\n') {
+                    return RECORD_START | END_AFTER;
+                } else if (b == '\r') {
+                    return CR;
+                } else if (b == this.delimiter) {
+                    return FIELD_START;
+                } else {
+                    return UNQUOTED;
+                }
+            case ESCAPED_UNQUOTED:
+                return UNQUOTED;
+            case ESCAPED_QUOTED:
+                return QUOTED;
+            default: // CR
+                if (b == '\n') {
+                    return RECORD_START | END_AFTER;
+                } else {
+                    return this.next(RECORD_START, b) | END_BEFORE;
+                }
+        }
+    }
+
+    /**
+     * The result of a scan: for each starting state, the first boundary and the end state.
+     */
+    static class ScanResult {
+        final long start;
+        final long[] firstBoundaryByState;
+        final int[] endStateByState;
+
+        ScanResult(long start) {
+            this.start = start;
+            this.firstBoundaryByState = new long[STATE_COUNT];
+            for (int h = 0; h < STATE_COUNT; h++) {
+                this.firstBoundaryByState[h] = -1;
+            }
+            this.endStateByState = new int[STATE_COUNT];
+        }
+
+        int setBoundaries(int mask, long boundary, int pending) {
+            for (int h = 0; h < STATE_COUNT; h++) {
+                if ((mask & (1 << h)) != 0) {
+                    this.firstBoundaryByState[h] = boundary;
+                }
+            }
+            return pending & ~mask;
+        }
+    }
+}
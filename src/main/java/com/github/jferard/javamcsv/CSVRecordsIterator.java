@@ -51,11 +51,37 @@ public class CSVRecordsIterator implements Iterator<MetaCSVRecord> {
     }, OnError.TEXT, Util.UTC_TIME_ZONE);
     private final Iterator<CSVRecord> csvIterator;
     private final CSVRecordProcessor processor;
+    private final MetaCSVInstrumentation instrumentation;
+    private final ColumnStatistics statistics;
     private boolean first;
 
     public CSVRecordsIterator(Iterator<CSVRecord> csvIterator, CSVRecordProcessor processor) {
+        this(csvIterator, processor, null);
+    }
+
+    /**
+     * @param csvIterator     the CSV records
+     * @param processor       the processor
+     * @param instrumentation the instrumentation, may be null
+     */
+    public CSVRecordsIterator(Iterator<CSVRecord> csvIterator, CSVRecordProcessor processor,
+                              MetaCSVInstrumentation instrumentation) {
+        this(csvIterator, processor, instrumentation, null);
+    }
+
+    /**
+     * @param csvIterator     the CSV records
+     * @param processor       the processor
+     * @param instrumentation the instrumentation, may be null
+     * @param statistics      the statistics of the data records, may be null
+     */
+    public CSVRecordsIterator(Iterator<CSVRecord> csvIterator, CSVRecordProcessor processor,
+                              MetaCSVInstrumentation instrumentation,
+                              ColumnStatistics statistics) {
         this.csvIterator = csvIterator;
         this.processor = processor;
+        this.instrumentation = instrumentation;
+        this.statistics = statistics;
         this.first = true;
     }
 
@@ -71,6 +97,12 @@ public class CSVRecordsIterator implements Iterator<MetaCSVRecord> {
             this.first = false;
             return HEADER_PROCESSOR.createRecord(record);
         }
+        if (this.instrumentation != null) {
+            this.instrumentation.rowRead();
+        }
+        if (this.statistics != null) {
+            this.statistics.addRecord(record);
+        }
         return processor.createRecord(record);
     }
 
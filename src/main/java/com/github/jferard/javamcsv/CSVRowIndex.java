@@ -0,0 +1,331 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * The byte offsets of the records of a CSV file (the header is the record 0). The empty lines
+ * are skipped, as the reader does. The index is built lazily, by scanning the bytes with the
+ * state machine of the CSVChunker, or while the file is read (see {@link #openIndexingStream()}),
+ * or loaded from a sidecar file. The sidecar file is valid for a length, a last modification
+ * and a hash of the MetaCSV data.
+ */
+public class CSVRowIndex {
+    private static final long MAGIC = 0x4D435356494458L; // "MCSVIDX"
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * @param data    the data
+     * @param csvFile the CSV file
+     * @return an empty index
+     * @throws IOException if the charset is not byte aligned.
+     */
+    public static CSVRowIndex create(MetaCSVData data, File csvFile) throws IOException {
+        CSVChunker chunker = CSVChunker.create(data);
+        if (!chunker.isSplittable()) {
+            throw new IOException("Can't index a file in " + data.getEncoding());
+        }
+        return new CSVRowIndex(chunker, csvFile, ColumnCacheWriter.hash(data),
+                new long[INITIAL_CAPACITY], 0, false, chunker.getBOMLength());
+    }
+
+    /**
+     * @param data      the data
+     * @param csvFile   the CSV file
+     * @param indexFile the sidecar file
+     * @return the index of the sidecar file, or an empty index if the sidecar file is missing
+     * or was not written for the current version of the CSV file.
+     * @throws IOException if the sidecar file can't be read.
+     */
+    public static CSVRowIndex load(MetaCSVData data, File csvFile, File indexFile)
+            throws IOException {
+        CSVRowIndex index = create(data, csvFile);
+        if (!indexFile.exists()) {
+            return index;
+        }
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if (in.readLong() != MAGIC || in.readLong() != csvFile.length() ||
+                    in.readLong() != csvFile.lastModified() || in.readLong() != index.dataHash) {
+                return index;
+            }
+            int count = in.readInt();
+            long[] offsets = new long[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new CSVRowIndex(index.chunker, csvFile, index.dataHash, offsets, count, true,
+                    csvFile.length());
+        } finally {
+            in.close();
+        }
+    }
+
+    private final CSVChunker chunker;
+    private final File csvFile;
+    private final long dataHash;
+    private long[] offsets;
+    private int count;
+    private boolean complete;
+    private long position;
+    private int state;
+    private long recordStart;
+    private boolean recordContent;
+
+    private CSVRowIndex(CSVChunker chunker, File csvFile, long dataHash, long[] offsets,
+                        int count, boolean complete, long position) {
+        this.chunker = chunker;
+        this.csvFile = csvFile;
+        this.dataHash = dataHash;
+        this.offsets = offsets;
+        this.count = count;
+        this.complete = complete;
+        this.position = position;
+        this.state = CSVChunker.RECORD_START;
+        this.recordStart = position;
+        this.recordContent = false;
+    }
+
+    /**
+     * Index the file until the record is found.
+     *
+     * @param record the record index (0 is the header)
+     * @return true if the record exists
+     * @throws IOException if the file can't be read
+     */
+    public boolean ensure(int record) throws IOException {
+        if (record < this.count) {
+            return true;
+        }
+        if (this.complete) {
+            return false;
+        }
+        RandomAccessFile file = new RandomAccessFile(this.csvFile, "r");
+        try {
+            file.seek(this.position);
+            byte[] bytes = new byte[CSVChunker.BUFFER_SIZE];
+            while (record >= this.count) {
+                int n = file.read(bytes);
+                if (n <= 0) {
+                    this.endOfFile();
+                    return record < this.count;
+                }
+                this.scan(bytes, 0, n);
+            }
+            return true;
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Open the CSV file after the BOM and index the records while the file is read, e.g. by a
+     * parser: the offset of a record is known once its last byte was read. The index must not
+     * be extended by other means while the stream is open.
+     *
+     * @return a stream that indexes the bytes it reads
+     * @throws IOException if the file can't be opened
+     * @throws IllegalStateException if the index is not empty
+     */
+    public InputStream openIndexingStream() throws IOException {
+        if (!this.isEmpty()) {
+            throw new IllegalStateException("The index is not empty");
+        }
+        return this.indexing(this.openInputStream(this.position));
+    }
+
+    /**
+     * @param record the record index (0 is the header)
+     * @return a stream on the CSV file, from the first byte of the record
+     * @throws IOException if the file can't be read
+     * @throws IndexOutOfBoundsException if the record does not exist
+     */
+    public InputStream openInputStream(int record) throws IOException {
+        return this.openInputStream(this.getOffset(record));
+    }
+
+    private InputStream openInputStream(long offset) throws IOException {
+        FileInputStream in = new FileInputStream(this.csvFile);
+        boolean positioned = false;
+        try {
+            in.getChannel().position(offset);
+            positioned = true;
+        } finally {
+            if (!positioned) {
+                in.close();
+            }
+        }
+        return in;
+    }
+
+    private InputStream indexing(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b == -1) {
+                    CSVRowIndex.this.endOfFile();
+                } else {
+                    CSVRowIndex.this.scan(new byte[]{(byte) b}, 0, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int n = super.read(bytes, offset, length);
+                if (n == -1) {
+                    CSVRowIndex.this.endOfFile();
+                } else {
+                    CSVRowIndex.this.scan(bytes, offset, n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                throw new IOException("Can't skip bytes");
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+
+    private void scan(byte[] bytes, int offset, int n) {
+        for (int i = 0; i < n; i++) {
+            int b = bytes[offset + i] & 0xFF;
+            int r = this.chunker.next(this.state, b);
+            if ((r & CSVChunker.END_BEFORE) != 0) {
+                this.endRecord(this.position + i);
+            }
+            if (b != '\r' && b != '\n') {
+                this.recordContent = true;
+            }
+            if ((r & CSVChunker.END_AFTER) != 0) {
+                this.endRecord(this.position + i + 1);
+            }
+            this.state = r & CSVChunker.STATE_MASK;
+        }
+        this.position += n;
+    }
+
+    private void endOfFile() {
+        if (this.complete) {
+            return;
+        }
+        if (this.recordContent) {
+            this.add(this.recordStart);
+        }
+        this.complete = true;
+    }
+
+    private void endRecord(long end) {
+        if (this.recordContent) {
+            this.add(this.recordStart);
+        }
+        this.recordStart = end;
+        this.recordContent = false;
+    }
+
+    private void add(long offset) {
+        if (this.count == this.offsets.length) {
+            long[] newOffsets = new long[this.offsets.length * 2];
+            System.arraycopy(this.offsets, 0, newOffsets, 0, this.count);
+            this.offsets = newOffsets;
+        }
+        this.offsets[this.count++] = offset;
+    }
+
+    /**
+     * @param record the record index (0 is the header)
+     * @return the offset of the first byte of the record
+     * @throws IOException if the file can't be read
+     * @throws IndexOutOfBoundsException if the record does not exist
+     */
+    public long getOffset(int record) throws IOException {
+        if (!this.ensure(record)) {
+            throw new IndexOutOfBoundsException("No record " + record);
+        }
+        return this.offsets[record];
+    }
+
+    /**
+     * @return the number of records, header included.
+     * @throws IOException if the file can't be read
+     */
+    public int getRecordCount() throws IOException {
+        this.ensure(Integer.MAX_VALUE - 1);
+        return this.count;
+    }
+
+    /**
+     * @return true if nothing was indexed yet.
+     */
+    public boolean isEmpty() {
+        return this.count == 0 && !this.complete;
+    }
+
+    /**
+     * @return true if the whole file was indexed.
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * Write the index to a sidecar file. The file is indexed first if needed.
+     *
+     * @param indexFile the sidecar file
+     * @throws IOException if a file can't be read or written
+     */
+    public void save(File indexFile) throws IOException {
+        this.getRecordCount();
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            out.writeLong(MAGIC);
+            out.writeLong(this.csvFile.length());
+            out.writeLong(this.csvFile.lastModified());
+            out.writeLong(this.dataHash);
+            out.writeInt(this.count);
+            for (int i = 0; i < this.count; i++) {
+                out.writeLong(this.offsets[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,614 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A zone map of a CSV file: the file is cut in blocks of K data rows, and the zone map stores,
+ * for every block, its byte offset and the min and max of every ordered column (integers,
+ * floats, decimals, dates, datetimes and texts). A read filtered on a range of values of a
+ * column skips the blocks that can't match: see {@link #getChunks(int, Object, Object)} and
+ * {@link MetaCSVReaderBuilder#range(CSVZoneMap, int, Object, Object)}.
+ *
+ * The zone map is built by the writer (see {@link MetaCSVWriterBuilder#zoneMap(int)}) or by a
+ * pass over an existing file (see {@link #build(MetaCSVData, File, int)}), and stored in a
+ * sidecar file (".mcsvz"). The null values and the values that can't be read never match.
+ */
+public class CSVZoneMap {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final long MAGIC = 0x4D4353565A4F4EL; // "MCSVZON"
+    private static final int VERSION = 1;
+    private static final byte NO_VALUE = 0;
+    private static final byte RANGE = 1;
+    private static final byte UNKNOWN = 2;
+    // writeUTF is limited to 65535 bytes
+    private static final int MAX_TEXT_LENGTH = 65535 / 3;
+
+    /**
+     * Build the zone map of an existing file.
+     *
+     * @param data      the data
+     * @param csvFile   the CSV file
+     * @param blockSize the number of data rows of a block
+     * @return the zone map
+     * @throws IOException if the file can't be read, or the charset is not byte aligned.
+     */
+    public static CSVZoneMap build(MetaCSVData data, File csvFile, int blockSize)
+            throws IOException {
+        CSVRowIndex index = CSVRowIndex.create(data, csvFile);
+        CSVZoneMap zoneMap = new CSVZoneMap(data, blockSize);
+        // one pass: the records are indexed while they are parsed
+        InputStream in = index.openIndexingStream();
+        try {
+            CSVFormat format = CSVFormatHelper.getCSVFormat(data);
+            CSVParser parser = format.parse(new InputStreamReader(
+                    new BufferedInputStream(in, CSVChunker.BUFFER_SIZE),
+                    data.getEncoding()));
+            int record = 0;
+            for (CSVRecord csvRecord : parser) {
+                if (record > 0) {
+                    if (zoneMap.isBlockFull()) {
+                        zoneMap.startBlock(index.getOffset(record));
+                    }
+                    zoneMap.addRecord(csvRecord);
+                }
+                record++;
+            }
+        } finally {
+            in.close();
+        }
+        zoneMap.finish(csvFile.length());
+        return zoneMap;
+    }
+
+    /**
+     * @param data        the data
+     * @param csvFile     the CSV file
+     * @param zoneMapFile the sidecar file
+     * @return the zone map of the sidecar file, or null if the sidecar file is missing or was
+     * not written for the current version of the CSV file and the current column types.
+     * @throws IOException if the sidecar file can't be read.
+     */
+    public static CSVZoneMap load(MetaCSVData data, File csvFile, File zoneMapFile)
+            throws IOException {
+        if (!zoneMapFile.exists()) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(zoneMapFile)));
+        try {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION ||
+                    in.readLong() != csvFile.length() ||
+                    in.readLong() != csvFile.lastModified()) {
+                return null;
+            }
+            int blockSize = in.readInt();
+            long dataStart = in.readLong();
+            long dataEnd = in.readLong();
+            int columnCount = in.readInt();
+            DataType[] dataTypes = new DataType[columnCount];
+            MetaCSVMetaData metaData = data.getMetaData();
+            for (int c = 0; c < columnCount; c++) {
+                dataTypes[c] = DataType.values()[in.readByte()];
+                if (dataTypes[c] != metaData.getDataType(c)) {
+                    return null;
+                }
+            }
+            int blockCount = in.readInt();
+            List<Block> blocks = new ArrayList<Block>(blockCount);
+            for (int b = 0; b < blockCount; b++) {
+                blocks.add(Block.read(in, dataTypes));
+            }
+            return new CSVZoneMap(blockSize, dataTypes, blocks, dataStart, dataEnd);
+        } finally {
+            in.close();
+        }
+    }
+
+    private final int blockSize;
+    private final List<Block> blocks;
+    private final MetaCSVMetaData metaData;
+    private final ColumnStatistics blockStatistics;
+    private DataType[] dataTypes;
+    private long dataStart;
+    private long dataEnd;
+    private long blockOffset;
+    private int blockRowCount;
+
+    /**
+     * A zone map to build. See {@link #startBlock(long)}.
+     *
+     * @param data      the data
+     * @param blockSize the number of data rows of a block
+     */
+    CSVZoneMap(MetaCSVData data, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.blocks = new ArrayList<Block>();
+        this.metaData = data.getMetaData();
+        this.blockStatistics = new ColumnStatistics(data);
+        this.blockOffset = -1;
+    }
+
+    private CSVZoneMap(int blockSize, DataType[] dataTypes, List<Block> blocks, long dataStart,
+                       long dataEnd) {
+        this.blockSize = blockSize;
+        this.dataTypes = dataTypes;
+        this.blocks = blocks;
+        this.dataStart = dataStart;
+        this.dataEnd = dataEnd;
+        this.metaData = null;
+        this.blockStatistics = null;
+    }
+
+    /**
+     * @return true if the next row starts a new block.
+     */
+    boolean isBlockFull() {
+        return this.blockOffset == -1 || this.blockRowCount == this.blockSize;
+    }
+
+    /**
+     * End the current block, if any, and start a new one.
+     *
+     * @param offset the offset of the first byte of the block
+     */
+    void startBlock(long offset) {
+        if (this.blockOffset != -1) {
+            this.endBlock();
+        }
+        this.blockOffset = offset;
+        this.blockRowCount = 0;
+        this.blockStatistics.clear();
+    }
+
+    /**
+     * Count a row of the current block.
+     *
+     * @return the statistics of the current block, to add the values of the row.
+     */
+    ColumnStatistics addRow() {
+        this.blockRowCount++;
+        return this.blockStatistics;
+    }
+
+    /**
+     * @param record the record to add to the current block
+     */
+    void addRecord(CSVRecord record) {
+        this.addRow().addRecord(record);
+    }
+
+    private void endBlock() {
+        int columnCount = this.blockStatistics.getColumnCount();
+        byte[] flags = new byte[columnCount];
+        Object[] mins = new Object[columnCount];
+        Object[] maxs = new Object[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            DataType dataType = this.metaData.getDataType(c);
+            if (ColumnStatistics.Kind.of(dataType) == ColumnStatistics.Kind.NONE ||
+                    this.blockStatistics.getIgnoredCount(c) > 0) {
+                flags[c] = UNKNOWN;
+                continue;
+            }
+            mins[c] = this.blockStatistics.getMin(c);
+            maxs[c] = this.blockStatistics.getMax(c);
+            if (mins[c] == null) {
+                flags[c] = NO_VALUE;
+            } else if (dataType == DataType.TEXT && (
+                    ((String) mins[c]).length() > MAX_TEXT_LENGTH ||
+                            ((String) maxs[c]).length() > MAX_TEXT_LENGTH)) {
+                flags[c] = UNKNOWN;
+                mins[c] = null;
+                maxs[c] = null;
+            } else {
+                flags[c] = RANGE;
+            }
+        }
+        this.blocks.add(new Block(this.blockOffset, this.blockRowCount, flags, mins, maxs));
+    }
+
+    /**
+     * End the last block.
+     *
+     * @param end the offset after the last byte of the file
+     */
+    void finish(long end) {
+        if (this.blockOffset != -1) {
+            this.endBlock();
+            this.blockOffset = -1;
+        }
+        int columnCount = 0;
+        for (Block block : this.blocks) {
+            columnCount = Math.max(columnCount, block.flags.length);
+        }
+        this.dataTypes = new DataType[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            this.dataTypes[c] = this.metaData.getDataType(c);
+        }
+        this.dataStart = this.blocks.isEmpty() ? end : this.blocks.get(0).offset;
+        this.dataEnd = end;
+    }
+
+    /**
+     * @return the number of data rows of a block
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return this.blocks.size();
+    }
+
+    /**
+     * @param b the block index
+     * @return the offset of the first byte of the block
+     */
+    public long getOffset(int b) {
+        return this.blocks.get(b).offset;
+    }
+
+    /**
+     * @param b the block index
+     * @return the number of data rows of the block
+     */
+    public int getRowCount(int b) {
+        return this.blocks.get(b).rowCount;
+    }
+
+    /**
+     * @param b the block index
+     * @param c the column index
+     * @return the min value of the column in the block, or null if it is unknown or there is
+     * no value.
+     */
+    public Object getMin(int b, int c) {
+        Block block = this.blocks.get(b);
+        return c < block.mins.length ? block.mins[c] : null;
+    }
+
+    /**
+     * @param b the block index
+     * @param c the column index
+     * @return the max value of the column in the block, or null if it is unknown or there is
+     * no value.
+     */
+    public Object getMax(int b, int c) {
+        Block block = this.blocks.get(b);
+        return c < block.maxs.length ? block.maxs[c] : null;
+    }
+
+    /**
+     * @param c   the column index
+     * @param min the min value (inclusive), or null
+     * @param max the max value (inclusive), or null
+     * @return the byte ranges of the blocks that may contain values between min and max. The
+     * consecutive blocks are merged, and the index of a chunk is the index of its first block.
+     * @throws IllegalArgumentException if the column is not ordered, or a bound has not the
+     *                                  type of the column.
+     */
+    public List<CSVChunk> getChunks(int c, Object min, Object max) {
+        List<CSVChunk> chunks = new ArrayList<CSVChunk>();
+        if (c >= this.dataTypes.length) { // no block has a value in this column
+            return chunks;
+        }
+        DataType dataType = this.dataTypes[c];
+        ColumnStatistics.Kind kind = ColumnStatistics.Kind.of(dataType);
+        if (kind == ColumnStatistics.Kind.NONE) {
+            throw new IllegalArgumentException("Column " + c + " is not ordered: " + dataType);
+        }
+        checkBound(dataType, min);
+        checkBound(dataType, max);
+        int first = -1;
+        for (int b = 0; b < this.blocks.size(); b++) {
+            if (this.blocks.get(b).mayMatch(c, min, max)) {
+                if (first == -1) {
+                    first = b;
+                }
+            } else if (first != -1) {
+                chunks.add(new CSVChunk(first, this.getOffset(first), this.getOffset(b)));
+                first = -1;
+            }
+        }
+        if (first != -1) {
+            chunks.add(new CSVChunk(first, this.getOffset(first), this.dataEnd));
+        }
+        return chunks;
+    }
+
+    private static void checkBound(DataType dataType, Object bound) {
+        if (bound == null) {
+            return;
+        }
+        boolean ok;
+        switch (dataType) {
+            case DATE:
+            case DATETIME:
+                ok = bound instanceof Date;
+                break;
+            case TEXT:
+                ok = bound instanceof String;
+                break;
+            default:
+                ok = bound instanceof Number;
+                break;
+        }
+        if (!ok) {
+            throw new IllegalArgumentException(
+                    "Bad bound for a " + dataType + " column: " + bound);
+        }
+    }
+
+    /**
+     * @param csvFile the CSV file
+     * @param c       the column index
+     * @param min     the min value (inclusive), or null
+     * @param max     the max value (inclusive), or null
+     * @return a stream on the bytes of the header (and BOM) and of the blocks that may contain
+     * values between min and max. See {@link #getChunks(int, Object, Object)}.
+     * @throws IOException if the file can't be opened
+     */
+    public InputStream openInputStream(File csvFile, int c, Object min, Object max)
+            throws IOException {
+        final List<CSVChunk> chunks = new ArrayList<CSVChunk>();
+        chunks.add(new CSVChunk(-1, 0, this.dataStart));
+        chunks.addAll(this.getChunks(c, min, max));
+        final FileInputStream in = new FileInputStream(csvFile);
+        // one file, a seek per chunk
+        return new InputStream() {
+            private int i = 0;
+            private long remaining = 0;
+
+            @Override
+            public int read() throws IOException {
+                if (!this.nextChunk()) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b != -1) {
+                    this.remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!this.nextChunk()) {
+                    return -1;
+                }
+                int count = in.read(b, off, (int) Math.min(len, this.remaining));
+                if (count > 0) {
+                    this.remaining -= count;
+                }
+                return count;
+            }
+
+            private boolean nextChunk() throws IOException {
+                while (this.remaining <= 0) {
+                    if (this.i >= chunks.size()) {
+                        return false;
+                    }
+                    CSVChunk chunk = chunks.get(this.i++);
+                    in.getChannel().position(chunk.getStart());
+                    this.remaining = chunk.getLength();
+                }
+                return true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    /**
+     * Write the zone map to a sidecar file.
+     *
+     * @param csvFile     the CSV file
+     * @param zoneMapFile the sidecar file
+     * @throws IOException if the file can't be written
+     */
+    public void save(File csvFile, File zoneMapFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(zoneMapFile)));
+        try {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(csvFile.length());
+            out.writeLong(csvFile.lastModified());
+            out.writeInt(this.blockSize);
+            out.writeLong(this.dataStart);
+            out.writeLong(this.dataEnd);
+            out.writeInt(this.dataTypes.length);
+            for (DataType dataType : this.dataTypes) {
+                out.writeByte(dataType.ordinal());
+            }
+            out.writeInt(this.blocks.size());
+            for (Block block : this.blocks) {
+                block.write(out, this.dataTypes);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static int compare(Object value, Object bound) {
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            Number boundNumber = (Number) bound;
+            if (isFloating(number) || isFloating(boundNumber)) {
+                return Double.compare(number.doubleValue(), boundNumber.doubleValue());
+            }
+            return toBigDecimal(number).compareTo(toBigDecimal(boundNumber));
+        } else if (value instanceof Date) {
+            return ((Date) value).compareTo((Date) bound);
+        } else {
+            return ((String) value).compareTo((String) bound);
+        }
+    }
+
+    private static boolean isFloating(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else {
+            return BigDecimal.valueOf(number.longValue());
+        }
+    }
+
+    private static class Block {
+        static Block read(DataInputStream in, DataType[] dataTypes) throws IOException {
+            long offset = in.readLong();
+            int rowCount = in.readInt();
+            int columnCount = in.readInt();
+            byte[] flags = new byte[columnCount];
+            Object[] mins = new Object[columnCount];
+            Object[] maxs = new Object[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                flags[c] = in.readByte();
+                if (flags[c] == RANGE) {
+                    mins[c] = readValue(in, dataTypes[c]);
+                    maxs[c] = readValue(in, dataTypes[c]);
+                }
+            }
+            return new Block(offset, rowCount, flags, mins, maxs);
+        }
+
+        private static Object readValue(DataInputStream in, DataType dataType)
+                throws IOException {
+            switch (dataType) {
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    return in.readLong();
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    return in.readDouble();
+                case DATE:
+                case DATETIME:
+                    return new Date(in.readLong());
+                case TEXT:
+                    return in.readUTF();
+                default:
+                    return new BigDecimal(in.readUTF());
+            }
+        }
+
+        private final long offset;
+        private final int rowCount;
+        private final byte[] flags;
+        private final Object[] mins;
+        private final Object[] maxs;
+
+        Block(long offset, int rowCount, byte[] flags, Object[] mins, Object[] maxs) {
+            this.offset = offset;
+            this.rowCount = rowCount;
+            this.flags = flags;
+            this.mins = mins;
+            this.maxs = maxs;
+        }
+
+        boolean mayMatch(int c, Object min, Object max) {
+            if (c >= this.flags.length) {
+                return false;
+            }
+            switch (this.flags[c]) {
+                case NO_VALUE:
+                    return false;
+                case RANGE:
+                    return (min == null || compare(this.maxs[c], min) >= 0) &&
+                            (max == null || compare(this.mins[c], max) <= 0);
+                default:
+                    return true;
+            }
+        }
+
+        void write(DataOutputStream out, DataType[] dataTypes) throws IOException {
+            out.writeLong(this.offset);
+            out.writeInt(this.rowCount);
+            out.writeInt(this.flags.length);
+            for (int c = 0; c < this.flags.length; c++) {
+                out.writeByte(this.flags[c]);
+                if (this.flags[c] == RANGE) {
+                    writeValue(out, dataTypes[c], this.mins[c]);
+                    writeValue(out, dataTypes[c], this.maxs[c]);
+                }
+            }
+        }
+
+        private static void writeValue(DataOutputStream out, DataType dataType, Object value)
+                throws IOException {
+            switch (dataType) {
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    out.writeLong((Long) value);
+                    break;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    out.writeDouble((Double) value);
+                    break;
+                case DATE:
+                case DATETIME:
+                    out.writeLong(((Date) value).getTime());
+                    break;
+                case TEXT:
+                    out.writeUTF((String) value);
+                    break;
+                default:
+                    out.writeUTF(value.toString());
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.math.BigDecimal;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Date;
+
+/**
+ * A batch of rows, stored by column. Integers, booleans (0/1), dates and datetimes (epoch
+ * millis) are long columns, floats are double columns, and texts and decimals are dictionary
+ * encoded. Each column has a null bitmap.
+ *
+ * The buffers are either wrapped arrays or views of a memory mapped cache file.
+ */
+public class ColumnBatch {
+    /**
+     * The storage of a column.
+     */
+    enum Kind {
+        LONG, DOUBLE, TEXT;
+
+        static Kind of(DataType dataType) {
+            switch (dataType) {
+                case BOOLEAN:
+                case CURRENCY_INTEGER:
+                case DATE:
+                case DATETIME:
+                case INTEGER:
+                    return LONG;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    return DOUBLE;
+                default:
+                    return TEXT;
+            }
+        }
+    }
+
+    private final DataType[] dataTypes;
+    private final int rowCount;
+    private final LongBuffer[] nullBits;
+    private final LongBuffer[] longValues;
+    private final DoubleBuffer[] doubleValues;
+    private final IntBuffer[] codes;
+    private final String[][] dictionaries;
+
+    ColumnBatch(DataType[] dataTypes, int rowCount, LongBuffer[] nullBits,
+                LongBuffer[] longValues, DoubleBuffer[] doubleValues, IntBuffer[] codes,
+                String[][] dictionaries) {
+        this.dataTypes = dataTypes;
+        this.rowCount = rowCount;
+        this.nullBits = nullBits;
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+        this.codes = codes;
+        this.dictionaries = dictionaries;
+    }
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    public int getColumnCount() {
+        return this.dataTypes.length;
+    }
+
+    public DataType getDataType(int c) {
+        return this.dataTypes[c];
+    }
+
+    public boolean isNull(int c, int r) {
+        return (this.nullBits[c].get(r >>> 6) & (1L << r)) != 0;
+    }
+
+    /**
+     * @param c the column (integer, currency integer, boolean, date or datetime)
+     * @param r the row in the batch
+     * @return the value, or 0 if the value is null
+     */
+    public long getLong(int c, int r) {
+        LongBuffer values = this.longValues[c];
+        if (values == null) {
+            throw new MetaCSVCastException("Not a long column: " + c);
+        }
+        return values.get(r);
+    }
+
+    /**
+     * @param c the column (float or percentage float)
+     * @param r the row in the batch
+     * @return the value, or 0 if the value is null
+     */
+    public double getDouble(int c, int r) {
+        DoubleBuffer values = this.doubleValues[c];
+        if (values == null) {
+            throw new MetaCSVCastException("Not a double column: " + c);
+        }
+        return values.get(r);
+    }
+
+    /**
+     * @param c the column (boolean)
+     * @param r the row in the batch
+     * @return the value, or false if the value is null
+     */
+    public boolean getBoolean(int c, int r) {
+        return this.getLong(c, r) != 0;
+    }
+
+    /**
+     * @param c the column (text, object or decimal)
+     * @param r the row in the batch
+     * @return the value from the dictionary, or null
+     */
+    public String getText(int c, int r) {
+        IntBuffer columnCodes = this.codes[c];
+        if (columnCodes == null) {
+            throw new MetaCSVCastException("Not a text column: " + c);
+        }
+        int code = columnCodes.get(r);
+        if (code == -1) {
+            return null;
+        }
+        return this.dictionaries[c][code];
+    }
+
+    /**
+     * @param c the column
+     * @param r the row in the batch
+     * @return the value, as MetaCSVRecord.getObject would return it.
+     */
+    public Object getObject(int c, int r) {
+        if (this.isNull(c, r)) {
+            return null;
+        }
+        switch (this.dataTypes[c]) {
+            case BOOLEAN:
+                return this.getBoolean(c, r);
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                return this.getLong(c, r);
+            case DATE:
+            case DATETIME:
+                return new Date(this.getLong(c, r));
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                return this.getDouble(c, r);
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                return new BigDecimal(this.getText(c, r));
+            default:
+                return this.getText(c, r);
+        }
+    }
+
+    LongBuffer getNullBits(int c) {
+        return this.nullBits[c].duplicate();
+    }
+
+    LongBuffer getLongValues(int c) {
+        return this.longValues[c].duplicate();
+    }
+
+    DoubleBuffer getDoubleValues(int c) {
+        return this.doubleValues[c].duplicate();
+    }
+
+    IntBuffer getCodes(int c) {
+        return this.codes[c].duplicate();
+    }
+
+    String[] getDictionary(int c) {
+        return this.dictionaries[c];
+    }
+}
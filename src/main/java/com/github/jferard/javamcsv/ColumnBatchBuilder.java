@@ -0,0 +1,208 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.math.BigDecimal;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills a ColumnBatch from MetaCSVRecords.
+ */
+class ColumnBatchBuilder {
+    private final DataType[] dataTypes;
+    private final ColumnBatch.Kind[] kinds;
+    private final int capacity;
+    private int rowCount;
+    private long[][] nullBits;
+    private long[][] longValues;
+    private double[][] doubleValues;
+    private int[][] codes;
+    private Map<String, Integer>[] codeByTexts;
+    private boolean lossless;
+
+    /**
+     * @param dataTypes the types of the columns
+     * @param capacity  the max number of rows of a batch
+     */
+    ColumnBatchBuilder(DataType[] dataTypes, int capacity) {
+        this.dataTypes = dataTypes;
+        this.kinds = new ColumnBatch.Kind[dataTypes.length];
+        for (int c = 0; c < dataTypes.length; c++) {
+            this.kinds[c] = ColumnBatch.Kind.of(dataTypes[c]);
+        }
+        this.capacity = capacity;
+        this.lossless = true;
+        this.reset();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer>[] newMaps(int size) {
+        return (Map<String, Integer>[]) new Map<?, ?>[size];
+    }
+
+    private void reset() {
+        int columnCount = this.dataTypes.length;
+        this.rowCount = 0;
+        this.nullBits = new long[columnCount][(this.capacity + 63) / 64];
+        this.longValues = new long[columnCount][];
+        this.doubleValues = new double[columnCount][];
+        this.codes = new int[columnCount][];
+        this.codeByTexts = newMaps(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            switch (this.kinds[c]) {
+                case LONG:
+                    this.longValues[c] = new long[this.capacity];
+                    break;
+                case DOUBLE:
+                    this.doubleValues[c] = new double[this.capacity];
+                    break;
+                default:
+                    this.codes[c] = new int[this.capacity];
+                    this.codeByTexts[c] = new HashMap<String, Integer>();
+                    break;
+            }
+        }
+    }
+
+    boolean isFull() {
+        return this.rowCount == this.capacity;
+    }
+
+    int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return false if a cell could not be read since the creation of the builder: it was
+     * replaced by a null value.
+     */
+    boolean isLossless() {
+        return this.lossless;
+    }
+
+    void add(MetaCSVRecord record) {
+        int r = this.rowCount;
+        int size = record.size();
+        for (int c = 0; c < this.dataTypes.length; c++) {
+            if (c >= size || record.isNull(c)) {
+                this.setNull(c, r);
+                continue;
+            }
+            try {
+                this.set(record, c, r);
+            } catch (MetaCSVReadException e) {
+                this.lossless = false;
+                this.setNull(c, r);
+            } catch (MetaCSVCastException e) {
+                this.lossless = false;
+                this.setNull(c, r);
+            }
+        }
+        this.rowCount++;
+    }
+
+    private void set(MetaCSVRecord record, int c, int r) throws MetaCSVReadException {
+        switch (this.dataTypes[c]) {
+            case BOOLEAN:
+                this.longValues[c][r] = record.getBooleanValue(c) ? 1 : 0;
+                break;
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                this.longValues[c][r] = record.getLongValue(c);
+                break;
+            case DATE:
+            case DATETIME:
+                this.longValues[c][r] = ((Date) record.getObject(c)).getTime();
+                break;
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                this.doubleValues[c][r] = record.getDoubleValue(c);
+                break;
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                this.codes[c][r] = this.code(c, ((BigDecimal) record.getObject(c)).toString());
+                break;
+            default:
+                this.codes[c][r] = this.code(c, record.getObject(c).toString());
+                break;
+        }
+    }
+
+    private void setNull(int c, int r) {
+        this.nullBits[c][r >>> 6] |= 1L << r;
+        if (this.codes[c] != null) {
+            this.codes[c][r] = -1;
+        }
+    }
+
+    private int code(int c, String text) {
+        Map<String, Integer> codeByText = this.codeByTexts[c];
+        Integer code = codeByText.get(text);
+        if (code == null) {
+            code = codeByText.size();
+            codeByText.put(text, code);
+        }
+        return code;
+    }
+
+    /**
+     * @return the batch of the rows added since the last call, and reset the builder.
+     */
+    ColumnBatch build() {
+        int columnCount = this.dataTypes.length;
+        LongBuffer[] nullBitBuffers = new LongBuffer[columnCount];
+        LongBuffer[] longBuffers = new LongBuffer[columnCount];
+        DoubleBuffer[] doubleBuffers = new DoubleBuffer[columnCount];
+        IntBuffer[] codeBuffers = new IntBuffer[columnCount];
+        String[][] dictionaries = new String[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            nullBitBuffers[c] = LongBuffer.wrap(this.nullBits[c], 0, (this.rowCount + 63) / 64)
+                    .slice();
+            switch (this.kinds[c]) {
+                case LONG:
+                    longBuffers[c] = LongBuffer.wrap(this.longValues[c], 0, this.rowCount);
+                    break;
+                case DOUBLE:
+                    doubleBuffers[c] = DoubleBuffer.wrap(this.doubleValues[c], 0, this.rowCount);
+                    break;
+                default:
+                    codeBuffers[c] = IntBuffer.wrap(this.codes[c], 0, this.rowCount);
+                    Map<String, Integer> codeByText = this.codeByTexts[c];
+                    String[] dictionary = new String[codeByText.size()];
+                    for (Map.Entry<String, Integer> entry : codeByText.entrySet()) {
+                        dictionary[entry.getValue()] = entry.getKey();
+                    }
+                    dictionaries[c] = dictionary;
+                    break;
+            }
+        }
+        ColumnBatch batch = new ColumnBatch(this.dataTypes, this.rowCount, nullBitBuffers,
+                longBuffers, doubleBuffers, codeBuffers, dictionaries);
+        this.reset();
+        return batch;
+    }
+}
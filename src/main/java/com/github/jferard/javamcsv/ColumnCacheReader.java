@@ -0,0 +1,157 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the row groups of a columnar cache file (see ColumnCacheWriter). Each row group is
+ * memory mapped and the batches are views of the mapped buffer.
+ */
+class ColumnCacheReader implements Closeable {
+    /**
+     * @param file     the cache file
+     * @param csvFile  the CSV file
+     * @param dataHash the hash of the MetaCSV data
+     * @return the reader, or null if the cache file is missing or was not written for the
+     * current version of the CSV file and of the MetaCSV data.
+     * @throws IOException if the cache file can't be read.
+     */
+    static ColumnCacheReader open(File file, File csvFile, long dataHash) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        boolean ok = false;
+        try {
+            if (raf.length() < 40 || raf.readLong() != ColumnCacheWriter.MAGIC ||
+                    raf.readInt() != ColumnCacheWriter.VERSION ||
+                    raf.readLong() != csvFile.length() ||
+                    raf.readLong() != csvFile.lastModified() || raf.readLong() != dataHash) {
+                return null;
+            }
+            int columnCount = raf.readInt();
+            List<String> header = new ArrayList<String>(columnCount);
+            DataType[] dataTypes = new DataType[columnCount];
+            DataType[] values = DataType.values();
+            for (int c = 0; c < columnCount; c++) {
+                header.add(raf.readUTF());
+                dataTypes[c] = values[raf.readByte()];
+            }
+            ok = true;
+            return new ColumnCacheReader(raf, header, dataTypes, raf.getFilePointer());
+        } finally {
+            if (!ok) {
+                raf.close();
+            }
+        }
+    }
+
+    private final RandomAccessFile raf;
+    private final List<String> header;
+    private final DataType[] dataTypes;
+    private long position;
+
+    private ColumnCacheReader(RandomAccessFile raf, List<String> header, DataType[] dataTypes,
+                              long position) {
+        this.raf = raf;
+        this.header = header;
+        this.dataTypes = dataTypes;
+        this.position = position;
+    }
+
+    List<String> getHeader() {
+        return this.header;
+    }
+
+    DataType[] getDataTypes() {
+        return this.dataTypes;
+    }
+
+    /**
+     * @return the next row group, or null.
+     * @throws IOException if the file can't be read
+     */
+    ColumnBatch next() throws IOException {
+        this.raf.seek(this.position);
+        long length = this.raf.readLong();
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = this.raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                this.position + 8, length);
+        this.position += 8 + length;
+
+        int columnCount = this.dataTypes.length;
+        int rowCount = buffer.getInt();
+        int words = (rowCount + 63) / 64;
+        LongBuffer[] nullBits = new LongBuffer[columnCount];
+        LongBuffer[] longValues = new LongBuffer[columnCount];
+        DoubleBuffer[] doubleValues = new DoubleBuffer[columnCount];
+        IntBuffer[] codes = new IntBuffer[columnCount];
+        String[][] dictionaries = new String[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            nullBits[c] = this.slice(buffer, 8 * words).asLongBuffer();
+            switch (ColumnBatch.Kind.of(this.dataTypes[c])) {
+                case LONG:
+                    longValues[c] = this.slice(buffer, 8 * rowCount).asLongBuffer();
+                    break;
+                case DOUBLE:
+                    doubleValues[c] = this.slice(buffer, 8 * rowCount).asDoubleBuffer();
+                    break;
+                default:
+                    String[] dictionary = new String[buffer.getInt()];
+                    for (int i = 0; i < dictionary.length; i++) {
+                        byte[] bytes = new byte[buffer.getInt()];
+                        buffer.get(bytes);
+                        dictionary[i] = new String(bytes, Util.UTF_8_CHARSET);
+                    }
+                    dictionaries[c] = dictionary;
+                    codes[c] = this.slice(buffer, 4 * rowCount).asIntBuffer();
+                    break;
+            }
+        }
+        return new ColumnBatch(this.dataTypes, rowCount, nullBits, longValues, doubleValues,
+                codes, dictionaries);
+    }
+
+    private ByteBuffer slice(ByteBuffer buffer, int size) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(size);
+        buffer.position(buffer.position() + size);
+        return slice;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.raf.close();
+    }
+}
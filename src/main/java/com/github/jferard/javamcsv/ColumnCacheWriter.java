@@ -0,0 +1,159 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the ColumnBatches to a columnar cache file (".mcsvc"). The file is: a header (magic,
+ * version, length and last modification of the CSV file, hash of the MetaCSV data, names and
+ * types of the columns), then the row groups, each preceded by its length in bytes, and a
+ * zero length.
+ *
+ * A row group is: the row count, then for each column, the null bitmap (one long per 64 rows)
+ * and the values (longs or doubles), or, for the text columns, the dictionary (size, then
+ * length and UTF-8 bytes of each entry) and the codes (ints, -1 for null).
+ */
+class ColumnCacheWriter implements Closeable {
+    static final long MAGIC = 0x4D435356434F4CL; // "MCSVCOL"
+    static final int VERSION = 1;
+
+    /**
+     * @param data the data
+     * @return the CRC32 of the rendered data.
+     * @throws IOException never
+     */
+    static long hash(MetaCSVData data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaCSVRenderer.create(out).render(data);
+        CRC32 crc = new CRC32();
+        crc.update(out.toByteArray());
+        return crc.getValue();
+    }
+
+    static ColumnCacheWriter create(File file, File csvFile, long dataHash, List<String> header,
+                                    DataType[] dataTypes) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(csvFile.length());
+        out.writeLong(csvFile.lastModified());
+        out.writeLong(dataHash);
+        out.writeInt(dataTypes.length);
+        for (int c = 0; c < dataTypes.length; c++) {
+            out.writeUTF(header.get(c));
+            out.writeByte(dataTypes[c].ordinal());
+        }
+        return new ColumnCacheWriter(out);
+    }
+
+    private final DataOutputStream out;
+
+    private ColumnCacheWriter(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * @param batch the row group
+     * @throws IOException if the file can't be written
+     */
+    void write(ColumnBatch batch) throws IOException {
+        int rowCount = batch.getRowCount();
+        int columnCount = batch.getColumnCount();
+        int words = (rowCount + 63) / 64;
+        byte[][][] entries = new byte[columnCount][][];
+        long length = 4;
+        for (int c = 0; c < columnCount; c++) {
+            length += 8L * words;
+            if (ColumnBatch.Kind.of(batch.getDataType(c)) == ColumnBatch.Kind.TEXT) {
+                String[] dictionary = batch.getDictionary(c);
+                entries[c] = new byte[dictionary.length][];
+                length += 4 + 4L * rowCount;
+                for (int i = 0; i < dictionary.length; i++) {
+                    entries[c][i] = dictionary[i].getBytes(Util.UTF_8_CHARSET);
+                    length += 4 + entries[c][i].length;
+                }
+            } else {
+                length += 8L * rowCount;
+            }
+        }
+        this.out.writeLong(length);
+        this.out.writeInt(rowCount);
+        for (int c = 0; c < columnCount; c++) {
+            LongBuffer nullBits = batch.getNullBits(c);
+            for (int w = 0; w < words; w++) {
+                this.out.writeLong(nullBits.get(w));
+            }
+            switch (ColumnBatch.Kind.of(batch.getDataType(c))) {
+                case LONG:
+                    LongBuffer longValues = batch.getLongValues(c);
+                    for (int r = 0; r < rowCount; r++) {
+                        this.out.writeLong(longValues.get(r));
+                    }
+                    break;
+                case DOUBLE:
+                    DoubleBuffer doubleValues = batch.getDoubleValues(c);
+                    for (int r = 0; r < rowCount; r++) {
+                        this.out.writeDouble(doubleValues.get(r));
+                    }
+                    break;
+                default:
+                    this.out.writeInt(entries[c].length);
+                    for (byte[] entry : entries[c]) {
+                        this.out.writeInt(entry.length);
+                        this.out.write(entry);
+                    }
+                    IntBuffer codes = batch.getCodes(c);
+                    for (int r = 0; r < rowCount; r++) {
+                        this.out.writeInt(codes.get(r));
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Write the end marker and close the file.
+     *
+     * @throws IOException if the file can't be written
+     */
+    void finish() throws IOException {
+        this.out.writeLong(0);
+        this.out.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.processor.PrimitiveReadFieldProcessor;
+import com.github.jferard.javamcsv.processor.ProcessorProvider;
+import com.github.jferard.javamcsv.processor.WriteProcessorProvider;
+import org.apache.commons.csv.CSVRecord;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statistics of the columns of a file, collected by a reader or a writer: number of rows, of
+ * nulls, min and max for the ordered types (integers, floats, decimals, dates, datetimes and
+ * texts) and max length of the text of the non null values. The values that can't be read are
+ * counted, but ignored for the min and max.
+ *
+ * The statistics are stored in the meta domain of a .mcsv file by {@link #toMeta()}, e.g.
+ * "meta,col/0/null_count,3". The min and max are written in the format of the column.
+ */
+public class ColumnStatistics {
+    enum Kind {
+        LONG, DOUBLE, OBJECT, TEXT, NONE;
+
+        static Kind of(DataType dataType) {
+            switch (dataType) {
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    return LONG;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    return DOUBLE;
+                case CURRENCY_DECIMAL:
+                case DATE:
+                case DATETIME:
+                case DECIMAL:
+                case PERCENTAGE_DECIMAL:
+                    return OBJECT;
+                case TEXT:
+                    return TEXT;
+                default:
+                    return NONE;
+            }
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final MetaCSVMetaData metaData;
+    private final ProcessorProvider provider;
+    private final WriteProcessorProvider writeProvider;
+    private Kind[] kinds;
+    private long[] rowCounts;
+    private long[] nullCounts;
+    private long[] ignoredCounts;
+    private int[] maxLengths;
+    private boolean[] hasMinMax;
+    private long[] minLongs;
+    private long[] maxLongs;
+    private double[] minDoubles;
+    private double[] maxDoubles;
+    private Comparable<Object>[] minObjects;
+    private Comparable<Object>[] maxObjects;
+    private int columnCount;
+
+    /**
+     * @param data the data of the file
+     */
+    public ColumnStatistics(MetaCSVData data) {
+        this.metaData = data.getMetaData();
+        this.provider = data.toProcessorProvider(data.getNullValue());
+        this.writeProvider = data.toWriteProcessorProvider(OnError.EXCEPTION);
+        this.columnCount = 0;
+        this.grow(INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object>[] newComparables(int size) {
+        return (Comparable<Object>[]) new Comparable<?>[size];
+    }
+
+    private void grow(int capacity) {
+        int oldCapacity = this.kinds == null ? 0 : this.kinds.length;
+        if (oldCapacity == 0) {
+            this.kinds = new Kind[capacity];
+            this.rowCounts = new long[capacity];
+            this.nullCounts = new long[capacity];
+            this.ignoredCounts = new long[capacity];
+            this.maxLengths = new int[capacity];
+            this.hasMinMax = new boolean[capacity];
+            this.minLongs = new long[capacity];
+            this.maxLongs = new long[capacity];
+            this.minDoubles = new double[capacity];
+            this.maxDoubles = new double[capacity];
+            this.minObjects = newComparables(capacity);
+            this.maxObjects = newComparables(capacity);
+        } else {
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.rowCounts = Arrays.copyOf(this.rowCounts, capacity);
+            this.nullCounts = Arrays.copyOf(this.nullCounts, capacity);
+            this.ignoredCounts = Arrays.copyOf(this.ignoredCounts, capacity);
+            this.maxLengths = Arrays.copyOf(this.maxLengths, capacity);
+            this.hasMinMax = Arrays.copyOf(this.hasMinMax, capacity);
+            this.minLongs = Arrays.copyOf(this.minLongs, capacity);
+            this.maxLongs = Arrays.copyOf(this.maxLongs, capacity);
+            this.minDoubles = Arrays.copyOf(this.minDoubles, capacity);
+            this.maxDoubles = Arrays.copyOf(this.maxDoubles, capacity);
+            this.minObjects = Arrays.copyOf(this.minObjects, capacity);
+            this.maxObjects = Arrays.copyOf(this.maxObjects, capacity);
+        }
+        for (int c = oldCapacity; c < capacity; c++) {
+            this.kinds[c] = Kind.of(this.metaData.getDataType(c));
+        }
+    }
+
+    private void ensure(int c) {
+        if (c >= this.kinds.length) {
+            this.grow(Math.max(2 * this.kinds.length, c + 1));
+        }
+        if (c >= this.columnCount) {
+            this.columnCount = c + 1;
+        }
+    }
+
+    /**
+     * @return the number of columns seen
+     */
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    /**
+     * @param c the column index
+     * @return the number of rows that have this column
+     */
+    public long getRowCount(int c) {
+        return c < this.columnCount ? this.rowCounts[c] : 0;
+    }
+
+    /**
+     * @param c the column index
+     * @return the number of null values
+     */
+    public long getNullCount(int c) {
+        return c < this.columnCount ? this.nullCounts[c] : 0;
+    }
+
+    /**
+     * @param c the column index
+     * @return the number of non null values ignored for the min and max: values that can't
+     * be read, NaN, or values of a column that is not ordered
+     */
+    long getIgnoredCount(int c) {
+        return c < this.columnCount ? this.ignoredCounts[c] : 0;
+    }
+
+    /**
+     * Reset the statistics, e.g. at the beginning of a new block of rows.
+     */
+    void clear() {
+        Arrays.fill(this.rowCounts, 0, this.columnCount, 0);
+        Arrays.fill(this.nullCounts, 0, this.columnCount, 0);
+        Arrays.fill(this.ignoredCounts, 0, this.columnCount, 0);
+        Arrays.fill(this.maxLengths, 0, this.columnCount, 0);
+        Arrays.fill(this.hasMinMax, 0, this.columnCount, false);
+        Arrays.fill(this.minObjects, 0, this.columnCount, null);
+        Arrays.fill(this.maxObjects, 0, this.columnCount, null);
+        this.columnCount = 0;
+    }
+
+    /**
+     * @param c the column index
+     * @return the max length of the text of the non null values
+     */
+    public int getMaxLength(int c) {
+        return c < this.columnCount ? this.maxLengths[c] : 0;
+    }
+
+    /**
+     * @param c the column index
+     * @return the min value, or null if the column is not ordered or has no valid value
+     */
+    public Object getMin(int c) {
+        return this.getMinMax(c, true);
+    }
+
+    /**
+     * @param c the column index
+     * @return the max value, or null if the column is not ordered or has no valid value
+     */
+    public Object getMax(int c) {
+        return this.getMinMax(c, false);
+    }
+
+    private Object getMinMax(int c, boolean min) {
+        if (c >= this.columnCount || !this.hasMinMax[c]) {
+            return null;
+        }
+        switch (this.kinds[c]) {
+            case LONG:
+                return min ? this.minLongs[c] : this.maxLongs[c];
+            case DOUBLE:
+                return min ? this.minDoubles[c] : this.maxDoubles[c];
+            default:
+                return min ? this.minObjects[c] : this.maxObjects[c];
+        }
+    }
+
+    /**
+     * @return the statistics as keys and values of the meta domain
+     */
+    public Map<String, String> toMeta() {
+        Map<String, String> meta = new HashMap<String, String>();
+        for (int c = 0; c < this.columnCount; c++) {
+            String prefix = "col/" + c + "/";
+            meta.put(prefix + "row_count", String.valueOf(this.rowCounts[c]));
+            meta.put(prefix + "null_count", String.valueOf(this.nullCounts[c]));
+            meta.put(prefix + "max_length", String.valueOf(this.maxLengths[c]));
+            if (this.hasMinMax[c]) {
+                meta.put(prefix + "min", this.format(c, true));
+                meta.put(prefix + "max", this.format(c, false));
+            }
+        }
+        return meta;
+    }
+
+    private String format(int c, boolean min) {
+        switch (this.kinds[c]) {
+            case LONG:
+                return this.writeProvider.getProcessor(c)
+                        .toString(min ? this.minLongs[c] : this.maxLongs[c]);
+            case DOUBLE:
+                return this.writeProvider.getProcessor(c)
+                        .toString(min ? this.minDoubles[c] : this.maxDoubles[c]);
+            case TEXT:
+                return String.valueOf(min ? this.minObjects[c] : this.maxObjects[c]);
+            default:
+                return this.writeProvider.getProcessor(c)
+                        .toString(min ? this.minObjects[c] : this.maxObjects[c]);
+        }
+    }
+
+    /**
+     * Add the values of a data record.
+     *
+     * @param record the record
+     */
+    void addRecord(CSVRecord record) {
+        int size = record.size();
+        for (int c = 0; c < size; c++) {
+            this.addText(c, record.get(c));
+        }
+    }
+
+    /**
+     * Add a value as it is read. A writer gives the formatted value, because the format may
+     * truncate a date or round a number.
+     *
+     * @param c    the column index
+     * @param text the text of the value
+     */
+    void addText(int c, String text) {
+        this.ensure(c);
+        PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(c);
+        if (processor.isNull(text)) {
+            this.addNull(c);
+            return;
+        }
+        try {
+            switch (this.kinds[c]) {
+                case LONG:
+                    this.addLong(c, processor.toLong(text), text.length());
+                    return;
+                case DOUBLE:
+                    this.addDouble(c, processor.toDouble(text), text.length());
+                    return;
+                case OBJECT:
+                    this.addObject(c, this.provider.getProcessor(c).toObject(text),
+                            text.length());
+                    return;
+                default:
+                    this.addObject(c, text, text.length());
+            }
+        } catch (MetaCSVReadException e) {
+            this.ignoreValue(c, text.length());
+        } catch (MetaCSVCastException e) {
+            this.ignoreValue(c, text.length());
+        }
+    }
+
+    /**
+     * @param c the column index
+     */
+    void addNull(int c) {
+        this.ensure(c);
+        this.rowCounts[c]++;
+        this.nullCounts[c]++;
+    }
+
+    /**
+     * Count a non null value, valid or not.
+     */
+    private void countValue(int c, int length) {
+        this.rowCounts[c]++;
+        if (length > this.maxLengths[c]) {
+            this.maxLengths[c] = length;
+        }
+    }
+
+    /**
+     * Count a non null value that is ignored for the min and max.
+     */
+    private void ignoreValue(int c, int length) {
+        this.countValue(c, length);
+        this.ignoredCounts[c]++;
+    }
+
+    /**
+     * Add a long as it is written: the value is exact in an integer column, and read from the
+     * formatted text otherwise.
+     *
+     * @param c     the column index
+     * @param value the value
+     * @param text  the formatted value
+     */
+    void addLong(int c, long value, String text) {
+        this.ensure(c);
+        if (this.kinds[c] == Kind.LONG) {
+            this.addLong(c, value, text.length());
+        } else {
+            this.addText(c, text);
+        }
+    }
+
+    /**
+     * @param c      the column index
+     * @param value  the value
+     * @param length the length of the text
+     */
+    void addLong(int c, long value, int length) {
+        this.ensure(c);
+        if (this.kinds[c] != Kind.LONG) {
+            this.addObject(c, value, length);
+            return;
+        }
+        this.countValue(c, length);
+        if (!this.hasMinMax[c]) {
+            this.hasMinMax[c] = true;
+            this.minLongs[c] = value;
+            this.maxLongs[c] = value;
+        } else if (value < this.minLongs[c]) {
+            this.minLongs[c] = value;
+        } else if (value > this.maxLongs[c]) {
+            this.maxLongs[c] = value;
+        }
+    }
+
+    /**
+     * @param c      the column index
+     * @param value  the value
+     * @param length the length of the text
+     */
+    void addDouble(int c, double value, int length) {
+        this.ensure(c);
+        if (this.kinds[c] != Kind.DOUBLE) {
+            this.addObject(c, value, length);
+            return;
+        }
+        if (Double.isNaN(value)) {
+            this.ignoreValue(c, length);
+            return;
+        }
+        this.countValue(c, length);
+        if (!this.hasMinMax[c]) {
+            this.hasMinMax[c] = true;
+            this.minDoubles[c] = value;
+            this.maxDoubles[c] = value;
+        } else if (value < this.minDoubles[c]) {
+            this.minDoubles[c] = value;
+        } else if (value > this.maxDoubles[c]) {
+            this.maxDoubles[c] = value;
+        }
+    }
+
+    /**
+     * @param c      the column index
+     * @param value  the value, not null
+     * @param length the length of the text
+     */
+    @SuppressWarnings("unchecked")
+    void addObject(int c, Object value, int length) {
+        this.ensure(c);
+        switch (this.kinds[c]) {
+            case LONG:
+                if (value instanceof Long || value instanceof Integer ||
+                        value instanceof Short || value instanceof Byte) {
+                    this.addLong(c, ((Number) value).longValue(), length);
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (value instanceof Number) {
+                    this.addDouble(c, ((Number) value).doubleValue(), length);
+                    return;
+                }
+                break;
+            case OBJECT:
+                if (value instanceof BigDecimal || value instanceof Date) {
+                    this.addComparable(c, (Comparable<Object>) value);
+                    this.countValue(c, length);
+                    return;
+                }
+                break;
+            case TEXT:
+                this.addComparable(c, (Comparable<Object>) (Object) value.toString());
+                this.countValue(c, length);
+                return;
+            default:
+                break;
+        }
+        this.ignoreValue(c, length);
+    }
+
+    private void addComparable(int c, Comparable<Object> value) {
+        if (!this.hasMinMax[c]) {
+            this.hasMinMax[c] = true;
+            this.minObjects[c] = value;
+            this.maxObjects[c] = value;
+        } else if (value.compareTo(this.minObjects[c]) < 0) {
+            this.minObjects[c] = value;
+        } else if (value.compareTo(this.maxObjects[c]) > 0) {
+            this.maxObjects[c] = value;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * A sink for the values that can't be read. Use it with OnError.NULL or OnError.TEXT to
+ * avoid the allocation of a ReadError per failing cell.
+ */
+public interface ErrorSink {
+    /**
+     * Called for each value that can't be read.
+     *
+     * @param column the index of the column
+     * @param row    the index of the row (the header is row 0)
+     * @param text   the text of the value
+     */
+    void error(int column, long row, String text);
+
+    /**
+     * Called when the reader is closed.
+     */
+    void close();
+}
@@ -0,0 +1,186 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * An ErrorSink that counts the errors per column and keeps the first samples of each column.
+ * The storage grows once per new column, never per error.
+ */
+public class ErrorStatistics implements ErrorSink {
+    public static final int DEFAULT_MAX_SAMPLES = 10;
+
+    private final int maxSamples;
+    private long[] countByColumn;
+    private int[] sampleCountByColumn;
+    private long[][] sampleRowsByColumn;
+    private String[][] sampleTextsByColumn;
+    private int columnCount;
+    private long totalCount;
+    private boolean closed;
+
+    public ErrorStatistics() {
+        this(DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * @param maxSamples the number of samples to keep per column
+     */
+    public ErrorStatistics(int maxSamples) {
+        this.maxSamples = maxSamples;
+        this.countByColumn = new long[0];
+        this.sampleCountByColumn = new int[0];
+        this.sampleRowsByColumn = new long[0][];
+        this.sampleTextsByColumn = new String[0][];
+        this.columnCount = 0;
+        this.totalCount = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public void error(int column, long row, String text) {
+        if (column >= this.columnCount) {
+            this.grow(column + 1);
+        }
+        this.countByColumn[column]++;
+        this.totalCount++;
+        int sampleCount = this.sampleCountByColumn[column];
+        if (sampleCount < this.maxSamples) {
+            if (this.sampleRowsByColumn[column] == null) {
+                this.sampleRowsByColumn[column] = new long[this.maxSamples];
+                this.sampleTextsByColumn[column] = new String[this.maxSamples];
+            }
+            this.sampleRowsByColumn[column][sampleCount] = row;
+            this.sampleTextsByColumn[column][sampleCount] = text;
+            this.sampleCountByColumn[column] = sampleCount + 1;
+        }
+    }
+
+    private void grow(int newColumnCount) {
+        long[] newCountByColumn = new long[newColumnCount];
+        System.arraycopy(this.countByColumn, 0, newCountByColumn, 0, this.columnCount);
+        this.countByColumn = newCountByColumn;
+        int[] newSampleCountByColumn = new int[newColumnCount];
+        System.arraycopy(this.sampleCountByColumn, 0, newSampleCountByColumn, 0,
+                this.columnCount);
+        this.sampleCountByColumn = newSampleCountByColumn;
+        long[][] newSampleRowsByColumn = new long[newColumnCount][];
+        System.arraycopy(this.sampleRowsByColumn, 0, newSampleRowsByColumn, 0,
+                this.columnCount);
+        this.sampleRowsByColumn = newSampleRowsByColumn;
+        String[][] newSampleTextsByColumn = new String[newColumnCount][];
+        System.arraycopy(this.sampleTextsByColumn, 0, newSampleTextsByColumn, 0,
+                this.columnCount);
+        this.sampleTextsByColumn = newSampleTextsByColumn;
+        this.columnCount = newColumnCount;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+
+    /**
+     * @return true if the reader was closed: the statistics are complete.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * @return the number of columns that may have errors (the last one has errors).
+     */
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    public long getTotalErrorCount() {
+        return this.totalCount;
+    }
+
+    public long getErrorCount(int column) {
+        if (column >= this.columnCount) {
+            return 0;
+        }
+        return this.countByColumn[column];
+    }
+
+    public int getSampleCount(int column) {
+        if (column >= this.columnCount) {
+            return 0;
+        }
+        return this.sampleCountByColumn[column];
+    }
+
+    /**
+     * @param column the index of the column
+     * @param i      the index of the sample
+     * @return the row of the sample
+     */
+    public long getSampleRow(int column, int i) {
+        this.checkSample(column, i);
+        return this.sampleRowsByColumn[column][i];
+    }
+
+    /**
+     * @param column the index of the column
+     * @param i      the index of the sample
+     * @return the text of the sample
+     */
+    public String getSampleText(int column, int i) {
+        this.checkSample(column, i);
+        return this.sampleTextsByColumn[column][i];
+    }
+
+    private void checkSample(int column, int i) {
+        if (i < 0 || i >= this.getSampleCount(column)) {
+            throw new IndexOutOfBoundsException("No sample " + i + " for column " + column);
+        }
+    }
+
+    /**
+     * @return a human readable summary, one line per column with errors.
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(this.totalCount).append(" error(s)");
+        for (int c = 0; c < this.columnCount; c++) {
+            long count = this.countByColumn[c];
+            if (count == 0) {
+                continue;
+            }
+            sb.append("\ncolumn ").append(c).append(": ").append(count).append(" error(s), e.g.");
+            int sampleCount = this.sampleCountByColumn[c];
+            for (int i = 0; i < sampleCount; i++) {
+                sb.append(" row ").append(this.sampleRowsByColumn[c][i]).append(": '")
+                        .append(this.sampleTextsByColumn[c][i]).append("'");
+                if (i < sampleCount - 1) {
+                    sb.append(',');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ErrorStatistics{" + this.getSummary() + "}";
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A minimal FlatBuffers accessor, for the Arrow IPC metadata. The positions are absolute
+ * positions in the buffer, 0 means "absent".
+ */
+class FlatBufferReader {
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer the FlatBuffer, in little endian order.
+     */
+    FlatBufferReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int getRoot() {
+        return this.buffer.getInt(0);
+    }
+
+    private int getField(int table, int id) {
+        int vtable = table - this.buffer.getInt(table);
+        int entry = 4 + 2 * id;
+        if (entry >= (this.buffer.getShort(vtable) & 0xFFFF)) {
+            return 0;
+        }
+        int offset = this.buffer.getShort(vtable + entry) & 0xFFFF;
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    int getByte(int table, int id, int defaultValue) {
+        int position = this.getField(table, id);
+        return position == 0 ? defaultValue : this.buffer.get(position) & 0xFF;
+    }
+
+    boolean getBoolean(int table, int id, boolean defaultValue) {
+        return this.getByte(table, id, defaultValue ? 1 : 0) != 0;
+    }
+
+    int getShort(int table, int id, int defaultValue) {
+        int position = this.getField(table, id);
+        return position == 0 ? defaultValue : this.buffer.getShort(position);
+    }
+
+    int getInt(int table, int id, int defaultValue) {
+        int position = this.getField(table, id);
+        return position == 0 ? defaultValue : this.buffer.getInt(position);
+    }
+
+    long getLong(int table, int id, long defaultValue) {
+        int position = this.getField(table, id);
+        return position == 0 ? defaultValue : this.buffer.getLong(position);
+    }
+
+    /**
+     * @return the position of the table, the string or the vector, or 0.
+     */
+    int getOffset(int table, int id) {
+        int position = this.getField(table, id);
+        return position == 0 ? 0 : position + this.buffer.getInt(position);
+    }
+
+    String getString(int table, int id) {
+        int position = this.getOffset(table, id);
+        if (position == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[this.buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(position + 4 + i);
+        }
+        return new String(bytes, Util.UTF_8_CHARSET);
+    }
+
+    int getVectorLength(int table, int id) {
+        int position = this.getOffset(table, id);
+        return position == 0 ? 0 : this.buffer.getInt(position);
+    }
+
+    /**
+     * @return the position of the i-th table of a vector of tables.
+     */
+    int getTable(int table, int id, int i) {
+        int position = this.getOffset(table, id) + 4 + 4 * i;
+        return position + this.buffer.getInt(position);
+    }
+
+    /**
+     * @return the j-th long of the i-th struct of a vector of structs of longs.
+     */
+    long getStructLong(int table, int id, int longsPerStruct, int i, int j) {
+        int position = this.getOffset(table, id) + 4 + 8 * (longsPerStruct * i + j);
+        return this.buffer.getLong(position);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A minimal FlatBuffers serializer, for the Arrow IPC metadata. The objects are written front
+ * to back: a table is preceded by its vtable and followed by its children, hence the offsets
+ * (unsigned) always point forward. The scalars are aligned on their size, relatively to the
+ * beginning of the buffer.
+ */
+class FlatBufferWriter {
+    /**
+     * A table: a list of fields identified by their id.
+     */
+    static class Table {
+        private final List<Object[]> fields = new ArrayList<Object[]>();
+
+        Table addBoolean(int id, boolean value) {
+            return this.addScalar(id, 1, value ? 1 : 0);
+        }
+
+        Table addByte(int id, int value) {
+            return this.addScalar(id, 1, value);
+        }
+
+        Table addShort(int id, int value) {
+            return this.addScalar(id, 2, value);
+        }
+
+        Table addInt(int id, int value) {
+            return this.addScalar(id, 4, value);
+        }
+
+        Table addLong(int id, long value) {
+            return this.addScalar(id, 8, value);
+        }
+
+        /**
+         * @param id    the id of the field
+         * @param child a Table, a String, a TableVector or a StructVector
+         * @return this for fluent style
+         */
+        Table addOffset(int id, Object child) {
+            this.fields.add(new Object[]{id, 4, child});
+            return this;
+        }
+
+        private Table addScalar(int id, int size, long value) {
+            this.fields.add(new Object[]{id, size, value});
+            return this;
+        }
+    }
+
+    /**
+     * A vector of tables.
+     */
+    static class TableVector {
+        private final List<Table> tables;
+
+        TableVector(List<Table> tables) {
+            this.tables = tables;
+        }
+    }
+
+    /**
+     * A vector of structs made of longs.
+     */
+    static class StructVector {
+        private final int longsPerStruct;
+        private final long[] values;
+
+        StructVector(int longsPerStruct, long[] values) {
+            this.longsPerStruct = longsPerStruct;
+            this.values = values;
+        }
+    }
+
+    /**
+     * @param root the root table
+     * @return the bytes of the FlatBuffer, padded to a multiple of 8.
+     */
+    static byte[] toBytes(Table root) {
+        FlatBufferWriter writer = new FlatBufferWriter();
+        writer.putInt(0);
+        writer.patchOffset(0, writer.writeTable(root));
+        writer.align(8);
+        return Arrays.copyOf(writer.buffer.array(), writer.buffer.position());
+    }
+
+    private ByteBuffer buffer;
+
+    private FlatBufferWriter() {
+        this.buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int writeTable(Table table) {
+        Object[][] fields = table.fields.toArray(new Object[0][]);
+        // largest first: every scalar is naturally aligned if the first one is.
+        Arrays.sort(fields, new Comparator<Object[]>() {
+            @Override
+            public int compare(Object[] f1, Object[] f2) {
+                return (Integer) f2[1] - (Integer) f1[1];
+            }
+        });
+        int fieldCount = 0;
+        for (Object[] field : fields) {
+            fieldCount = Math.max(fieldCount, (Integer) field[0] + 1);
+        }
+        this.align(2);
+        int vtablePosition = this.buffer.position();
+        this.skip(4 + 2 * fieldCount);
+        this.align(4);
+        if (fields.length > 0 && (Integer) fields[0][1] == 8 &&
+                this.buffer.position() % 8 == 0) {
+            this.putInt(0);
+        }
+        int tablePosition = this.buffer.position();
+        this.putInt(tablePosition - vtablePosition);
+        int[] positions = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Object[] field = fields[i];
+            int size = (Integer) field[1];
+            positions[i] = this.buffer.position();
+            this.buffer.putShort(vtablePosition + 4 + 2 * (Integer) field[0],
+                    (short) (positions[i] - tablePosition));
+            Object value = field[2];
+            if (value instanceof Long) {
+                this.putScalar(size, (Long) value);
+            } else {
+                this.putInt(0);
+            }
+        }
+        this.buffer.putShort(vtablePosition, (short) (4 + 2 * fieldCount));
+        this.buffer.putShort(vtablePosition + 2,
+                (short) (this.buffer.position() - tablePosition));
+        for (int i = 0; i < fields.length; i++) {
+            Object value = fields[i][2];
+            if (!(value instanceof Long)) {
+                this.patchOffset(positions[i], this.writeChild(value));
+            }
+        }
+        return tablePosition;
+    }
+
+    private int writeChild(Object child) {
+        if (child instanceof Table) {
+            return this.writeTable((Table) child);
+        } else if (child instanceof String) {
+            byte[] bytes = ((String) child).getBytes(Util.UTF_8_CHARSET);
+            this.align(4);
+            int position = this.buffer.position();
+            this.putInt(bytes.length);
+            this.ensure(bytes.length + 1);
+            this.buffer.put(bytes);
+            this.buffer.put((byte) 0);
+            return position;
+        } else if (child instanceof TableVector) {
+            List<Table> tables = ((TableVector) child).tables;
+            this.align(4);
+            int position = this.buffer.position();
+            this.putInt(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                this.putInt(0);
+            }
+            for (int i = 0; i < tables.size(); i++) {
+                int elementPosition = position + 4 + 4 * i;
+                this.patchOffset(elementPosition, this.writeTable(tables.get(i)));
+            }
+            return position;
+        } else {
+            StructVector structs = (StructVector) child;
+            this.align(4);
+            if (this.buffer.position() % 8 == 0) {
+                this.putInt(0);
+            }
+            int position = this.buffer.position();
+            this.putInt(structs.values.length / structs.longsPerStruct);
+            for (long value : structs.values) {
+                this.putScalar(8, value);
+            }
+            return position;
+        }
+    }
+
+    private void patchOffset(int position, int target) {
+        this.buffer.putInt(position, target - position);
+    }
+
+    private void putInt(int value) {
+        this.putScalar(4, value);
+    }
+
+    private void putScalar(int size, long value) {
+        this.ensure(size);
+        switch (size) {
+            case 1:
+                this.buffer.put((byte) value);
+                break;
+            case 2:
+                this.buffer.putShort((short) value);
+                break;
+            case 4:
+                this.buffer.putInt((int) value);
+                break;
+            default:
+                this.buffer.putLong(value);
+                break;
+        }
+    }
+
+    private void align(int alignment) {
+        int position = this.buffer.position();
+        this.skip((alignment - position % alignment) % alignment);
+    }
+
+    private void skip(int count) {
+        this.ensure(count);
+        this.buffer.position(this.buffer.position() + count);
+    }
+
+    private void ensure(int count) {
+        if (this.buffer.remaining() < count) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(
+                    Math.max(this.buffer.capacity() * 2, this.buffer.position() + count))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.flip();
+            newBuffer.put(this.buffer);
+            this.buffer = newBuffer;
+        }
+    }
+}
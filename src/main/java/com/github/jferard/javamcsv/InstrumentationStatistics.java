@@ -0,0 +1,220 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A MetaCSVInstrumentation that sums the measures, e.g. to export them to a metrics system.
+ * The storage grows once per new column, never per row.
+ */
+public class InstrumentationStatistics implements MetaCSVInstrumentation {
+    private final boolean columnTimed;
+    private long bytesRead;
+    private long rowsRead;
+    private long bytesWritten;
+    private long rowsWritten;
+    private long[] nanosByColumn;
+    private long[] cellCountByColumn;
+    private long[] errorCountByColumn;
+    private int columnCount;
+    private final Map<String, long[]> hitsAndMissesByCache;
+    private final Map<String, int[]> lastAndMaxDepthByQueue;
+    private boolean closed;
+
+    public InstrumentationStatistics() {
+        this(true);
+    }
+
+    /**
+     * @param columnTimed true if the parse time of each cell should be measured
+     */
+    public InstrumentationStatistics(boolean columnTimed) {
+        this.columnTimed = columnTimed;
+        this.nanosByColumn = new long[0];
+        this.cellCountByColumn = new long[0];
+        this.errorCountByColumn = new long[0];
+        this.columnCount = 0;
+        this.hitsAndMissesByCache = new HashMap<String, long[]>();
+        this.lastAndMaxDepthByQueue = new HashMap<String, int[]>();
+    }
+
+    @Override
+    public boolean isColumnTimed() {
+        return this.columnTimed;
+    }
+
+    @Override
+    public void bytesRead(int count) {
+        this.bytesRead += count;
+    }
+
+    @Override
+    public void rowRead() {
+        this.rowsRead++;
+    }
+
+    @Override
+    public void cellParsed(int column, long nanos) {
+        if (column >= this.columnCount) {
+            this.grow(column + 1);
+        }
+        this.nanosByColumn[column] += nanos;
+        this.cellCountByColumn[column]++;
+    }
+
+    @Override
+    public void cellError(int column) {
+        if (column >= this.columnCount) {
+            this.grow(column + 1);
+        }
+        this.errorCountByColumn[column]++;
+    }
+
+    private void grow(int newColumnCount) {
+        this.nanosByColumn = this.grow(this.nanosByColumn, newColumnCount);
+        this.cellCountByColumn = this.grow(this.cellCountByColumn, newColumnCount);
+        this.errorCountByColumn = this.grow(this.errorCountByColumn, newColumnCount);
+        this.columnCount = newColumnCount;
+    }
+
+    private long[] grow(long[] array, int newColumnCount) {
+        long[] newArray = new long[newColumnCount];
+        System.arraycopy(array, 0, newArray, 0, this.columnCount);
+        return newArray;
+    }
+
+    @Override
+    public void bytesWritten(int count) {
+        this.bytesWritten += count;
+    }
+
+    @Override
+    public void rowWritten() {
+        this.rowsWritten++;
+    }
+
+    @Override
+    public synchronized void cacheAccess(String cache, boolean hit) {
+        long[] hitsAndMisses = this.hitsAndMissesByCache.get(cache);
+        if (hitsAndMisses == null) {
+            hitsAndMisses = new long[2];
+            this.hitsAndMissesByCache.put(cache, hitsAndMisses);
+        }
+        hitsAndMisses[hit ? 0 : 1]++;
+    }
+
+    @Override
+    public synchronized void queueDepth(String queue, int depth) {
+        int[] lastAndMax = this.lastAndMaxDepthByQueue.get(queue);
+        if (lastAndMax == null) {
+            lastAndMax = new int[2];
+            this.lastAndMaxDepthByQueue.put(queue, lastAndMax);
+        }
+        lastAndMax[0] = depth;
+        if (depth > lastAndMax[1]) {
+            lastAndMax[1] = depth;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    public long getRowsRead() {
+        return this.rowsRead;
+    }
+
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    public long getRowsWritten() {
+        return this.rowsWritten;
+    }
+
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    /**
+     * @param column the index of the column
+     * @return the total parse time of the column in nanoseconds
+     */
+    public long getParseNanos(int column) {
+        return column < this.columnCount ? this.nanosByColumn[column] : 0;
+    }
+
+    /**
+     * @param column the index of the column
+     * @return the number of timed cells of the column
+     */
+    public long getParsedCount(int column) {
+        return column < this.columnCount ? this.cellCountByColumn[column] : 0;
+    }
+
+    public long getErrorCount(int column) {
+        return column < this.columnCount ? this.errorCountByColumn[column] : 0;
+    }
+
+    /**
+     * @param cache the name of the cache
+     * @return the hit rate, or NaN if the cache was never accessed
+     */
+    public synchronized double getHitRate(String cache) {
+        long[] hitsAndMisses = this.hitsAndMissesByCache.get(cache);
+        if (hitsAndMisses == null) {
+            return Double.NaN;
+        }
+        return (double) hitsAndMisses[0] / (hitsAndMisses[0] + hitsAndMisses[1]);
+    }
+
+    /**
+     * @param queue the name of the queue
+     * @return the last depth reported
+     */
+    public synchronized int getQueueDepth(String queue) {
+        int[] lastAndMax = this.lastAndMaxDepthByQueue.get(queue);
+        return lastAndMax == null ? 0 : lastAndMax[0];
+    }
+
+    /**
+     * @param queue the name of the queue
+     * @return the max depth reported
+     */
+    public synchronized int getMaxQueueDepth(String queue) {
+        int[] lastAndMax = this.lastAndMaxDepthByQueue.get(queue);
+        return lastAndMax == null ? 0 : lastAndMax[1];
+    }
+
+    /**
+     * @return true if the reader or the writer was closed: the statistics are complete.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * Reports the errors to an instrumentation, then to the user sink if any.
+ */
+class InstrumentedErrorSink implements ErrorSink {
+    private final ErrorSink sink;
+    private final MetaCSVInstrumentation instrumentation;
+
+    /**
+     * @param sink            the user sink, may be null
+     * @param instrumentation the instrumentation
+     */
+    InstrumentedErrorSink(ErrorSink sink, MetaCSVInstrumentation instrumentation) {
+        this.sink = sink;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void error(int column, long row, String text) {
+        this.instrumentation.cellError(column);
+        if (this.sink != null) {
+            this.sink.error(column, row, text);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.sink != null) {
+            this.sink.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the bytes read to an instrumentation.
+ */
+class InstrumentedInputStream extends FilterInputStream {
+    private final MetaCSVInstrumentation instrumentation;
+
+    InstrumentedInputStream(InputStream in, MetaCSVInstrumentation instrumentation) {
+        super(in);
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = this.in.read();
+        if (b != -1) {
+            this.instrumentation.bytesRead(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = this.in.read(b, off, len);
+        if (count > 0) {
+            this.instrumentation.bytesRead(count);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long count = this.in.skip(n);
+        if (count > 0) {
+            this.instrumentation.bytesRead((int) count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+/**
+ * The position of a {@link MetaCSVFollowReader}: the byte offset of the next record and the
+ * number of data rows already read. The offset 0 means that nothing was read, not even the
+ * header.
+ */
+public class MetaCSVCheckpoint {
+    public static final MetaCSVCheckpoint START = new MetaCSVCheckpoint(0, 0);
+
+    /**
+     * @param file the file written by {@link #save(File)}
+     * @return the checkpoint, or {@link #START} if the file does not exist
+     * @throws IOException if the file can't be read
+     */
+    public static MetaCSVCheckpoint load(File file) throws IOException {
+        if (!file.exists()) {
+            return START;
+        }
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), Util.ASCII_CHARSET));
+        try {
+            return parse(reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param text the result of {@link #toText()}
+     * @return the checkpoint
+     * @throws IOException if the text is not a checkpoint
+     */
+    public static MetaCSVCheckpoint parse(String text) throws IOException {
+        int index = text == null ? -1 : text.indexOf(',');
+        if (index == -1) {
+            throw new IOException("Not a checkpoint: " + text);
+        }
+        try {
+            return new MetaCSVCheckpoint(Long.parseLong(text.substring(0, index)),
+                    Long.parseLong(text.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a checkpoint: " + text);
+        }
+    }
+
+    private final long offset;
+    private final long row;
+
+    /**
+     * @param offset the byte offset of the next record
+     * @param row    the number of data rows already read
+     */
+    public MetaCSVCheckpoint(long offset, long row) {
+        this.offset = offset;
+        this.row = row;
+    }
+
+    public long getOffset() {
+        return this.offset;
+    }
+
+    public long getRow() {
+        return this.row;
+    }
+
+    /**
+     * @return "offset,row"
+     */
+    public String toText() {
+        return this.offset + "," + this.row;
+    }
+
+    /**
+     * Write the checkpoint to a temporary file, then rename it: a crash leaves either the
+     * previous or the new checkpoint.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    public void save(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        OutputStream out = new FileOutputStream(tempFile);
+        try {
+            out.write((this.toText() + "\n").getBytes(Util.ASCII_CHARSET));
+        } finally {
+            out.close();
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            throw new IOException("Can't write " + file);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof MetaCSVCheckpoint)) {
+            return false;
+        }
+        MetaCSVCheckpoint other = (MetaCSVCheckpoint) o;
+        return this.offset == other.offset && this.row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (this.offset ^ (this.offset >>> 32)) +
+                (int) (this.row ^ (this.row >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "MetaCSVCheckpoint{offset=" + this.offset + ", row=" + this.row + "}";
+    }
+}
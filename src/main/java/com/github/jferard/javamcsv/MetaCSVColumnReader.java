@@ -0,0 +1,212 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads a MetaCSV file by batches of columns. On the first read, the CSV file is parsed and the
+ * batches are written to a typed columnar cache file (".mcsvc"). The next reads memory map the
+ * cache file, as long as the CSV file (length and last modification) and the MetaCSV data did
+ * not change.
+ *
+ * The cache file is written only if the whole CSV file was read without error: an unreadable
+ * cell is a null cell in the batch, but the cache is not written.
+ */
+public class MetaCSVColumnReader implements Closeable {
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+
+    /**
+     * @param csvFile the CSV file. The MetaCSV file and the cache file are "foo.mcsv" and
+     *                "foo.mcsvc".
+     * @return the reader
+     * @throws IOException if a file can't be read
+     * @throws MetaCSVParseException if the MetaCSV file is not valid
+     * @throws MetaCSVDataException if the MetaCSV data is not valid
+     * @throws MetaCSVReadException if the CSV file can't be read
+     */
+    public static MetaCSVColumnReader create(File csvFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        return create(csvFile, data, Util.withExtension(csvFile, ".mcsvc"), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param csvFile   the CSV file
+     * @param data      the MetaCSV data
+     * @param cacheFile the cache file
+     * @param batchSize the max number of rows of a batch
+     * @return the reader
+     * @throws IOException if a file can't be read
+     * @throws MetaCSVParseException never, the data is given
+     * @throws MetaCSVDataException if the MetaCSV data is not valid
+     * @throws MetaCSVReadException if the CSV file can't be read
+     */
+    public static MetaCSVColumnReader create(File csvFile, MetaCSVData data, File cacheFile,
+                                             int batchSize)
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        long dataHash = ColumnCacheWriter.hash(data);
+        ColumnCacheReader cacheReader = ColumnCacheReader.open(cacheFile, csvFile, dataHash);
+        if (cacheReader != null) {
+            return new MetaCSVColumnReader(cacheReader, cacheReader.getDataTypes());
+        }
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvFile(csvFile).metaData(data)
+                .onError(OnError.EXCEPTION).build();
+        Iterator<MetaCSVRecord> iterator = reader.iterator();
+        if (!iterator.hasNext()) {
+            reader.close();
+            throw new MetaCSVReadException("Missing header");
+        }
+        List<String> header = Util.header(iterator.next());
+        MetaCSVMetaData metaData = reader.getMetaData();
+        DataType[] dataTypes = new DataType[header.size()];
+        for (int c = 0; c < dataTypes.length; c++) {
+            dataTypes[c] = metaData.getDataType(c);
+        }
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        ColumnCacheWriter cacheWriter =
+                ColumnCacheWriter.create(tempFile, csvFile, dataHash, header, dataTypes);
+        return new MetaCSVColumnReader(reader, iterator, header, dataTypes,
+                new ColumnBatchBuilder(dataTypes, batchSize), cacheWriter, tempFile, cacheFile);
+    }
+
+    private final List<String> header;
+    private final List<DataType> dataTypes;
+    private final ColumnCacheReader cacheReader;
+    private final MetaCSVReader reader;
+    private final Iterator<MetaCSVRecord> iterator;
+    private final ColumnBatchBuilder builder;
+    private final ColumnCacheWriter cacheWriter;
+    private final File tempFile;
+    private final File cacheFile;
+    private boolean complete;
+
+    private MetaCSVColumnReader(ColumnCacheReader cacheReader, DataType[] dataTypes) {
+        this.header = cacheReader.getHeader();
+        this.dataTypes = Collections.unmodifiableList(Arrays.asList(dataTypes));
+        this.cacheReader = cacheReader;
+        this.reader = null;
+        this.iterator = null;
+        this.builder = null;
+        this.cacheWriter = null;
+        this.tempFile = null;
+        this.cacheFile = null;
+        this.complete = false;
+    }
+
+    private MetaCSVColumnReader(MetaCSVReader reader, Iterator<MetaCSVRecord> iterator,
+                                List<String> header, DataType[] dataTypes,
+                                ColumnBatchBuilder builder,
+                                ColumnCacheWriter cacheWriter, File tempFile, File cacheFile) {
+        this.header = header;
+        this.dataTypes = Collections.unmodifiableList(Arrays.asList(dataTypes));
+        this.cacheReader = null;
+        this.reader = reader;
+        this.iterator = iterator;
+        this.builder = builder;
+        this.cacheWriter = cacheWriter;
+        this.tempFile = tempFile;
+        this.cacheFile = cacheFile;
+        this.complete = false;
+    }
+
+    /**
+     * @return the names of the columns
+     */
+    public List<String> getHeader() {
+        return this.header;
+    }
+
+    /**
+     * @return the types of the columns
+     */
+    public List<DataType> getDataTypes() {
+        return this.dataTypes;
+    }
+
+    /**
+     * @return true if the batches are read from the cache file.
+     */
+    public boolean isCached() {
+        return this.cacheReader != null;
+    }
+
+    /**
+     * @return the next batch, or null if there is no more row.
+     * @throws IOException if a file can't be read or written
+     */
+    public ColumnBatch nextBatch() throws IOException {
+        if (this.cacheReader != null) {
+            return this.cacheReader.next();
+        }
+        if (this.complete) {
+            return null;
+        }
+        while (this.iterator.hasNext() && !this.builder.isFull()) {
+            this.builder.add(this.iterator.next());
+        }
+        if (!this.iterator.hasNext()) {
+            this.complete = true;
+            if (this.builder.getRowCount() == 0) {
+                return null;
+            }
+        }
+        ColumnBatch batch = this.builder.build();
+        this.cacheWriter.write(batch);
+        return batch;
+    }
+
+    /**
+     * Close the reader. If the whole CSV file was read without error, the cache file is
+     * replaced, else the temporary file is deleted.
+     *
+     * @throws IOException if a file can't be closed or renamed
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.cacheReader != null) {
+            this.cacheReader.close();
+            return;
+        }
+        this.reader.close();
+        if (this.complete && this.builder.isLossless()) {
+            this.cacheWriter.finish();
+            if (this.cacheFile.exists() && !this.cacheFile.delete() ||
+                    !this.tempFile.renameTo(this.cacheFile)) {
+                throw new IOException("Can't write " + this.cacheFile);
+            }
+        } else {
+            this.cacheWriter.close();
+            if (!this.tempFile.delete()) {
+                throw new IOException("Can't delete " + this.tempFile);
+            }
+        }
+    }
+}
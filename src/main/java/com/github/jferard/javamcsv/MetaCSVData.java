@@ -22,6 +22,8 @@ package com.github.jferard.javamcsv;
 
 import com.github.jferard.javamcsv.processor.ProcessorProvider;
 import com.github.jferard.javamcsv.processor.ReadProcessorProvider;
+import com.github.jferard.javamcsv.processor.RowDecoder;
+import com.github.jferard.javamcsv.processor.RowDecoderCompiler;
 import com.github.jferard.javamcsv.processor.TextFieldProcessor;
 import com.github.jferard.javamcsv.description.FieldDescription;
 import com.github.jferard.javamcsv.processor.FieldProcessor;
@@ -159,10 +161,56 @@ public class MetaCSVData implements CSVParameters {
         return meta.get(key);
     }
 
+    /**
+     * @return the keys of the meta domain, "version" excluded, sorted.
+     */
+    public List<String> getSortedMetaKeys() {
+        List<String> keys = new ArrayList<String>(this.meta.keySet());
+        Collections.sort(keys);
+        return keys;
+    }
+
+    /**
+     * @param meta the new keys and values of the meta domain
+     * @return a copy of this data with the keys and values added to the meta domain.
+     */
+    public MetaCSVData withMeta(Map<String, String> meta) {
+        Map<String, String> newMeta = new HashMap<String, String>(this.meta);
+        newMeta.putAll(meta);
+        return new MetaCSVData(this.metaVersion, newMeta, this.encoding, this.utf8BOM,
+                this.lineTerminator, this.delimiter, this.quoteChar, this.doubleQuote,
+                this.escapeChar, this.skipInitialSpace, this.nullValue,
+                this.descriptionByColIndex);
+    }
+
     public ReadProcessorProvider toReadProcessorProvider(OnError onError) {
         return new ReadProcessorProvider(this.descriptionByColIndex, this.nullValue, onError);
     }
 
+    public ReadProcessorProvider toReadProcessorProvider(OnError onError, ErrorSink sink) {
+        return this.toReadProcessorProvider(onError, sink, null);
+    }
+
+    public ReadProcessorProvider toReadProcessorProvider(
+            OnError onError, ErrorSink sink, MetaCSVInstrumentation instrumentation) {
+        return new ReadProcessorProvider(this.descriptionByColIndex, this.nullValue, onError,
+                sink, instrumentation);
+    }
+
+    public RowDecoder toRowDecoder(OnError onError) {
+        return this.toRowDecoder(onError, null);
+    }
+
+    public RowDecoder toRowDecoder(OnError onError, ErrorSink sink) {
+        return this.toRowDecoder(onError, sink, null);
+    }
+
+    public RowDecoder toRowDecoder(OnError onError, ErrorSink sink,
+                                   MetaCSVInstrumentation instrumentation) {
+        return new RowDecoderCompiler().compile(this.descriptionByColIndex, this.nullValue,
+                onError, sink, instrumentation);
+    }
+
     public WriteProcessorProvider toWriteProcessorProvider(
             OnError onError) {
         return new WriteProcessorProvider(this.descriptionByColIndex, this.nullValue, onError);
@@ -171,4 +219,9 @@ public class MetaCSVData implements CSVParameters {
     public ProcessorProvider toProcessorProvider(String nullValue) {
         return new ProcessorProvider(this.descriptionByColIndex, nullValue);
     }
+
+    public ProcessorProvider toProcessorProvider(String nullValue,
+                                                 MetaCSVInstrumentation instrumentation) {
+        return new ProcessorProvider(this.descriptionByColIndex, nullValue, instrumentation);
+    }
 }
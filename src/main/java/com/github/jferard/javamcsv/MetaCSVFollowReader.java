@@ -0,0 +1,287 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.processor.CSVRecordProcessor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a CSV file that is growing, like "tail -f". The reader returns the complete records
+ * appended to the file since the last call, and holds back the partial record at the end of
+ * the file until it is complete. The bytes are scanned with the state machine of the
+ * {@link CSVChunker}: only the new bytes are read, and the history is never parsed again.
+ *
+ * A record ended by a CR is complete when the CR is written: the LF of a CRLF is an empty line
+ * for the next read, and is skipped.
+ *
+ * The {@link #getCheckpoint()} of a reader may be given to a new reader (see
+ * {@link MetaCSVReaderBuilder#checkpoint(MetaCSVCheckpoint)}) to resume where the previous one
+ * stopped. Then the header is read again, but the data rows before the checkpoint are not.
+ *
+ * The file is polled: a new record is seen after at most the poll interval.
+ */
+public class MetaCSVFollowReader implements Closeable {
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final File csvFile;
+    private final Charset charset;
+    private final CSVFormat format;
+    private final CSVChunker chunker;
+    private final CSVRecordProcessor processor;
+    private final MetaCSVMetaData metaData;
+    private final ErrorSink errorSink;
+    private final long pollInterval;
+    private final RandomAccessFile file;
+    private final byte[] bytes;
+    private List<String> header;
+    private List<CSVRecord> records;
+    private long[] recordEnds;
+    private int recordIndex;
+    private long offset;
+    private long row;
+    private long position;
+    private int state;
+    private boolean recordContent;
+    private int endCount;
+
+    /**
+     * @param csvFile      the file
+     * @param data         the data
+     * @param processor    the processor of the data rows
+     * @param errorSink    the error sink, may be null
+     * @param checkpoint   the checkpoint, {@link MetaCSVCheckpoint#START} to read the whole file
+     * @param pollInterval the poll interval in milliseconds
+     * @throws IOException if the charset is not byte aligned or the file can't be read
+     */
+    MetaCSVFollowReader(File csvFile, MetaCSVData data, CSVRecordProcessor processor,
+                        ErrorSink errorSink, MetaCSVCheckpoint checkpoint, long pollInterval)
+            throws IOException, MetaCSVReadException {
+        this.chunker = CSVChunker.create(data);
+        if (!this.chunker.isSplittable()) {
+            throw new IOException("Can't follow a file in " + data.getEncoding());
+        }
+        this.csvFile = csvFile;
+        this.charset = data.getEncoding();
+        this.format = CSVFormatHelper.getCSVFormat(data);
+        this.processor = processor;
+        this.metaData = data.getMetaData();
+        this.errorSink = errorSink;
+        this.pollInterval = pollInterval;
+        this.bytes = new byte[CSVChunker.BUFFER_SIZE];
+        this.recordEnds = new long[INITIAL_CAPACITY];
+        this.records = null;
+        this.recordIndex = 0;
+        this.state = CSVChunker.RECORD_START;
+        this.recordContent = false;
+        if (checkpoint.getOffset() == 0) {
+            this.offset = this.chunker.getBOMLength();
+            this.row = 0;
+        } else {
+            this.header = this.readHeader();
+            this.offset = checkpoint.getOffset();
+            this.row = checkpoint.getRow();
+        }
+        this.position = this.offset;
+        this.file = new RandomAccessFile(csvFile, "r");
+    }
+
+    private List<String> readHeader() throws IOException, MetaCSVReadException {
+        InputStream in = new FileInputStream(this.csvFile);
+        try {
+            long skipped = 0;
+            while (skipped < this.chunker.getBOMLength()) {
+                skipped += in.skip(this.chunker.getBOMLength() - skipped);
+            }
+            CSVParser parser = this.format.parse(new InputStreamReader(in, this.charset));
+            Iterator<CSVRecord> iterator = parser.iterator();
+            if (!iterator.hasNext()) {
+                throw new IOException("Missing header in " + this.csvFile);
+            }
+            return Util.header(CSVRecordsIterator.HEADER_PROCESSOR.createRecord(iterator.next()));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the header, or null if the header was not written yet.
+     */
+    public List<String> getHeader() {
+        return this.header;
+    }
+
+    public MetaCSVMetaData getMetaData() {
+        return this.metaData;
+    }
+
+    /**
+     * @return the position after the last record returned.
+     */
+    public MetaCSVCheckpoint getCheckpoint() {
+        if (this.header == null) {
+            return MetaCSVCheckpoint.START;
+        }
+        return new MetaCSVCheckpoint(this.offset, this.row);
+    }
+
+    /**
+     * @return the next data row, or null if there is no new complete record.
+     * @throws IOException if the file can't be read or was truncated
+     */
+    public MetaCSVRecord poll() throws IOException, MetaCSVReadException {
+        if (this.records == null || this.recordIndex == this.records.size()) {
+            this.records = null;
+            this.readRecords();
+            if (this.records == null || this.recordIndex == this.records.size()) {
+                return null;
+            }
+        }
+        CSVRecord record = this.records.get(this.recordIndex);
+        this.offset = this.recordEnds[this.recordIndex];
+        this.recordIndex++;
+        this.row++;
+        return this.processor.createRecord(record);
+    }
+
+    /**
+     * Wait for the next data row.
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     * @return the next data row, or null if there is no new complete record after the timeout.
+     * @throws IOException          if the file can't be read or was truncated
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public MetaCSVRecord next(long timeout, TimeUnit unit)
+            throws IOException, MetaCSVReadException, InterruptedException {
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            MetaCSVRecord record = this.poll();
+            if (record != null) {
+                return record;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            Thread.sleep(Math.min(this.pollInterval, remaining));
+        }
+    }
+
+    /**
+     * Scan the new bytes and parse the complete records, about MAX_BATCH_SIZE records at most.
+     */
+    private void readRecords() throws IOException, MetaCSVReadException {
+        long length = this.file.length();
+        if (length < this.position) {
+            throw new IOException("The file was truncated: " + this.csvFile);
+        }
+        this.endCount = 0;
+        this.file.seek(this.position);
+        while (this.position < length && this.endCount < MAX_BATCH_SIZE) {
+            int n = this.file.read(this.bytes, 0,
+                    (int) Math.min(this.bytes.length, length - this.position));
+            if (n <= 0) {
+                break;
+            }
+            this.scan(n);
+        }
+        if (this.endCount == 0) {
+            return;
+        }
+        long end = this.recordEnds[this.endCount - 1];
+        byte[] recordBytes = new byte[(int) (end - this.offset)];
+        this.file.seek(this.offset);
+        this.file.readFully(recordBytes);
+        long recordNumber = this.header == null ? 1 : this.row + 2;
+        CSVParser parser = new CSVParser(
+                new StringReader(new String(recordBytes, this.charset)), this.format, 0,
+                recordNumber);
+        List<CSVRecord> records = parser.getRecords();
+        if (records.size() != this.endCount) {
+            throw new IOException(
+                    "Expected " + this.endCount + " records, found " + records.size());
+        }
+        this.records = records;
+        this.recordIndex = 0;
+        if (this.header == null) {
+            this.header = Util.header(
+                    CSVRecordsIterator.HEADER_PROCESSOR.createRecord(records.get(0)));
+            this.offset = this.recordEnds[0];
+            this.recordIndex = 1;
+        }
+    }
+
+    private void scan(int n) {
+        for (int i = 0; i < n; i++) {
+            int b = this.bytes[i] & 0xFF;
+            int r = this.chunker.next(this.state, b);
+            if ((r & CSVChunker.END_BEFORE) != 0) {
+                this.endRecord(this.position + i);
+            }
+            if (b != '\r' && b != '\n') {
+                this.recordContent = true;
+            }
+            if ((r & CSVChunker.END_AFTER) != 0 || (r & CSVChunker.STATE_MASK) == CSVChunker.CR) {
+                this.endRecord(this.position + i + 1);
+            }
+            this.state = r & CSVChunker.STATE_MASK;
+        }
+        this.position += n;
+    }
+
+    private void endRecord(long end) {
+        if (this.recordContent) {
+            if (this.endCount == this.recordEnds.length) {
+                long[] newRecordEnds = new long[2 * this.endCount];
+                System.arraycopy(this.recordEnds, 0, newRecordEnds, 0, this.endCount);
+                this.recordEnds = newRecordEnds;
+            }
+            this.recordEnds[this.endCount++] = end;
+        }
+        this.recordContent = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+        if (this.errorSink != null) {
+            this.errorSink.close();
+        }
+    }
+}
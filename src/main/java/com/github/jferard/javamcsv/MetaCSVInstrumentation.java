@@ -0,0 +1,89 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * Receives the measures of a reader or a writer. Give it to
+ * {@link MetaCSVReaderBuilder#instrumentation(MetaCSVInstrumentation)} or
+ * {@link MetaCSVWriterBuilder#instrumentation(MetaCSVInstrumentation)}. Without
+ * instrumentation, the reader and the writer only pay a null check per row.
+ *
+ * The methods of a reader or a writer are called from the thread that reads or writes.
+ * {@link #cacheAccess(String, boolean)} and {@link #queueDepth(String, int)} may be called
+ * from several threads.
+ */
+public interface MetaCSVInstrumentation {
+    /**
+     * @return true if the parse time of each cell should be measured. This costs two calls to
+     * System.nanoTime per cell. The cells are timed when the rows are decoded by
+     * {@link MetaCSVRecord#toList()}, with or without a compiled decoder, and when they are
+     * read by the typed or primitive getters of {@link MetaCSVRecord}.
+     */
+    boolean isColumnTimed();
+
+    /**
+     * @param count the number of bytes read from the CSV stream
+     */
+    void bytesRead(int count);
+
+    /**
+     * Called for each row read, header excluded.
+     */
+    void rowRead();
+
+    /**
+     * @param column the index of the column
+     * @param nanos  the time spent parsing the cell
+     */
+    void cellParsed(int column, long nanos);
+
+    /**
+     * @param column the index of the column of a cell that can't be read
+     */
+    void cellError(int column);
+
+    /**
+     * @param count the number of bytes written to the CSV stream
+     */
+    void bytesWritten(int count);
+
+    /**
+     * Called for each row written, header excluded.
+     */
+    void rowWritten();
+
+    /**
+     * @param cache the name of the cache
+     * @param hit   true if the value was in the cache
+     */
+    void cacheAccess(String cache, boolean hit);
+
+    /**
+     * @param queue the name of the queue
+     * @param depth the number of pending tasks
+     */
+    void queueDepth(String queue, int depth);
+
+    /**
+     * Called when the reader or the writer is closed.
+     */
+    void close();
+}
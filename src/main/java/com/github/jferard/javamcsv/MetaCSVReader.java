@@ -64,17 +64,49 @@ public class MetaCSVReader implements Iterable<MetaCSVRecord>, Closeable {
     private final CSVParser parser;
     private final CSVRecordProcessor processor;
     private MetaCSVMetaData metaData;
+    private final ErrorSink errorSink;
+    private final MetaCSVInstrumentation instrumentation;
+    private final ColumnStatistics statistics;
 
     public MetaCSVReader(CSVParser parser, CSVRecordProcessor processor,
                          MetaCSVMetaData metaData) {
+        this(parser, processor, metaData, null);
+    }
+
+    public MetaCSVReader(CSVParser parser, CSVRecordProcessor processor,
+                         MetaCSVMetaData metaData, ErrorSink errorSink) {
+        this(parser, processor, metaData, errorSink, null);
+    }
+
+    public MetaCSVReader(CSVParser parser, CSVRecordProcessor processor,
+                         MetaCSVMetaData metaData, ErrorSink errorSink,
+                         MetaCSVInstrumentation instrumentation) {
+        this(parser, processor, metaData, errorSink, instrumentation, null);
+    }
+
+    /**
+     * @param parser          the parser
+     * @param processor       the processor
+     * @param metaData        the meta data
+     * @param errorSink       the error sink, may be null
+     * @param instrumentation the instrumentation, may be null
+     * @param statistics      the statistics, filled as the records are read. May be null.
+     */
+    public MetaCSVReader(CSVParser parser, CSVRecordProcessor processor,
+                         MetaCSVMetaData metaData, ErrorSink errorSink,
+                         MetaCSVInstrumentation instrumentation, ColumnStatistics statistics) {
         this.parser = parser;
         this.processor = processor;
         this.metaData = metaData;
+        this.errorSink = errorSink;
+        this.instrumentation = instrumentation;
+        this.statistics = statistics;
     }
 
     @Override
     public Iterator<MetaCSVRecord> iterator() {
-        return new CSVRecordsIterator(this.parser.iterator(), this.processor);
+        return new CSVRecordsIterator(this.parser.iterator(), this.processor,
+                this.instrumentation, this.statistics);
     }
 
     public long getRow() {
@@ -85,8 +117,22 @@ public class MetaCSVReader implements Iterable<MetaCSVRecord>, Closeable {
         return this.metaData;
     }
 
+    /**
+     * @return the statistics of the records read so far, or null if they are not collected.
+     * See {@link MetaCSVReaderBuilder#collectStatistics(boolean)}.
+     */
+    public ColumnStatistics getStatistics() {
+        return this.statistics;
+    }
+
     @Override
     public void close() throws IOException {
         this.parser.close();
+        if (this.errorSink != null) {
+            this.errorSink.close();
+        }
+        if (this.instrumentation != null) {
+            this.instrumentation.close();
+        }
     }
 }
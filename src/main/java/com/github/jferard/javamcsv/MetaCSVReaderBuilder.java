@@ -23,6 +23,7 @@ package com.github.jferard.javamcsv;
 import com.github.jferard.javamcsv.processor.CSVRecordProcessor;
 import com.github.jferard.javamcsv.processor.ProcessorProvider;
 import com.github.jferard.javamcsv.processor.ReadProcessorProvider;
+import com.github.jferard.javamcsv.processor.RowDecoder;
 import org.apache.commons.csv.CSVFormat;
 
 import java.io.File;
@@ -39,11 +40,23 @@ public class MetaCSVReaderBuilder {
     private InputStream csvIn;
     private MetaCSVData data;
     private OnError onError;
+    private boolean compileDecoder;
+    private ErrorSink errorSink;
+    private MetaCSVInstrumentation instrumentation;
+    private MetaCSVCheckpoint checkpoint;
+    private boolean collectStatistics;
+    private long pollInterval;
+    private CSVZoneMap zoneMap;
+    private int rangeColumn;
+    private Object rangeMin;
+    private Object rangeMax;
 
     public MetaCSVReaderBuilder() {
         this.parserBuilder = new MetaCSVParserBuilder();
         this.onError = OnError.WRAP;
         timeZone = Util.UTC_TIME_ZONE;
+        this.checkpoint = MetaCSVCheckpoint.START;
+        this.pollInterval = MetaCSVFollowReader.DEFAULT_POLL_INTERVAL;
     }
 
     public MetaCSVReaderBuilder csvFile(File csvFile) {
@@ -99,10 +112,114 @@ public class MetaCSVReaderBuilder {
         return this;
     }
 
+    /**
+     * @param compileDecoder if true, generate a row decoder specialized for the schema.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder compileDecoder(boolean compileDecoder) {
+        this.compileDecoder = compileDecoder;
+        return this;
+    }
+
+    /**
+     * @param errorSink the sink for the values that can't be read, e.g. an ErrorStatistics.
+     *                  The sink is closed with the reader. The values are reported when the
+     *                  OnError policy is applied, that is by the iterator of a record and by
+     *                  {@link MetaCSVRecord#toList()}. The typed getters of MetaCSVRecord
+     *                  (getInteger, getLongValue, ...) throw a MetaCSVReadException instead
+     *                  and don't report the value.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder errorSink(ErrorSink errorSink) {
+        this.errorSink = errorSink;
+        return this;
+    }
+
+    /**
+     * @param instrumentation the receiver of the measures (bytes, rows, parse time and errors
+     *                        per column). It is closed with the reader.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder instrumentation(MetaCSVInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+        return this;
+    }
+
+    /**
+     * @param collectStatistics if true, collect the statistics of the columns while reading.
+     *                          See {@link MetaCSVReader#getStatistics()}.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder collectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+        return this;
+    }
+
+    /**
+     * Read only the blocks of the CSV file that may contain values of a column between min
+     * and max. The records of these blocks are returned as is: the caller still has to test
+     * the values, and {@link MetaCSVReader#getRow()} is not the row of the file.
+     *
+     * @param zoneMap the zone map of the CSV file
+     * @param column  the column index
+     * @param min     the min value (inclusive), or null
+     * @param max     the max value (inclusive), or null
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder range(CSVZoneMap zoneMap, int column, Object min, Object max) {
+        this.zoneMap = zoneMap;
+        this.rangeColumn = column;
+        this.rangeMin = min;
+        this.rangeMax = max;
+        return this;
+    }
+
+    /**
+     * @param checkpoint the checkpoint of a previous follow reader. See
+     *                   {@link #buildFollowReader()}.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder checkpoint(MetaCSVCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * @param pollInterval the interval between two reads of a followed file, in milliseconds.
+     *                     See {@link #buildFollowReader()}.
+     * @return this for fluent style
+     */
+    public MetaCSVReaderBuilder pollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+        return this;
+    }
+
+    /**
+     * @return a reader that follows the CSV file as it grows, from the checkpoint. The
+     * instrumentation is not used.
+     * @throws IOException if there is no CSV file, or its encoding is not byte aligned
+     */
+    public MetaCSVFollowReader buildFollowReader()
+            throws IOException, MetaCSVParseException, MetaCSVDataException, MetaCSVReadException {
+        if (this.csvFile == null) {
+            throw new IOException("Follow mode needs a CSV file");
+        }
+        MetaCSVData data = getData();
+        return new MetaCSVFollowReader(this.csvFile, data,
+                this.createProcessor(data, this.errorSink, null), this.errorSink, this.checkpoint,
+                this.pollInterval);
+    }
+
     public MetaCSVReader build()
             throws IOException, MetaCSVParseException, MetaCSVDataException, MetaCSVReadException {
         MetaCSVData data = getData();
-        if (this.csvIn == null) {
+        if (this.zoneMap != null) {
+            if (this.csvFile == null) {
+                throw new IOException("A range read needs a CSV file");
+            }
+            this.csvIn = this.zoneMap.openInputStream(this.csvFile, this.rangeColumn,
+                    this.rangeMin, this.rangeMax);
+        } else if (this.csvIn == null) {
             this.csvIn = new FileInputStream(csvFile);
         }
         return this.create(this.csvIn, data);
@@ -118,17 +235,35 @@ public class MetaCSVReaderBuilder {
 
     private MetaCSVReader create(InputStream csvIn, MetaCSVData data)
             throws IOException, MetaCSVReadException {
+        ErrorSink errorSink = this.errorSink;
+        if (this.instrumentation != null) {
+            csvIn = new InstrumentedInputStream(csvIn, this.instrumentation);
+            errorSink = new InstrumentedErrorSink(errorSink, this.instrumentation);
+        }
         if (data.isUtf8BOM()) {
             gobbleBOM(csvIn);
         }
         InputStreamReader reader = new InputStreamReader(csvIn, data.getEncoding());
         CSVFormat format = CSVFormatHelper.getCSVFormat(data);
-        ProcessorProvider processorProvider = data.toProcessorProvider(data.getNullValue());
+        CSVRecordProcessor processor = this.createProcessor(data, errorSink,
+                this.instrumentation);
+        ColumnStatistics statistics =
+                this.collectStatistics ? new ColumnStatistics(data) : null;
+        return new MetaCSVReader(format.parse(reader), processor, data.getMetaData(),
+                errorSink, this.instrumentation, statistics);
+    }
+
+    private CSVRecordProcessor createProcessor(MetaCSVData data, ErrorSink errorSink,
+                                               MetaCSVInstrumentation instrumentation) {
+        ProcessorProvider processorProvider =
+                data.toProcessorProvider(data.getNullValue(), instrumentation);
         ReadProcessorProvider readProcessorProvider =
-                data.toReadProcessorProvider(this.onError);
-        CSVRecordProcessor processor = new CSVRecordProcessor(
-                processorProvider, readProcessorProvider, this.onError, timeZone);
-        return new MetaCSVReader(format.parse(reader), processor, data.getMetaData());
+                data.toReadProcessorProvider(this.onError, errorSink, instrumentation);
+        RowDecoder decoder =
+                this.compileDecoder ? data.toRowDecoder(this.onError, errorSink, instrumentation)
+                        : null;
+        return new CSVRecordProcessor(
+                processorProvider, readProcessorProvider, this.onError, timeZone, decoder);
     }
 
     private void gobbleBOM(InputStream csvIn) throws IOException, MetaCSVReadException {
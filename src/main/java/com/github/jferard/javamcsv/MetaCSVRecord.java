@@ -21,9 +21,11 @@
 package com.github.jferard.javamcsv;
 
 import com.github.jferard.javamcsv.processor.FieldProcessor;
+import com.github.jferard.javamcsv.processor.PrimitiveReadFieldProcessor;
 import com.github.jferard.javamcsv.processor.ProcessorProvider;
 import com.github.jferard.javamcsv.processor.ReadFieldProcessor;
 import com.github.jferard.javamcsv.processor.ReadProcessorProvider;
+import com.github.jferard.javamcsv.processor.RowDecoder;
 import org.apache.commons.csv.CSVRecord;
 
 import java.math.BigDecimal;
@@ -44,16 +46,25 @@ public class MetaCSVRecord implements Iterable<Object> {
     private ProcessorProvider provider;
     private ReadProcessorProvider readProvider;
     private HashMap<Integer, ReadFieldProcessor<?>> processorByIndex;
+    private RowDecoder decoder;
 
     public MetaCSVRecord(CSVRecord record, ProcessorProvider provider,
                          ReadProcessorProvider readProvider,
                          HashMap<Integer, ReadFieldProcessor<?>> processorByIndex,
                          TimeZone timeZone) {
+        this(record, provider, readProvider, processorByIndex, timeZone, null);
+    }
+
+    public MetaCSVRecord(CSVRecord record, ProcessorProvider provider,
+                         ReadProcessorProvider readProvider,
+                         HashMap<Integer, ReadFieldProcessor<?>> processorByIndex,
+                         TimeZone timeZone, RowDecoder decoder) {
         this.record = record;
         this.provider = provider;
         this.readProvider = readProvider;
         this.processorByIndex = processorByIndex;
         this.offset = UTC_TIME_ZONE.getRawOffset() - timeZone.getRawOffset();
+        this.decoder = decoder;
     }
 
     public Boolean getBoolean(int i) throws MetaCSVCastException, MetaCSVReadException {
@@ -145,6 +156,60 @@ public class MetaCSVRecord implements Iterable<Object> {
         return getValue(i);
     }
 
+    /**
+     * @param i the index of the column
+     * @return true if the value is null. The value is not decoded.
+     */
+    public boolean isNull(int i) {
+        return this.provider.getPrimitiveProcessor(i).isNull(this.record.get(i));
+    }
+
+    /**
+     * @param i the index of the column
+     * @return the value, without boxing for integer columns, or 0 if the value is null.
+     * @throws MetaCSVReadException if the value can't be read
+     * @throws MetaCSVCastException if the value is not an integer
+     */
+    public long getLongValue(int i) throws MetaCSVReadException {
+        PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(i);
+        String text = this.record.get(i);
+        if (processor.isNull(text)) {
+            return 0L;
+        }
+        return processor.toLong(text);
+    }
+
+    /**
+     * @param i the index of the column
+     * @return the value, without boxing for float and integer columns, or 0 if the value is
+     * null.
+     * @throws MetaCSVReadException if the value can't be read
+     * @throws MetaCSVCastException if the value is not a number
+     */
+    public double getDoubleValue(int i) throws MetaCSVReadException {
+        PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(i);
+        String text = this.record.get(i);
+        if (processor.isNull(text)) {
+            return 0.0;
+        }
+        return processor.toDouble(text);
+    }
+
+    /**
+     * @param i the index of the column
+     * @return the value, without boxing for boolean columns, or false if the value is null.
+     * @throws MetaCSVReadException if the value can't be read
+     * @throws MetaCSVCastException if the value is not a boolean
+     */
+    public boolean getBooleanValue(int i) throws MetaCSVReadException {
+        PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(i);
+        String text = this.record.get(i);
+        if (processor.isNull(text)) {
+            return false;
+        }
+        return processor.toBoolean(text);
+    }
+
     public int size() {
         return this.record.size();
     }
@@ -156,6 +221,10 @@ public class MetaCSVRecord implements Iterable<Object> {
     }
 
     public List<Object> toList() {
+        this.readProvider.setRow(this.record.getRecordNumber() - 1);
+        if (this.decoder != null) {
+            return this.decoder.decode(this.record);
+        }
         int size = this.record.size();
         List<Object> ret = new ArrayList<Object>(size);
         for (int c = 0; c < size; c++) {
@@ -167,6 +236,7 @@ public class MetaCSVRecord implements Iterable<Object> {
     }
 
     public List<String> toCanonicalList() {
+        this.readProvider.setRow(this.record.getRecordNumber() - 1);
         int size = this.record.size();
         List<String> ret = new ArrayList<String>(size);
         for (int c = 0; c < size; c++) {
@@ -184,6 +254,7 @@ public class MetaCSVRecord implements Iterable<Object> {
 
     @Override
     public Iterator<Object> iterator() {
+        this.readProvider.setRow(this.record.getRecordNumber() - 1);
         return new CSVRecordIterator(this.record, this.readProvider);
     }
 }
@@ -65,6 +65,9 @@ public class MetaCSVRenderer {
 
     public void render(MetaCSVData data) throws IOException {
         this.printer.printRecord("domain", "key", "value");
+        for (String key : data.getSortedMetaKeys()) {
+            this.printer.printRecord("meta", key, data.getMeta(key));
+        }
         if (minimal) {
             this.renderMinimal(data);
         } else {
@@ -0,0 +1,432 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.description.FieldDescription;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Splits a CSV file into parts and concatenates parts, without decoding the records. The
+ * record boundaries are found with the state machine of the {@link CSVChunker} (quotes and
+ * escapes are honored) and the bytes are copied with {@link FileChannel#transferTo}.
+ *
+ * Every part has the BOM (if any) and the header of the source file, and a copy of its .mcsv
+ * file. The concatenation checks that the .mcsv files and the headers of the parts are
+ * compatible, and keeps only the first header.
+ */
+public class MetaCSVSplitter {
+    private final MetaCSVData data;
+    private final CSVChunker chunker;
+    private final int threadCount;
+
+    /**
+     * @param data the data of the source file
+     * @throws IOException if the charset is not byte aligned
+     */
+    public MetaCSVSplitter(MetaCSVData data) throws IOException {
+        this(data, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param data        the data of the source file
+     * @param threadCount the number of threads to find the boundaries in
+     *                    {@link #splitBySize(File, long, File)}
+     * @throws IOException if the charset is not byte aligned
+     */
+    public MetaCSVSplitter(MetaCSVData data, int threadCount) throws IOException {
+        this.data = data;
+        this.chunker = CSVChunker.create(data);
+        if (!this.chunker.isSplittable()) {
+            throw new IOException("Can't split a file in " + data.getEncoding());
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Split a file in parts of about partSize bytes. The parts are named
+     * "name-00000.ext", "name-00001.ext", ...
+     *
+     * @param csvFile   the source file
+     * @param partSize  the approximate size of the rows of a part
+     * @param directory the directory of the parts
+     * @return the parts, in order
+     * @throws IOException if a file can't be read or written
+     */
+    public List<File> splitBySize(File csvFile, long partSize, File directory)
+            throws IOException {
+        long headerEnd = this.getHeaderEnd(csvFile);
+        long length = csvFile.length();
+        List<Long> starts = new ArrayList<Long>();
+        starts.add(headerEnd);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            for (CSVChunk chunk : this.chunker.split(csvFile, partSize, executor)) {
+                if (chunk.getStart() > headerEnd) {
+                    starts.add(chunk.getStart());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        starts.add(length);
+        return this.writeParts(csvFile, headerEnd, starts, directory);
+    }
+
+    /**
+     * Split a file in parts of rowCount rows. The parts are named "name-00000.ext",
+     * "name-00001.ext", ...
+     *
+     * @param csvFile   the source file
+     * @param rowCount  the number of rows of a part (the last part may have less rows)
+     * @param directory the directory of the parts
+     * @return the parts, in order
+     * @throws IOException if a file can't be read or written
+     */
+    public List<File> splitByRows(File csvFile, long rowCount, File directory)
+            throws IOException {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("Expected a positive row count: " + rowCount);
+        }
+        long length = csvFile.length();
+        List<Long> starts = new ArrayList<Long>();
+        long headerEnd;
+        FileInputStream in = new FileInputStream(csvFile);
+        try {
+            RecordScanner scanner = new RecordScanner(this.chunker, in.getChannel(), length);
+            headerEnd = this.getHeaderEnd(scanner);
+            starts.add(headerEnd);
+            long count = 0;
+            long end;
+            while ((end = scanner.nextEnd()) != -1) {
+                count++;
+                if (count % rowCount == 0 && end < length) {
+                    starts.add(end);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        long last = starts.get(starts.size() - 1);
+        if (starts.size() > 1 && isBlank(csvFile, last, length)) {
+            // only empty lines after the last part
+            starts.remove(starts.size() - 1);
+        }
+        starts.add(length);
+        return this.writeParts(csvFile, headerEnd, starts, directory);
+    }
+
+    /**
+     * Concatenate parts that have the same .mcsv file and header. The output file has the
+     * BOM and the header of the first part, and a copy of its .mcsv file.
+     *
+     * @param parts   the parts, each one with a .mcsv file
+     * @param outFile the output file
+     * @throws IOException          if a file can't be read or written
+     * @throws MetaCSVDataException if the .mcsv files or the headers are not compatible
+     */
+    public static void concat(List<File> parts, File outFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("No part to concatenate");
+        }
+        MetaCSVData data = null;
+        MetaCSVSplitter splitter = null;
+        List<String> header = null;
+        RandomAccessFile out = new RandomAccessFile(outFile, "rw");
+        try {
+            out.setLength(0);
+            FileChannel outChannel = out.getChannel();
+            for (File part : parts) {
+                MetaCSVData partData = new MetaCSVParserBuilder()
+                        .metaCSVFile(Util.withExtension(part, ".mcsv")).buildData();
+                if (data == null) {
+                    data = partData;
+                    splitter = new MetaCSVSplitter(data, 1);
+                } else {
+                    checkCompatible(data, partData, part);
+                }
+                long headerEnd = splitter.getHeaderEnd(part);
+                List<String> partHeader = splitter.readHeader(part, headerEnd);
+                if (header == null) {
+                    header = partHeader;
+                    transfer(part, 0, part.length(), outChannel);
+                    continue;
+                }
+                if (!header.equals(partHeader)) {
+                    throw new MetaCSVDataException(
+                            "Incompatible header in " + part + ": " + partHeader);
+                }
+                if (part.length() == headerEnd) {
+                    continue;
+                }
+                if (!endsWithLineBreak(outChannel)) {
+                    byte[] lineTerminator = data.getLineTerminator().getBytes(data.getEncoding());
+                    outChannel.write(ByteBuffer.wrap(lineTerminator));
+                }
+                transfer(part, headerEnd, part.length(), outChannel);
+            }
+        } finally {
+            out.close();
+        }
+        renderMetaCSV(data, outFile);
+    }
+
+    private static void checkCompatible(MetaCSVData data, MetaCSVData partData, File part)
+            throws MetaCSVDataException, IOException {
+        if (!data.getEncoding().equals(partData.getEncoding()) ||
+                data.isUtf8BOM() != partData.isUtf8BOM() ||
+                !data.getLineTerminator().equals(partData.getLineTerminator())) {
+            throw new MetaCSVDataException("Incompatible file domain in " + part);
+        }
+        if (data.getDelimiter() != partData.getDelimiter() ||
+                data.getQuoteChar() != partData.getQuoteChar() ||
+                data.isDoubleQuote() != partData.isDoubleQuote() ||
+                data.getEscapeChar() != partData.getEscapeChar() ||
+                data.isSkipInitialSpace() != partData.isSkipInitialSpace()) {
+            throw new MetaCSVDataException("Incompatible csv domain in " + part);
+        }
+        if (!Util.equal(data.getNullValue(), partData.getNullValue())) {
+            throw new MetaCSVDataException("Incompatible null value in " + part);
+        }
+        MetaCSVMetaData metaData = data.getMetaData();
+        MetaCSVMetaData partMetaData = partData.getMetaData();
+        List<Integer> indices = new ArrayList<Integer>(data.getSortedColIndices());
+        indices.addAll(partData.getSortedColIndices());
+        for (int c : indices) {
+            String description = render(metaData.getDescription(c));
+            String partDescription = render(partMetaData.getDescription(c));
+            if (!description.equals(partDescription)) {
+                throw new MetaCSVDataException(String.format(Locale.US,
+                        "Incompatible description of col %d in %s: %s/%s", c, part,
+                        description, partDescription));
+            }
+        }
+    }
+
+    private static String render(FieldDescription<?> description) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        description.render(sb);
+        return sb.toString();
+    }
+
+    private static boolean endsWithLineBreak(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return true;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, size - 1);
+        byte b = buffer.get(0);
+        return b == '\n' || b == '\r';
+    }
+
+    private static boolean isBlank(File file, long start, long end) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            in.getChannel().read(buffer, start);
+            for (int i = 0; i < buffer.position(); i++) {
+                byte b = buffer.get(i);
+                if (b != '\r' && b != '\n') {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.close();
+        }
+    }
+
+    private List<File> writeParts(File csvFile, long headerEnd, List<Long> starts,
+                                  File directory) throws IOException {
+        String name = csvFile.getName();
+        int dotIndex = name.lastIndexOf('.');
+        String baseName = dotIndex == -1 ? name : name.substring(0, dotIndex);
+        String extension = dotIndex == -1 ? "" : name.substring(dotIndex);
+        List<File> parts = new ArrayList<File>();
+        for (int i = 0; i < starts.size() - 1; i++) {
+            File part = new File(directory,
+                    String.format(Locale.US, "%s-%05d%s", baseName, i, extension));
+            FileOutputStream out = new FileOutputStream(part);
+            try {
+                FileChannel outChannel = out.getChannel();
+                transfer(csvFile, 0, headerEnd, outChannel);
+                transfer(csvFile, starts.get(i), starts.get(i + 1), outChannel);
+            } finally {
+                out.close();
+            }
+            renderMetaCSV(this.data, part);
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private static void renderMetaCSV(MetaCSVData data, File csvFile) throws IOException {
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(csvFile, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(data);
+        } finally {
+            metaOut.close();
+        }
+    }
+
+    private static void transfer(File file, long start, long end, FileChannel outChannel)
+            throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long position = start;
+            while (position < end) {
+                long count = channel.transferTo(position, end - position, outChannel);
+                if (count <= 0) {
+                    throw new IOException("Can't copy " + file + " at " + position);
+                }
+                position += count;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the offset after the header record (BOM included).
+     */
+    private long getHeaderEnd(File csvFile) throws IOException {
+        FileInputStream in = new FileInputStream(csvFile);
+        try {
+            return this.getHeaderEnd(
+                    new RecordScanner(this.chunker, in.getChannel(), csvFile.length()));
+        } finally {
+            in.close();
+        }
+    }
+
+    private long getHeaderEnd(RecordScanner scanner) throws IOException {
+        long headerEnd = scanner.nextEnd();
+        if (headerEnd == -1) {
+            throw new IOException("Missing header");
+        }
+        return headerEnd;
+    }
+
+    private List<String> readHeader(File csvFile, long headerEnd)
+            throws IOException, MetaCSVDataException {
+        int bomLength = this.chunker.getBOMLength();
+        ByteBuffer buffer = ByteBuffer.allocate((int) (headerEnd - bomLength));
+        FileInputStream in = new FileInputStream(csvFile);
+        try {
+            in.getChannel().read(buffer, bomLength);
+        } finally {
+            in.close();
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), this.data.getEncoding());
+        CSVParser parser = CSVFormatHelper.getCSVFormat(this.data).parse(new StringReader(text));
+        Iterator<CSVRecord> iterator = parser.iterator();
+        if (!iterator.hasNext()) {
+            throw new MetaCSVDataException("Missing header in " + csvFile);
+        }
+        List<String> header = new ArrayList<String>();
+        for (String value : iterator.next()) {
+            header.add(value);
+        }
+        return header;
+    }
+
+    /**
+     * Finds the ends of the non empty records, sequentially.
+     */
+    private static class RecordScanner {
+        private final CSVChunker chunker;
+        private final FileChannel channel;
+        private final long length;
+        private final ByteBuffer buffer;
+        private long position;
+        private int state;
+        private boolean recordContent;
+
+        RecordScanner(CSVChunker chunker, FileChannel channel, long length) {
+            this.chunker = chunker;
+            this.channel = channel;
+            this.length = length;
+            this.buffer = ByteBuffer.allocate(CSVChunker.BUFFER_SIZE);
+            this.buffer.flip();
+            this.position = Math.min(chunker.getBOMLength(), length);
+            this.state = CSVChunker.RECORD_START;
+            this.recordContent = false;
+        }
+
+        /**
+         * @return the offset after the next non empty record, or -1 at the end of the file.
+         */
+        long nextEnd() throws IOException {
+            while (true) {
+                if (!this.buffer.hasRemaining()) {
+                    this.buffer.clear();
+                    int count = this.channel.read(this.buffer, this.position);
+                    this.buffer.flip();
+                    if (count <= 0) {
+                        if (this.recordContent) {
+                            this.recordContent = false;
+                            return this.length;
+                        }
+                        return -1;
+                    }
+                }
+                long bytePosition = this.position++;
+                int b = this.buffer.get() & 0xFF;
+                int r = this.chunker.next(this.state, b);
+                this.state = r & CSVChunker.STATE_MASK;
+                long end = -1;
+                if ((r & CSVChunker.END_BEFORE) != 0 && this.recordContent) {
+                    end = bytePosition;
+                    this.recordContent = false;
+                }
+                if (b != '\r' && b != '\n') {
+                    this.recordContent = true;
+                }
+                if ((r & CSVChunker.END_AFTER) != 0 && this.recordContent) {
+                    end = bytePosition + 1;
+                    this.recordContent = false;
+                }
+                if (end != -1) {
+                    return end;
+                }
+            }
+        }
+    }
+}
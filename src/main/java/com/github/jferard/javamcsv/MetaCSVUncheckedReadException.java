@@ -0,0 +1,36 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+/**
+ * Thrown by the read processors and the row decoders when a value can't be read and the policy
+ * is OnError.EXCEPTION, where a checked exception is not allowed.
+ */
+public class MetaCSVUncheckedReadException extends RuntimeException {
+    public MetaCSVUncheckedReadException(MetaCSVReadException e) {
+        super(e);
+    }
+
+    @Override
+    public synchronized MetaCSVReadException getCause() {
+        return (MetaCSVReadException) super.getCause();
+    }
+}
@@ -55,28 +55,261 @@ public class MetaCSVWriter implements Closeable {
 
     private final WriteProcessorProvider writeProvider;
     private final CSVPrinter printer;
+    private final List<String> rowValues;
+    private final MetaCSVInstrumentation instrumentation;
+    private ColumnStatistics statistics;
+    private MetaCSVData data;
+    private File metaCSVFile;
+    private MetaCSVRenderer metaRenderer;
+    private CSVZoneMap zoneMap;
+    private CountingOutputStream counter;
+    private File csvFile;
+    private File zoneMapFile;
+    private ColumnStatistics blockStatistics;
+    private long nextBlockOffset;
+    private boolean rowStarted;
 
     protected MetaCSVWriter(CSVPrinter printer, WriteProcessorProvider writeProvider) {
+        this(printer, writeProvider, null);
+    }
+
+    /**
+     * @param printer         the printer
+     * @param writeProvider   the processors
+     * @param instrumentation the instrumentation, may be null
+     */
+    protected MetaCSVWriter(CSVPrinter printer, WriteProcessorProvider writeProvider,
+                            MetaCSVInstrumentation instrumentation) {
         this.printer = printer;
         this.writeProvider = writeProvider;
+        this.rowValues = new ArrayList<String>();
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Collect the statistics of the columns, and write them in the meta domain of the .mcsv
+     * file on {@link #close()}.
+     *
+     * @param statistics   the statistics
+     * @param data         the data
+     * @param metaCSVFile  the .mcsv file to rewrite, or null
+     * @param metaRenderer the renderer of the .mcsv data, if there is no .mcsv file. May be
+     *                     null
+     */
+    void collectStatistics(ColumnStatistics statistics, MetaCSVData data, File metaCSVFile,
+                           MetaCSVRenderer metaRenderer) {
+        this.statistics = statistics;
+        this.data = data;
+        this.metaCSVFile = metaCSVFile;
+        this.metaRenderer = metaRenderer;
+    }
+
+    /**
+     * Build a zone map of the rows, and save it on {@link #close()}.
+     *
+     * @param zoneMap     the empty zone map
+     * @param counter     the stream that counts the bytes of the CSV file
+     * @param csvFile     the CSV file, or null
+     * @param zoneMapFile the zone map file, or null
+     */
+    void buildZoneMap(CSVZoneMap zoneMap, CountingOutputStream counter, File csvFile,
+                      File zoneMapFile) {
+        this.zoneMap = zoneMap;
+        this.counter = counter;
+        this.csvFile = csvFile;
+        this.zoneMapFile = zoneMapFile;
+        this.nextBlockOffset = counter.getCount();
+    }
+
+    /**
+     * @return the zone map, or null if it is not built. The zone map is complete once the
+     * writer is closed. See {@link MetaCSVWriterBuilder#zoneMap(int)}.
+     */
+    public CSVZoneMap getZoneMap() {
+        return this.zoneMap;
+    }
+
+    /**
+     * @return the statistics of the rows written so far, or null if they are not collected.
+     * See {@link MetaCSVWriterBuilder#collectStatistics(boolean)}.
+     */
+    public ColumnStatistics getStatistics() {
+        return this.statistics;
     }
 
     public void close() throws IOException {
         this.printer.close();
+        if (this.instrumentation != null) {
+            this.instrumentation.close();
+        }
+        if (this.statistics != null) {
+            this.writeStatistics();
+        }
+        if (this.zoneMap != null) {
+            this.zoneMap.finish(this.counter.getCount());
+            if (this.zoneMapFile != null) {
+                this.zoneMap.save(this.csvFile, this.zoneMapFile);
+            }
+        }
+    }
+
+    private void writeStatistics() throws IOException {
+        MetaCSVData data = this.data.withMeta(this.statistics.toMeta());
+        if (this.metaRenderer != null) {
+            this.metaRenderer.render(data);
+        } else if (this.metaCSVFile != null) {
+            OutputStream metaOut = new FileOutputStream(this.metaCSVFile);
+            try {
+                MetaCSVRenderer.create(metaOut).render(data);
+            } finally {
+                metaOut.close();
+            }
+        }
     }
 
     public void writeHeader(List<String> header) throws IOException {
         printer.printRecord(header);
+        if (this.zoneMap != null) {
+            this.printer.flush();
+            this.nextBlockOffset = this.counter.getCount();
+        }
     }
 
     public void writeRow(List<Object> values) throws IOException {
+        this.startRow();
         List<String> formattedValues = new ArrayList<String>(values.size());
         for (int i = 0; i < values.size(); i++) {
             Object value = values.get(i);
             WriteFieldProcessor processor = writeProvider.getProcessor(i);
             String formattedValue = processor.toString(value);
             formattedValues.add(formattedValue);
+            this.count(i, formattedValue);
         }
         printer.printRecord(formattedValues);
+        this.rowPrinted();
+        if (this.instrumentation != null) {
+            this.instrumentation.rowWritten();
+        }
+    }
+
+    /**
+     * Append a value to the current row. See {@link #endRow()}.
+     *
+     * @param value the value
+     */
+    public void writeValue(Object value) {
+        this.startRow();
+        int c = this.rowValues.size();
+        String text = this.writeProvider.getProcessor(c).toString(value);
+        this.rowValues.add(text);
+        this.count(c, text);
+    }
+
+    /**
+     * Start a new block of the zone map if the current one is full.
+     */
+    private void startRow() {
+        if (this.zoneMap == null || this.rowStarted) {
+            return;
+        }
+        if (this.zoneMap.isBlockFull()) {
+            this.zoneMap.startBlock(this.nextBlockOffset);
+        }
+        this.blockStatistics = this.zoneMap.addRow();
+        this.rowStarted = true;
+    }
+
+    /**
+     * Flush the printer if the row ends a block of the zone map, to know the offset of the next
+     * block.
+     */
+    private void rowPrinted() throws IOException {
+        if (this.zoneMap == null) {
+            return;
+        }
+        this.rowStarted = false;
+        if (this.zoneMap.isBlockFull()) {
+            this.printer.flush();
+            this.nextBlockOffset = this.counter.getCount();
+        }
+    }
+
+    /**
+     * Count the value as it will be read: the format may truncate a date or round a number.
+     */
+    private void count(int c, String text) {
+        if (this.statistics != null) {
+            this.statistics.addText(c, text);
+        }
+        if (this.blockStatistics != null) {
+            this.blockStatistics.addText(c, text);
+        }
+    }
+
+    /**
+     * Append a null value to the current row.
+     */
+    public void writeNull() {
+        this.writeValue(null);
+    }
+
+    /**
+     * Append a long to the current row, without boxing it if the column is an integer column.
+     *
+     * @param value the value
+     */
+    public void writeLong(long value) {
+        this.startRow();
+        int c = this.rowValues.size();
+        String text = this.writeProvider.getProcessor(c).toString(value);
+        this.rowValues.add(text);
+        if (this.statistics != null) {
+            this.statistics.addLong(c, value, text);
+        }
+        if (this.blockStatistics != null) {
+            this.blockStatistics.addLong(c, value, text);
+        }
+    }
+
+    /**
+     * Append a double to the current row, without boxing it if the column is a float column.
+     *
+     * @param value the value
+     */
+    public void writeDouble(double value) {
+        this.startRow();
+        int c = this.rowValues.size();
+        String text = this.writeProvider.getProcessor(c).toString(value);
+        this.rowValues.add(text);
+        this.count(c, text);
+    }
+
+    /**
+     * Append a boolean to the current row, without boxing it if the column is a boolean
+     * column.
+     *
+     * @param value the value
+     */
+    public void writeBoolean(boolean value) {
+        this.startRow();
+        int c = this.rowValues.size();
+        String text = this.writeProvider.getProcessor(c).toString(value);
+        this.rowValues.add(text);
+        this.count(c, text);
+    }
+
+    /**
+     * Write the current row.
+     *
+     * @throws IOException if the row can't be written
+     */
+    public void endRow() throws IOException {
+        this.startRow();
+        this.printer.printRecord(this.rowValues);
+        this.rowValues.clear();
+        this.rowPrinted();
+        if (this.instrumentation != null) {
+            this.instrumentation.rowWritten();
+        }
     }
 }
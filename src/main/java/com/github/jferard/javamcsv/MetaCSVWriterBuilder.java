@@ -39,8 +39,12 @@ public class MetaCSVWriterBuilder {
     private MetaCSVRenderer metaRenderer;
     private Appendable writer;
     private OnError onError;
+    private MetaCSVInstrumentation instrumentation;
+    private boolean collectStatistics;
+    private int zoneMapBlockSize;
+    private File zoneMapFile;
 
-    MetaCSVWriterBuilder() {
+    public MetaCSVWriterBuilder() {
         onError = OnError.EXCEPTION;
     }
 
@@ -65,6 +69,11 @@ public class MetaCSVWriterBuilder {
         return this;
     }
 
+    public MetaCSVWriterBuilder writer(Appendable writer) {
+        this.writer = writer;
+        return this;
+    }
+
     public MetaCSVWriterBuilder metaOut(OutputStream metaOut) {
         this.metaOut = metaOut;
         return this;
@@ -80,18 +89,101 @@ public class MetaCSVWriterBuilder {
         return this;
     }
 
+    /**
+     * @param instrumentation the receiver of the measures (bytes and rows). It is closed with
+     *                        the writer.
+     * @return this for fluent style
+     */
+    public MetaCSVWriterBuilder instrumentation(MetaCSVInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+        return this;
+    }
+
+    /**
+     * @param collectStatistics if true, collect the statistics of the columns and write them
+     *                          in the meta domain of the .mcsv file when the writer is closed.
+     *                          If the .mcsv data goes to a stream or a renderer, it is written
+     *                          only when the writer is closed.
+     * @return this for fluent style
+     */
+    public MetaCSVWriterBuilder collectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+        return this;
+    }
+
+    /**
+     * @param blockSize the number of data rows of a block of the zone map, or 0 to build no
+     *                  zone map. The bytes are needed: not available with an Appendable. See
+     *                  {@link CSVZoneMap}.
+     * @return this for fluent style
+     */
+    public MetaCSVWriterBuilder zoneMap(int blockSize) {
+        this.zoneMapBlockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * @param zoneMapFile the zone map file. Default is the CSV file with the extension
+     *                    ".mcsvz".
+     * @return this for fluent style
+     */
+    public MetaCSVWriterBuilder zoneMapFile(File zoneMapFile) {
+        this.zoneMapFile = zoneMapFile;
+        return this;
+    }
+
     public MetaCSVWriter build() throws IOException {
-        this.writeData();
+        if (this.zoneMapFile != null && this.csvFile == null) {
+            throw new IOException("A zone map file needs a CSV file");
+        }
+        if (this.zoneMapBlockSize > 0 && this.writer != null) {
+            throw new IOException("A zone map needs the bytes: an OutputStream or a CSV file");
+        }
+        File statisticsFile = null;
+        MetaCSVRenderer statisticsRenderer = null;
+        if (this.collectStatistics) {
+            if (this.metaRenderer != null) {
+                statisticsRenderer = this.metaRenderer;
+            } else if (this.metaOut != null) {
+                statisticsRenderer = MetaCSVRenderer.create(this.metaOut);
+            } else {
+                this.writeData();
+                statisticsFile = this.metaCSVFile;
+            }
+        } else {
+            this.writeData();
+        }
+        CountingOutputStream counter = null;
         if (this.writer == null) {
             if (this.out == null) {
                 this.out = new FileOutputStream(this.csvFile);
             }
+            if (this.instrumentation != null) {
+                this.out = new InstrumentedOutputStream(this.out, this.instrumentation);
+            }
+            if (this.zoneMapBlockSize > 0) {
+                counter = new CountingOutputStream(this.out);
+                this.out = counter;
+            }
             this.writer = new OutputStreamWriter(out, data.getEncoding());
         }
         CSVFormat format = CSVFormatHelper.getCSVFormat(data);
         CSVPrinter printer = new CSVPrinter(writer, format);
         WriteProcessorProvider writeProvider = data.toWriteProcessorProvider(onError);
-        return new MetaCSVWriter(printer, writeProvider);
+        MetaCSVWriter writer = new MetaCSVWriter(printer, writeProvider, this.instrumentation);
+        if (this.collectStatistics) {
+            writer.collectStatistics(new ColumnStatistics(data), data, statisticsFile,
+                    statisticsRenderer);
+        }
+        if (counter != null) {
+            File zoneMapFile = this.zoneMapFile;
+            if (zoneMapFile == null && this.csvFile != null) {
+                zoneMapFile = Util.withExtension(this.csvFile, ".mcsvz");
+            }
+            writer.buildZoneMap(new CSVZoneMap(data, this.zoneMapBlockSize), counter,
+                    this.csvFile, zoneMapFile);
+        }
+        return writer;
     }
 
     private void writeData() throws IOException {
@@ -354,4 +354,278 @@ public class Util {
         }
         return text;
     }
+
+    /**
+     * Same as cleanCurrencyText, but without exception.
+     *
+     * @param text   the text
+     * @param pre    true if the symbol is before the value
+     * @param symbol the currency symbol
+     * @return the cleaned text, or null if the symbol is missing
+     */
+    public static String tryCleanCurrencyText(String text, boolean pre, String symbol) {
+        text = text.trim();
+        if (pre) {
+            if (text.startsWith(symbol)) {
+                return text.substring(symbol.length()).trim();
+            }
+        } else {
+            if (text.endsWith(symbol)) {
+                return text.substring(0, text.length() - symbol.length()).trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param text the text
+     * @return true iff Long.parseLong(text) does not throw a NumberFormatException
+     */
+    public static boolean isLongText(String text) {
+        return isLongText(text, 0, text.length());
+    }
+
+    /**
+     * @param text  the text
+     * @param start the start of the region
+     * @param end   the end of the region
+     * @return true iff Long.parseLong on the region does not throw a NumberFormatException
+     */
+    public static boolean isLongText(CharSequence text, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        int i = start;
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == end) {
+                return false;
+            }
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multMin = limit / 10;
+        long result = 0;
+        while (i < end) {
+            int digit = Character.digit(text.charAt(i++), 10);
+            if (digit < 0 || result < multMin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    /**
+     * @param text the text
+     * @return true iff Double.parseDouble(text) does not throw a NumberFormatException
+     */
+    public static boolean isDoubleText(String text) {
+        return isDoubleText(text, 0, text.length());
+    }
+
+    /**
+     * @param text  the text
+     * @param start the start of the region
+     * @param end   the end of the region
+     * @return true iff Double.parseDouble on the region does not throw a NumberFormatException
+     */
+    public static boolean isDoubleText(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (i == end) {
+            return false;
+        }
+        char c = text.charAt(i);
+        if (c == '-' || c == '+') {
+            i++;
+        }
+        if (regionEquals(text, i, end, "NaN")) {
+            return true;
+        } else if (regionEquals(text, i, end, "Infinity")) {
+            return true;
+        }
+        if (i < end && text.charAt(end - 1) <= 'f' && "fFdD".indexOf(text.charAt(end - 1)) != -1) {
+            end--;
+        }
+        if (end - i > 2 && text.charAt(i) == '0' &&
+                (text.charAt(i + 1) == 'x' || text.charAt(i + 1) == 'X')) {
+            return isHexDoubleText(text, i + 2, end);
+        }
+        int digits = 0;
+        while (i < end && isAsciiDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isAsciiDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            return isExponentText(text, i + 1, end);
+        }
+        return i == end;
+    }
+
+    private static boolean regionEquals(CharSequence text, int start, int end, String word) {
+        int len = word.length();
+        if (end - start != len) {
+            return false;
+        }
+        for (int k = 0; k < len; k++) {
+            if (text.charAt(start + k) != word.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDoubleText(CharSequence text, int i, int end) {
+        int digits = 0;
+        while (i < end && Character.digit(text.charAt(i), 16) >= 0 && text.charAt(i) < 128) {
+            i++;
+            digits++;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && Character.digit(text.charAt(i), 16) >= 0 && text.charAt(i) < 128) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0 || i == end || (text.charAt(i) != 'p' && text.charAt(i) != 'P')) {
+            return false;
+        }
+        return isExponentText(text, i + 1, end);
+    }
+
+    private static boolean isExponentText(CharSequence text, int i, int end) {
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        while (i < end) {
+            if (!isAsciiDigit(text.charAt(i++))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return '0' <= c && c <= '9';
+    }
+
+    /**
+     * @param text the text
+     * @return true if new BigDecimal(text) should not throw a NumberFormatException
+     */
+    public static boolean isBigDecimalText(String text) {
+        return isBigDecimalText(text, 0, text.length());
+    }
+
+    /**
+     * @param text  the text
+     * @param start the start of the region
+     * @param end   the end of the region
+     * @return true if new BigDecimal on the region should not throw a NumberFormatException
+     */
+    public static boolean isBigDecimalText(CharSequence text, int start, int end) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < end && Character.isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && Character.isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i == end) {
+            return true;
+        }
+        if (text.charAt(i) != 'e' && text.charAt(i) != 'E') {
+            return false;
+        }
+        i++;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        long exponent = 0;
+        while (i < end) {
+            int digit = Character.digit(text.charAt(i++), 10);
+            if (digit < 0) {
+                return false;
+            }
+            exponent = exponent * 10 + digit;
+            if (exponent > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append a number to a buffer, without the thousands separator and with a '.' as decimal
+     * separator, like normalizeDecimalText, without an intermediate String.
+     *
+     * @param out                the buffer
+     * @param text               the text
+     * @param thousandsSeparator the separator, may be null or empty
+     * @param decimalSeparator   the separator, may be null or empty
+     */
+    public static void appendNormalizedDecimalText(StringBuilder out, String text,
+                                                   String thousandsSeparator,
+                                                   String decimalSeparator) {
+        boolean hasThousands = thousandsSeparator != null && !thousandsSeparator.isEmpty();
+        boolean hasDecimal = decimalSeparator != null && !decimalSeparator.isEmpty() &&
+                !decimalSeparator.equals(".");
+        if (!hasThousands && !hasDecimal) {
+            out.append(text);
+            return;
+        }
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            if (hasThousands && text.startsWith(thousandsSeparator, i)) {
+                i += thousandsSeparator.length();
+            } else if (hasDecimal && text.startsWith(decimalSeparator, i)) {
+                out.append('.');
+                i += decimalSeparator.length();
+            } else {
+                out.append(text.charAt(i++));
+            }
+        }
+    }
 }
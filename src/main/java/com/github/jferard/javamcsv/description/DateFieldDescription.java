@@ -68,7 +68,9 @@ public class DateFieldDescription implements FieldDescription<Date> {
 
     @Override
     public FieldProcessor<Date> toFieldProcessor(String nullValue) {
-        return new DateFieldProcessor(this.simpleDateFormat, this.locale, nullValue, Util.CANONICAL_DATE_FORMAT);
+        // SimpleDateFormat is not thread safe: every processor has its own instances
+        return new DateFieldProcessor((SimpleDateFormat) this.simpleDateFormat.clone(),
+                this.locale, nullValue, (SimpleDateFormat) Util.CANONICAL_DATE_FORMAT.clone());
     }
 
     @Override
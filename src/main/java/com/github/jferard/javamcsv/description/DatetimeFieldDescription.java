@@ -67,8 +67,10 @@ public class DatetimeFieldDescription implements FieldDescription<Date> {
 
     @Override
     public FieldProcessor<Date> toFieldProcessor(String nullValue) {
-        return new DateFieldProcessor(this.simpleDateFormat, this.locale, nullValue,
-                Util.CANONICAL_DATETIME_FORMAT);
+        // SimpleDateFormat is not thread safe: every processor has its own instances
+        return new DateFieldProcessor((SimpleDateFormat) this.simpleDateFormat.clone(),
+                this.locale, nullValue,
+                (SimpleDateFormat) Util.CANONICAL_DATETIME_FORMAT.clone());
     }
 
     @Override
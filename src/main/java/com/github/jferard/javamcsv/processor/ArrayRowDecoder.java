@@ -0,0 +1,64 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+import org.apache.commons.csv.CSVRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fallback decoder: the read processors are resolved once and stored in an array.
+ */
+public class ArrayRowDecoder implements RowDecoder {
+    private final ReadFieldProcessor<?>[] processors;
+    private final ReadFieldProcessor<?> defaultProcessor;
+    private final ErrorReporter reporter;
+
+    public ArrayRowDecoder(ReadFieldProcessor<?>[] processors,
+                           ReadFieldProcessor<?> defaultProcessor) {
+        this(processors, defaultProcessor, null);
+    }
+
+    ArrayRowDecoder(ReadFieldProcessor<?>[] processors, ReadFieldProcessor<?> defaultProcessor,
+                    ErrorReporter reporter) {
+        this.processors = processors;
+        this.defaultProcessor = defaultProcessor;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public List<Object> decode(CSVRecord record) {
+        if (this.reporter != null) {
+            this.reporter.setRow(record.getRecordNumber() - 1);
+        }
+        int size = record.size();
+        List<Object> values = new ArrayList<Object>(size);
+        int limit = Math.min(size, this.processors.length);
+        for (int c = 0; c < limit; c++) {
+            values.add(this.processors[c].toObject(record.get(c)));
+        }
+        for (int c = limit; c < size; c++) {
+            values.add(this.defaultProcessor.toObject(record.get(c)));
+        }
+        return values;
+    }
+}
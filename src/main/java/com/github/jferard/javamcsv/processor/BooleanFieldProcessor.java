@@ -24,7 +24,7 @@ import com.github.jferard.javamcsv.MetaCSVReadException;
 
 import java.util.Date;
 
-public class BooleanFieldProcessor implements FieldProcessor<Boolean> {
+public class BooleanFieldProcessor implements TryFieldProcessor<Boolean> {
     private final String trueWord;
     private final String falseWord;
     private final String nullValue;
@@ -37,9 +37,26 @@ public class BooleanFieldProcessor implements FieldProcessor<Boolean> {
 
     @Override
     public Boolean toObject(String text) throws MetaCSVReadException {
-        if (text == null || text.trim().equals(this.nullValue)) {
+        if (this.isNull(text)) {
             return null;
         }
+        return this.toBoolean(text);
+    }
+
+    /**
+     * @param text the CSV value
+     * @return true if the text is the null value. Booleans are trimmed.
+     */
+    public boolean isNull(String text) {
+        return text == null || text.trim().equals(this.nullValue);
+    }
+
+    /**
+     * @param text the CSV value, not null
+     * @return the value, without boxing
+     * @throws MetaCSVReadException if the text is not a boolean
+     */
+    public boolean toBoolean(String text) throws MetaCSVReadException {
         text = text.trim();
         if (text.equalsIgnoreCase(this.trueWord)) {
             return true;
@@ -50,15 +67,31 @@ public class BooleanFieldProcessor implements FieldProcessor<Boolean> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.trim().equals(this.nullValue)) {
+            return null;
+        }
+        text = text.trim();
+        if (text.equalsIgnoreCase(this.trueWord)) {
+            return true;
+        } else if (text.equalsIgnoreCase(this.falseWord)) {
+            return false;
+        } else {
+            return INVALID;
+        }
+    }
+
     @Override
     public String toString(Boolean value) {
         if (value == null) {
             return this.nullValue;
-        } else if (value) {
-            return this.trueWord;
-        } else {
-            return this.falseWord;
         }
+        return this.toString(value.booleanValue());
+    }
+
+    public String toString(boolean value) {
+        return value ? this.trueWord : this.falseWord;
     }
 
     @Override
@@ -76,6 +109,37 @@ public class BooleanFieldProcessor implements FieldProcessor<Boolean> {
         }
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return this.tryToObject(text) != INVALID;
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        Object value = this.tryToObject(text);
+        if (value == INVALID) {
+            return false;
+        } else if (value != null) {
+            out.append(value);
+        }
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        if (text == null || text.trim().equals(this.nullValue)) {
+            return "";
+        }
+        text = text.trim();
+        if (text.equalsIgnoreCase(this.trueWord)) {
+            return "true";
+        } else if (text.equalsIgnoreCase(this.falseWord)) {
+            return "false";
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public Boolean cast(Object o) {
         if (o == null || o instanceof Boolean) {
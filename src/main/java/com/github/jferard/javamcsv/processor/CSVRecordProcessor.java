@@ -36,16 +36,24 @@ public class CSVRecordProcessor {
     private ReadProcessorProvider readProcessorProvider;
     private OnError onError;
     private final HashMap<Integer, ReadFieldProcessor<?>> processorByIndex;
+    private final RowDecoder decoder;
 
     public CSVRecordProcessor(ProcessorProvider provider,
                               ReadProcessorProvider readProcessorProvider, OnError onError,
                               TimeZone timeZone) {
+        this(provider, readProcessorProvider, onError, timeZone, null);
+    }
+
+    public CSVRecordProcessor(ProcessorProvider provider,
+                              ReadProcessorProvider readProcessorProvider, OnError onError,
+                              TimeZone timeZone, RowDecoder decoder) {
         this.provider = provider;
         this.readProcessorProvider = readProcessorProvider;
         this.onError = onError;
         this.maxSize = 0;
         processorByIndex = new HashMap<Integer, ReadFieldProcessor<?>>();
         this.timeZone = timeZone;
+        this.decoder = decoder;
     }
 
     public MetaCSVRecord createRecord(CSVRecord record) {
@@ -54,7 +62,7 @@ public class CSVRecordProcessor {
             this.maxSize = record.size();
         }
         return new MetaCSVRecord(record, this.provider, this.readProcessorProvider, processorByIndex,
-                timeZone);
+                timeZone, this.decoder);
     }
 
     private void updateProcessorByIndex(CSVRecord record) {
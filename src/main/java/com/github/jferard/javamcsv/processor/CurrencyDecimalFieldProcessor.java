@@ -25,7 +25,7 @@ import com.github.jferard.javamcsv.Util;
 
 import java.math.BigDecimal;
 
-public class CurrencyDecimalFieldProcessor implements FieldProcessor<BigDecimal> {
+public class CurrencyDecimalFieldProcessor implements TryFieldProcessor<BigDecimal> {
     private final boolean pre;
     private final String symbol;
     private final FieldProcessor<BigDecimal> numberProcessor;
@@ -49,6 +49,18 @@ public class CurrencyDecimalFieldProcessor implements FieldProcessor<BigDecimal>
         return this.numberProcessor.toObject(text);
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return INVALID;
+        }
+        return FieldProcessorFactory.tryToObject(this.numberProcessor, text);
+    }
+
     @Override
     public String toString(BigDecimal value) {
         if (value == null) {
@@ -71,6 +83,37 @@ public class CurrencyDecimalFieldProcessor implements FieldProcessor<BigDecimal>
         return this.numberProcessor.toCanonicalString(text);
     }
 
+    @Override
+    public boolean isValid(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null && FieldProcessorFactory.isValid(this.numberProcessor, text);
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null &&
+                FieldProcessorFactory.appendCanonical(this.numberProcessor, text, out);
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return "";
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return null;
+        }
+        return FieldProcessorFactory.tryToCanonicalString(this.numberProcessor, text);
+    }
+
     @Override
     public BigDecimal cast(Object o) {
         return this.numberProcessor.cast(o);
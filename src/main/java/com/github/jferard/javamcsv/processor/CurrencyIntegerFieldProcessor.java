@@ -23,7 +23,7 @@ package com.github.jferard.javamcsv.processor;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.Util;
 
-public class CurrencyIntegerFieldProcessor implements FieldProcessor<Long> {
+public class CurrencyIntegerFieldProcessor implements TryFieldProcessor<Long> {
     private final boolean pre;
     private final String symbol;
     private final FieldProcessor<Long> numberProcessor;
@@ -47,12 +47,59 @@ public class CurrencyIntegerFieldProcessor implements FieldProcessor<Long> {
         return this.numberProcessor.toObject(text);
     }
 
+    /**
+     * @param text the CSV value, not null
+     * @return the value, without boxing
+     * @throws MetaCSVReadException if the text is not a currency integer
+     */
+    public long toLong(String text) throws MetaCSVReadException {
+        text = Util.cleanCurrencyText(text, this.pre, this.symbol);
+        if (this.numberProcessor instanceof IntegerFieldProcessor) {
+            return ((IntegerFieldProcessor) this.numberProcessor).toLong(text);
+        }
+        Long value = this.numberProcessor.toObject(text);
+        if (value == null) {
+            throw new MetaCSVReadException("Not an integer: " + text);
+        }
+        return value;
+    }
+
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return INVALID;
+        }
+        return FieldProcessorFactory.tryToObject(this.numberProcessor, text);
+    }
+
     @Override
     public String toString(Long value) {
         if (value == null) {
             return this.nullValue;
         }
-        String valueAsString = this.numberProcessor.toString(value);
+        String valueAsString;
+        if (this.numberProcessor instanceof IntegerFieldProcessor) {
+            valueAsString = ((IntegerFieldProcessor) this.numberProcessor).toString(
+                    value.longValue());
+        } else {
+            valueAsString = this.numberProcessor.toString(value);
+        }
+        return this.addSymbol(valueAsString);
+    }
+
+    public String toString(long value) {
+        if (this.numberProcessor instanceof IntegerFieldProcessor) {
+            return this.addSymbol(
+                    ((IntegerFieldProcessor) this.numberProcessor).toString(value));
+        }
+        return this.toString(Long.valueOf(value));
+    }
+
+    private String addSymbol(String valueAsString) {
         if (this.pre) {
             return this.symbol + valueAsString;
         } else {
@@ -69,6 +116,37 @@ public class CurrencyIntegerFieldProcessor implements FieldProcessor<Long> {
         return this.numberProcessor.toCanonicalString(text);
     }
 
+    @Override
+    public boolean isValid(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null && FieldProcessorFactory.isValid(this.numberProcessor, text);
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null &&
+                FieldProcessorFactory.appendCanonical(this.numberProcessor, text, out);
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return "";
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return null;
+        }
+        return FieldProcessorFactory.tryToCanonicalString(this.numberProcessor, text);
+    }
+
     @Override
     public Long cast(Object o) {
         return this.numberProcessor.cast(o);
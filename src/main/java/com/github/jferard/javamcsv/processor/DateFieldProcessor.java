@@ -24,11 +24,12 @@ import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.Util;
 
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
-public class DateFieldProcessor implements FieldProcessor<Date> {
+public class DateFieldProcessor implements TryFieldProcessor<Date> {
     private final SimpleDateFormat simpleDateFormat;
     private final String locale;
     private final String nullValue;
@@ -60,6 +61,27 @@ public class DateFieldProcessor implements FieldProcessor<Date> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        Date date = this.tryParse(text);
+        if (date == null) {
+            return INVALID;
+        }
+        return date;
+    }
+
+    private Date tryParse(String text) {
+        ParsePosition position = new ParsePosition(0);
+        Date date = simpleDateFormat.parse(text, position);
+        if (position.getIndex() == 0) {
+            return null;
+        }
+        return date;
+    }
+
     @Override
     public String toString(Date date) {
         if (date == null) {
@@ -80,6 +102,36 @@ public class DateFieldProcessor implements FieldProcessor<Date> {
         }
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return text == null || text.equals(this.nullValue) || this.tryParse(text) != null;
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        Date date = this.tryParse(text);
+        if (date == null) {
+            return false;
+        }
+        out.append(this.canonicalFormat.format(date));
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return "";
+        }
+        Date date = this.tryParse(text);
+        if (date == null) {
+            return null;
+        }
+        return this.canonicalFormat.format(date);
+    }
+
     @Override
     public Date cast(Object o) {
         if (o == null || o instanceof Date) {
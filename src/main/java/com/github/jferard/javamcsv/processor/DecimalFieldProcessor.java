@@ -25,7 +25,7 @@ import com.github.jferard.javamcsv.Util;
 
 import java.math.BigDecimal;
 
-public class DecimalFieldProcessor implements FieldProcessor<BigDecimal> {
+public class DecimalFieldProcessor implements TryFieldProcessor<BigDecimal> {
     private final String thousandsSeparator;
     private final String decimalSeparator;
     private final String nullValue;
@@ -49,6 +49,23 @@ public class DecimalFieldProcessor implements FieldProcessor<BigDecimal> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        String normalized =
+                Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator);
+        if (!Util.isBigDecimalText(normalized)) {
+            return INVALID;
+        }
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+    }
+
     @Override
     public String toString(BigDecimal bd) {
         if (bd == null) {
@@ -58,13 +75,39 @@ public class DecimalFieldProcessor implements FieldProcessor<BigDecimal> {
     }
 
     @Override
-    public String toCanonicalString(String text) throws MetaCSVReadException {
+    public String toCanonicalString(String text) {
         if (text == null || text.equals(this.nullValue)) {
             return "";
         }
         return Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator);
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return text == null || text.equals(this.nullValue) || Util.isBigDecimalText(
+                Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator));
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        int start = out.length();
+        Util.appendNormalizedDecimalText(out, text, this.thousandsSeparator,
+                this.decimalSeparator);
+        if (Util.isBigDecimalText(out, start, out.length())) {
+            return true;
+        }
+        out.setLength(start);
+        return false;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        return this.toCanonicalString(text);
+    }
+
     @Override
     public BigDecimal cast(Object o) {
         if (o == null || o instanceof BigDecimal) {
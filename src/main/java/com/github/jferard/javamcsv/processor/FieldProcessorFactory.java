@@ -21,6 +21,7 @@
 package com.github.jferard.javamcsv.processor;
 
 import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVUncheckedReadException;
 import com.github.jferard.javamcsv.OnError;
 import com.github.jferard.javamcsv.ReadError;
 import com.github.jferard.javamcsv.description.FieldDescription;
@@ -37,60 +38,60 @@ public class FieldProcessorFactory {
                 return new ReadFieldProcessor<T>() {
                     @Override
                     public Object toObject(String text) {
-                        try {
-                            return rawProcessor.toObject(text);
-                        } catch (MetaCSVReadException e) {
+                        Object value = tryToObject(rawProcessor, text);
+                        if (value == TryFieldProcessor.INVALID) {
                             return new ReadError(text, strDescription);
                         }
+                        return value;
                     }
 
                     @Override
                     public String toCanonicalString(String text) {
-                        try {
-                            return rawProcessor.toCanonicalString(text);
-                        } catch (MetaCSVReadException e) {
+                        String value = tryToCanonicalString(rawProcessor, text);
+                        if (value == null) {
                             return new ReadError(text, strDescription).toString();
                         }
+                        return value;
                     }
                 };
             case NULL:
                 return new ReadFieldProcessor<T>() {
                     @Override
-                    public T toObject(String text) {
-                        try {
-                            return rawProcessor.toObject(text);
-                        } catch (MetaCSVReadException e) {
+                    public Object toObject(String text) {
+                        Object value = tryToObject(rawProcessor, text);
+                        if (value == TryFieldProcessor.INVALID) {
                             return null;
                         }
+                        return value;
                     }
 
                     @Override
                     public String toCanonicalString(String text) {
-                        try {
-                            return rawProcessor.toCanonicalString(text);
-                        } catch (MetaCSVReadException e) {
+                        String value = tryToCanonicalString(rawProcessor, text);
+                        if (value == null) {
                             return "";
                         }
+                        return value;
                     }
                 };
             case TEXT:
                 return new ReadFieldProcessor<T>() {
                     @Override
                     public Object toObject(String text) {
-                        try {
-                            return rawProcessor.toObject(text);
-                        } catch (MetaCSVReadException e) {
+                        Object value = tryToObject(rawProcessor, text);
+                        if (value == TryFieldProcessor.INVALID) {
                             return text;
                         }
+                        return value;
                     }
 
                     @Override
                     public String toCanonicalString(String text) {
-                        try {
-                            return rawProcessor.toCanonicalString(text);
-                        } catch (MetaCSVReadException e) {
+                        String value = tryToCanonicalString(rawProcessor, text);
+                        if (value == null) {
                             return text;
                         }
+                        return value;
                     }
                 };
             default:
@@ -100,7 +101,7 @@ public class FieldProcessorFactory {
                         try {
                             return rawProcessor.toObject(text);
                         } catch (MetaCSVReadException e) {
-                            throw new RuntimeException(e);
+                            throw new MetaCSVUncheckedReadException(e);
                         }
                     }
 
@@ -109,13 +110,156 @@ public class FieldProcessorFactory {
                         try {
                             return rawProcessor.toCanonicalString(text);
                         } catch (MetaCSVReadException e) {
-                            throw new RuntimeException(e);
+                            throw new MetaCSVUncheckedReadException(e);
                         }
                     }
                 };
         }
     }
 
+    /**
+     * @param description the description
+     * @param nullValue   the null value
+     * @param onError     the policy
+     * @param column      the index of the column
+     * @param reporter    the reporter of the errors, may be null
+     * @return a read processor that reports the errors before applying the policy. The text
+     * is parsed once.
+     */
+    <T> ReadFieldProcessor<T> toReadFieldProcessor(FieldDescription<T> description,
+                                                   String nullValue, final OnError onError,
+                                                   final int column,
+                                                   final ErrorReporter reporter) {
+        if (reporter == null) {
+            return this.toReadFieldProcessor(description, nullValue, onError);
+        }
+        final FieldProcessor<T> rawProcessor = description.toFieldProcessor(nullValue);
+        final String strDescription = getColTypeValue(description);
+        return new ReadFieldProcessor<T>() {
+            @Override
+            public Object toObject(String text) {
+                if (onError == OnError.EXCEPTION) {
+                    try {
+                        return rawProcessor.toObject(text);
+                    } catch (MetaCSVReadException e) {
+                        reporter.report(column, text);
+                        throw new MetaCSVUncheckedReadException(e);
+                    }
+                }
+                Object value = tryToObject(rawProcessor, text);
+                if (value == TryFieldProcessor.INVALID) {
+                    reporter.report(column, text);
+                    switch (onError) {
+                        case WRAP:
+                            return new ReadError(text, strDescription);
+                        case NULL:
+                            return null;
+                        default:
+                            return text;
+                    }
+                }
+                return value;
+            }
+
+            @Override
+            public String toCanonicalString(String text) {
+                if (onError == OnError.EXCEPTION) {
+                    try {
+                        return rawProcessor.toCanonicalString(text);
+                    } catch (MetaCSVReadException e) {
+                        reporter.report(column, text);
+                        throw new MetaCSVUncheckedReadException(e);
+                    }
+                }
+                String value = tryToCanonicalString(rawProcessor, text);
+                if (value == null) {
+                    reporter.report(column, text);
+                    switch (onError) {
+                        case WRAP:
+                            return new ReadError(text, strDescription).toString();
+                        case NULL:
+                            return "";
+                        default:
+                            return text;
+                    }
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @param processor the processor
+     * @param text the CSV value
+     * @return the value or TryFieldProcessor.INVALID. Processors that are not TryFieldProcessors
+     * fall back to the exception path.
+     */
+    public static Object tryToObject(FieldProcessor<?> processor, String text) {
+        if (processor instanceof TryFieldProcessor) {
+            return ((TryFieldProcessor<?>) processor).tryToObject(text);
+        }
+        try {
+            return processor.toObject(text);
+        } catch (MetaCSVReadException e) {
+            return TryFieldProcessor.INVALID;
+        }
+    }
+
+    /**
+     * @param processor the processor
+     * @param text the CSV value
+     * @return the canonical value or null. Processors that are not TryFieldProcessors
+     * fall back to the exception path.
+     */
+    public static String tryToCanonicalString(FieldProcessor<?> processor, String text) {
+        if (processor instanceof TryFieldProcessor) {
+            return ((TryFieldProcessor<?>) processor).tryToCanonicalString(text);
+        }
+        try {
+            return processor.toCanonicalString(text);
+        } catch (MetaCSVReadException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param processor the processor
+     * @param text the CSV value
+     * @return true if the value is valid. Processors that are not TryFieldProcessors
+     * fall back to the exception path.
+     */
+    public static boolean isValid(FieldProcessor<?> processor, String text) {
+        if (processor instanceof TryFieldProcessor) {
+            return ((TryFieldProcessor<?>) processor).isValid(text);
+        }
+        try {
+            processor.toObject(text);
+            return true;
+        } catch (MetaCSVReadException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param processor the processor
+     * @param text the CSV value
+     * @param out the buffer
+     * @return true if the value was valid. Processors that are not TryFieldProcessors
+     * fall back to the exception path.
+     */
+    public static boolean appendCanonical(FieldProcessor<?> processor, String text,
+                                          StringBuilder out) {
+        if (processor instanceof TryFieldProcessor) {
+            return ((TryFieldProcessor<?>) processor).appendCanonical(text, out);
+        }
+        String value = tryToCanonicalString(processor, text);
+        if (value == null) {
+            return false;
+        }
+        out.append(value);
+        return true;
+    }
+
     <T> String getColTypeValue(FieldDescription<T> description) {
         try {
             StringBuilder sb = new StringBuilder();
@@ -127,10 +271,17 @@ public class FieldProcessorFactory {
         }
     }
 
-    public <T> WriteFieldProcessor toWriteFieldProcessor(FieldDescription<T> description,
-                                                         final String nullValue, OnError onError,
-                                                         boolean lenient) {
-        final FieldProcessor<T> rawProcessor = description.toFieldProcessor(nullValue);
+    public <T> PrimitiveWriteFieldProcessor toWriteFieldProcessor(
+            FieldDescription<T> description, String nullValue, OnError onError,
+            boolean lenient) {
+        FieldProcessor<T> rawProcessor = description.toFieldProcessor(nullValue);
+        return new PrimitiveWriteFieldProcessorAdapter(rawProcessor,
+                this.toWriteFieldProcessor(rawProcessor, nullValue, onError, lenient));
+    }
+
+    private <T> WriteFieldProcessor toWriteFieldProcessor(final FieldProcessor<T> rawProcessor,
+                                                          final String nullValue,
+                                                          OnError onError, boolean lenient) {
         if (lenient) {
             switch (onError) {
                 case WRAP:
@@ -23,7 +23,7 @@ package com.github.jferard.javamcsv.processor;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.Util;
 
-public class FloatFieldProcessor implements FieldProcessor<Double> {
+public class FloatFieldProcessor implements TryFieldProcessor<Double> {
     private final String thousandsSeparator;
     private final String decimalSeparator;
     private final String nullValue;
@@ -40,6 +40,15 @@ public class FloatFieldProcessor implements FieldProcessor<Double> {
         if (text == null || text.equals(this.nullValue)) {
             return null;
         }
+        return this.toDouble(text);
+    }
+
+    /**
+     * @param text the CSV value, not null
+     * @return the value, without boxing
+     * @throws MetaCSVReadException if the text is not a float
+     */
+    public double toDouble(String text) throws MetaCSVReadException {
         try {
             return Util.parseDouble(text, thousandsSeparator, decimalSeparator);
         } catch (NumberFormatException e) {
@@ -47,22 +56,69 @@ public class FloatFieldProcessor implements FieldProcessor<Double> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        String normalized =
+                Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator);
+        if (!Util.isDoubleText(normalized)) {
+            return INVALID;
+        }
+        try {
+            return Double.parseDouble(normalized);
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+    }
+
     @Override
     public String toString(Double d) {
         if (d == null) {
             return this.nullValue;
         }
-        return Util.formatDouble(d, this.thousandsSeparator, decimalSeparator);
+        return this.toString(d.doubleValue());
+    }
+
+    public String toString(double d) {
+        return Util.formatDouble(d, this.thousandsSeparator, this.decimalSeparator);
     }
 
     @Override
-    public String toCanonicalString(String text) throws MetaCSVReadException {
+    public String toCanonicalString(String text) {
         if (text == null || text.equals(this.nullValue)) {
             return "";
         }
         return Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator);
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return text == null || text.equals(this.nullValue) || Util.isDoubleText(
+                Util.normalizeDecimalText(text, this.thousandsSeparator, this.decimalSeparator));
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        int start = out.length();
+        Util.appendNormalizedDecimalText(out, text, this.thousandsSeparator,
+                this.decimalSeparator);
+        if (Util.isDoubleText(out, start, out.length())) {
+            return true;
+        }
+        out.setLength(start);
+        return false;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        return this.toCanonicalString(text);
+    }
+
     @Override
     public Double cast(Object o) {
         if (o == null || o instanceof Double) {
@@ -23,7 +23,7 @@ package com.github.jferard.javamcsv.processor;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.Util;
 
-public class IntegerFieldProcessor implements FieldProcessor<Long> {
+public class IntegerFieldProcessor implements TryFieldProcessor<Long> {
     private final String thousandsSeparator;
     private final String nullValue;
 
@@ -37,6 +37,15 @@ public class IntegerFieldProcessor implements FieldProcessor<Long> {
         if (text == null || text.equals(this.nullValue)) {
             return null;
         }
+        return this.toLong(text);
+    }
+
+    /**
+     * @param text the CSV value, not null
+     * @return the value, without boxing
+     * @throws MetaCSVReadException if the text is not an integer
+     */
+    public long toLong(String text) throws MetaCSVReadException {
         try {
             return Util.parseLong(text, this.thousandsSeparator);
         } catch (NumberFormatException e) {
@@ -44,11 +53,27 @@ public class IntegerFieldProcessor implements FieldProcessor<Long> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        String normalized = Util.normalizeIntegerText(text, this.thousandsSeparator);
+        if (!Util.isLongText(normalized)) {
+            return INVALID;
+        }
+        return Long.parseLong(normalized);
+    }
+
     @Override
     public String toString(Long n) {
         if (n == null) {
             return this.nullValue;
         }
+        return this.toString(n.longValue());
+    }
+
+    public String toString(long n) {
         return Util.formatLong(n, this.thousandsSeparator);
     }
 
@@ -60,6 +85,31 @@ public class IntegerFieldProcessor implements FieldProcessor<Long> {
         return Util.normalizeIntegerText(text, this.thousandsSeparator);
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return text == null || text.equals(this.nullValue) ||
+                Util.isLongText(Util.normalizeIntegerText(text, this.thousandsSeparator));
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        int start = out.length();
+        Util.appendNormalizedDecimalText(out, text, this.thousandsSeparator, null);
+        if (Util.isLongText(out, start, out.length())) {
+            return true;
+        }
+        out.setLength(start);
+        return false;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        return this.toCanonicalString(text);
+    }
+
     @Override
     public Long cast(Object o) {
         if (o == null || o instanceof Long) {
@@ -23,7 +23,7 @@ package com.github.jferard.javamcsv.processor;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.processor.FieldProcessor;
 
-public class ObjectFieldProcessor implements FieldProcessor<Object> {
+public class ObjectFieldProcessor implements TryFieldProcessor<Object> {
     private final String nullValue;
 
     public ObjectFieldProcessor(String nullValue) {
@@ -39,6 +39,11 @@ public class ObjectFieldProcessor implements FieldProcessor<Object> {
         }
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        return this.toObject(text);
+    }
+
     @Override
     public String toString(Object value) {
         if (value == null) {
@@ -57,6 +62,28 @@ public class ObjectFieldProcessor implements FieldProcessor<Object> {
         }
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return true;
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text != null && !text.equals(this.nullValue)) {
+            out.append(text);
+        }
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return "";
+        } else {
+            return text;
+        }
+    }
+
     @Override
     public Object cast(Object o) {
         return o;
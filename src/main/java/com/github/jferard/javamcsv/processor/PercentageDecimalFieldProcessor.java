@@ -26,7 +26,7 @@ import com.github.jferard.javamcsv.processor.FieldProcessor;
 
 import java.math.BigDecimal;
 
-public class PercentageDecimalFieldProcessor implements FieldProcessor<BigDecimal> {
+public class PercentageDecimalFieldProcessor implements TryFieldProcessor<BigDecimal> {
     public static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
     private final boolean pre;
     private final String symbol;
@@ -50,6 +50,22 @@ public class PercentageDecimalFieldProcessor implements FieldProcessor<BigDecima
         return this.numberProcessor.toObject(text).divide(HUNDRED);
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return INVALID;
+        }
+        Object value = FieldProcessorFactory.tryToObject(this.numberProcessor, text);
+        if (value == null || value == INVALID) {
+            return value;
+        }
+        return ((BigDecimal) value).divide(HUNDRED);
+    }
+
     @Override
     public String toString(BigDecimal value) {
         if (value == null) {
@@ -73,6 +89,37 @@ public class PercentageDecimalFieldProcessor implements FieldProcessor<BigDecima
         return value.toString();
     }
 
+    @Override
+    public boolean isValid(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null && FieldProcessorFactory.isValid(this.numberProcessor, text);
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        Object value = this.tryToObject(text);
+        if (value == INVALID) {
+            return false;
+        } else if (value != null) {
+            out.append(value);
+        }
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        Object value = this.tryToObject(text);
+        if (value == null) {
+            return "";
+        } else if (value == INVALID) {
+            return null;
+        }
+        return value.toString();
+    }
+
     @Override
     public BigDecimal cast(Object o) {
         return this.numberProcessor.cast(o);
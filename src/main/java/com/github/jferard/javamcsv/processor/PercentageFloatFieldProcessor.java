@@ -26,7 +26,7 @@ import com.github.jferard.javamcsv.processor.FieldProcessor;
 
 import java.math.BigDecimal;
 
-public class PercentageFloatFieldProcessor implements FieldProcessor<Double> {
+public class PercentageFloatFieldProcessor implements TryFieldProcessor<Double> {
     private final boolean pre;
     private final String symbol;
     private final FieldProcessor<Double> numberProcessor;
@@ -45,8 +45,40 @@ public class PercentageFloatFieldProcessor implements FieldProcessor<Double> {
         if (text == null || text.equals(this.nullValue)) {
             return null;
         }
+        return this.toDouble(text);
+    }
+
+    /**
+     * @param text the CSV value, not null
+     * @return the value, without boxing
+     * @throws MetaCSVReadException if the text is not a percentage
+     */
+    public double toDouble(String text) throws MetaCSVReadException {
         text = Util.cleanCurrencyText(text, this.pre, this.symbol);
-        return this.numberProcessor.toObject(text) / 100.0;
+        if (this.numberProcessor instanceof FloatFieldProcessor) {
+            return ((FloatFieldProcessor) this.numberProcessor).toDouble(text) / 100.0;
+        }
+        Double value = this.numberProcessor.toObject(text);
+        if (value == null) {
+            throw new MetaCSVReadException("Not a percentage: " + text);
+        }
+        return value / 100.0;
+    }
+
+    @Override
+    public Object tryToObject(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return null;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        if (text == null) {
+            return INVALID;
+        }
+        Object value = FieldProcessorFactory.tryToObject(this.numberProcessor, text);
+        if (value == null || value == INVALID) {
+            return value;
+        }
+        return (Double) value / 100.0;
     }
 
     @Override
@@ -54,8 +86,16 @@ public class PercentageFloatFieldProcessor implements FieldProcessor<Double> {
         if (value == null) {
             return this.nullValue;
         }
-        String valueAsString =
-                this.numberProcessor.toString(value * 100.0);
+        return this.toString(value.doubleValue());
+    }
+
+    public String toString(double value) {
+        String valueAsString;
+        if (this.numberProcessor instanceof FloatFieldProcessor) {
+            valueAsString = ((FloatFieldProcessor) this.numberProcessor).toString(value * 100.0);
+        } else {
+            valueAsString = this.numberProcessor.toString(value * 100.0);
+        }
         if (this.pre) {
             return this.symbol + valueAsString;
         } else {
@@ -72,6 +112,37 @@ public class PercentageFloatFieldProcessor implements FieldProcessor<Double> {
         return value.toString();
     }
 
+    @Override
+    public boolean isValid(String text) {
+        if (text == null || text.equals(this.nullValue)) {
+            return true;
+        }
+        text = Util.tryCleanCurrencyText(text, this.pre, this.symbol);
+        return text != null && FieldProcessorFactory.isValid(this.numberProcessor, text);
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        Object value = this.tryToObject(text);
+        if (value == INVALID) {
+            return false;
+        } else if (value != null) {
+            out.append(value);
+        }
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        Object value = this.tryToObject(text);
+        if (value == null) {
+            return "";
+        } else if (value == INVALID) {
+            return null;
+        }
+        return value.toString();
+    }
+
     @Override
     public Double cast(Object o) {
         return this.numberProcessor.cast(o);
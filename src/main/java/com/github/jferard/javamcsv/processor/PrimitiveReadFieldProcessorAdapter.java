@@ -0,0 +1,88 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.processor;
+
+import com.github.jferard.javamcsv.MetaCSVCastException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+
+/**
+ * Parses the values with the primitive method of the raw processor if it has one for this
+ * type, and falls back to the boxed value otherwise.
+ */
+class PrimitiveReadFieldProcessorAdapter implements PrimitiveReadFieldProcessor {
+    private final FieldProcessor<?> rawProcessor;
+    private final String nullValue;
+
+    PrimitiveReadFieldProcessorAdapter(FieldProcessor<?> rawProcessor, String nullValue) {
+        this.rawProcessor = rawProcessor;
+        this.nullValue = nullValue;
+    }
+
+    @Override
+    public boolean isNull(String text) {
+        if (this.rawProcessor instanceof BooleanFieldProcessor) {
+            return ((BooleanFieldProcessor) this.rawProcessor).isNull(text);
+        }
+        return text == null || text.equals(this.nullValue);
+    }
+
+    @Override
+    public long toLong(String text) throws MetaCSVReadException {
+        if (this.rawProcessor instanceof IntegerFieldProcessor) {
+            return ((IntegerFieldProcessor) this.rawProcessor).toLong(text);
+        } else if (this.rawProcessor instanceof CurrencyIntegerFieldProcessor) {
+            return ((CurrencyIntegerFieldProcessor) this.rawProcessor).toLong(text);
+        }
+        Object value = this.rawProcessor.toObject(text);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        throw new MetaCSVCastException("Not an integer: " + value);
+    }
+
+    @Override
+    public double toDouble(String text) throws MetaCSVReadException {
+        if (this.rawProcessor instanceof FloatFieldProcessor) {
+            return ((FloatFieldProcessor) this.rawProcessor).toDouble(text);
+        } else if (this.rawProcessor instanceof PercentageFloatFieldProcessor) {
+            return ((PercentageFloatFieldProcessor) this.rawProcessor).toDouble(text);
+        } else if (this.rawProcessor instanceof IntegerFieldProcessor ||
+                this.rawProcessor instanceof CurrencyIntegerFieldProcessor) {
+            return this.toLong(text);
+        }
+        Object value = this.rawProcessor.toObject(text);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        throw new MetaCSVCastException("Not a number: " + value);
+    }
+
+    @Override
+    public boolean toBoolean(String text) throws MetaCSVReadException {
+        if (this.rawProcessor instanceof BooleanFieldProcessor) {
+            return ((BooleanFieldProcessor) this.rawProcessor).toBoolean(text);
+        }
+        Object value = this.rawProcessor.toObject(text);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new MetaCSVCastException("Not a boolean: " + value);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+/**
+ * Formats the primitive values with the raw processor if it has a primitive method for this
+ * type, and falls back to the boxed value otherwise.
+ */
+class PrimitiveWriteFieldProcessorAdapter implements PrimitiveWriteFieldProcessor {
+    private final FieldProcessor<?> rawProcessor;
+    private final WriteFieldProcessor processor;
+
+    PrimitiveWriteFieldProcessorAdapter(FieldProcessor<?> rawProcessor,
+                                        WriteFieldProcessor processor) {
+        this.rawProcessor = rawProcessor;
+        this.processor = processor;
+    }
+
+    @Override
+    public String toString(Object value) {
+        return this.processor.toString(value);
+    }
+
+    @Override
+    public String toString(long value) {
+        if (this.rawProcessor instanceof IntegerFieldProcessor) {
+            return ((IntegerFieldProcessor) this.rawProcessor).toString(value);
+        } else if (this.rawProcessor instanceof CurrencyIntegerFieldProcessor) {
+            return ((CurrencyIntegerFieldProcessor) this.rawProcessor).toString(value);
+        }
+        return this.processor.toString(Long.valueOf(value));
+    }
+
+    @Override
+    public String toString(double value) {
+        if (this.rawProcessor instanceof FloatFieldProcessor) {
+            return ((FloatFieldProcessor) this.rawProcessor).toString(value);
+        } else if (this.rawProcessor instanceof PercentageFloatFieldProcessor) {
+            return ((PercentageFloatFieldProcessor) this.rawProcessor).toString(value);
+        }
+        return this.processor.toString(Double.valueOf(value));
+    }
+
+    @Override
+    public String toString(boolean value) {
+        if (this.rawProcessor instanceof BooleanFieldProcessor) {
+            return ((BooleanFieldProcessor) this.rawProcessor).toString(value);
+        }
+        return this.processor.toString(Boolean.valueOf(value));
+    }
+}
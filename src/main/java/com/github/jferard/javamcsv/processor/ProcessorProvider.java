@@ -20,6 +20,7 @@
 
 package com.github.jferard.javamcsv.processor;
 
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
 import com.github.jferard.javamcsv.description.TextFieldDescription;
 import com.github.jferard.javamcsv.description.FieldDescription;
 
@@ -31,12 +32,29 @@ public class ProcessorProvider {
     private final Map<Integer, FieldDescription<?>> descriptionByColIndex;
     private final String nullValue;
     private final List<FieldProcessor<?>> processors;
+    private final List<PrimitiveReadFieldProcessor> primitiveProcessors;
+    private final MetaCSVInstrumentation instrumentation;
 
     public ProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex,
                              String nullValue) {
+        this(descriptionByColIndex, nullValue, null);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param instrumentation       the instrumentation, may be null. If the columns are timed,
+     *                              the processors report the parse time of each cell.
+     */
+    public ProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                             String nullValue, MetaCSVInstrumentation instrumentation) {
+        this.instrumentation =
+                instrumentation != null && instrumentation.isColumnTimed() ? instrumentation
+                        : null;
         this.descriptionByColIndex = descriptionByColIndex;
         this.nullValue = nullValue;
         this.processors = new ArrayList<FieldProcessor<?>>();
+        this.primitiveProcessors = new ArrayList<PrimitiveReadFieldProcessor>();
     }
 
     public FieldProcessor<?> getProcessor(int c) {
@@ -46,11 +64,34 @@ public class ProcessorProvider {
         FieldProcessor<?> processor = this.processors.get(c);
         if (processor == null) {
             processor = createProcessor(c);
+            if (this.instrumentation != null) {
+                processor = this.timed(processor, c);
+            }
             this.processors.set(c, processor);
         }
         return processor;
     }
 
+    public PrimitiveReadFieldProcessor getPrimitiveProcessor(int c) {
+        while (c >= this.primitiveProcessors.size()) {
+            this.primitiveProcessors.add(null);
+        }
+        PrimitiveReadFieldProcessor processor = this.primitiveProcessors.get(c);
+        if (processor == null) {
+            if (this.instrumentation == null) {
+                processor = new PrimitiveReadFieldProcessorAdapter(this.getProcessor(c),
+                        nullValue);
+            } else {
+                // the adapter needs the concrete processor to find the primitive methods
+                processor = new TimedPrimitiveReadFieldProcessor(
+                        new PrimitiveReadFieldProcessorAdapter(createProcessor(c), nullValue), c,
+                        this.instrumentation);
+            }
+            this.primitiveProcessors.set(c, processor);
+        }
+        return processor;
+    }
+
     private FieldProcessor<?> createProcessor(int c) {
         FieldDescription<?> fieldDescription = this.descriptionByColIndex.get(c);
         if (fieldDescription == null) {
@@ -58,4 +99,8 @@ public class ProcessorProvider {
         }
         return fieldDescription.toFieldProcessor(nullValue);
     }
+
+    private <T> FieldProcessor<T> timed(FieldProcessor<T> processor, int c) {
+        return new TimedFieldProcessor<T>(processor, c, this.instrumentation);
+    }
 }
@@ -20,6 +20,8 @@
 
 package com.github.jferard.javamcsv.processor;
 
+import com.github.jferard.javamcsv.ErrorSink;
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
 import com.github.jferard.javamcsv.OnError;
 import com.github.jferard.javamcsv.description.TextFieldDescription;
 import com.github.jferard.javamcsv.description.FieldDescription;
@@ -34,8 +36,39 @@ public class ReadProcessorProvider {
     private final OnError onError;
     private final List<ReadFieldProcessor<?>> processors;
     private final FieldProcessorFactory fieldProcessorFactory;
+    private final ErrorReporter reporter;
+    private final MetaCSVInstrumentation instrumentation;
 
     public ReadProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex, String nullValue, OnError onError) {
+        this(descriptionByColIndex, nullValue, onError, null);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @param sink                  the sink for the errors, may be null
+     */
+    public ReadProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                                 String nullValue, OnError onError, ErrorSink sink) {
+        this(descriptionByColIndex, nullValue, onError, sink, null);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @param sink                  the sink for the errors, may be null
+     * @param instrumentation       the instrumentation, may be null. If the columns are timed,
+     *                              the processors report the parse time of each cell.
+     */
+    public ReadProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                                 String nullValue, OnError onError, ErrorSink sink,
+                                 MetaCSVInstrumentation instrumentation) {
+        this.instrumentation =
+                instrumentation != null && instrumentation.isColumnTimed() ? instrumentation
+                        : null;
+        this.reporter = sink == null ? null : new ErrorReporter(sink);
         this.descriptionByColIndex = descriptionByColIndex;
         this.nullValue = nullValue;
         this.onError = onError;
@@ -55,12 +88,31 @@ public class ReadProcessorProvider {
         return processor;
     }
 
+    /**
+     * Set the row of the next values, for the error sink.
+     *
+     * @param row the row
+     */
+    public void setRow(long row) {
+        if (this.reporter != null) {
+            this.reporter.setRow(row);
+        }
+    }
+
     private ReadFieldProcessor<?> createProcessor(int c) {
         FieldDescription<?> fieldDescription = this.descriptionByColIndex.get(c);
         if (fieldDescription == null) {
             fieldDescription = TextFieldDescription.INSTANCE;
         }
-        return this.fieldProcessorFactory
-                .toReadFieldProcessor(fieldDescription, nullValue, onError);
+        ReadFieldProcessor<?> processor = this.fieldProcessorFactory
+                .toReadFieldProcessor(fieldDescription, nullValue, onError, c, this.reporter);
+        if (this.instrumentation == null) {
+            return processor;
+        }
+        return this.timed(processor, c);
+    }
+
+    private <T> ReadFieldProcessor<T> timed(ReadFieldProcessor<T> processor, int c) {
+        return new TimedReadFieldProcessor<T>(processor, c, this.instrumentation);
     }
 }
@@ -0,0 +1,558 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+import com.github.jferard.javamcsv.ErrorSink;
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVUncheckedReadException;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.ReadError;
+import com.github.jferard.javamcsv.description.FieldDescription;
+import com.github.jferard.javamcsv.description.TextFieldDescription;
+import org.apache.commons.csv.CSVRecord;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns a schema into a specialized RowDecoder: the source of a class with one field per column
+ * (typed with the concrete processor class), the null check and the OnError policy inlined
+ * as straight-line code, is generated and compiled in memory. Unless the policy is
+ * OnError.EXCEPTION, the exception-free {@link TryFieldProcessor} path is used. If the columns
+ * of the instrumentation are timed, the timing of each cell is inlined too.
+ *
+ * If the compiler is not available (JRE) or fails, an {@link ArrayRowDecoder} is returned.
+ */
+public class RowDecoderCompiler {
+    private static final String PACKAGE_NAME = "com.github.jferard.javamcsv.processor";
+    private static final int MAX_CACHE_SIZE = 256;
+    /**
+     * The most recently used classes, guarded by the map itself. A class and its loader are
+     * collected once evicted, when no decoder uses them anymore.
+     */
+    private static final Map<String, Class<?>> CLASS_BY_SIGNATURE = new ClassCache();
+    /**
+     * The marker of a signature that can't be compiled.
+     */
+    private static final Class<?> NO_CLASS = Void.class;
+    private static final AtomicInteger CLASS_COUNT = new AtomicInteger();
+
+    private final FieldProcessorFactory fieldProcessorFactory;
+
+    public RowDecoderCompiler() {
+        this.fieldProcessorFactory = new FieldProcessorFactory();
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @return a compiled decoder, or an interpreted one if the compilation is not possible.
+     */
+    public RowDecoder compile(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                              String nullValue, OnError onError) {
+        return this.compile(descriptionByColIndex, nullValue, onError, null);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @param sink                  the sink for the errors, may be null
+     * @return a compiled decoder, or an interpreted one if the compilation is not possible.
+     */
+    public RowDecoder compile(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                              String nullValue, OnError onError, ErrorSink sink) {
+        return this.compile(descriptionByColIndex, nullValue, onError, sink, null);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @param sink                  the sink for the errors, may be null
+     * @param instrumentation       the instrumentation, may be null. If the columns are timed,
+     *                              the decoder reports the parse time of each cell.
+     * @return a compiled decoder, or an interpreted one if the compilation is not possible.
+     */
+    public RowDecoder compile(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                              String nullValue, OnError onError, ErrorSink sink,
+                              MetaCSVInstrumentation instrumentation) {
+        if (instrumentation != null && !instrumentation.isColumnTimed()) {
+            instrumentation = null;
+        }
+        FieldDescription<?>[] descriptions = this.getDescriptions(descriptionByColIndex);
+        int count = descriptions.length;
+        FieldProcessor<?>[] processors = new FieldProcessor<?>[count];
+        String[] colTypes = new String[count];
+        for (int c = 0; c < count; c++) {
+            processors[c] = descriptions[c].toFieldProcessor(nullValue);
+            colTypes[c] = this.fieldProcessorFactory.getColTypeValue(descriptions[c]);
+        }
+        Class<?> decoderClass =
+                this.getDecoderClass(processors, onError, instrumentation != null);
+        if (decoderClass != null) {
+            try {
+                Constructor<?> constructor = decoderClass
+                        .getConstructor(FieldProcessor[].class, String[].class, String.class,
+                                ErrorSink.class, MetaCSVInstrumentation.class);
+                return (RowDecoder) constructor
+                        .newInstance(processors, colTypes, nullValue, sink, instrumentation);
+            } catch (Exception e) {
+                // fall back to the interpreted decoder
+            }
+        }
+        return this.interpret(descriptions, nullValue, onError, sink, instrumentation);
+    }
+
+    /**
+     * @param descriptionByColIndex the descriptions
+     * @param nullValue             the null value
+     * @param onError               the policy
+     * @return the interpreted decoder
+     */
+    public RowDecoder interpret(Map<Integer, FieldDescription<?>> descriptionByColIndex,
+                                String nullValue, OnError onError) {
+        return this.interpret(this.getDescriptions(descriptionByColIndex), nullValue, onError,
+                null, null);
+    }
+
+    private RowDecoder interpret(FieldDescription<?>[] descriptions, String nullValue,
+                                 OnError onError, ErrorSink sink,
+                                 MetaCSVInstrumentation instrumentation) {
+        ErrorReporter reporter = sink == null ? null : new ErrorReporter(sink);
+        ReadFieldProcessor<?>[] readProcessors = new ReadFieldProcessor<?>[descriptions.length];
+        for (int c = 0; c < descriptions.length; c++) {
+            readProcessors[c] = this.fieldProcessorFactory
+                    .toReadFieldProcessor(descriptions[c], nullValue, onError, c, reporter);
+            if (instrumentation != null) {
+                readProcessors[c] = this.timed(readProcessors[c], c, instrumentation);
+            }
+        }
+        return new ArrayRowDecoder(readProcessors, this.fieldProcessorFactory
+                .toReadFieldProcessor(TextFieldDescription.INSTANCE, nullValue, onError),
+                reporter);
+    }
+
+    private <T> ReadFieldProcessor<T> timed(ReadFieldProcessor<T> processor, int c,
+                                            MetaCSVInstrumentation instrumentation) {
+        return new TimedReadFieldProcessor<T>(processor, c, instrumentation);
+    }
+
+    private FieldDescription<?>[] getDescriptions(
+            Map<Integer, FieldDescription<?>> descriptionByColIndex) {
+        int count = 0;
+        for (Integer c : descriptionByColIndex.keySet()) {
+            if (c >= count) {
+                count = c + 1;
+            }
+        }
+        FieldDescription<?>[] descriptions = new FieldDescription<?>[count];
+        for (int c = 0; c < count; c++) {
+            FieldDescription<?> description = descriptionByColIndex.get(c);
+            if (description == null) {
+                description = TextFieldDescription.INSTANCE;
+            }
+            descriptions[c] = description;
+        }
+        return descriptions;
+    }
+
+    private Class<?> getDecoderClass(FieldProcessor<?>[] processors, OnError onError,
+                                     boolean timed) {
+        String[] typeNames = new String[processors.length];
+        StringBuilder signature = new StringBuilder(onError.name());
+        if (timed) {
+            signature.append(",TIMED");
+        }
+        for (int c = 0; c < processors.length; c++) {
+            typeNames[c] = this.getTypeName(processors[c].getClass());
+            signature.append(',').append(typeNames[c]);
+        }
+        String key = signature.toString();
+        Class<?> cachedClass;
+        synchronized (CLASS_BY_SIGNATURE) {
+            cachedClass = CLASS_BY_SIGNATURE.get(key);
+        }
+        if (cachedClass == NO_CLASS) {
+            return null;
+        } else if (cachedClass != null) {
+            return cachedClass;
+        }
+        // compile outside of any lock: two threads may compile the same class, the first one
+        // to publish it wins.
+        String simpleName = "CompiledRowDecoder" + CLASS_COUNT.getAndIncrement();
+        String source = this.generateSource(simpleName, typeNames, onError, timed);
+        Class<?> decoderClass = this.compileSource(PACKAGE_NAME + "." + simpleName, source,
+                processors);
+        return this.publish(key, decoderClass);
+    }
+
+    private Class<?> publish(String key, Class<?> decoderClass) {
+        synchronized (CLASS_BY_SIGNATURE) {
+            Class<?> publishedClass = CLASS_BY_SIGNATURE.get(key);
+            if (publishedClass == null) {
+                CLASS_BY_SIGNATURE.put(key, decoderClass == null ? NO_CLASS : decoderClass);
+                return decoderClass;
+            } else if (publishedClass == NO_CLASS) {
+                return null;
+            } else {
+                return publishedClass;
+            }
+        }
+    }
+
+    /**
+     * @param processorClass the class of the processor
+     * @return the concrete name if the generated code may use it, the interface name otherwise.
+     */
+    private String getTypeName(Class<?> processorClass) {
+        String canonicalName = processorClass.getCanonicalName();
+        if (canonicalName == null || !Modifier.isPublic(processorClass.getModifiers()) ||
+                processorClass.getClassLoader() != RowDecoder.class.getClassLoader()) {
+            if (TryFieldProcessor.class.isAssignableFrom(processorClass)) {
+                return TryFieldProcessor.class.getName() + "<?>";
+            }
+            return FieldProcessor.class.getName() + "<?>";
+        }
+        return canonicalName;
+    }
+
+    String generateSource(String simpleName, String[] typeNames, OnError onError,
+                          boolean timed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE_NAME).append(";\n\n");
+        sb.append("public final class ").append(simpleName).append(" implements ")
+                .append(RowDecoder.class.getName()).append(" {\n");
+        for (int c = 0; c < typeNames.length; c++) {
+            sb.append("    private final ").append(typeNames[c]).append(" p").append(c)
+                    .append(";\n");
+            sb.append("    private final String d").append(c).append(";\n");
+        }
+        sb.append("    private final String nullValue;\n");
+        sb.append("    private final ").append(ErrorSink.class.getName()).append(" sink;\n");
+        sb.append("    private final ").append(MetaCSVInstrumentation.class.getName())
+                .append(" instrumentation;\n\n");
+        sb.append("    public ").append(simpleName).append("(")
+                .append(FieldProcessor.class.getName())
+                .append("<?>[] processors, String[] descriptions, String nullValue, ")
+                .append(ErrorSink.class.getName()).append(" sink, ")
+                .append(MetaCSVInstrumentation.class.getName()).append(" instrumentation) {\n");
+        for (int c = 0; c < typeNames.length; c++) {
+            sb.append("        this.p").append(c).append(" = (").append(typeNames[c])
+                    .append(") processors[").append(c).append("];\n");
+            sb.append("        this.d").append(c).append(" = descriptions[").append(c)
+                    .append("];\n");
+        }
+        sb.append("        this.nullValue = nullValue;\n");
+        sb.append("        this.sink = sink;\n");
+        sb.append("        this.instrumentation = instrumentation;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public java.util.List<Object> decode(").append(CSVRecord.class.getName())
+                .append(" record) {\n");
+        sb.append("        int size = record.size();\n");
+        sb.append("        java.util.List<Object> values = new java.util.ArrayList<Object>(size);\n");
+        sb.append("        String text;\n");
+        sb.append("        Object value;\n");
+        if (timed) {
+            sb.append("        long start;\n");
+        }
+        for (int c = 0; c < typeNames.length; c++) {
+            sb.append("        if (size == ").append(c).append(") {\n");
+            sb.append("            return values;\n");
+            sb.append("        }\n");
+            sb.append("        text = record.get(").append(c).append(");\n");
+            if (timed) {
+                sb.append("        start = System.nanoTime();\n");
+            }
+            this.generateColumn(sb, c, typeNames[c], onError);
+            if (timed) {
+                sb.append("        this.instrumentation.cellParsed(").append(c)
+                        .append(", System.nanoTime() - start);\n");
+            }
+        }
+        sb.append("        for (int c = ").append(typeNames.length).append("; c < size; c++) {\n");
+        sb.append("            text = record.get(c);\n");
+        sb.append("            values.add(text == null || text.equals(this.nullValue) ? null : text);\n");
+        sb.append("        }\n");
+        sb.append("        return values;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void generateColumn(StringBuilder sb, int c, String typeName, OnError onError) {
+        if (typeName.equals(TextFieldProcessor.class.getName())) {
+            sb.append("        values.add(text == null || text.equals(this.nullValue) ? null : text);\n");
+            return;
+        }
+        if (onError != OnError.EXCEPTION && this.isTryType(typeName)) {
+            this.generateTryColumn(sb, c, onError);
+            return;
+        }
+        String indent = "        ";
+        if (this.hasStandardNullCheck(typeName)) {
+            sb.append("        if (text == null || text.equals(this.nullValue)) {\n");
+            sb.append("            values.add(null);\n");
+            sb.append("        } else {\n");
+            indent = "            ";
+        }
+        sb.append(indent).append("try {\n");
+        sb.append(indent).append("    values.add(this.p").append(c).append(".toObject(text));\n");
+        sb.append(indent).append("} catch (").append(MetaCSVReadException.class.getName())
+                .append(" e) {\n");
+        this.generateReport(sb, indent + "    ", c);
+        sb.append(indent).append("    ");
+        switch (onError) {
+            case WRAP:
+                sb.append("values.add(new ").append(ReadError.class.getName())
+                        .append("(text, this.d").append(c).append("));\n");
+                break;
+            case NULL:
+                sb.append("values.add(null);\n");
+                break;
+            case TEXT:
+                sb.append("values.add(text);\n");
+                break;
+            default:
+                sb.append("throw new ").append(MetaCSVUncheckedReadException.class.getName())
+                        .append("(e);\n");
+                break;
+        }
+        sb.append(indent).append("}\n");
+        if (this.hasStandardNullCheck(typeName)) {
+            sb.append("        }\n");
+        }
+    }
+
+    private void generateTryColumn(StringBuilder sb, int c, OnError onError) {
+        sb.append("        value = this.p").append(c).append(".tryToObject(text);\n");
+        sb.append("        if (value == ").append(TryFieldProcessor.class.getName())
+                .append(".INVALID) {\n");
+        this.generateReport(sb, "            ", c);
+        sb.append("            ");
+        switch (onError) {
+            case WRAP:
+                sb.append("values.add(new ").append(ReadError.class.getName())
+                        .append("(text, this.d").append(c).append("));\n");
+                break;
+            case NULL:
+                sb.append("values.add(null);\n");
+                break;
+            default:
+                sb.append("values.add(text);\n");
+                break;
+        }
+        sb.append("        } else {\n");
+        sb.append("            values.add(value);\n");
+        sb.append("        }\n");
+    }
+
+    private void generateReport(StringBuilder sb, String indent, int c) {
+        sb.append(indent).append("if (this.sink != null) {\n");
+        sb.append(indent).append("    this.sink.error(").append(c)
+                .append(", record.getRecordNumber() - 1, text);\n");
+        sb.append(indent).append("}\n");
+    }
+
+    /**
+     * @param typeName the name of the processor class or interface
+     * @return true if the generated code may call tryToObject.
+     */
+    private boolean isTryType(String typeName) {
+        if (typeName.equals(TryFieldProcessor.class.getName() + "<?>")) {
+            return true;
+        } else if (typeName.endsWith("<?>")) {
+            return false;
+        }
+        try {
+            return TryFieldProcessor.class.isAssignableFrom(
+                    Class.forName(typeName, false, RowDecoder.class.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param typeName the name of the processor class
+     * @return true if the processor returns null iff text is null or equal to the null value.
+     */
+    private boolean hasStandardNullCheck(String typeName) {
+        return typeName.equals(IntegerFieldProcessor.class.getName()) ||
+                typeName.equals(FloatFieldProcessor.class.getName()) ||
+                typeName.equals(DecimalFieldProcessor.class.getName()) ||
+                typeName.equals(DateFieldProcessor.class.getName()) ||
+                typeName.equals(CurrencyIntegerFieldProcessor.class.getName()) ||
+                typeName.equals(CurrencyDecimalFieldProcessor.class.getName()) ||
+                typeName.equals(PercentageFloatFieldProcessor.class.getName()) ||
+                typeName.equals(PercentageDecimalFieldProcessor.class.getName()) ||
+                typeName.equals(ObjectFieldProcessor.class.getName());
+    }
+
+    private Class<?> compileSource(String className, final String source,
+                                   FieldProcessor<?>[] processors) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+        StandardJavaFileManager standardFileManager =
+                compiler.getStandardFileManager(null, null, null);
+        final Map<String, ByteArrayOutputStream> bytesByClassName =
+                new HashMap<String, ByteArrayOutputStream>();
+        JavaFileManager fileManager =
+                new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+                    @Override
+                    public JavaFileObject getJavaFileForOutput(Location location,
+                                                               final String name,
+                                                               JavaFileObject.Kind kind,
+                                                               FileObject sibling) {
+                        return new SimpleJavaFileObject(
+                                URI.create("mem:///" + name.replace('.', '/') + kind.extension),
+                                kind) {
+                            @Override
+                            public OutputStream openOutputStream() {
+                                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                                bytesByClassName.put(name, out);
+                                return out;
+                            }
+                        };
+                    }
+                };
+        JavaFileObject sourceObject = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') +
+                        JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", this.getClassPath(processors),
+                "-g:none", "-nowarn");
+        try {
+            Boolean success = compiler.getTask(null, fileManager, null, options, null,
+                    Collections.singletonList(sourceObject)).call();
+            if (success == null || !success) {
+                return null;
+            }
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        ByteArrayOutputStream out = bytesByClassName.get(className);
+        if (out == null) {
+            return null;
+        }
+        byte[] bytes = out.toByteArray();
+        return new ByteClassLoader(RowDecoder.class.getClassLoader())
+                .define(className, bytes);
+    }
+
+    private String getClassPath(FieldProcessor<?>[] processors) {
+        Set<String> paths = new LinkedHashSet<String>();
+        this.addCodeSource(paths, RowDecoder.class);
+        this.addCodeSource(paths, CSVRecord.class);
+        for (FieldProcessor<?> processor : processors) {
+            this.addCodeSource(paths, processor.getClass());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String path : paths) {
+            if (sb.length() > 0) {
+                sb.append(File.pathSeparatorChar);
+            }
+            sb.append(path);
+        }
+        return sb.toString();
+    }
+
+    private void addCodeSource(Set<String> paths, Class<?> aClass) {
+        CodeSource codeSource = aClass.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            return;
+        }
+        URL location = codeSource.getLocation();
+        if (location == null) {
+            return;
+        }
+        try {
+            paths.add(new File(location.toURI()).getPath());
+        } catch (URISyntaxException e) {
+            paths.add(location.getPath());
+        } catch (IllegalArgumentException e) {
+            // not a file
+        }
+    }
+
+    private static class ByteClassLoader extends ClassLoader {
+        ByteClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * An LRU map: the eldest entry is evicted beyond MAX_CACHE_SIZE classes.
+     */
+    private static class ClassCache extends LinkedHashMap<String, Class<?>> {
+        private static final long serialVersionUID = 1L;
+
+        ClassCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Class<?>> eldest) {
+            return this.size() > MAX_CACHE_SIZE;
+        }
+    }
+}
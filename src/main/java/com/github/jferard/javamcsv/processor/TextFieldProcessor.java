@@ -23,7 +23,7 @@ package com.github.jferard.javamcsv.processor;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 
 public class TextFieldProcessor
-        implements ReadFieldProcessor<String>, FieldProcessor<String> {
+        implements ReadFieldProcessor<String>, TryFieldProcessor<String> {
     private final String nullValue;
 
     public TextFieldProcessor(String nullValue) {
@@ -38,6 +38,11 @@ public class TextFieldProcessor
         return text;
     }
 
+    @Override
+    public Object tryToObject(String text) {
+        return this.toObject(text);
+    }
+
     @Override
     public String toString(String value) {
         if (value == null) {
@@ -54,6 +59,24 @@ public class TextFieldProcessor
         return text;
     }
 
+    @Override
+    public boolean isValid(String text) {
+        return true;
+    }
+
+    @Override
+    public boolean appendCanonical(String text, StringBuilder out) {
+        if (text != null && !text.equals(this.nullValue)) {
+            out.append(text);
+        }
+        return true;
+    }
+
+    @Override
+    public String tryToCanonicalString(String text) {
+        return this.toCanonicalString(text);
+    }
+
     @Override
     public String cast(Object o) {
         if (o == null || o instanceof String) {
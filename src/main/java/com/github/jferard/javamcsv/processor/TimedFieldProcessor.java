@@ -0,0 +1,72 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+
+/**
+ * Reports the parse time of each cell read by the typed getters to an instrumentation.
+ *
+ * @param <T> the type of the values
+ */
+class TimedFieldProcessor<T> implements FieldProcessor<T> {
+    private final FieldProcessor<T> processor;
+    private final int column;
+    private final MetaCSVInstrumentation instrumentation;
+
+    TimedFieldProcessor(FieldProcessor<T> processor, int column,
+                        MetaCSVInstrumentation instrumentation) {
+        this.processor = processor;
+        this.column = column;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public T toObject(String text) throws MetaCSVReadException {
+        long start = System.nanoTime();
+        try {
+            return this.processor.toObject(text);
+        } finally {
+            this.instrumentation.cellParsed(this.column, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String toString(T value) {
+        return this.processor.toString(value);
+    }
+
+    @Override
+    public String toCanonicalString(String text) throws MetaCSVReadException {
+        long start = System.nanoTime();
+        try {
+            return this.processor.toCanonicalString(text);
+        } finally {
+            this.instrumentation.cellParsed(this.column, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public T cast(Object o) {
+        return this.processor.cast(o);
+    }
+}
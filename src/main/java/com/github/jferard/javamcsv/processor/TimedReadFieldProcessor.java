@@ -0,0 +1,57 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+
+/**
+ * Reports the parse time of each cell to an instrumentation.
+ *
+ * @param <T> the type of the values
+ */
+class TimedReadFieldProcessor<T> implements ReadFieldProcessor<T> {
+    private final ReadFieldProcessor<T> processor;
+    private final int column;
+    private final MetaCSVInstrumentation instrumentation;
+
+    TimedReadFieldProcessor(ReadFieldProcessor<T> processor, int column,
+                            MetaCSVInstrumentation instrumentation) {
+        this.processor = processor;
+        this.column = column;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Object toObject(String text) {
+        long start = System.nanoTime();
+        Object value = this.processor.toObject(text);
+        this.instrumentation.cellParsed(this.column, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public String toCanonicalString(String text) {
+        long start = System.nanoTime();
+        String value = this.processor.toCanonicalString(text);
+        this.instrumentation.cellParsed(this.column, System.nanoTime() - start);
+        return value;
+    }
+}
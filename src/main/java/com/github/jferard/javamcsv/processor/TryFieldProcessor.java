@@ -0,0 +1,71 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+/**
+ * A processor with a status-returning parse contract: bad values are reported without any
+ * exception.
+ *
+ * @param <T> the type of the values
+ */
+public interface TryFieldProcessor<T> extends FieldProcessor<T> {
+    /**
+     * The status returned by tryToObject if the text can't be converted.
+     */
+    Object INVALID = new Object() {
+        @Override
+        public String toString() {
+            return "INVALID";
+        }
+    };
+
+    /**
+     * Prepare a value for a consumer. Does not throw any exception.
+     * @param text the CSV value
+     * @return the Object, or INVALID if the text can't be converted to a T value.
+     */
+    Object tryToObject(String text);
+
+    /**
+     * Prepare a value for a canonical String. Does not throw any exception.
+     * @param text the text value
+     * @return the canonical String representation of the text, or null if the text can't be
+     * converted to a T value.
+     */
+    String tryToCanonicalString(String text);
+
+    /**
+     * Check a value without building it, if possible. Does not throw any exception.
+     * @param text the CSV value
+     * @return true if the text is the null value or can be converted to a T value.
+     */
+    boolean isValid(String text);
+
+    /**
+     * Append the canonical String representation of a value, without intermediate objects
+     * if possible. Does not throw any exception.
+     * @param text the CSV value
+     * @param out the buffer
+     * @return true if the text is the null value (nothing is appended) or a valid value,
+     * false (nothing is appended) otherwise.
+     */
+    boolean appendCanonical(String text, StringBuilder out);
+}
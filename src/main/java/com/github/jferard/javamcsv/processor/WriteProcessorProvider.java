@@ -33,7 +33,7 @@ public class WriteProcessorProvider {
     private final String nullValue;
     private final OnError onError;
     private final FieldProcessorFactory fieldProcessorFactory;
-    private final List<WriteFieldProcessor> processors;
+    private final List<PrimitiveWriteFieldProcessor> processors;
 
     public WriteProcessorProvider(Map<Integer, FieldDescription<?>> descriptionByColIndex,
                                   String nullValue, OnError onError) {
@@ -41,14 +41,14 @@ public class WriteProcessorProvider {
         this.nullValue = nullValue;
         this.onError = onError;
         this.fieldProcessorFactory = new FieldProcessorFactory();
-        this.processors = new ArrayList<WriteFieldProcessor>();
+        this.processors = new ArrayList<PrimitiveWriteFieldProcessor>();
     }
 
-    public WriteFieldProcessor getProcessor(int c) {
+    public PrimitiveWriteFieldProcessor getProcessor(int c) {
         while (c >= this.processors.size()) {
             this.processors.add(null);
         }
-        WriteFieldProcessor processor = this.processors.get(c);
+        PrimitiveWriteFieldProcessor processor = this.processors.get(c);
         if (processor == null) {
             processor = createProcessor(c);
             this.processors.set(c, processor);
@@ -56,7 +56,7 @@ public class WriteProcessorProvider {
         return processor;
     }
 
-    private WriteFieldProcessor createProcessor(int c) {
+    private PrimitiveWriteFieldProcessor createProcessor(int c) {
         FieldDescription<?> fieldDescription = this.descriptionByColIndex.get(c);
         if (fieldDescription == null) {
             fieldDescription = TextFieldDescription.INSTANCE;
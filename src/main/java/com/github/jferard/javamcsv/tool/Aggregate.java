@@ -0,0 +1,89 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+/**
+ * An aggregate function on a column of a MetaCSV file.
+ */
+public class Aggregate {
+    public enum Function {
+        COUNT, SUM, MIN, MAX, AVG
+    }
+
+    /**
+     * @return the number of rows in the group
+     */
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, -1);
+    }
+
+    /**
+     * @param column the column
+     * @return the number of non null values in the group
+     */
+    public static Aggregate count(int column) {
+        return new Aggregate(Function.COUNT, column);
+    }
+
+    public static Aggregate sum(int column) {
+        return new Aggregate(Function.SUM, column);
+    }
+
+    public static Aggregate min(int column) {
+        return new Aggregate(Function.MIN, column);
+    }
+
+    public static Aggregate max(int column) {
+        return new Aggregate(Function.MAX, column);
+    }
+
+    public static Aggregate avg(int column) {
+        return new Aggregate(Function.AVG, column);
+    }
+
+    private final Function function;
+    private final int column;
+
+    public Aggregate(Function function, int column) {
+        if (column < 0 && function != Function.COUNT) {
+            throw new IllegalArgumentException(function + " needs a column");
+        }
+        this.function = function;
+        this.column = column;
+    }
+
+    public Function getFunction() {
+        return this.function;
+    }
+
+    /**
+     * @return the column, or -1 for a count of rows.
+     */
+    public int getColumn() {
+        return this.column;
+    }
+
+    @Override
+    public String toString() {
+        return this.function.toString().toLowerCase() + "(" +
+                (this.column == -1 ? "*" : String.valueOf(this.column)) + ")";
+    }
+}
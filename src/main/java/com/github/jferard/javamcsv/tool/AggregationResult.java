@@ -0,0 +1,86 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import java.util.List;
+
+/**
+ * The result of an aggregation: one row per group, the key columns first, then the aggregates.
+ */
+public class AggregationResult {
+    private final List<String> header;
+    private final List<List<Object>> rows;
+    private final long recordCount;
+    private final long errorCount;
+    private final int spillCount;
+
+    public AggregationResult(List<String> header, List<List<Object>> rows, long recordCount,
+                             long errorCount, int spillCount) {
+        this.header = header;
+        this.rows = rows;
+        this.recordCount = recordCount;
+        this.errorCount = errorCount;
+        this.spillCount = spillCount;
+    }
+
+    /**
+     * @return the names of the key columns, then "function(column name)" for each aggregate
+     */
+    public List<String> getHeader() {
+        return this.header;
+    }
+
+    /**
+     * @return the rows, sorted by key (null first)
+     */
+    public List<List<Object>> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return the number of records aggregated, header excluded
+     */
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * @return the number of parse errors, counted once per record with an unreadable key and
+     * once per unreadable value. The values were ignored and the records with an unreadable
+     * key were skipped.
+     */
+    public long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * @return the number of times a thread wrote its groups to disk
+     */
+    public int getSpillCount() {
+        return this.spillCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregationResult{groups=" + this.rows.size() + ", records=" +
+                this.recordCount + "}";
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * The byte level path of {@link MetaCSVTranscoder}, if both files have the same byte aligned
+ * charset and the special chars of both dialects are ASCII: the bytes of a multibyte char
+ * are never ASCII, hence never special.
+ *
+ * The current field stays in the buffer (from the mark). If it needs no change, its bytes are
+ * copied to the output. Only the fields with an escape sequence, or doubled quotes when the
+ * target does not double the same quote, are unescaped into an array before they are written.
+ */
+class ByteTranscoder {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Charset charset;
+    private final int delimiter;
+    private final int quote;
+    private final int escape;
+    private final boolean trim;
+    private final int targetDelimiter;
+    private final int targetQuote;
+    private final int targetEscape;
+    private final boolean targetTrim;
+    private final byte[] targetLineTerminator;
+    /**
+     * True if a quoted field of the source, with doubled quotes, is a quoted field of the
+     * target.
+     */
+    private final boolean sameQuoting;
+    private InputStream in;
+    private OutputStream out;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    /**
+     * The start of the current field in the buffer (its opening quote if it is quoted), or -1
+     * if the field was copied to the array.
+     */
+    private int mark;
+    /**
+     * The length of the current unquoted field, or the offset of the closing quote from the
+     * mark.
+     */
+    private int rawLength;
+    private boolean quoted;
+    private boolean doubled;
+    private byte[] field;
+    private int fieldLength;
+
+    ByteTranscoder(MetaCSVData source, MetaCSVData target) {
+        this.charset = target.getEncoding();
+        this.delimiter = source.getDelimiter();
+        this.quote = MetaCSVTranscoder.getQuote(source);
+        this.escape = MetaCSVTranscoder.getEscape(source);
+        this.trim = source.isSkipInitialSpace();
+        this.targetDelimiter = target.getDelimiter();
+        this.targetQuote = MetaCSVTranscoder.getQuote(target);
+        this.targetEscape = MetaCSVTranscoder.getEscape(target);
+        this.targetTrim = target.isSkipInitialSpace();
+        this.targetLineTerminator = target.getLineTerminator().getBytes(this.charset);
+        this.sameQuoting = this.quote != -1 && this.quote == this.targetQuote &&
+                this.escape == -1 && this.targetEscape == -1;
+        this.field = new byte[256];
+    }
+
+    /**
+     * @param in  the source stream, after the BOM. Not closed.
+     * @param out the target stream, after the BOM. Not closed.
+     * @throws IOException if a stream can't be read or written, or the source is not valid.
+     */
+    void transcode(InputStream in, OutputStream out) throws IOException {
+        this.in = in;
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.mark = -1;
+        this.transcodeRecords();
+        this.out.flush();
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    /**
+     * Discard the bytes before the mark and read the next bytes.
+     *
+     * @return false if the end of the stream was reached
+     */
+    private boolean fill() throws IOException {
+        int start = this.mark == -1 ? this.limit : this.mark;
+        int kept = this.limit - start;
+        if (kept == this.buffer.length) {
+            byte[] newBuffer = new byte[this.buffer.length * 2];
+            System.arraycopy(this.buffer, 0, newBuffer, 0, kept);
+            this.buffer = newBuffer;
+        } else if (kept > 0) {
+            System.arraycopy(this.buffer, start, this.buffer, 0, kept);
+        }
+        if (this.mark != -1) {
+            this.mark = 0;
+        }
+        this.position -= start;
+        this.limit = kept;
+        int count = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+        if (count <= 0) {
+            return false;
+        }
+        this.limit += count;
+        return true;
+    }
+
+    private void transcodeRecords() throws IOException {
+        int c = this.read();
+        while (c != -1) {
+            if (c == '\n') { // empty line
+                c = this.read();
+                continue;
+            } else if (c == '\r') {
+                c = this.read();
+                if (c == '\n') {
+                    c = this.read();
+                }
+                continue;
+            }
+            int fieldCount = 0;
+            int length;
+            while (true) {
+                c = this.parseField(c);
+                length = this.writeField();
+                fieldCount++;
+                if (c == this.delimiter) {
+                    this.out.write(this.targetDelimiter);
+                    c = this.read();
+                } else {
+                    break;
+                }
+            }
+            if (fieldCount == 1 && length == 0 && this.targetQuote != -1) {
+                // a lone empty field would be read as an empty line
+                this.out.write(this.targetQuote);
+                this.out.write(this.targetQuote);
+            }
+            this.out.write(this.targetLineTerminator);
+            if (c == '\r') {
+                c = this.read();
+                if (c == '\n') {
+                    c = this.read();
+                }
+            } else if (c == '\n') {
+                c = this.read();
+            }
+        }
+    }
+
+    /**
+     * Parse a field, mimicking the commons-csv lexer. The field is left in the buffer if
+     * possible.
+     *
+     * @param c the first byte
+     * @return the byte after the field: a delimiter, a line break or -1
+     * @throws IOException if the field is not valid
+     */
+    private int parseField(int c) throws IOException {
+        if (this.trim) {
+            while (c == ' ' || c == '\t') {
+                c = this.read();
+            }
+        }
+        if (c == this.quote && c != -1) {
+            return this.parseQuotedField();
+        }
+        this.quoted = false;
+        this.mark = c == -1 ? this.position : this.position - 1;
+        while (c != this.delimiter && c != '\r' && c != '\n' && c != -1) {
+            if (c == this.escape) {
+                this.toField(this.mark, this.position - 1);
+                return this.parseFieldContent(c);
+            }
+            c = this.read();
+        }
+        int end = c == -1 ? this.position : this.position - 1;
+        if (this.trim) {
+            while (end > this.mark && isSpace(this.buffer[end - 1])) {
+                end--;
+            }
+        }
+        this.rawLength = end - this.mark;
+        return c;
+    }
+
+    private int parseQuotedField() throws IOException {
+        this.quoted = true;
+        this.doubled = false;
+        this.mark = this.position - 1;
+        while (true) {
+            int c = this.read();
+            if (c == this.quote) {
+                int end = this.position - 1 - this.mark;
+                c = this.read();
+                if (c == this.quote) {
+                    if (this.sameQuoting) {
+                        this.doubled = true;
+                        continue;
+                    }
+                    // keep the first quote
+                    this.toField(this.mark + 1, this.position - 1);
+                    return this.parseQuotedFieldContent();
+                }
+                c = this.checkAfterQuote(c);
+                this.rawLength = end;
+                return c;
+            } else if (c == this.escape && c != -1) {
+                this.toField(this.mark + 1, this.position - 1);
+                this.parseEscape();
+                return this.parseQuotedFieldContent();
+            } else if (c == -1) {
+                throw new IOException("EOF reached before encapsulated token finished");
+            }
+        }
+    }
+
+    /**
+     * Copy the bytes of the current field to the array, and forget the mark.
+     */
+    private void toField(int start, int end) {
+        this.fieldLength = 0;
+        this.appendToField(this.buffer, start, end - start);
+        this.mark = -1;
+    }
+
+    private int parseFieldContent(int c) throws IOException {
+        while (c != this.delimiter && c != '\r' && c != '\n' && c != -1) {
+            if (c == this.escape) {
+                this.parseEscape();
+            } else {
+                this.appendToField(c);
+            }
+            c = this.read();
+        }
+        if (this.trim) {
+            while (this.fieldLength > 0 && isSpace(this.field[this.fieldLength - 1])) {
+                this.fieldLength--;
+            }
+        }
+        return c;
+    }
+
+    private int parseQuotedFieldContent() throws IOException {
+        while (true) {
+            int c = this.read();
+            if (c == this.quote) {
+                c = this.read();
+                if (c == this.quote) {
+                    this.appendToField(c);
+                    continue;
+                }
+                return this.checkAfterQuote(c);
+            } else if (c == this.escape && c != -1) {
+                this.parseEscape();
+            } else if (c == -1) {
+                throw new IOException("EOF reached before encapsulated token finished");
+            } else {
+                this.appendToField(c);
+            }
+        }
+    }
+
+    private int checkAfterQuote(int c) throws IOException {
+        while (c == ' ' || c == '\t') {
+            c = this.read();
+        }
+        if (c != this.delimiter && c != '\r' && c != '\n' && c != -1) {
+            throw new IOException(
+                    "Invalid char between encapsulated token and delimiter: " + (char) c);
+        }
+        return c;
+    }
+
+    private void parseEscape() throws IOException {
+        int c = this.read();
+        switch (c) {
+            case 'r':
+                this.appendToField('\r');
+                break;
+            case 'n':
+                this.appendToField('\n');
+                break;
+            case 't':
+                this.appendToField('\t');
+                break;
+            case 'b':
+                this.appendToField('\b');
+                break;
+            case 'f':
+                this.appendToField('\f');
+                break;
+            case '\r':
+            case '\n':
+            case '\t':
+            case '\b':
+            case '\f':
+                this.appendToField(c);
+                break;
+            case -1:
+                throw new IOException("EOF whilst processing escape sequence");
+            default:
+                if (c != this.delimiter && c != this.escape && c != this.quote) {
+                    this.appendToField(this.escape);
+                }
+                this.appendToField(c);
+                break;
+        }
+    }
+
+    private void appendToField(int c) {
+        if (this.fieldLength == this.field.length) {
+            this.growField(this.fieldLength + 1);
+        }
+        this.field[this.fieldLength++] = (byte) c;
+    }
+
+    private void appendToField(byte[] bytes, int offset, int length) {
+        if (this.fieldLength + length > this.field.length) {
+            this.growField(this.fieldLength + length);
+        }
+        System.arraycopy(bytes, offset, this.field, this.fieldLength, length);
+        this.fieldLength += length;
+    }
+
+    private void growField(int minLength) {
+        byte[] newField = new byte[Math.max(minLength, this.field.length * 2)];
+        System.arraycopy(this.field, 0, newField, 0, this.fieldLength);
+        this.field = newField;
+    }
+
+    /**
+     * @return the length of the value
+     * @throws IOException if the value can't be written
+     */
+    private int writeField() throws IOException {
+        if (this.mark == -1) {
+            this.writeValue(this.field, 0, this.fieldLength);
+            return this.fieldLength;
+        }
+        int length;
+        if (!this.quoted) {
+            this.writeValue(this.buffer, this.mark, this.mark + this.rawLength);
+            length = this.rawLength;
+        } else {
+            int start = this.mark + 1;
+            int end = this.mark + this.rawLength;
+            if (this.doubled || this.sameQuoting && this.needsQuote(this.buffer, start, end)) {
+                // the target would quote the value the same way
+                this.out.write(this.buffer, this.mark, this.rawLength + 1);
+            } else {
+                this.writeValue(this.buffer, start, end);
+            }
+            length = end - start;
+        }
+        this.mark = -1;
+        return length;
+    }
+
+    private void writeValue(byte[] bytes, int start, int end) throws IOException {
+        if (!this.needsQuote(bytes, start, end)) {
+            this.out.write(bytes, start, end - start);
+        } else if (this.targetQuote != -1) {
+            this.out.write(this.targetQuote);
+            int from = start;
+            for (int i = start; i < end; i++) {
+                int c = bytes[i] & 0xFF;
+                if (c == this.targetQuote || c == this.targetEscape) {
+                    this.out.write(bytes, from, i - from);
+                    from = i;
+                    this.out.write(c == this.targetQuote && this.targetEscape == -1 ?
+                            this.targetQuote : this.targetEscape);
+                }
+            }
+            this.out.write(bytes, from, end - from);
+            this.out.write(this.targetQuote);
+        } else if (this.targetEscape != -1) {
+            for (int i = start; i < end; i++) {
+                int c = bytes[i] & 0xFF;
+                if (c == '\r') {
+                    this.out.write(this.targetEscape);
+                    this.out.write('r');
+                } else if (c == '\n') {
+                    this.out.write(this.targetEscape);
+                    this.out.write('n');
+                } else {
+                    if (c == this.targetDelimiter || c == this.targetEscape) {
+                        this.out.write(this.targetEscape);
+                    }
+                    this.out.write(c);
+                }
+            }
+        } else {
+            throw new IOException("Can't write " + new String(bytes, start, end - start,
+                    this.charset) + " without a quote or an escape char");
+        }
+    }
+
+    private boolean needsQuote(byte[] bytes, int start, int end) {
+        if (this.targetTrim && end > start &&
+                (isSpace(bytes[start]) || isSpace(bytes[end - 1]))) {
+            return true;
+        }
+        for (int i = start; i < end; i++) {
+            int c = bytes[i] & 0xFF;
+            if (c == this.targetDelimiter || c == this.targetQuote ||
+                    c == this.targetEscape || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
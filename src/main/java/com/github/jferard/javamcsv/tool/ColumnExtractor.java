@@ -0,0 +1,158 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.Util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * Copies a column of the current row of a ResultSet to a MetaCSVWriter. The extractors are
+ * created once per ResultSet: no type dispatch nor boxing for primitive columns per cell.
+ */
+abstract class ColumnExtractor {
+    /**
+     * @param data  the data
+     * @param count the number of columns
+     * @return an extractor per column
+     */
+    static ColumnExtractor[] create(MetaCSVData data, int count) {
+        ColumnExtractor[] extractors = new ColumnExtractor[count];
+        for (int c = 0; c < count; c++) {
+            extractors[c] = create(data.getDescription(c).getDataType(), c + 1);
+        }
+        return extractors;
+    }
+
+    /**
+     * @param dataType    the data type of the column
+     * @param columnIndex the JDBC index (1-based)
+     * @return the extractor
+     */
+    static ColumnExtractor create(DataType dataType, final int columnIndex) {
+        switch (dataType) {
+            case BOOLEAN:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        boolean value = resultSet.getBoolean(columnIndex);
+                        if (resultSet.wasNull()) {
+                            writer.writeNull();
+                        } else {
+                            writer.writeBoolean(value);
+                        }
+                    }
+                };
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        writer.writeValue(resultSet.getBigDecimal(columnIndex));
+                    }
+                };
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        long value = resultSet.getLong(columnIndex);
+                        if (resultSet.wasNull()) {
+                            writer.writeNull();
+                        } else {
+                            writer.writeLong(value);
+                        }
+                    }
+                };
+            case DATE:
+                return new ColumnExtractor() {
+                    private final Calendar calendar =
+                            GregorianCalendar.getInstance(Util.UTC_TIME_ZONE);
+
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        writer.writeValue(resultSet.getDate(columnIndex, this.calendar));
+                    }
+                };
+            case DATETIME:
+                return new ColumnExtractor() {
+                    private final Calendar calendar =
+                            GregorianCalendar.getInstance(Util.UTC_TIME_ZONE);
+
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        writer.writeValue(resultSet.getTimestamp(columnIndex, this.calendar));
+                    }
+                };
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        double value = resultSet.getDouble(columnIndex);
+                        if (resultSet.wasNull()) {
+                            writer.writeNull();
+                        } else {
+                            writer.writeDouble(value);
+                        }
+                    }
+                };
+            case TEXT:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        writer.writeValue(resultSet.getString(columnIndex));
+                    }
+                };
+            default:
+                return new ColumnExtractor() {
+                    @Override
+                    void extract(ResultSet resultSet, MetaCSVWriter writer)
+                            throws SQLException {
+                        writer.writeValue(resultSet.getObject(columnIndex));
+                    }
+                };
+        }
+    }
+
+    /**
+     * Append the value of the current row to the writer's row.
+     *
+     * @param resultSet the result set
+     * @param writer    the writer
+     * @throws SQLException if the value can't be read
+     */
+    abstract void extract(ResultSet resultSet, MetaCSVWriter writer) throws SQLException;
+}
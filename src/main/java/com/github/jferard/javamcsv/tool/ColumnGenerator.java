@@ -0,0 +1,155 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Draws the cells of one column. With a cardinality, the k-th distinct value is drawn from a
+ * generator seeded by k, hence there is no dictionary to keep in memory.
+ */
+class ColumnGenerator {
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final int DAY_COUNT = 365 * 60;
+    private static final String ERROR_PREFIX = "#err";
+
+    /**
+     * java.util.Random gives close first values for close seeds: scramble the seed (SplitMix64
+     * finalizer).
+     */
+    static long mix(long seed) {
+        long z = seed * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final DataType dataType;
+    private final double nullRatio;
+    private final double errorRatio;
+    private final int cardinality;
+    private final double newlineRatio;
+    private final long columnSeed;
+    private final Random valueRandom;
+
+    /**
+     * @param dataType     the type of the column
+     * @param nullRatio    the ratio of null cells
+     * @param errorRatio   the ratio of cells that can't be parsed (ignored for text columns)
+     * @param cardinality  the number of distinct values, or 0 for unbounded
+     * @param newlineRatio the ratio of text cells that contain a newline
+     * @param columnSeed   the seed of the distinct values
+     */
+    ColumnGenerator(DataType dataType, double nullRatio, double errorRatio, int cardinality,
+                    double newlineRatio, long columnSeed) {
+        this.dataType = dataType;
+        this.nullRatio = nullRatio;
+        this.errorRatio = this.isTextual() ? 0.0 : errorRatio;
+        this.cardinality = cardinality;
+        this.newlineRatio = newlineRatio;
+        this.columnSeed = columnSeed;
+        this.valueRandom = new Random();
+    }
+
+    /**
+     * Append a cell to the current row. The writer must accept text for any column (see
+     * {@link com.github.jferard.javamcsv.OnError#TEXT}).
+     *
+     * @param writer the writer
+     * @param random the random source of the row
+     */
+    void write(MetaCSVWriter writer, Random random) {
+        double d = random.nextDouble();
+        if (d < this.nullRatio) {
+            writer.writeNull();
+        } else if (d < this.nullRatio + this.errorRatio) {
+            writer.writeValue(ERROR_PREFIX + random.nextInt(1000));
+        } else if (this.cardinality > 0) {
+            this.valueRandom.setSeed(mix(this.columnSeed + random.nextInt(this.cardinality)));
+            this.writeValue(writer, this.valueRandom);
+        } else {
+            this.writeValue(writer, random);
+        }
+    }
+
+    private void writeValue(MetaCSVWriter writer, Random random) {
+        switch (this.dataType) {
+            case BOOLEAN:
+                writer.writeBoolean(random.nextBoolean());
+                break;
+            case INTEGER:
+                writer.writeLong(random.nextInt());
+                break;
+            case CURRENCY_INTEGER:
+                writer.writeLong(random.nextInt(2000001) - 1000000);
+                break;
+            case FLOAT:
+                writer.writeDouble((random.nextInt(200000001) - 100000000) / 100.0);
+                break;
+            case PERCENTAGE_FLOAT:
+                writer.writeDouble(random.nextInt(10001) / 10000.0);
+                break;
+            case DECIMAL:
+            case CURRENCY_DECIMAL:
+                writer.writeValue(BigDecimal.valueOf(random.nextInt(200000001) - 100000000, 2));
+                break;
+            case PERCENTAGE_DECIMAL:
+                writer.writeValue(BigDecimal.valueOf(random.nextInt(10001), 4));
+                break;
+            case DATE:
+                writer.writeValue(new Date(random.nextInt(DAY_COUNT) * MILLIS_PER_DAY));
+                break;
+            case DATETIME:
+                writer.writeValue(new Date(random.nextInt(DAY_COUNT) * MILLIS_PER_DAY
+                        + random.nextInt(86400) * 1000L));
+                break;
+            default: // TEXT, OBJECT
+                writer.writeValue(this.nextText(random));
+                break;
+        }
+    }
+
+    private String nextText(Random random) {
+        StringBuilder sb = new StringBuilder();
+        this.appendWord(sb, random);
+        if (random.nextDouble() < this.newlineRatio) {
+            sb.append("\r\n");
+            this.appendWord(sb, random);
+        }
+        return sb.toString();
+    }
+
+    private void appendWord(StringBuilder sb, Random random) {
+        int length = 1 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+    }
+
+    private boolean isTextual() {
+        return this.dataType == DataType.TEXT || this.dataType == DataType.OBJECT;
+    }
+}
@@ -0,0 +1,519 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.Util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+
+/**
+ * A hash table of groups with open addressing (linear probing). The keys and the states of
+ * the aggregates are stored by column in primitive arrays: a group is an index in those
+ * arrays. A key part is either a long (integers, booleans, dates) or a String. The values of
+ * an aggregate are longs, doubles or (for an exact result) BigDecimals.
+ *
+ * Not thread-safe: there is one table per thread, and the tables are merged at the end.
+ * {@link MetaCSVJoiner} uses a table without aggregates to index the keys of the build side.
+ */
+class GroupTable {
+    static final int PARTITION_COUNT = 16;
+
+    /**
+     * The type of the values of an aggregate.
+     */
+    enum Lane {
+        LONG, DOUBLE, DECIMAL
+    }
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * A key, filled row by row by the caller.
+     */
+    static class Key {
+        final boolean[] nulls;
+        final long[] longs;
+        final String[] texts;
+
+        Key(int size) {
+            this.nulls = new boolean[size];
+            this.longs = new long[size];
+            this.texts = new String[size];
+        }
+    }
+
+    /**
+     * The states of the aggregates of one group, used to merge the groups.
+     */
+    static class State {
+        final long[] counts;
+        final long[] longs;
+        final double[] doubles;
+
+        State(int size) {
+            this.counts = new long[size];
+            this.longs = new long[size];
+            this.doubles = new double[size];
+        }
+    }
+
+    private final boolean[] longKeys;
+    private final Aggregate.Function[] functions;
+    private final Lane[] lanes;
+    private int[] slots;
+    private int size;
+    private int[] hashes;
+    private boolean[][] keyNulls;
+    private long[][] keyLongs;
+    private String[][] keyTexts;
+    private long[][] counts;
+    private long[][] longs;
+    private double[][] doubles;
+    private BigDecimal[][] decimals;
+
+    /**
+     * @param longKeys  for each key part, true if the part is a long
+     * @param functions the functions of the aggregates
+     * @param lanes     for each aggregate, the type of the values
+     */
+    GroupTable(boolean[] longKeys, Aggregate.Function[] functions, Lane[] lanes) {
+        this.longKeys = longKeys;
+        this.functions = functions;
+        this.lanes = lanes;
+        this.clear();
+    }
+
+    void clear() {
+        this.slots = new int[2 * INITIAL_CAPACITY];
+        this.size = 0;
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.keyNulls = new boolean[this.longKeys.length][INITIAL_CAPACITY];
+        this.keyLongs = new long[this.longKeys.length][INITIAL_CAPACITY];
+        this.keyTexts = new String[this.longKeys.length][INITIAL_CAPACITY];
+        this.counts = new long[this.functions.length][INITIAL_CAPACITY];
+        this.longs = new long[this.functions.length][INITIAL_CAPACITY];
+        this.doubles = new double[this.functions.length][INITIAL_CAPACITY];
+        this.decimals = new BigDecimal[this.functions.length][INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    static int hash(Key key) {
+        int h = 0x9E3779B9;
+        for (int k = 0; k < key.nulls.length; k++) {
+            int partHash;
+            if (key.nulls[k]) {
+                partHash = 0;
+            } else if (key.texts[k] != null) {
+                partHash = key.texts[k].hashCode();
+            } else {
+                long value = key.longs[k];
+                partHash = (int) (value ^ (value >>> 32));
+            }
+            h = 31 * h + partHash;
+        }
+        // murmur3 finalizer
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static int partition(int hash) {
+        return hash >>> 28;
+    }
+
+    /**
+     * @param key  the key
+     * @param hash the hash of the key
+     * @return the index of the group, created if needed.
+     */
+    int findOrAdd(Key key, int hash) {
+        int mask = this.slots.length - 1;
+        int i = hash & mask;
+        while (true) {
+            int slot = this.slots[i];
+            if (slot == 0) {
+                break;
+            }
+            int group = slot - 1;
+            if (this.hashes[group] == hash && this.matches(key, group)) {
+                return group;
+            }
+            i = (i + 1) & mask;
+        }
+        int group = this.add(key, hash);
+        this.slots[i] = group + 1;
+        if (2 * this.size > this.slots.length) {
+            this.rehash();
+        }
+        return group;
+    }
+
+    /**
+     * @param key  the key
+     * @param hash the hash of the key
+     * @return the index of the group, or -1 if there is no such group.
+     */
+    int find(Key key, int hash) {
+        int mask = this.slots.length - 1;
+        int i = hash & mask;
+        while (true) {
+            int slot = this.slots[i];
+            if (slot == 0) {
+                return -1;
+            }
+            int group = slot - 1;
+            if (this.hashes[group] == hash && this.matches(key, group)) {
+                return group;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private boolean matches(Key key, int group) {
+        for (int k = 0; k < this.longKeys.length; k++) {
+            boolean isNull = this.keyNulls[k][group];
+            if (key.nulls[k] != isNull) {
+                return false;
+            }
+            if (isNull) {
+                continue;
+            }
+            if (this.longKeys[k] ? key.longs[k] != this.keyLongs[k][group]
+                    : !key.texts[k].equals(this.keyTexts[k][group])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(Key key, int hash) {
+        if (this.size == this.hashes.length) {
+            this.grow();
+        }
+        int group = this.size++;
+        this.hashes[group] = hash;
+        for (int k = 0; k < this.longKeys.length; k++) {
+            this.keyNulls[k][group] = key.nulls[k];
+            this.keyLongs[k][group] = key.longs[k];
+            this.keyTexts[k][group] = key.texts[k];
+        }
+        return group;
+    }
+
+    private void grow() {
+        int capacity = 2 * this.hashes.length;
+        this.hashes = Arrays.copyOf(this.hashes, capacity);
+        for (int k = 0; k < this.longKeys.length; k++) {
+            this.keyNulls[k] = Arrays.copyOf(this.keyNulls[k], capacity);
+            this.keyLongs[k] = Arrays.copyOf(this.keyLongs[k], capacity);
+            this.keyTexts[k] = Arrays.copyOf(this.keyTexts[k], capacity);
+        }
+        for (int a = 0; a < this.functions.length; a++) {
+            this.counts[a] = Arrays.copyOf(this.counts[a], capacity);
+            this.longs[a] = Arrays.copyOf(this.longs[a], capacity);
+            this.doubles[a] = Arrays.copyOf(this.doubles[a], capacity);
+            this.decimals[a] = Arrays.copyOf(this.decimals[a], capacity);
+        }
+    }
+
+    private void rehash() {
+        this.slots = new int[2 * this.slots.length];
+        int mask = this.slots.length - 1;
+        for (int group = 0; group < this.size; group++) {
+            int i = this.hashes[group] & mask;
+            while (this.slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            this.slots[i] = group + 1;
+        }
+    }
+
+    /**
+     * Count a row in the group (count of rows).
+     */
+    void countRow(int a, int group) {
+        this.counts[a][group]++;
+    }
+
+    void accumulate(int a, int group, long value) {
+        this.mergeLong(a, group, 1, value);
+    }
+
+    void accumulate(int a, int group, double value) {
+        this.mergeDouble(a, group, 1, value);
+    }
+
+    void accumulate(int a, int group, BigDecimal value) {
+        this.mergeDecimal(a, group, 1, value);
+    }
+
+    private void mergeLong(int a, int group, long count, long value) {
+        long previousCount = this.counts[a][group];
+        this.counts[a][group] = previousCount + count;
+        if (count == 0) {
+            return;
+        }
+        long[] values = this.longs[a];
+        switch (this.functions[a]) {
+            case SUM:
+            case AVG:
+                values[group] += value;
+                break;
+            case MIN:
+                if (previousCount == 0 || value < values[group]) {
+                    values[group] = value;
+                }
+                break;
+            case MAX:
+                if (previousCount == 0 || value > values[group]) {
+                    values[group] = value;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void mergeDouble(int a, int group, long count, double value) {
+        long previousCount = this.counts[a][group];
+        this.counts[a][group] = previousCount + count;
+        if (count == 0) {
+            return;
+        }
+        double[] values = this.doubles[a];
+        switch (this.functions[a]) {
+            case SUM:
+            case AVG:
+                values[group] += value;
+                break;
+            case MIN:
+                if (previousCount == 0 || value < values[group]) {
+                    values[group] = value;
+                }
+                break;
+            case MAX:
+                if (previousCount == 0 || value > values[group]) {
+                    values[group] = value;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void mergeDecimal(int a, int group, long count, BigDecimal value) {
+        long previousCount = this.counts[a][group];
+        this.counts[a][group] = previousCount + count;
+        if (count == 0) {
+            return;
+        }
+        BigDecimal[] values = this.decimals[a];
+        switch (this.functions[a]) {
+            case SUM:
+            case AVG:
+                values[group] = previousCount == 0 ? value : values[group].add(value);
+                break;
+            case MIN:
+                if (previousCount == 0 || value.compareTo(values[group]) < 0) {
+                    values[group] = value;
+                }
+                break;
+            case MAX:
+                if (previousCount == 0 || value.compareTo(values[group]) > 0) {
+                    values[group] = value;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Merge the groups of another table that belong to a partition.
+     *
+     * @param other     the other table
+     * @param partition the partition, or -1 for all the groups
+     * @param key       a scratch key
+     */
+    void merge(GroupTable other, int partition, Key key) {
+        for (int group = 0; group < other.size; group++) {
+            int hash = other.hashes[group];
+            if (partition != -1 && partition(hash) != partition) {
+                continue;
+            }
+            other.getKey(group, key);
+            int target = this.findOrAdd(key, hash);
+            for (int a = 0; a < this.functions.length; a++) {
+                long count = other.counts[a][group];
+                switch (this.lanes[a]) {
+                    case LONG:
+                        this.mergeLong(a, target, count, other.longs[a][group]);
+                        break;
+                    case DOUBLE:
+                        this.mergeDouble(a, target, count, other.doubles[a][group]);
+                        break;
+                    default:
+                        this.mergeDecimal(a, target, count, other.decimals[a][group]);
+                        break;
+                }
+            }
+        }
+    }
+
+    void getKey(int group, Key key) {
+        for (int k = 0; k < this.longKeys.length; k++) {
+            key.nulls[k] = this.keyNulls[k][group];
+            key.longs[k] = this.keyLongs[k][group];
+            key.texts[k] = this.keyTexts[k][group];
+        }
+    }
+
+    /**
+     * @return the value of the aggregate, boxed: a Long for the counts, a Long, a Double or a
+     * BigDecimal for SUM, MIN and MAX, a Double (or a BigDecimal for the decimals) for AVG,
+     * null if there was no value.
+     */
+    Object getValue(int a, int group) {
+        long count = this.counts[a][group];
+        if (this.functions[a] == Aggregate.Function.COUNT) {
+            return count;
+        } else if (count == 0) {
+            return null;
+        }
+        boolean avg = this.functions[a] == Aggregate.Function.AVG;
+        switch (this.lanes[a]) {
+            case LONG:
+                long longValue = this.longs[a][group];
+                return avg ? (Object) ((double) longValue / count) : (Object) longValue;
+            case DOUBLE:
+                double doubleValue = this.doubles[a][group];
+                return avg ? doubleValue / count : doubleValue;
+            default:
+                BigDecimal decimalValue = this.decimals[a][group];
+                return avg ? decimalValue.divide(BigDecimal.valueOf(count),
+                        MathContext.DECIMAL128) : decimalValue;
+        }
+    }
+
+    /**
+     * Write the groups to the partition files.
+     *
+     * @param outs one stream per partition
+     * @throws IOException if a stream can't be written
+     */
+    void spill(DataOutputStream[] outs) throws IOException {
+        for (int group = 0; group < this.size; group++) {
+            DataOutputStream out = outs[partition(this.hashes[group])];
+            out.writeInt(this.hashes[group]);
+            for (int k = 0; k < this.longKeys.length; k++) {
+                boolean isNull = this.keyNulls[k][group];
+                out.writeBoolean(isNull);
+                if (isNull) {
+                    continue;
+                }
+                if (this.longKeys[k]) {
+                    out.writeLong(this.keyLongs[k][group]);
+                } else {
+                    byte[] bytes = this.keyTexts[k][group].getBytes(Util.UTF_8_CHARSET);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            for (int a = 0; a < this.functions.length; a++) {
+                long count = this.counts[a][group];
+                out.writeLong(count);
+                switch (this.lanes[a]) {
+                    case LONG:
+                        out.writeLong(this.longs[a][group]);
+                        break;
+                    case DOUBLE:
+                        out.writeDouble(this.doubles[a][group]);
+                        break;
+                    default:
+                        if (count > 0) {
+                            out.writeUTF(this.decimals[a][group].toString());
+                        }
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge the groups of a partition file.
+     *
+     * @param in  the stream
+     * @param key a scratch key
+     * @throws IOException if the stream can't be read
+     */
+    void merge(DataInputStream in, Key key) throws IOException {
+        while (true) {
+            int hash;
+            try {
+                hash = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            for (int k = 0; k < this.longKeys.length; k++) {
+                key.nulls[k] = in.readBoolean();
+                key.longs[k] = 0;
+                key.texts[k] = null;
+                if (key.nulls[k]) {
+                    continue;
+                }
+                if (this.longKeys[k]) {
+                    key.longs[k] = in.readLong();
+                } else {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    key.texts[k] = new String(bytes, Util.UTF_8_CHARSET);
+                }
+            }
+            int group = this.findOrAdd(key, hash);
+            for (int a = 0; a < this.functions.length; a++) {
+                long count = in.readLong();
+                switch (this.lanes[a]) {
+                    case LONG:
+                        this.mergeLong(a, group, count, in.readLong());
+                        break;
+                    case DOUBLE:
+                        this.mergeDouble(a, group, count, in.readDouble());
+                        break;
+                    default:
+                        this.mergeDecimal(a, group, count,
+                                count > 0 ? new BigDecimal(in.readUTF()) : null);
+                        break;
+                }
+            }
+        }
+    }
+}
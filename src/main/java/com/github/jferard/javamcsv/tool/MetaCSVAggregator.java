@@ -0,0 +1,560 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunk;
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVCastException;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.processor.PrimitiveReadFieldProcessor;
+import com.github.jferard.javamcsv.processor.ProcessorProvider;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Groups the rows of a CSV file by some key columns and computes aggregates on typed columns.
+ * The file is split in record-aligned chunks that are aggregated in parallel: each thread has
+ * its own primitive hash table of groups. When a table has too many groups, it is written to
+ * disk, partitioned by hash. The tables and the partition files are merged partition by
+ * partition at the end.
+ *
+ * The integer columns are aggregated as longs, the float columns as doubles and the decimal
+ * columns as BigDecimals (the result does not depend on the chunks). The min and max of the
+ * date and datetime columns are computed on the epoch millis and returned as Dates. The other
+ * pairs of function and column type are rejected, except COUNT. The key parts are longs for
+ * the integer, boolean, date and datetime columns, the text for the text and object columns,
+ * and the canonical text for the other columns.
+ *
+ * A value that can't be read is handled by the OnError policy: EXCEPTION stops the
+ * aggregation, the other policies count the error and ignore the value. A record with a key
+ * part that can't be read is ignored, rather than added to the null group of that part.
+ */
+public class MetaCSVAggregator {
+    public static final int DEFAULT_MAX_GROUPS = 1 << 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MetaCSVData data;
+    private final int[] keyColumns;
+    private final List<Aggregate> aggregates;
+    private final int threadCount;
+    private final long chunkSize;
+    private final int maxGroups;
+    private final File spillDirectory;
+    private final OnError onError;
+    private final DataType[] keyTypes;
+    private final boolean[] longKeys;
+    private final Aggregate.Function[] functions;
+    private final GroupTable.Lane[] lanes;
+    private final boolean[] dateValues;
+
+    public MetaCSVAggregator(MetaCSVData data, int[] keyColumns, List<Aggregate> aggregates) {
+        this(data, keyColumns, aggregates, Runtime.getRuntime().availableProcessors(),
+                CSVChunker.DEFAULT_CHUNK_SIZE, DEFAULT_MAX_GROUPS, null);
+    }
+
+    /**
+     * @param data           the description of the file
+     * @param keyColumns     the key columns
+     * @param aggregates     the aggregates
+     * @param threadCount    the number of threads
+     * @param chunkSize      the approximate size of a chunk in bytes
+     * @param maxGroups      the max number of groups of a thread before a spill
+     * @param spillDirectory the directory of the spill files, null for the default temporary
+     *                       directory
+     * @throws IllegalArgumentException if an aggregate can't be computed on its column
+     */
+    public MetaCSVAggregator(MetaCSVData data, int[] keyColumns, List<Aggregate> aggregates,
+                             int threadCount, long chunkSize, int maxGroups,
+                             File spillDirectory) {
+        this(data, keyColumns, aggregates, threadCount, chunkSize, maxGroups, spillDirectory,
+                OnError.WRAP);
+    }
+
+    /**
+     * @param data           the description of the file
+     * @param keyColumns     the key columns
+     * @param aggregates     the aggregates
+     * @param threadCount    the number of threads
+     * @param chunkSize      the approximate size of a chunk in bytes
+     * @param maxGroups      the max number of groups of a thread before a spill
+     * @param spillDirectory the directory of the spill files, null for the default temporary
+     *                       directory
+     * @param onError        the policy for the values that can't be read
+     * @throws IllegalArgumentException if an aggregate can't be computed on its column
+     */
+    public MetaCSVAggregator(MetaCSVData data, int[] keyColumns, List<Aggregate> aggregates,
+                             int threadCount, long chunkSize, int maxGroups,
+                             File spillDirectory, OnError onError) {
+        this.data = data;
+        this.keyColumns = keyColumns;
+        this.aggregates = aggregates;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+        this.maxGroups = maxGroups;
+        this.spillDirectory = spillDirectory;
+        this.onError = onError;
+
+        MetaCSVMetaData metaData = data.getMetaData();
+        this.keyTypes = new DataType[keyColumns.length];
+        this.longKeys = new boolean[keyColumns.length];
+        for (int k = 0; k < keyColumns.length; k++) {
+            this.keyTypes[k] = metaData.getDataType(keyColumns[k]);
+            this.longKeys[k] = isLong(this.keyTypes[k]) || this.keyTypes[k] == DataType.BOOLEAN ||
+                    this.keyTypes[k] == DataType.DATE || this.keyTypes[k] == DataType.DATETIME;
+        }
+        this.functions = new Aggregate.Function[aggregates.size()];
+        this.lanes = new GroupTable.Lane[aggregates.size()];
+        this.dateValues = new boolean[aggregates.size()];
+        for (int a = 0; a < this.functions.length; a++) {
+            Aggregate aggregate = aggregates.get(a);
+            this.functions[a] = aggregate.getFunction();
+            if (aggregate.getFunction() == Aggregate.Function.COUNT) {
+                this.lanes[a] = GroupTable.Lane.LONG;
+                continue;
+            }
+            DataType dataType = metaData.getDataType(aggregate.getColumn());
+            this.lanes[a] = getLane(aggregate, dataType);
+            this.dateValues[a] = dataType == DataType.DATE || dataType == DataType.DATETIME;
+        }
+    }
+
+    private static GroupTable.Lane getLane(Aggregate aggregate, DataType dataType) {
+        boolean minMax = aggregate.getFunction() == Aggregate.Function.MIN ||
+                aggregate.getFunction() == Aggregate.Function.MAX;
+        switch (dataType) {
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                return GroupTable.Lane.LONG;
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                return GroupTable.Lane.DOUBLE;
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                return GroupTable.Lane.DECIMAL;
+            case DATE:
+            case DATETIME:
+                if (minMax) {
+                    return GroupTable.Lane.LONG;
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException(
+                "Can't compute " + aggregate + " on a " + dataType + " column");
+    }
+
+    private static boolean isLong(DataType dataType) {
+        return dataType == DataType.INTEGER || dataType == DataType.CURRENCY_INTEGER;
+    }
+
+    /**
+     * @param csvFile the file
+     * @return the groups and their aggregates
+     * @throws IOException if the file can't be read or is not a valid CSV file, if a spill
+     *                     file can't be written, or if a value can't be read and the policy
+     *                     is OnError.EXCEPTION.
+     */
+    public AggregationResult aggregate(final File csvFile) throws IOException {
+        final List<Worker> workers = Collections.synchronizedList(new ArrayList<Worker>());
+        final ThreadLocal<Worker> localWorker = new ThreadLocal<Worker>() {
+            @Override
+            protected Worker initialValue() {
+                Worker worker = new Worker();
+                workers.add(worker);
+                return worker;
+            }
+        };
+        final List<String> names = new ArrayList<String>();
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            List<CSVChunk> chunks =
+                    CSVChunker.create(this.data).split(csvFile, this.chunkSize, executor);
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final CSVChunk chunk : chunks) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        localWorker.get().aggregateChunk(csvFile, chunk, names);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                get(future);
+            }
+            return this.merge(workers, names);
+        } finally {
+            executor.shutdownNow();
+            for (Worker worker : workers) {
+                worker.deleteSpillFiles();
+            }
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private AggregationResult merge(List<Worker> workers, List<String> names)
+            throws IOException {
+        long recordCount = 0;
+        long errorCount = 0;
+        int spillCount = 0;
+        for (Worker worker : workers) {
+            worker.closeSpillFiles();
+            recordCount += worker.recordCount;
+            errorCount += worker.errorCount;
+            spillCount += worker.spillCount;
+        }
+        List<List<Object>> rows = new ArrayList<List<Object>>();
+        GroupTable.Key key = new GroupTable.Key(this.keyColumns.length);
+        for (int p = 0; p < GroupTable.PARTITION_COUNT; p++) {
+            GroupTable table = new GroupTable(this.longKeys, this.functions, this.lanes);
+            for (Worker worker : workers) {
+                table.merge(worker.table, p, key);
+                if (worker.spillFiles != null) {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(
+                            new FileInputStream(worker.spillFiles[p]), BUFFER_SIZE));
+                    try {
+                        table.merge(in, key);
+                    } finally {
+                        in.close();
+                    }
+                }
+            }
+            for (int group = 0; group < table.size(); group++) {
+                rows.add(this.toRow(table, group, key));
+            }
+        }
+        Collections.sort(rows, new Comparator<List<Object>>() {
+            @Override
+            public int compare(List<Object> row1, List<Object> row2) {
+                return MetaCSVAggregator.this.compareKeys(row1, row2);
+            }
+        });
+        return new AggregationResult(this.getHeader(names), rows, recordCount, errorCount,
+                spillCount);
+    }
+
+    private List<Object> toRow(GroupTable table, int group, GroupTable.Key key) {
+        table.getKey(group, key);
+        List<Object> row = new ArrayList<Object>(this.keyColumns.length + this.functions.length);
+        for (int k = 0; k < this.keyColumns.length; k++) {
+            if (key.nulls[k]) {
+                row.add(null);
+                continue;
+            }
+            switch (this.keyTypes[k]) {
+                case BOOLEAN:
+                    row.add(key.longs[k] != 0);
+                    break;
+                case DATE:
+                case DATETIME:
+                    row.add(new Date(key.longs[k]));
+                    break;
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    row.add(key.longs[k]);
+                    break;
+                default:
+                    row.add(key.texts[k]);
+                    break;
+            }
+        }
+        for (int a = 0; a < this.functions.length; a++) {
+            Object value = table.getValue(a, group);
+            if (this.dateValues[a] && value != null) {
+                value = new Date((Long) value);
+            }
+            row.add(value);
+        }
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compareKeys(List<Object> row1, List<Object> row2) {
+        for (int k = 0; k < this.keyColumns.length; k++) {
+            Object value1 = row1.get(k);
+            Object value2 = row2.get(k);
+            if (value1 == null || value2 == null) {
+                if (value1 != value2) {
+                    return value1 == null ? -1 : 1;
+                }
+                continue;
+            }
+            int comparison = ((Comparable<Object>) value1).compareTo(value2);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private List<String> getHeader(List<String> names) {
+        List<String> header = new ArrayList<String>();
+        for (int c : this.keyColumns) {
+            header.add(this.getName(names, c));
+        }
+        for (Aggregate aggregate : this.aggregates) {
+            int c = aggregate.getColumn();
+            header.add(aggregate.getFunction().toString().toLowerCase() + "(" +
+                    (c == -1 ? "*" : this.getName(names, c)) + ")");
+        }
+        return header;
+    }
+
+    private String getName(List<String> names, int c) {
+        return c < names.size() ? names.get(c) : String.valueOf(c);
+    }
+
+    /**
+     * The state of a thread.
+     */
+    private class Worker {
+        private final ProcessorProvider provider;
+        private final GroupTable table;
+        private final GroupTable.Key key;
+        private File[] spillFiles;
+        private DataOutputStream[] spillOuts;
+        private long recordCount;
+        private long errorCount;
+        private int spillCount;
+
+        Worker() {
+            MetaCSVData data = MetaCSVAggregator.this.data;
+            this.provider = data.toProcessorProvider(data.getNullValue());
+            this.table = new GroupTable(MetaCSVAggregator.this.longKeys,
+                    MetaCSVAggregator.this.functions, MetaCSVAggregator.this.lanes);
+            this.key = new GroupTable.Key(MetaCSVAggregator.this.keyColumns.length);
+        }
+
+        void aggregateChunk(File csvFile, CSVChunk chunk, List<String> names)
+                throws IOException {
+            MetaCSVData data = MetaCSVAggregator.this.data;
+            CSVFormat format = CSVFormatHelper.getCSVFormat(data);
+            Reader reader = new InputStreamReader(
+                    new BufferedInputStream(chunk.openInputStream(csvFile), BUFFER_SIZE),
+                    data.getEncoding());
+            CSVParser parser = new CSVParser(reader, format);
+            try {
+                boolean header = chunk.getIndex() == 0;
+                for (CSVRecord record : parser) {
+                    if (header) {
+                        for (String name : record) {
+                            names.add(name);
+                        }
+                        header = false;
+                        continue;
+                    }
+                    this.aggregate(record);
+                }
+            } finally {
+                parser.close();
+            }
+        }
+
+        private void aggregate(CSVRecord record) throws IOException {
+            this.recordCount++;
+            int[] keyColumns = MetaCSVAggregator.this.keyColumns;
+            for (int k = 0; k < keyColumns.length; k++) {
+                if (!this.setKeyPart(k, keyColumns[k], this.get(record, keyColumns[k]))) {
+                    return;
+                }
+            }
+            int group = this.table.findOrAdd(this.key, GroupTable.hash(this.key));
+            List<Aggregate> aggregates = MetaCSVAggregator.this.aggregates;
+            for (int a = 0; a < aggregates.size(); a++) {
+                int c = aggregates.get(a).getColumn();
+                if (c == -1) {
+                    this.table.countRow(a, group);
+                    continue;
+                }
+                String text = this.get(record, c);
+                PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(c);
+                if (text == null || processor.isNull(text)) {
+                    continue;
+                }
+                try {
+                    if (MetaCSVAggregator.this.functions[a] == Aggregate.Function.COUNT) {
+                        this.table.countRow(a, group);
+                    } else if (MetaCSVAggregator.this.dateValues[a]) {
+                        this.table.accumulate(a, group,
+                                ((Date) this.provider.getProcessor(c).toObject(text)).getTime());
+                    } else {
+                        switch (MetaCSVAggregator.this.lanes[a]) {
+                            case LONG:
+                                this.table.accumulate(a, group, processor.toLong(text));
+                                break;
+                            case DOUBLE:
+                                this.table.accumulate(a, group, processor.toDouble(text));
+                                break;
+                            default:
+                                this.table.accumulate(a, group, (BigDecimal) this.provider
+                                        .getProcessor(c).toObject(text));
+                                break;
+                        }
+                    }
+                } catch (MetaCSVReadException e) {
+                    this.onError(c, text, e);
+                } catch (MetaCSVCastException e) {
+                    this.onError(c, text, e);
+                }
+            }
+            if (this.table.size() >= MetaCSVAggregator.this.maxGroups) {
+                this.spill();
+            }
+        }
+
+        private String get(CSVRecord record, int c) {
+            return c < record.size() ? record.get(c) : null;
+        }
+
+        /**
+         * @return false if the key part can't be read
+         * @throws IOException if the key part can't be read and the policy is
+         *                     OnError.EXCEPTION
+         */
+        private boolean setKeyPart(int k, int c, String text) throws IOException {
+            GroupTable.Key key = this.key;
+            key.longs[k] = 0;
+            key.texts[k] = null;
+            PrimitiveReadFieldProcessor processor = this.provider.getPrimitiveProcessor(c);
+            key.nulls[k] = text == null || processor.isNull(text);
+            if (key.nulls[k]) {
+                return true;
+            }
+            try {
+                switch (MetaCSVAggregator.this.keyTypes[k]) {
+                    case BOOLEAN:
+                        key.longs[k] = processor.toBoolean(text) ? 1 : 0;
+                        break;
+                    case CURRENCY_INTEGER:
+                    case INTEGER:
+                        key.longs[k] = processor.toLong(text);
+                        break;
+                    case DATE:
+                    case DATETIME:
+                        key.longs[k] = ((Date) this.provider.getProcessor(c).toObject(text))
+                                .getTime();
+                        break;
+                    case OBJECT:
+                    case TEXT:
+                        key.texts[k] = text;
+                        break;
+                    default:
+                        key.texts[k] = this.provider.getProcessor(c).toCanonicalString(text);
+                        break;
+                }
+                return true;
+            } catch (MetaCSVReadException e) {
+                this.onError(c, text, e);
+            } catch (MetaCSVCastException e) {
+                this.onError(c, text, e);
+            }
+            return false;
+        }
+
+        private void onError(int c, String text, Exception e) throws IOException {
+            if (MetaCSVAggregator.this.onError == OnError.EXCEPTION) {
+                throw new IOException("Can't read the value '" + text + "' of column " + c, e);
+            }
+            this.errorCount++;
+        }
+
+        private void spill() throws IOException {
+            if (this.spillFiles == null) {
+                this.spillFiles = new File[GroupTable.PARTITION_COUNT];
+                this.spillOuts = new DataOutputStream[GroupTable.PARTITION_COUNT];
+                for (int p = 0; p < GroupTable.PARTITION_COUNT; p++) {
+                    this.spillFiles[p] = File.createTempFile("mcsv-groups", ".bin",
+                            MetaCSVAggregator.this.spillDirectory);
+                    this.spillFiles[p].deleteOnExit();
+                    this.spillOuts[p] = new DataOutputStream(new BufferedOutputStream(
+                            new FileOutputStream(this.spillFiles[p]), BUFFER_SIZE));
+                }
+            }
+            this.table.spill(this.spillOuts);
+            this.table.clear();
+            this.spillCount++;
+        }
+
+        void closeSpillFiles() throws IOException {
+            if (this.spillOuts == null) {
+                return;
+            }
+            for (DataOutputStream out : this.spillOuts) {
+                out.close();
+            }
+        }
+
+        void deleteSpillFiles() {
+            if (this.spillFiles == null) {
+                return;
+            }
+            for (File file : this.spillFiles) {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+    }
+}
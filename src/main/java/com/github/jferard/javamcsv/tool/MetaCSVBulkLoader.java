@@ -0,0 +1,707 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunk;
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.processor.CSVRecordProcessor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the rows of a MetaCSV file into a table.
+ *
+ * The rows are parsed into columnar batches (long[], double[], boolean[] for the integer,
+ * float and boolean columns, read with the primitive getters of {@link MetaCSVRecord}). A
+ * reader is parsed by the calling thread; a file is split in record-aligned chunks that are
+ * parsed in parallel. Several threads insert the batches with {@code addBatch/executeBatch}
+ * on their own connection, binding the values with the typed setters. Each connection commits
+ * every {@code commitInterval} rows: the load is not atomic, but a failed connection rolls
+ * back its uncommitted rows.
+ */
+public class MetaCSVBulkLoader {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_COMMIT_INTERVAL = 50000;
+    public static final int DEFAULT_THREAD_COUNT = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final RowBatch END = new RowBatch(new DataType[0], 0);
+
+    private final ConnectionSupplier connectionSupplier;
+    private final String table;
+    private final int batchSize;
+    private final int commitInterval;
+    private final int threadCount;
+    private final long chunkSize;
+
+    /**
+     * @param connectionSupplier the connection supplier
+     * @param table              the table name, as it should appear in the SQL query
+     */
+    public MetaCSVBulkLoader(ConnectionSupplier connectionSupplier, String table) {
+        this(connectionSupplier, table, DEFAULT_BATCH_SIZE, DEFAULT_COMMIT_INTERVAL,
+                DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * @param connectionSupplier the connection supplier
+     * @param table              the table name, as it should appear in the SQL query
+     * @param batchSize          the number of rows per executeBatch
+     * @param commitInterval     the number of rows per commit, on each connection
+     * @param threadCount        the number of insert connections
+     */
+    public MetaCSVBulkLoader(ConnectionSupplier connectionSupplier, String table,
+                             int batchSize, int commitInterval, int threadCount) {
+        this(connectionSupplier, table, batchSize, commitInterval, threadCount,
+                CSVChunker.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param connectionSupplier the connection supplier
+     * @param table              the table name, as it should appear in the SQL query
+     * @param batchSize          the number of rows per executeBatch
+     * @param commitInterval     the number of rows per commit, on each connection
+     * @param threadCount        the number of insert connections, and of parser threads
+     * @param chunkSize          the approximate size of a chunk of a file, in bytes
+     */
+    public MetaCSVBulkLoader(ConnectionSupplier connectionSupplier, String table,
+                             int batchSize, int commitInterval, int threadCount,
+                             long chunkSize) {
+        this.connectionSupplier = connectionSupplier;
+        this.table = table;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Load the rows, using the header of the file as column names.
+     *
+     * @param reader the reader. Not closed.
+     * @return the number of rows
+     * @throws SQLException if an insert fails
+     * @throws MetaCSVReadException if the header can't be read
+     */
+    public long load(MetaCSVReader reader) throws SQLException, MetaCSVReadException {
+        Iterator<MetaCSVRecord> iterator = reader.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        List<String> header = Util.header(iterator.next());
+        return this.load(reader.getMetaData(), iterator, header);
+    }
+
+    /**
+     * Load the rows, the header excluded, into the given columns.
+     *
+     * @param reader  the reader. Not closed.
+     * @param columns the names of the columns of the table, in the order of the file.
+     * @return the number of rows
+     * @throws SQLException if an insert fails
+     */
+    public long load(MetaCSVReader reader, List<String> columns) throws SQLException {
+        Iterator<MetaCSVRecord> iterator = reader.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        iterator.next();
+        return this.load(reader.getMetaData(), iterator, columns);
+    }
+
+    /**
+     * Load the rows of a file, using the header of the file as column names. The chunks of
+     * the file are parsed in parallel.
+     *
+     * @param csvFile the file
+     * @param data    the MetaCSV data
+     * @param onError the policy for the values that can't be read
+     * @return the number of rows
+     * @throws SQLException if an insert fails
+     * @throws IOException  if the file can't be read or is not a valid CSV file
+     */
+    public long load(File csvFile, MetaCSVData data, OnError onError)
+            throws SQLException, IOException {
+        return this.load(csvFile, data, onError, null);
+    }
+
+    /**
+     * Load the rows of a file, the header excluded, into the given columns. The chunks of the
+     * file are parsed in parallel.
+     *
+     * @param csvFile the file
+     * @param data    the MetaCSV data
+     * @param onError the policy for the values that can't be read
+     * @param columns the names of the columns of the table, in the order of the file, or null
+     *                to use the header of the file.
+     * @return the number of rows
+     * @throws SQLException if an insert fails
+     * @throws IOException  if the file can't be read or is not a valid CSV file
+     */
+    public long load(final File csvFile, final MetaCSVData data, final OnError onError,
+                     List<String> columns) throws SQLException, IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            final List<CSVChunk> chunks =
+                    CSVChunker.create(data).split(csvFile, this.chunkSize, executor);
+            if (chunks.isEmpty()) {
+                return 0;
+            }
+            if (columns == null) {
+                columns = this.readHeader(csvFile, data, chunks.get(0));
+                if (columns == null) {
+                    return 0;
+                }
+            }
+            return this.load(data.getMetaData(), columns, new RowSource() {
+                @Override
+                public void fill(BlockingQueue<RowBatch> freeBatches,
+                                 BlockingQueue<RowBatch> fullBatches)
+                        throws IOException, InterruptedException {
+                    MetaCSVBulkLoader.this.parse(csvFile, data, onError, chunks, executor,
+                            freeBatches, fullBatches);
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param columns the column names
+     * @return the insert statement, with the column names quoted as in standard SQL
+     */
+    public String getInsertStatement(List<String> columns) {
+        return this.getInsertStatement(columns, "\"");
+    }
+
+    /**
+     * @param columns the column names
+     * @param quote   the identifier quote string, as returned by
+     *                {@code DatabaseMetaData.getIdentifierQuoteString()}. A space means that
+     *                the identifiers are not quoted.
+     * @return the insert statement
+     */
+    public String getInsertStatement(List<String> columns, String quote) {
+        StringBuilder sb = new StringBuilder("INSERT INTO ").append(this.table).append(" (");
+        StringBuilder values = new StringBuilder(") VALUES (");
+        for (int c = 0; c < columns.size(); c++) {
+            if (c > 0) {
+                sb.append(", ");
+                values.append(", ");
+            }
+            this.appendIdentifier(sb, columns.get(c), quote);
+            values.append('?');
+        }
+        return sb.append(values).append(')').toString();
+    }
+
+    private void appendIdentifier(StringBuilder sb, String name, String quote) {
+        if (quote == null || quote.trim().isEmpty()) {
+            sb.append(name);
+        } else {
+            sb.append(quote).append(name.replace(quote, quote + quote)).append(quote);
+        }
+    }
+
+    private List<String> readHeader(File csvFile, MetaCSVData data, CSVChunk chunk)
+            throws IOException {
+        CSVParser parser = this.createParser(csvFile, data, chunk);
+        try {
+            Iterator<CSVRecord> iterator = parser.iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            List<String> header = new ArrayList<String>();
+            for (String name : iterator.next()) {
+                header.add(name);
+            }
+            return header;
+        } finally {
+            parser.close();
+        }
+    }
+
+    private CSVParser createParser(File csvFile, MetaCSVData data, CSVChunk chunk)
+            throws IOException {
+        CSVFormat format = CSVFormatHelper.getCSVFormat(data);
+        Reader reader = new InputStreamReader(
+                new BufferedInputStream(chunk.openInputStream(csvFile), BUFFER_SIZE),
+                data.getEncoding());
+        return new CSVParser(reader, format);
+    }
+
+    private long load(MetaCSVMetaData metaData, final Iterator<MetaCSVRecord> iterator,
+                      List<String> columns) throws SQLException {
+        try {
+            return this.load(metaData, columns, new RowSource() {
+                @Override
+                public void fill(BlockingQueue<RowBatch> freeBatches,
+                                 BlockingQueue<RowBatch> fullBatches)
+                        throws InterruptedException {
+                    MetaCSVBulkLoader.this.fill(iterator, freeBatches, fullBatches);
+                }
+            });
+        } catch (IOException e) {
+            // a reader does not throw IOExceptions
+            throw new SQLException(e);
+        }
+    }
+
+    private long load(MetaCSVMetaData metaData, List<String> columns, RowSource source)
+            throws SQLException, IOException {
+        int columnCount = columns.size();
+        DataType[] dataTypes = new DataType[columnCount];
+        int[] sqlTypes = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            dataTypes[c] = metaData.getDataType(c);
+            sqlTypes[c] = SQLUtil.dataTypeToSQLType(dataTypes[c]);
+        }
+
+        // the batches are recycled: at most 2 batches per thread in memory
+        int batchCount = 2 * this.threadCount;
+        BlockingQueue<RowBatch> freeBatches = new ArrayBlockingQueue<RowBatch>(batchCount);
+        BlockingQueue<RowBatch> fullBatches = new ArrayBlockingQueue<RowBatch>(
+                batchCount + this.threadCount);
+        for (int i = 0; i < batchCount; i++) {
+            freeBatches.add(new RowBatch(dataTypes, this.batchSize));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>(this.threadCount);
+            for (int i = 0; i < this.threadCount; i++) {
+                futures.add(executor.submit(
+                        this.createInserter(columns, sqlTypes, freeBatches, fullBatches)));
+            }
+            try {
+                source.fill(freeBatches, fullBatches);
+                for (int i = 0; i < this.threadCount; i++) {
+                    fullBatches.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+            long rowCount = 0;
+            for (Future<Long> future : futures) {
+                rowCount += this.get(future);
+            }
+            return rowCount;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void fill(Iterator<MetaCSVRecord> iterator, BlockingQueue<RowBatch> freeBatches,
+                      BlockingQueue<RowBatch> fullBatches) throws InterruptedException {
+        RowBatch batch = freeBatches.take();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == this.batchSize) {
+                fullBatches.put(batch);
+                batch = freeBatches.take();
+            }
+        }
+        this.putLast(batch, freeBatches, fullBatches);
+    }
+
+    private void parse(final File csvFile, final MetaCSVData data, final OnError onError,
+                       List<CSVChunk> chunks, ExecutorService executor,
+                       final BlockingQueue<RowBatch> freeBatches,
+                       final BlockingQueue<RowBatch> fullBatches)
+            throws IOException, InterruptedException {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(chunks.size());
+        for (final CSVChunk chunk : chunks) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException, InterruptedException {
+                    MetaCSVBulkLoader.this.parseChunk(csvFile, data, onError, chunk,
+                            freeBatches, fullBatches);
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    private void parseChunk(File csvFile, MetaCSVData data, OnError onError, CSVChunk chunk,
+                            BlockingQueue<RowBatch> freeBatches,
+                            BlockingQueue<RowBatch> fullBatches)
+            throws IOException, InterruptedException {
+        // the providers cache their processors: one per chunk
+        CSVRecordProcessor processor = new CSVRecordProcessor(
+                data.toProcessorProvider(data.getNullValue()),
+                data.toReadProcessorProvider(onError), onError, Util.UTC_TIME_ZONE);
+        CSVParser parser = this.createParser(csvFile, data, chunk);
+        RowBatch batch = freeBatches.take();
+        try {
+            boolean header = chunk.getIndex() == 0;
+            for (CSVRecord record : parser) {
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                batch.add(processor.createRecord(record));
+                if (batch.size() == this.batchSize) {
+                    fullBatches.put(batch);
+                    batch = null; // not ours anymore if take is interrupted
+                    batch = freeBatches.take();
+                }
+            }
+            this.putLast(batch, freeBatches, fullBatches);
+            batch = null;
+        } finally {
+            if (batch != null) {
+                // give the batch back to the other parsers
+                batch.clear();
+                freeBatches.put(batch);
+            }
+            parser.close();
+        }
+    }
+
+    private void putLast(RowBatch batch, BlockingQueue<RowBatch> freeBatches,
+                         BlockingQueue<RowBatch> fullBatches) throws InterruptedException {
+        if (batch.size() > 0) {
+            fullBatches.put(batch);
+        } else {
+            freeBatches.put(batch);
+        }
+    }
+
+    private Callable<Long> createInserter(final List<String> columns, final int[] sqlTypes,
+                                          final BlockingQueue<RowBatch> freeBatches,
+                                          final BlockingQueue<RowBatch> fullBatches) {
+        return new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                try {
+                    return MetaCSVBulkLoader.this.insert(columns, sqlTypes, freeBatches,
+                            fullBatches);
+                } catch (SQLException e) {
+                    MetaCSVBulkLoader.this.drain(fullBatches, freeBatches);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private long insert(List<String> columns, int[] sqlTypes,
+                        BlockingQueue<RowBatch> freeBatches,
+                        BlockingQueue<RowBatch> fullBatches)
+            throws SQLException, InterruptedException {
+        Connection connection = this.connectionSupplier.getConnection();
+        try {
+            String sql = this.getInsertStatement(columns,
+                    connection.getMetaData().getIdentifierQuoteString());
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            boolean committed = false;
+            try {
+                long rowCount = this.insert(connection, sql, sqlTypes, freeBatches,
+                        fullBatches);
+                committed = true;
+                return rowCount;
+            } finally {
+                if (!committed) {
+                    this.rollback(connection);
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Roll back the rows since the last commit. A failure must not hide the original error.
+     */
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    private long insert(Connection connection, String sql, int[] sqlTypes,
+                        BlockingQueue<RowBatch> freeBatches,
+                        BlockingQueue<RowBatch> fullBatches)
+            throws SQLException, InterruptedException {
+        Calendar calendar = GregorianCalendar.getInstance(Util.UTC_TIME_ZONE);
+        PreparedStatement statement = connection.prepareStatement(sql);
+        long rowCount = 0;
+        long uncommitted = 0;
+        try {
+            RowBatch batch = fullBatches.take();
+            while (batch != END) {
+                int size = batch.size();
+                try {
+                    batch.bind(statement, sqlTypes, calendar);
+                } finally {
+                    batch.clear();
+                    freeBatches.put(batch);
+                }
+                rowCount += size;
+                uncommitted += size;
+                if (uncommitted >= this.commitInterval) {
+                    connection.commit();
+                    uncommitted = 0;
+                }
+                batch = fullBatches.take();
+            }
+            connection.commit();
+            return rowCount;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * On error, keep on recycling the batches to let the parser finish.
+     */
+    private void drain(BlockingQueue<RowBatch> fullBatches, BlockingQueue<RowBatch> freeBatches)
+            throws InterruptedException {
+        RowBatch batch = fullBatches.take();
+        while (batch != END) {
+            batch.clear();
+            freeBatches.put(batch);
+            batch = fullBatches.take();
+        }
+    }
+
+    private long get(Future<Long> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Fills the batches.
+     */
+    private interface RowSource {
+        void fill(BlockingQueue<RowBatch> freeBatches, BlockingQueue<RowBatch> fullBatches)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * A columnar batch of rows. The integer, float and boolean values are stored unboxed.
+     */
+    private static class RowBatch {
+        private final DataType[] dataTypes;
+        private final long[][] longs;
+        private final double[][] doubles;
+        private final boolean[][] booleans;
+        private final Object[][] objects;
+        private final boolean[][] nulls;
+        private int size;
+
+        RowBatch(DataType[] dataTypes, int capacity) {
+            int columnCount = dataTypes.length;
+            this.dataTypes = dataTypes;
+            this.longs = new long[columnCount][];
+            this.doubles = new double[columnCount][];
+            this.booleans = new boolean[columnCount][];
+            this.objects = new Object[columnCount][];
+            this.nulls = new boolean[columnCount][];
+            for (int c = 0; c < columnCount; c++) {
+                switch (dataTypes[c]) {
+                    case CURRENCY_INTEGER:
+                    case INTEGER:
+                        this.longs[c] = new long[capacity];
+                        break;
+                    case FLOAT:
+                    case PERCENTAGE_FLOAT:
+                        this.doubles[c] = new double[capacity];
+                        break;
+                    case BOOLEAN:
+                        this.booleans[c] = new boolean[capacity];
+                        break;
+                    default:
+                        break;
+                }
+                // a value of an unexpected type (e.g. a ReadError) is stored as an object
+                this.objects[c] = new Object[capacity];
+                this.nulls[c] = new boolean[capacity];
+            }
+            this.size = 0;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        void add(MetaCSVRecord record) {
+            int r = this.size;
+            int recordSize = record.size();
+            // the values with the OnError policy applied, if a value can't be read
+            List<Object> values = null;
+            for (int c = 0; c < this.dataTypes.length; c++) {
+                boolean isNull = c >= recordSize || record.isNull(c);
+                this.nulls[c][r] = isNull;
+                if (isNull) {
+                    continue;
+                }
+                try {
+                    if (this.longs[c] != null) {
+                        this.longs[c][r] = record.getLongValue(c);
+                    } else if (this.doubles[c] != null) {
+                        this.doubles[c][r] = record.getDoubleValue(c);
+                    } else if (this.booleans[c] != null) {
+                        this.booleans[c][r] = record.getBooleanValue(c);
+                    } else {
+                        this.objects[c][r] = record.getObject(c);
+                    }
+                } catch (MetaCSVReadException e) {
+                    if (values == null) {
+                        values = record.toList();
+                    }
+                    Object value = values.get(c);
+                    this.nulls[c][r] = value == null;
+                    this.objects[c][r] = value;
+                }
+            }
+            this.size++;
+        }
+
+        void bind(PreparedStatement statement, int[] sqlTypes, Calendar calendar)
+                throws SQLException {
+            for (int r = 0; r < this.size; r++) {
+                for (int c = 0; c < this.dataTypes.length; c++) {
+                    this.bind(statement, c, r, sqlTypes[c], calendar);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        private void bind(PreparedStatement statement, int c, int r, int sqlType,
+                          Calendar calendar) throws SQLException {
+            int parameterIndex = c + 1;
+            Object value = this.objects[c][r];
+            if (this.nulls[c][r]) {
+                statement.setNull(parameterIndex, sqlType);
+            } else if (value == null) {
+                // the value was stored unboxed
+                if (this.longs[c] != null) {
+                    statement.setLong(parameterIndex, this.longs[c][r]);
+                } else if (this.doubles[c] != null) {
+                    statement.setDouble(parameterIndex, this.doubles[c][r]);
+                } else {
+                    statement.setBoolean(parameterIndex, this.booleans[c][r]);
+                }
+            } else {
+                switch (this.dataTypes[c]) {
+                    case CURRENCY_DECIMAL:
+                    case DECIMAL:
+                    case PERCENTAGE_DECIMAL:
+                        if (value instanceof BigDecimal) {
+                            statement.setBigDecimal(parameterIndex, (BigDecimal) value);
+                            return;
+                        }
+                        break;
+                    case DATE:
+                        if (value instanceof Date) {
+                            statement.setDate(parameterIndex,
+                                    new java.sql.Date(((Date) value).getTime()), calendar);
+                            return;
+                        }
+                        break;
+                    case DATETIME:
+                        if (value instanceof Date) {
+                            statement.setTimestamp(parameterIndex,
+                                    new Timestamp(((Date) value).getTime()), calendar);
+                            return;
+                        }
+                        break;
+                    case OBJECT:
+                        statement.setObject(parameterIndex, value);
+                        return;
+                    default:
+                        break;
+                }
+                statement.setString(parameterIndex, value.toString());
+            }
+        }
+
+        void clear() {
+            for (Object[] column : this.objects) {
+                for (int r = 0; r < this.size; r++) {
+                    column[r] = null;
+                }
+            }
+            this.size = 0;
+        }
+    }
+}
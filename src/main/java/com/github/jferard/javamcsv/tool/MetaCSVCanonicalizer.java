@@ -0,0 +1,317 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunk;
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVRenderer;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.ReadError;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.FieldDescription;
+import com.github.jferard.javamcsv.description.TextFieldDescription;
+import com.github.jferard.javamcsv.processor.FieldProcessor;
+import com.github.jferard.javamcsv.processor.FieldProcessorFactory;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rewrites a CSV file as a canonical CSV file (UTF-8, comma, double quote, CRLF, empty null
+ * value, canonical values), with the matching .mcsv file. The fields are rewritten directly
+ * into a buffer per chunk, and the chunks are processed in parallel.
+ */
+public class MetaCSVCanonicalizer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @param data the description of a file
+     * @return the description of the canonical file
+     * @throws MetaCSVDataException should not happen
+     */
+    public static MetaCSVData getCanonicalData(MetaCSVData data) throws MetaCSVDataException {
+        MetaCSVDataBuilder builder = new MetaCSVDataBuilder();
+        for (int c : data.getSortedColIndices()) {
+            builder.colType(c, getCanonicalDescription(data.getDescription(c)));
+        }
+        return builder.build();
+    }
+
+    private static FieldDescription<?> getCanonicalDescription(FieldDescription<?> description) {
+        DataType dataType = description.getDataType();
+        switch (dataType) {
+            case CURRENCY_INTEGER:
+                return DataType.INTEGER.getDefaultDescription();
+            case CURRENCY_DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                return DataType.DECIMAL.getDefaultDescription();
+            case PERCENTAGE_FLOAT:
+                return DataType.FLOAT.getDefaultDescription();
+            case OBJECT:
+                return description;
+            default:
+                return dataType.getDefaultDescription();
+        }
+    }
+
+    private final MetaCSVData data;
+    private final OnError onError;
+    private final int threadCount;
+    private final long chunkSize;
+
+    public MetaCSVCanonicalizer(MetaCSVData data) {
+        this(data, OnError.WRAP, Runtime.getRuntime().availableProcessors(),
+                CSVChunker.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param data        the description of the source file
+     * @param onError     what to write if a value is not valid
+     * @param threadCount the number of threads
+     * @param chunkSize   the approximate size of a chunk in bytes
+     */
+    public MetaCSVCanonicalizer(MetaCSVData data, OnError onError, int threadCount,
+                                long chunkSize) {
+        this.data = data;
+        this.onError = onError;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Write the canonical file and the canonical .mcsv file.
+     *
+     * @param csvFile the source file
+     * @param outFile the canonical file
+     * @throws IOException          if a file can't be read or written
+     * @throws MetaCSVReadException if a value is not valid and the policy is
+     *                              OnError.EXCEPTION
+     */
+    public void canonicalize(File csvFile, File outFile)
+            throws IOException, MetaCSVReadException {
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(outFile, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(getCanonicalData(this.data));
+        } catch (MetaCSVDataException e) {
+            throw new IOException(e);
+        } finally {
+            metaOut.close();
+        }
+        OutputStream out = new FileOutputStream(outFile);
+        try {
+            this.canonicalize(csvFile, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write the canonical CSV data.
+     *
+     * @param csvFile the source file
+     * @param out     the destination. Not closed.
+     * @throws IOException          if a file can't be read or written
+     * @throws MetaCSVReadException if a value is not valid and the policy is
+     *                              OnError.EXCEPTION
+     */
+    public void canonicalize(final File csvFile, OutputStream out)
+            throws IOException, MetaCSVReadException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            List<CSVChunk> chunks =
+                    CSVChunker.create(this.data).split(csvFile, this.chunkSize, executor);
+            // at most 2 * threadCount chunks in memory, written in the file order.
+            LinkedList<Future<byte[]>> window = new LinkedList<Future<byte[]>>();
+            for (final CSVChunk chunk : chunks) {
+                if (window.size() >= 2 * this.threadCount) {
+                    out.write(get(window.removeFirst()));
+                }
+                window.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException, MetaCSVReadException {
+                        return MetaCSVCanonicalizer.this.canonicalizeChunk(csvFile, chunk);
+                    }
+                }));
+            }
+            while (!window.isEmpty()) {
+                out.write(get(window.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException, MetaCSVReadException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof MetaCSVReadException) {
+                throw (MetaCSVReadException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private byte[] canonicalizeChunk(File csvFile, CSVChunk chunk)
+            throws IOException, MetaCSVReadException {
+        FieldProcessor<?>[] processors = this.getProcessors();
+        String[] colTypes = this.getColTypes(processors.length);
+        String nullValue = this.data.getNullValue();
+        StringBuilder out = new StringBuilder((int) Math.min(chunk.getLength() + 1024,
+                Integer.MAX_VALUE / 2));
+        StringBuilder field = new StringBuilder();
+        CSVFormat format = CSVFormatHelper.getCSVFormat(this.data);
+        Reader reader = new InputStreamReader(
+                new BufferedInputStream(chunk.openInputStream(csvFile), BUFFER_SIZE),
+                this.data.getEncoding());
+        CSVParser parser = new CSVParser(reader, format);
+        try {
+            boolean header = chunk.getIndex() == 0;
+            for (CSVRecord record : parser) {
+                int size = record.size();
+                for (int c = 0; c < size; c++) {
+                    if (c > 0) {
+                        out.append(',');
+                    }
+                    String text = record.get(c);
+                    field.setLength(0);
+                    if (header) {
+                        field.append(text);
+                    } else if (c >= processors.length || processors[c] == null) {
+                        if (text != null && !text.equals(nullValue)) {
+                            field.append(text);
+                        }
+                    } else if (!FieldProcessorFactory.appendCanonical(processors[c], text,
+                            field)) {
+                        this.appendError(field, text, colTypes[c]);
+                    }
+                    appendField(out, field, size == 1);
+                }
+                out.append(Util.CRLF);
+                header = false;
+            }
+        } finally {
+            parser.close();
+        }
+        return out.toString().getBytes(Util.UTF_8_CHARSET);
+    }
+
+    private void appendError(StringBuilder field, String text, String colType)
+            throws MetaCSVReadException {
+        switch (this.onError) {
+            case WRAP:
+                field.append(new ReadError(text, colType));
+                break;
+            case NULL:
+                break;
+            case TEXT:
+                field.append(text);
+                break;
+            default:
+                throw new MetaCSVReadException("Can't canonicalize " + text + " (" + colType +
+                        ")");
+        }
+    }
+
+    /**
+     * @param out    the row buffer
+     * @param field  the field
+     * @param single true if the field is the only one in the record.
+     */
+    private static void appendField(StringBuilder out, StringBuilder field, boolean single) {
+        int len = field.length();
+        boolean quote = single && len == 0;
+        for (int i = 0; i < len && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.append(field);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < len; i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * @return one processor per thread and per column. Text columns have no processor.
+     */
+    private FieldProcessor<?>[] getProcessors() {
+        List<Integer> colIndices = this.data.getSortedColIndices();
+        int count = colIndices.isEmpty() ? 0 : colIndices.get(colIndices.size() - 1) + 1;
+        FieldProcessor<?>[] processors = new FieldProcessor<?>[count];
+        for (int c : colIndices) {
+            FieldDescription<?> description = this.data.getDescription(c);
+            if (!(description instanceof TextFieldDescription)) {
+                processors[c] = description.toFieldProcessor(this.data.getNullValue());
+            }
+        }
+        return processors;
+    }
+
+    private String[] getColTypes(int count) throws IOException {
+        String[] colTypes = new String[count];
+        for (int c = 0; c < count; c++) {
+            FieldDescription<?> description = this.data.getDescription(c);
+            if (description != null) {
+                StringBuilder sb = new StringBuilder();
+                description.render(sb);
+                colTypes[c] = sb.toString();
+            }
+        }
+        return colTypes;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.Util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A read only connection to a directory. Every .csv file with a .mcsv file of the same name
+ * is a table.
+ */
+public class MetaCSVConnection extends AbstractConnection {
+    private static final String CSV_EXTENSION = ".csv";
+
+    private final String url;
+    private final File directory;
+    private final MetaCSVDataCache cache;
+    private boolean closed;
+
+    MetaCSVConnection(String url, File directory, MetaCSVDataCache cache) {
+        this.url = url;
+        this.directory = directory;
+        this.cache = cache;
+        this.closed = false;
+    }
+
+    /**
+     * @return the directory
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * @return the sorted names of the tables
+     */
+    public List<String> getTableNames() {
+        List<String> tableNames = new ArrayList<String>();
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isFile() && name.endsWith(CSV_EXTENSION) &&
+                        Util.withExtension(file, ".mcsv").isFile()) {
+                    tableNames.add(name.substring(0, name.length() - CSV_EXTENSION.length()));
+                }
+            }
+        }
+        Collections.sort(tableNames);
+        return tableNames;
+    }
+
+    /**
+     * @param tableName the table name. Case sensitive match first.
+     * @return the CSV file
+     * @throws SQLException if the table does not exist
+     */
+    public File getCSVFile(String tableName) throws SQLException {
+        this.checkOpen();
+        List<String> tableNames = this.getTableNames();
+        int index = MetaCSVQuery.findColumn(tableNames, tableName);
+        return new File(this.directory, tableNames.get(index) + CSV_EXTENSION);
+    }
+
+    /**
+     * @param tableName the table name
+     * @return the data of the table, from the cache if the .mcsv file did not change.
+     * @throws SQLException if the table does not exist or the .mcsv file is not valid.
+     */
+    public MetaCSVData getMetaCSVData(String tableName) throws SQLException {
+        return this.getMetaCSVData(this.getCSVFile(tableName));
+    }
+
+    private MetaCSVData getMetaCSVData(File csvFile) throws SQLException {
+        try {
+            return this.cache.get(Util.withExtension(csvFile, ".mcsv"));
+        } catch (IOException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVParseException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVDataException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * @param tableName the table name
+     * @return a reader on the table
+     * @throws SQLException if the table does not exist or can't be read.
+     */
+    MetaCSVReader openReader(String tableName) throws SQLException {
+        File csvFile = this.getCSVFile(tableName);
+        MetaCSVData data = this.getMetaCSVData(csvFile);
+        InputStream in = null;
+        MetaCSVReader reader = null;
+        try {
+            in = new FileInputStream(csvFile);
+            reader = MetaCSVReader.create(in, data);
+            return reader;
+        } catch (IOException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVDataException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVParseException e) {
+            throw new SQLException(e);
+        } finally {
+            if (reader == null && in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * @param tableName the table name
+     * @return the metadata of the table
+     * @throws SQLException if the table does not exist or can't be read.
+     */
+    ResultSetMetaData getTableMetaData(String tableName) throws SQLException {
+        MetaCSVReader reader = this.openReader(tableName);
+        try {
+            return new MetaCSVReaderResultSet(reader).getMetaData();
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        this.checkOpen();
+        return new MetaCSVStatement(this);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        if (resultSetType != ResultSet.TYPE_FORWARD_ONLY ||
+                resultSetConcurrency != ResultSet.CONCUR_READ_ONLY) {
+            throw new SQLFeatureNotSupportedException();
+        }
+        return this.createStatement();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency,
+                                     int resultSetHoldability) throws SQLException {
+        return this.createStatement(resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        this.checkOpen();
+        return new MetaCSVDatabaseMetaData(this, this.url);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return sql;
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        // read only: nothing to commit
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        // read only: nothing to commit
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        // read only: nothing to rollback
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.closed = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return this.closed;
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        // always read only
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        // no catalog
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        // no transaction
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return Connection.TRANSACTION_NONE;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return ResultSet.HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !this.closed && this.directory.isDirectory();
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return new Properties();
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        // no schema
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return null;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (this.closed) {
+            throw new SQLException("Connection closed");
+        }
+    }
+}
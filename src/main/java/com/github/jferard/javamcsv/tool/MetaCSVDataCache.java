@@ -0,0 +1,91 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of parsed .mcsv files. An entry is parsed again when the modification time or the
+ * length of the file changes.
+ */
+class MetaCSVDataCache {
+    static final String NAME = "MetaCSVDataCache";
+
+    private final Map<File, Entry> entryByFile;
+    private MetaCSVInstrumentation instrumentation;
+
+    MetaCSVDataCache() {
+        this.entryByFile = new HashMap<File, Entry>();
+    }
+
+    /**
+     * @param instrumentation the receiver of the hits and misses, may be null
+     */
+    public synchronized void setInstrumentation(MetaCSVInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * @param metaCSVFile the .mcsv file
+     * @return the parsed data
+     * @throws IOException if the file can't be read
+     * @throws MetaCSVParseException if the file is not a valid .mcsv file
+     * @throws MetaCSVDataException if the data is not consistent
+     */
+    public synchronized MetaCSVData get(File metaCSVFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        File key = metaCSVFile.getAbsoluteFile();
+        long lastModified = key.lastModified();
+        long length = key.length();
+        Entry entry = this.entryByFile.get(key);
+        boolean hit = entry != null && entry.lastModified == lastModified &&
+                entry.length == length;
+        if (this.instrumentation != null) {
+            this.instrumentation.cacheAccess(NAME, hit);
+        }
+        if (!hit) {
+            MetaCSVData data = new MetaCSVParserBuilder().metaCSVFile(key).buildData();
+            entry = new Entry(lastModified, length, data);
+            this.entryByFile.put(key, entry);
+        }
+        return entry.data;
+    }
+
+    private static class Entry {
+        private final long lastModified;
+        private final long length;
+        private final MetaCSVData data;
+
+        Entry(long lastModified, long length, MetaCSVData data) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowIdLifetime;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The metadata of a {@link MetaCSVConnection}. The columns are described by the
+ * {@link MetaCSVResultSetMetaData} of the tables. The metadata result sets are themselves
+ * MetaCSV result sets.
+ */
+public class MetaCSVDatabaseMetaData extends AbstractDatabaseMetaData {
+    private static final List<String> TABLES_HEADER = Arrays.asList("TABLE_CAT", "TABLE_SCHEM",
+            "TABLE_NAME", "TABLE_TYPE", "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME",
+            "SELF_REFERENCING_COL_NAME", "REF_GENERATION");
+    private static final List<String> COLUMNS_HEADER = Arrays.asList("TABLE_CAT", "TABLE_SCHEM",
+            "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE",
+            "BUFFER_LENGTH", "DECIMAL_DIGITS", "NUM_PREC_RADIX", "NULLABLE", "REMARKS",
+            "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB", "CHAR_OCTET_LENGTH",
+            "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA", "SCOPE_TABLE",
+            "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "IS_GENERATEDCOLUMN");
+    private static final int[] COLUMNS_INTEGER_INDICES = {4, 6, 7, 8, 9, 10, 13, 14, 15, 16,
+            21};
+    private static final String TABLE_TYPE = "TABLE";
+
+    private final MetaCSVConnection connection;
+    private final String url;
+
+    MetaCSVDatabaseMetaData(MetaCSVConnection connection, String url) {
+        this.connection = connection;
+        this.url = url;
+    }
+
+    @Override
+    public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern,
+                               String[] types) throws SQLException {
+        List<List<Object>> rows = new ArrayList<List<Object>>();
+        if (types == null || Arrays.asList(types).contains(TABLE_TYPE)) {
+            Pattern pattern = toPattern(tableNamePattern);
+            for (String tableName : this.connection.getTableNames()) {
+                if (pattern.matcher(tableName).matches()) {
+                    rows.add(Arrays.<Object>asList(null, null, tableName, TABLE_TYPE, null, null,
+                            null, null, null, null));
+                }
+            }
+        }
+        return toResultSet(TABLES_HEADER, new int[0], rows);
+    }
+
+    @Override
+    public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern,
+                                String columnNamePattern) throws SQLException {
+        List<List<Object>> rows = new ArrayList<List<Object>>();
+        Pattern tablePattern = toPattern(tableNamePattern);
+        Pattern columnPattern = toPattern(columnNamePattern);
+        for (String tableName : this.connection.getTableNames()) {
+            if (!tablePattern.matcher(tableName).matches()) {
+                continue;
+            }
+            ResultSetMetaData metaData = this.connection.getTableMetaData(tableName);
+            for (int c = 1; c <= metaData.getColumnCount(); c++) {
+                String columnName = metaData.getColumnName(c);
+                if (!columnPattern.matcher(columnName).matches()) {
+                    continue;
+                }
+                rows.add(Arrays.<Object>asList(null, null, tableName, columnName,
+                        metaData.getColumnType(c), metaData.getColumnTypeName(c),
+                        metaData.getPrecision(c), null, metaData.getScale(c), 10,
+                        metaData.isNullable(c), null, null, null, null, null, c, "", null, null,
+                        null, null, "NO", "NO"));
+            }
+        }
+        return toResultSet(COLUMNS_HEADER, COLUMNS_INTEGER_INDICES, rows);
+    }
+
+    @Override
+    public ResultSet getTableTypes() throws SQLException {
+        return toResultSet(Collections.singletonList("TABLE_TYPE"), new int[0],
+                Collections.singletonList(Collections.<Object>singletonList(TABLE_TYPE)));
+    }
+
+    @Override
+    public ResultSet getSchemas() throws SQLException {
+        return this.getSchemas(null, null);
+    }
+
+    @Override
+    public ResultSet getSchemas(String catalog, String schemaPattern) throws SQLException {
+        return toResultSet(Arrays.asList("TABLE_SCHEM", "TABLE_CATALOG"), new int[0],
+                Collections.<List<Object>>emptyList());
+    }
+
+    @Override
+    public ResultSet getCatalogs() throws SQLException {
+        return toResultSet(Collections.singletonList("TABLE_CAT"), new int[0],
+                Collections.<List<Object>>emptyList());
+    }
+
+    /**
+     * @param header the header
+     * @param integerIndices the indices of the integer columns
+     * @param rows the rows
+     * @return a result set on the rows
+     * @throws SQLException never
+     */
+    private static ResultSet toResultSet(List<String> header, int[] integerIndices,
+                                         List<List<Object>> rows) throws SQLException {
+        try {
+            MetaCSVDataBuilder builder = new MetaCSVDataBuilder();
+            for (int c : integerIndices) {
+                builder.colType(c, IntegerFieldDescription.INSTANCE);
+            }
+            MetaCSVData data = builder.build();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MetaCSVWriter writer = MetaCSVWriter.create(out, data);
+            writer.writeHeader(header);
+            for (List<Object> row : rows) {
+                writer.writeRow(row);
+            }
+            writer.close();
+            MetaCSVReader reader =
+                    MetaCSVReader.create(new ByteArrayInputStream(out.toByteArray()), data);
+            return new MetaCSVReaderResultSet(reader);
+        } catch (IOException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVDataException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVParseException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * @param pattern a LIKE pattern, or null
+     * @return the regex pattern
+     */
+    static Pattern toPattern(String pattern) {
+        if (pattern == null) {
+            return Pattern.compile(".*", Pattern.DOTALL);
+        }
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                if (start < i) {
+                    sb.append(Pattern.quote(pattern.substring(start, i)));
+                }
+                if (c == '\\') {
+                    if (i + 1 < pattern.length()) {
+                        i++;
+                    }
+                    sb.append(Pattern.quote(pattern.substring(i, i + 1)));
+                } else {
+                    sb.append(c == '%' ? ".*" : ".");
+                }
+                start = i + 1;
+            }
+        }
+        if (start < pattern.length()) {
+            sb.append(Pattern.quote(pattern.substring(start)));
+        }
+        return Pattern.compile(sb.toString(), Pattern.DOTALL);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.connection;
+    }
+
+    @Override
+    public String getURL() throws SQLException {
+        return this.url;
+    }
+
+    @Override
+    public String getUserName() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public String getDatabaseProductName() throws SQLException {
+        return "MetaCSV";
+    }
+
+    @Override
+    public String getDatabaseProductVersion() throws SQLException {
+        return MetaCSVDriver.VERSION;
+    }
+
+    @Override
+    public String getDriverName() throws SQLException {
+        return "java-mcsv";
+    }
+
+    @Override
+    public String getDriverVersion() throws SQLException {
+        return MetaCSVDriver.VERSION;
+    }
+
+    @Override
+    public int getDriverMajorVersion() {
+        return MetaCSVDriver.MAJOR_VERSION;
+    }
+
+    @Override
+    public int getDriverMinorVersion() {
+        return MetaCSVDriver.MINOR_VERSION;
+    }
+
+    @Override
+    public int getJDBCMajorVersion() throws SQLException {
+        return 4;
+    }
+
+    @Override
+    public int getJDBCMinorVersion() throws SQLException {
+        return 1;
+    }
+
+    @Override
+    public boolean usesLocalFiles() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean usesLocalFilePerTable() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean supportsMixedCaseIdentifiers() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean storesMixedCaseIdentifiers() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean supportsMixedCaseQuotedIdentifiers() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean storesMixedCaseQuotedIdentifiers() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public String getIdentifierQuoteString() throws SQLException {
+        return "\"";
+    }
+
+    @Override
+    public String getSearchStringEscape() throws SQLException {
+        return "\\";
+    }
+
+    @Override
+    public String getCatalogSeparator() throws SQLException {
+        return ".";
+    }
+
+    @Override
+    public boolean allTablesAreSelectable() throws SQLException {
+        return true;
+    }
+
+    @Override
+    public boolean supportsColumnAliasing() throws SQLException {
+        return false;
+    }
+
+    @Override
+    public int getDefaultTransactionIsolation() throws SQLException {
+        return Connection.TRANSACTION_NONE;
+    }
+
+    @Override
+    public boolean supportsTransactionIsolationLevel(int level) throws SQLException {
+        return level == Connection.TRANSACTION_NONE;
+    }
+
+    @Override
+    public boolean supportsResultSetType(int type) throws SQLException {
+        return type == ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public boolean supportsResultSetConcurrency(int type, int concurrency) throws SQLException {
+        return type == ResultSet.TYPE_FORWARD_ONLY && concurrency == ResultSet.CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public boolean supportsResultSetHoldability(int holdability) throws SQLException {
+        return holdability == ResultSet.HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return ResultSet.HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public int getSQLStateType() throws SQLException {
+        return DatabaseMetaData.sqlStateSQL;
+    }
+
+    @Override
+    public RowIdLifetime getRowIdLifetime() throws SQLException {
+        return RowIdLifetime.ROWID_UNSUPPORTED;
+    }
+}
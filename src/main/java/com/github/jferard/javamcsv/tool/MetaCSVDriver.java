@@ -0,0 +1,109 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * A read only JDBC driver. The url {@code jdbc:mcsv:/path/to/dir} exposes every .csv/.mcsv
+ * pair of the directory as a table.
+ *
+ * The parsed .mcsv files are cached by the driver and parsed again only if they change.
+ */
+public class MetaCSVDriver implements java.sql.Driver {
+    public static final String URL_PREFIX = "jdbc:mcsv:";
+    static final int MAJOR_VERSION = 0;
+    static final int MINOR_VERSION = 0;
+    static final String VERSION = MAJOR_VERSION + "." + MINOR_VERSION;
+
+    static {
+        try {
+            DriverManager.registerDriver(new MetaCSVDriver());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final MetaCSVDataCache cache;
+
+    public MetaCSVDriver() {
+        this.cache = new MetaCSVDataCache();
+    }
+
+    /**
+     * @param instrumentation the receiver of the hits and misses of the .mcsv cache, may be
+     *                        null
+     */
+    public void setInstrumentation(MetaCSVInstrumentation instrumentation) {
+        this.cache.setInstrumentation(instrumentation);
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!this.acceptsURL(url)) {
+            return null;
+        }
+        File directory = new File(url.substring(URL_PREFIX.length()));
+        if (!directory.isDirectory()) {
+            throw new SQLException("Not a directory: " + directory);
+        }
+        return new MetaCSVConnection(url, directory, this.cache);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info)
+            throws SQLException {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return MAJOR_VERSION;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return MINOR_VERSION;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
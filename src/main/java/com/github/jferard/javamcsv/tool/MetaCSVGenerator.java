@@ -0,0 +1,165 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.MetaCSVWriterBuilder;
+import com.github.jferard.javamcsv.OnError;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible CSV files of any size: rows are drawn one by one and written
+ * through a {@link MetaCSVWriter}, hence nothing is held in memory.
+ *
+ * Usage:
+ * <pre>
+ * java -cp java-mcsv.jar com.github.jferard.javamcsv.tool.MetaCSVGenerator \
+ *     [--mcsv types.mcsv] [--rows n] [--columns n] [--seed n] [--null ratio] \
+ *     [--error ratio] [--cardinality n] [--newline ratio] out.csv
+ * </pre>
+ * This writes out.csv and out.mcsv.
+ */
+public class MetaCSVGenerator {
+    private static final String USAGE = "Usage: MetaCSVGenerator [--mcsv types.mcsv] "
+            + "[--rows n] [--columns n] [--seed n] [--null ratio] [--error ratio] "
+            + "[--cardinality n] [--newline ratio] out.csv";
+
+    public static void main(String[] args)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVGeneratorBuilder builder = new MetaCSVGeneratorBuilder();
+        File csvFile = null;
+        try {
+            int i = 0;
+            while (i < args.length) {
+                String arg = args[i++];
+                if (!arg.startsWith("--")) {
+                    if (csvFile != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + arg);
+                    }
+                    csvFile = new File(arg);
+                    continue;
+                }
+                if (i == args.length) {
+                    throw new IllegalArgumentException("Missing value: " + arg);
+                }
+                String value = args[i++];
+                if (arg.equals("--mcsv")) {
+                    builder.metaData(
+                            new MetaCSVParserBuilder().metaCSVFile(new File(value)).buildData());
+                } else if (arg.equals("--rows")) {
+                    builder.rowCount(Long.parseLong(value));
+                } else if (arg.equals("--columns")) {
+                    builder.columnCount(Integer.parseInt(value));
+                } else if (arg.equals("--seed")) {
+                    builder.seed(Long.parseLong(value));
+                } else if (arg.equals("--null")) {
+                    builder.nullRatio(Double.parseDouble(value));
+                } else if (arg.equals("--error")) {
+                    builder.errorRatio(Double.parseDouble(value));
+                } else if (arg.equals("--cardinality")) {
+                    builder.cardinality(Integer.parseInt(value));
+                } else if (arg.equals("--newline")) {
+                    builder.newlineRatio(Double.parseDouble(value));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (csvFile == null) {
+                throw new IllegalArgumentException("Missing output file");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        builder.build().generate(csvFile);
+    }
+
+    private final MetaCSVData data;
+    private final List<String> header;
+    private final ColumnGenerator[] columns;
+    private final long rowCount;
+    private final long seed;
+
+    MetaCSVGenerator(MetaCSVData data, List<String> header, ColumnGenerator[] columns,
+                     long rowCount, long seed) {
+        this.data = data;
+        this.header = header;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Write the CSV file and the .mcsv file with the same name.
+     *
+     * @param csvFile the CSV file
+     * @throws IOException if a file can't be written
+     */
+    public void generate(File csvFile) throws IOException {
+        this.generate(new MetaCSVWriterBuilder().csvFile(csvFile).metaData(this.data)
+                .onError(OnError.TEXT).build());
+    }
+
+    /**
+     * Write the CSV file only.
+     *
+     * @param out the destination
+     * @throws IOException if the stream can't be written
+     */
+    public void generate(OutputStream out) throws IOException {
+        this.generate(new MetaCSVWriterBuilder().out(out).metaData(this.data)
+                .onError(OnError.TEXT).build());
+    }
+
+    private void generate(MetaCSVWriter writer) throws IOException {
+        try {
+            Random random = new Random(this.seed);
+            writer.writeHeader(this.header);
+            for (long r = 0; r < this.rowCount; r++) {
+                for (ColumnGenerator column : this.columns) {
+                    column.write(writer, random);
+                }
+                writer.endRow();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    public MetaCSVData getData() {
+        return this.data;
+    }
+
+    public List<String> getHeader() {
+        return this.header;
+    }
+}
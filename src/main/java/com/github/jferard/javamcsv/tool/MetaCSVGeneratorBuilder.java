@@ -0,0 +1,203 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.description.FieldDescription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MetaCSVGeneratorBuilder {
+    /**
+     * @return a description with one column per data type, with the default descriptions.
+     */
+    public static MetaCSVData allTypesData() throws MetaCSVDataException {
+        MetaCSVDataBuilder dataBuilder = new MetaCSVDataBuilder();
+        DataType[] dataTypes = DataType.values();
+        for (int c = 0; c < dataTypes.length; c++) {
+            dataBuilder.colType(c, dataTypes[c].getDefaultDescription());
+        }
+        return dataBuilder.build();
+    }
+
+    private MetaCSVData data;
+    private List<String> header;
+    private int columnCount;
+    private long rowCount;
+    private long seed;
+    private double nullRatio;
+    private double errorRatio;
+    private int cardinality;
+    private double newlineRatio;
+    private final Map<Integer, Double> nullRatioByColIndex;
+    private final Map<Integer, Double> errorRatioByColIndex;
+    private final Map<Integer, Integer> cardinalityByColIndex;
+
+    public MetaCSVGeneratorBuilder() {
+        this.columnCount = -1;
+        this.rowCount = 1000;
+        this.nullRatioByColIndex = new HashMap<Integer, Double>();
+        this.errorRatioByColIndex = new HashMap<Integer, Double>();
+        this.cardinalityByColIndex = new HashMap<Integer, Integer>();
+    }
+
+    /**
+     * @param data the dialect and the column types. Default: {@link #allTypesData()}
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder metaData(MetaCSVData data) {
+        this.data = data;
+        return this;
+    }
+
+    /**
+     * @param header the header. Default: col0, col1, ...
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder header(List<String> header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * @param columnCount the number of columns. Default: the last described column + 1.
+     *                    Columns without description are text columns.
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder columnCount(int columnCount) {
+        this.columnCount = columnCount;
+        return this;
+    }
+
+    /**
+     * @param rowCount the number of rows, header excluded
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder rowCount(long rowCount) {
+        this.rowCount = rowCount;
+        return this;
+    }
+
+    /**
+     * @param seed the seed: the same builder and the same seed give the same file
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public MetaCSVGeneratorBuilder nullRatio(double nullRatio) {
+        this.nullRatio = nullRatio;
+        return this;
+    }
+
+    public MetaCSVGeneratorBuilder nullRatio(int c, double nullRatio) {
+        this.nullRatioByColIndex.put(c, nullRatio);
+        return this;
+    }
+
+    /**
+     * @param errorRatio the ratio of cells that don't match the description. Text columns
+     *                   never have errors.
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder errorRatio(double errorRatio) {
+        this.errorRatio = errorRatio;
+        return this;
+    }
+
+    public MetaCSVGeneratorBuilder errorRatio(int c, double errorRatio) {
+        this.errorRatioByColIndex.put(c, errorRatio);
+        return this;
+    }
+
+    /**
+     * @param cardinality the maximum number of distinct values per column, or 0 for unbounded
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder cardinality(int cardinality) {
+        this.cardinality = cardinality;
+        return this;
+    }
+
+    public MetaCSVGeneratorBuilder cardinality(int c, int cardinality) {
+        this.cardinalityByColIndex.put(c, cardinality);
+        return this;
+    }
+
+    /**
+     * @param newlineRatio the ratio of text cells that contain a (quoted) newline
+     * @return this
+     */
+    public MetaCSVGeneratorBuilder newlineRatio(double newlineRatio) {
+        this.newlineRatio = newlineRatio;
+        return this;
+    }
+
+    public MetaCSVGenerator build() throws MetaCSVDataException {
+        if (this.data == null) {
+            this.data = allTypesData();
+        }
+        if (this.columnCount == -1) {
+            if (this.header != null) {
+                this.columnCount = this.header.size();
+            } else {
+                List<Integer> indices = this.data.getSortedColIndices();
+                this.columnCount = indices.isEmpty() ? 1 : indices.get(indices.size() - 1) + 1;
+            }
+        }
+        if (this.header == null) {
+            this.header = new ArrayList<String>(this.columnCount);
+            for (int c = 0; c < this.columnCount; c++) {
+                this.header.add("col" + c);
+            }
+        } else if (this.header.size() != this.columnCount) {
+            throw new IllegalArgumentException(
+                    "Header size " + this.header.size() + " != column count " + this.columnCount);
+        }
+        ColumnGenerator[] columns = new ColumnGenerator[this.columnCount];
+        for (int c = 0; c < this.columnCount; c++) {
+            FieldDescription<?> description = this.data.getDescription(c);
+            DataType dataType = description == null ? DataType.TEXT : description.getDataType();
+            columns[c] = new ColumnGenerator(dataType,
+                    this.get(this.nullRatioByColIndex, c, this.nullRatio),
+                    this.get(this.errorRatioByColIndex, c, this.errorRatio),
+                    this.get(this.cardinalityByColIndex, c, this.cardinality),
+                    this.newlineRatio, ColumnGenerator.mix(this.seed * 31 + c));
+        }
+        return new MetaCSVGenerator(this.data, this.header, columns, this.rowCount, this.seed);
+    }
+
+    private <T> T get(Map<Integer, T> valueByColIndex, int c, T defaultValue) {
+        T value = valueByColIndex.get(c);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,892 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVCastException;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.ReadError;
+import com.github.jferard.javamcsv.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Joins two MetaCSV readers on typed key columns. The output has the columns of the left
+ * reader, then the non key columns of the right reader. The .mcsv file of the output is
+ * generated from the descriptions of both readers.
+ *
+ * The keys are compared as typed values: "1.0" and "1.00" are the same decimal key, and a null
+ * key never matches. The key columns must have the same data types on both sides.
+ *
+ * The hash join loads the right reader (the build side) in a primitive hash table. When the
+ * estimated size of the build side exceeds the memory budget, both sides are written to
+ * partition files by hash (grace hash join) and the partitions are joined one by one: the
+ * rows of a partition of the right reader must fit in memory. The merge join streams both
+ * readers, that must be sorted on the keys in ascending order with the nulls first (see
+ * {@link SortKey#asc(int)}), and buffers only the right rows of the current key.
+ *
+ * The readers are consumed but not closed.
+ */
+public class MetaCSVJoiner {
+    public enum JoinType {
+        /**
+         * Only the left rows that have a match
+         */
+        INNER,
+        /**
+         * All the left rows, with nulls on the right side if there is no match
+         */
+        LEFT
+    }
+
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int ROW_OVERHEAD = 64;
+    private static final int VALUE_OVERHEAD = 32;
+
+    private static final byte NULL_TAG = 0;
+    private static final byte LONG_TAG = 1;
+    private static final byte DOUBLE_TAG = 2;
+    private static final byte BOOLEAN_TAG = 3;
+    private static final byte DATE_TAG = 4;
+    private static final byte DECIMAL_TAG = 5;
+    private static final byte TEXT_TAG = 6;
+    private static final byte ERROR_TAG = 7;
+
+    private final int[] leftKeys;
+    private final int[] rightKeys;
+    private final JoinType joinType;
+    private final long memoryBudget;
+    private final File spillDirectory;
+
+    /**
+     * @param leftKeys  the key columns of the left reader
+     * @param rightKeys the key columns of the right reader
+     * @param joinType  the type of the join
+     */
+    public MetaCSVJoiner(int[] leftKeys, int[] rightKeys, JoinType joinType) {
+        this(leftKeys, rightKeys, joinType, DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * @param leftKeys       the key columns of the left reader
+     * @param rightKeys      the key columns of the right reader
+     * @param joinType       the type of the join
+     * @param memoryBudget   the estimated size in bytes of the build side before the spill
+     * @param spillDirectory the directory of the spill files, null for the default temporary
+     *                       directory
+     */
+    public MetaCSVJoiner(int[] leftKeys, int[] rightKeys, JoinType joinType, long memoryBudget,
+                         File spillDirectory) {
+        if (leftKeys.length == 0 || leftKeys.length != rightKeys.length) {
+            throw new IllegalArgumentException(
+                    "Expected the same non zero number of key columns on both sides");
+        }
+        this.leftKeys = leftKeys.clone();
+        this.rightKeys = rightKeys.clone();
+        this.joinType = joinType;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Join the readers with a hash table on the right side.
+     *
+     * @param left    the left reader (probe side)
+     * @param right   the right reader (build side)
+     * @param outFile the output file. The .mcsv file is written next to it.
+     * @return the number of rows written
+     * @throws IOException if a file can't be read or written
+     */
+    public long hashJoin(MetaCSVReader left, MetaCSVReader right, File outFile)
+            throws IOException, MetaCSVReadException, MetaCSVDataException {
+        Iterator<MetaCSVRecord> leftIterator = left.iterator();
+        Iterator<MetaCSVRecord> rightIterator = right.iterator();
+        Join join = new Join(left, leftIterator, right, rightIterator, outFile);
+        HashBuild build = new HashBuild(join.keyTypes);
+        try {
+            while (rightIterator.hasNext()) {
+                MetaCSVRecord record = rightIterator.next();
+                if (!fillKey(build.key, record, this.rightKeys, join.keyTypes)) {
+                    // a null key never matches
+                    continue;
+                }
+                List<Object> row = record.toList();
+                if (build.spillFiles != null) {
+                    build.spill(row);
+                } else {
+                    build.add(row);
+                    if (build.byteCount > this.memoryBudget) {
+                        build.startSpill();
+                    }
+                }
+            }
+            if (build.spillFiles == null) {
+                while (leftIterator.hasNext()) {
+                    build.probe(join, leftIterator.next());
+                }
+            } else {
+                build.graceJoin(join, leftIterator);
+            }
+        } finally {
+            build.deleteSpillFiles();
+            join.close();
+        }
+        return join.rowCount;
+    }
+
+    /**
+     * Join the readers sorted on the keys.
+     *
+     * @param left    the left reader
+     * @param right   the right reader
+     * @param outFile the output file. The .mcsv file is written next to it.
+     * @return the number of rows written
+     * @throws IOException if a file can't be read or written, or if a reader is not sorted
+     */
+    public long mergeJoin(MetaCSVReader left, MetaCSVReader right, File outFile)
+            throws IOException, MetaCSVReadException, MetaCSVDataException {
+        Iterator<MetaCSVRecord> leftIterator = left.iterator();
+        Iterator<MetaCSVRecord> rightIterator = right.iterator();
+        Join join = new Join(left, leftIterator, right, rightIterator, outFile);
+        try {
+            SortedSide rightSide = new SortedSide("right", rightIterator, this.rightKeys,
+                    join.keyTypes);
+            rightSide.advance();
+            List<List<Object>> group = new ArrayList<List<Object>>();
+            DataType[] keyTypes = join.keyTypes;
+            GroupTable.Key key = new GroupTable.Key(keyTypes.length);
+            GroupTable.Key groupKey = new GroupTable.Key(keyTypes.length);
+            GroupTable.Key previousKey = new GroupTable.Key(keyTypes.length);
+            boolean hasGroup = false;
+            boolean hasPrevious = false;
+            while (leftIterator.hasNext()) {
+                MetaCSVRecord record = leftIterator.next();
+                boolean complete = fillKey(key, record, this.leftKeys, keyTypes);
+                List<Object> row = record.toList();
+                if (hasPrevious && compare(previousKey, key, keyTypes) > 0) {
+                    throw new IOException("The left reader is not sorted at row " + row);
+                }
+                copyKey(key, previousKey);
+                hasPrevious = true;
+                if (!complete) {
+                    join.writeUnmatched(row);
+                    continue;
+                }
+                if (!hasGroup || compare(groupKey, key, keyTypes) != 0) {
+                    group.clear();
+                    while (rightSide.row != null && compare(rightSide.key, key, keyTypes) < 0) {
+                        rightSide.advance();
+                    }
+                    while (rightSide.row != null &&
+                            compare(rightSide.key, key, keyTypes) == 0) {
+                        group.add(rightSide.row);
+                        rightSide.advance();
+                    }
+                    copyKey(key, groupKey);
+                    hasGroup = true;
+                }
+                if (group.isEmpty()) {
+                    join.writeUnmatched(row);
+                } else {
+                    for (List<Object> rightRow : group) {
+                        join.write(row, rightRow);
+                    }
+                }
+            }
+        } finally {
+            join.close();
+        }
+        return join.rowCount;
+    }
+
+    /**
+     * @param leftMetaData   the left descriptions
+     * @param leftCount      the number of left columns
+     * @param rightMetaData  the right descriptions
+     * @param rightCount     the number of right columns
+     * @param rightKeys      the right key columns
+     * @return the data of the join of the two sides, with the default dialect
+     * @throws MetaCSVDataException should not happen
+     */
+    public static MetaCSVData getJoinedData(MetaCSVMetaData leftMetaData, int leftCount,
+                                            MetaCSVMetaData rightMetaData, int rightCount,
+                                            int[] rightKeys) throws MetaCSVDataException {
+        MetaCSVDataBuilder builder = new MetaCSVDataBuilder();
+        for (int c = 0; c < leftCount; c++) {
+            if (leftMetaData.getDataType(c) != DataType.TEXT) {
+                builder.colType(c, leftMetaData.getDescription(c));
+            }
+        }
+        int j = leftCount;
+        for (int c = 0; c < rightCount; c++) {
+            if (isKey(rightKeys, c)) {
+                continue;
+            }
+            if (rightMetaData.getDataType(c) != DataType.TEXT) {
+                builder.colType(j, rightMetaData.getDescription(c));
+            }
+            j++;
+        }
+        return builder.build();
+    }
+
+    private static boolean isKey(int[] keys, int c) {
+        for (int key : keys) {
+            if (key == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLong(DataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+            case CURRENCY_INTEGER:
+            case DATE:
+            case DATETIME:
+            case FLOAT:
+            case INTEGER:
+            case PERCENTAGE_FLOAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDecimal(DataType dataType) {
+        switch (dataType) {
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Fill a key with the values of the key columns of a record, read with the primitive
+     * processors: a long for the integer, boolean, date and float columns, the canonical text
+     * of a decimal ("1.0" and "1.00" are the same key) and the text of the other columns. A
+     * part is null if the value is null or can't be read.
+     *
+     * @return false if the key has a null part
+     */
+    private static boolean fillKey(GroupTable.Key key, MetaCSVRecord record, int[] keys,
+                                   DataType[] keyTypes) {
+        boolean complete = true;
+        int size = record.size();
+        for (int k = 0; k < keys.length; k++) {
+            int c = keys[k];
+            key.longs[k] = 0;
+            key.texts[k] = null;
+            key.nulls[k] = c >= size || record.isNull(c) ||
+                    !fillKeyPart(key, k, record, c, keyTypes[k]);
+            if (key.nulls[k]) {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * @return false if the value can't be read
+     */
+    private static boolean fillKeyPart(GroupTable.Key key, int k, MetaCSVRecord record, int c,
+                                       DataType keyType) {
+        try {
+            switch (keyType) {
+                case BOOLEAN:
+                    key.longs[k] = record.getBooleanValue(c) ? 1L : 0L;
+                    return true;
+                case CURRENCY_INTEGER:
+                case INTEGER:
+                    key.longs[k] = record.getLongValue(c);
+                    return true;
+                case DATE:
+                case DATETIME:
+                    key.longs[k] = ((Date) record.getObject(c)).getTime();
+                    return true;
+                case FLOAT:
+                case PERCENTAGE_FLOAT:
+                    double d = record.getDoubleValue(c);
+                    // -0.0 == 0.0
+                    key.longs[k] = MetaCSVSorter.toSortableLong(d == 0.0 ? 0.0 : d);
+                    return true;
+                case CURRENCY_DECIMAL:
+                case DECIMAL:
+                case PERCENTAGE_DECIMAL:
+                    BigDecimal decimal = (BigDecimal) record.getObject(c);
+                    key.texts[k] = decimal.signum() == 0 ? "0" :
+                            decimal.stripTrailingZeros().toPlainString();
+                    return true;
+                default:
+                    Object value = record.getObject(c);
+                    if (value instanceof CharSequence) {
+                        key.texts[k] = value.toString();
+                        return true;
+                    }
+                    return false;
+            }
+        } catch (MetaCSVReadException e) {
+            return false;
+        } catch (MetaCSVCastException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compare two keys, nulls first.
+     */
+    private static int compare(GroupTable.Key key1, GroupTable.Key key2, DataType[] keyTypes) {
+        for (int k = 0; k < keyTypes.length; k++) {
+            boolean isNull1 = key1.nulls[k];
+            boolean isNull2 = key2.nulls[k];
+            if (isNull1 || isNull2) {
+                if (isNull1 == isNull2) {
+                    continue;
+                }
+                return isNull1 ? -1 : 1;
+            }
+            int comparison;
+            String text1 = key1.texts[k];
+            String text2 = key2.texts[k];
+            if (text1 == null) {
+                long long1 = key1.longs[k];
+                long long2 = key2.longs[k];
+                comparison = long1 < long2 ? -1 : (long1 == long2 ? 0 : 1);
+            } else if (text1.equals(text2)) {
+                comparison = 0;
+            } else if (isDecimal(keyTypes[k])) {
+                comparison = new BigDecimal(text1).compareTo(new BigDecimal(text2));
+            } else {
+                comparison = text1.compareTo(text2);
+            }
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static void copyKey(GroupTable.Key from, GroupTable.Key to) {
+        int size = from.nulls.length;
+        System.arraycopy(from.nulls, 0, to.nulls, 0, size);
+        System.arraycopy(from.longs, 0, to.longs, 0, size);
+        System.arraycopy(from.texts, 0, to.texts, 0, size);
+    }
+
+    private static long estimateSize(List<Object> row) {
+        long size = ROW_OVERHEAD;
+        for (Object value : row) {
+            size += VALUE_OVERHEAD;
+            if (value instanceof CharSequence) {
+                size += 2L * ((CharSequence) value).length();
+            }
+        }
+        return size;
+    }
+
+    private static void writeRow(DataOutputStream out, List<Object> row) throws IOException {
+        out.writeInt(row.size());
+        for (Object value : row) {
+            if (value == null) {
+                out.writeByte(NULL_TAG);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG_TAG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE_TAG);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN_TAG);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Date) {
+                out.writeByte(DATE_TAG);
+                out.writeLong(((Date) value).getTime());
+            } else if (value instanceof BigDecimal) {
+                out.writeByte(DECIMAL_TAG);
+                writeString(out, value.toString());
+            } else if (value instanceof ReadError) {
+                out.writeByte(ERROR_TAG);
+                writeString(out, ((ReadError) value).getText());
+                writeString(out, ((ReadError) value).getDescription());
+            } else {
+                out.writeByte(TEXT_TAG);
+                writeString(out, value.toString());
+            }
+        }
+    }
+
+    /**
+     * @return the row, or null at the end of the stream
+     */
+    private static List<Object> readRow(DataInputStream in) throws IOException {
+        int size;
+        try {
+            size = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        List<Object> row = new ArrayList<Object>(size);
+        for (int c = 0; c < size; c++) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case NULL_TAG:
+                    row.add(null);
+                    break;
+                case LONG_TAG:
+                    row.add(in.readLong());
+                    break;
+                case DOUBLE_TAG:
+                    row.add(in.readDouble());
+                    break;
+                case BOOLEAN_TAG:
+                    row.add(in.readBoolean());
+                    break;
+                case DATE_TAG:
+                    row.add(new Date(in.readLong()));
+                    break;
+                case DECIMAL_TAG:
+                    row.add(new BigDecimal(readString(in)));
+                    break;
+                case ERROR_TAG:
+                    row.add(new ReadError(readString(in), readString(in)));
+                    break;
+                case TEXT_TAG:
+                    row.add(readString(in));
+                    break;
+                default:
+                    throw new IOException("Unknown tag in spill file: " + tag);
+            }
+        }
+        return row;
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(Util.UTF_8_CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, Util.UTF_8_CHARSET);
+    }
+
+    /**
+     * The output of a join.
+     */
+    private class Join {
+        private final DataType[] keyTypes;
+        private final int leftCount;
+        private final int rightCount;
+        private final MetaCSVWriter writer;
+        private long rowCount;
+
+        Join(MetaCSVReader left, Iterator<MetaCSVRecord> leftIterator, MetaCSVReader right,
+             Iterator<MetaCSVRecord> rightIterator, File outFile)
+                throws IOException, MetaCSVReadException, MetaCSVDataException {
+            if (!leftIterator.hasNext() || !rightIterator.hasNext()) {
+                throw new IOException("Missing header");
+            }
+            List<String> leftHeader = Util.header(leftIterator.next());
+            List<String> rightHeader = Util.header(rightIterator.next());
+            this.leftCount = leftHeader.size();
+            this.rightCount = rightHeader.size();
+            MetaCSVMetaData leftMetaData = left.getMetaData();
+            MetaCSVMetaData rightMetaData = right.getMetaData();
+            int[] leftKeys = MetaCSVJoiner.this.leftKeys;
+            int[] rightKeys = MetaCSVJoiner.this.rightKeys;
+            this.keyTypes = new DataType[leftKeys.length];
+            for (int k = 0; k < leftKeys.length; k++) {
+                if (leftKeys[k] < 0 || leftKeys[k] >= this.leftCount ||
+                        rightKeys[k] < 0 || rightKeys[k] >= this.rightCount) {
+                    throw new IllegalArgumentException(
+                            "Unknown key column: " + leftKeys[k] + "/" + rightKeys[k]);
+                }
+                DataType leftType = leftMetaData.getDataType(leftKeys[k]);
+                DataType rightType = rightMetaData.getDataType(rightKeys[k]);
+                if (leftType != rightType) {
+                    throw new IllegalArgumentException(
+                            "Key types differ: " + leftType + "/" + rightType);
+                }
+                this.keyTypes[k] = leftType;
+            }
+            List<String> header = new ArrayList<String>(leftHeader);
+            for (int c = 0; c < this.rightCount; c++) {
+                if (!isKey(rightKeys, c)) {
+                    header.add(rightHeader.get(c));
+                }
+            }
+            MetaCSVData data = getJoinedData(leftMetaData, this.leftCount, rightMetaData,
+                    this.rightCount, rightKeys);
+            this.writer = MetaCSVWriter.create(outFile, data);
+            this.writer.writeHeader(header);
+        }
+
+        void write(List<Object> leftRow, List<Object> rightRow) throws IOException {
+            List<Object> row = new ArrayList<Object>(
+                    this.leftCount + this.rightCount - this.keyTypes.length);
+            this.addLeft(row, leftRow);
+            int[] rightKeys = MetaCSVJoiner.this.rightKeys;
+            for (int c = 0; c < this.rightCount; c++) {
+                if (!isKey(rightKeys, c)) {
+                    row.add(c < rightRow.size() ? rightRow.get(c) : null);
+                }
+            }
+            this.writer.writeRow(row);
+            this.rowCount++;
+        }
+
+        void writeUnmatched(List<Object> leftRow) throws IOException {
+            if (MetaCSVJoiner.this.joinType != JoinType.LEFT) {
+                return;
+            }
+            List<Object> row = new ArrayList<Object>(
+                    this.leftCount + this.rightCount - this.keyTypes.length);
+            this.addLeft(row, leftRow);
+            for (int c = 0; c < this.rightCount - this.keyTypes.length; c++) {
+                row.add(null);
+            }
+            this.writer.writeRow(row);
+            this.rowCount++;
+        }
+
+        private void addLeft(List<Object> row, List<Object> leftRow) {
+            for (int c = 0; c < this.leftCount; c++) {
+                row.add(c < leftRow.size() ? leftRow.get(c) : null);
+            }
+        }
+
+        void close() throws IOException {
+            this.writer.close();
+        }
+    }
+
+    /**
+     * A sorted side of a merge join.
+     */
+    private static class SortedSide {
+        private final String name;
+        private final Iterator<MetaCSVRecord> iterator;
+        private final int[] keys;
+        private final DataType[] keyTypes;
+        private List<Object> row;
+        private GroupTable.Key key;
+        private GroupTable.Key nextKey;
+
+        SortedSide(String name, Iterator<MetaCSVRecord> iterator, int[] keys,
+                   DataType[] keyTypes) {
+            this.name = name;
+            this.iterator = iterator;
+            this.keys = keys;
+            this.keyTypes = keyTypes;
+            this.key = new GroupTable.Key(keyTypes.length);
+            this.nextKey = new GroupTable.Key(keyTypes.length);
+        }
+
+        void advance() throws IOException {
+            if (!this.iterator.hasNext()) {
+                this.row = null;
+                return;
+            }
+            MetaCSVRecord record = this.iterator.next();
+            fillKey(this.nextKey, record, this.keys, this.keyTypes);
+            List<Object> row = record.toList();
+            if (this.row != null && compare(this.key, this.nextKey, this.keyTypes) > 0) {
+                throw new IOException("The " + this.name + " reader is not sorted at row " + row);
+            }
+            GroupTable.Key key = this.key;
+            this.key = this.nextKey;
+            this.nextKey = key;
+            this.row = row;
+        }
+    }
+
+    /**
+     * The build side of a hash join: a table of keys, and the chains of rows of every key.
+     */
+    private class HashBuild {
+        private final DataType[] keyTypes;
+        private final boolean[] longKeys;
+        private final GroupTable table;
+        private final GroupTable.Key key;
+        private final List<List<Object>> rows;
+        private int[] heads;
+        private int[] tails;
+        private int[] next;
+        private int[] hashes;
+        private long byteCount;
+        private File[] spillFiles;
+        private DataOutputStream[] outs;
+
+        HashBuild(DataType[] keyTypes) {
+            this.keyTypes = keyTypes;
+            boolean[] longKeys = new boolean[keyTypes.length];
+            for (int k = 0; k < keyTypes.length; k++) {
+                longKeys[k] = isLong(keyTypes[k]);
+            }
+            this.longKeys = longKeys;
+            this.table = new GroupTable(longKeys, new Aggregate.Function[0],
+                    new GroupTable.Lane[0]);
+            this.key = new GroupTable.Key(keyTypes.length);
+            this.rows = new ArrayList<List<Object>>();
+            this.clear();
+        }
+
+        private void clear() {
+            this.table.clear();
+            this.rows.clear();
+            this.heads = new int[64];
+            this.tails = new int[64];
+            this.next = new int[64];
+            this.hashes = new int[64];
+            this.byteCount = 0;
+        }
+
+        /**
+         * Add a row whose complete key is in this.key.
+         */
+        void add(List<Object> row) {
+            int hash = GroupTable.hash(this.key);
+            int groupCount = this.table.size();
+            int group = this.table.findOrAdd(this.key, hash);
+            int index = this.rows.size();
+            this.rows.add(row);
+            if (index == this.next.length) {
+                this.next = Arrays.copyOf(this.next, 2 * index);
+                this.hashes = Arrays.copyOf(this.hashes, 2 * index);
+            }
+            this.next[index] = -1;
+            this.hashes[index] = hash;
+            if (group == groupCount) {
+                if (group == this.heads.length) {
+                    this.heads = Arrays.copyOf(this.heads, 2 * group);
+                    this.tails = Arrays.copyOf(this.tails, 2 * group);
+                }
+                this.heads[group] = index;
+            } else {
+                this.next[this.tails[group]] = index;
+            }
+            this.tails[group] = index;
+            this.byteCount += estimateSize(row);
+        }
+
+        void probe(Join join, MetaCSVRecord record) throws IOException {
+            if (fillKey(this.key, record, MetaCSVJoiner.this.leftKeys, this.keyTypes)) {
+                this.probe(join, record.toList());
+            } else {
+                join.writeUnmatched(record.toList());
+            }
+        }
+
+        /**
+         * Probe a row whose complete key is in this.key.
+         */
+        private void probe(Join join, List<Object> row) throws IOException {
+            int group = this.table.find(this.key, GroupTable.hash(this.key));
+            if (group == -1) {
+                join.writeUnmatched(row);
+                return;
+            }
+            for (int i = this.heads[group]; i != -1; i = this.next[i]) {
+                join.write(row, this.rows.get(i));
+            }
+        }
+
+        /**
+         * Move the rows of the table to the partition files of the right side.
+         */
+        void startSpill() throws IOException {
+            this.spillFiles = new File[2 * GroupTable.PARTITION_COUNT];
+            this.outs = this.openSpillFiles("mcsv-join-right", 0);
+            for (int group = 0; group < this.table.size(); group++) {
+                this.table.getKey(group, this.key);
+                for (int i = this.heads[group]; i != -1; i = this.next[i]) {
+                    this.writeEntry(this.hashes[i], this.rows.get(i));
+                }
+            }
+            this.clear();
+        }
+
+        /**
+         * Spill a row whose complete key is in this.key.
+         */
+        void spill(List<Object> row) throws IOException {
+            this.writeEntry(GroupTable.hash(this.key), row);
+        }
+
+        /**
+         * Write the row, then the complete key in this.key, to the partition of the hash.
+         */
+        private void writeEntry(int hash, List<Object> row) throws IOException {
+            DataOutputStream out = this.outs[GroupTable.partition(hash)];
+            writeRow(out, row);
+            for (int k = 0; k < this.longKeys.length; k++) {
+                if (this.longKeys[k]) {
+                    out.writeLong(this.key.longs[k]);
+                } else {
+                    writeString(out, this.key.texts[k]);
+                }
+            }
+        }
+
+        /**
+         * @return the row, with its key in this.key, or null at the end of the file.
+         */
+        private List<Object> readEntry(DataInputStream in) throws IOException {
+            List<Object> row = readRow(in);
+            if (row == null) {
+                return null;
+            }
+            for (int k = 0; k < this.longKeys.length; k++) {
+                this.key.nulls[k] = false;
+                if (this.longKeys[k]) {
+                    this.key.longs[k] = in.readLong();
+                    this.key.texts[k] = null;
+                } else {
+                    this.key.longs[k] = 0;
+                    this.key.texts[k] = readString(in);
+                }
+            }
+            return row;
+        }
+
+        private DataOutputStream[] openSpillFiles(String prefix, int offset)
+                throws IOException {
+            DataOutputStream[] outs = new DataOutputStream[GroupTable.PARTITION_COUNT];
+            for (int p = 0; p < GroupTable.PARTITION_COUNT; p++) {
+                File file = File.createTempFile(prefix, ".bin",
+                        MetaCSVJoiner.this.spillDirectory);
+                file.deleteOnExit();
+                this.spillFiles[offset + p] = file;
+                outs[p] = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            }
+            return outs;
+        }
+
+        /**
+         * Spill the left side, then join the partitions one by one.
+         */
+        void graceJoin(Join join, Iterator<MetaCSVRecord> leftIterator) throws IOException {
+            closeAll(this.outs);
+            this.outs = this.openSpillFiles("mcsv-join-left", GroupTable.PARTITION_COUNT);
+            while (leftIterator.hasNext()) {
+                MetaCSVRecord record = leftIterator.next();
+                List<Object> row = record.toList();
+                if (fillKey(this.key, record, MetaCSVJoiner.this.leftKeys, this.keyTypes)) {
+                    this.writeEntry(GroupTable.hash(this.key), row);
+                } else {
+                    join.writeUnmatched(row);
+                }
+            }
+            closeAll(this.outs);
+            this.outs = null;
+            for (int p = 0; p < GroupTable.PARTITION_COUNT; p++) {
+                this.clear();
+                DataInputStream in = open(this.spillFiles[p]);
+                try {
+                    List<Object> row;
+                    while ((row = this.readEntry(in)) != null) {
+                        this.add(row);
+                    }
+                } finally {
+                    in.close();
+                }
+                in = open(this.spillFiles[GroupTable.PARTITION_COUNT + p]);
+                try {
+                    List<Object> row;
+                    while ((row = this.readEntry(in)) != null) {
+                        this.probe(join, row);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            this.clear();
+        }
+
+        private DataInputStream open(File file) throws IOException {
+            return new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        private void closeAll(DataOutputStream[] outs) throws IOException {
+            IOException exception = null;
+            for (DataOutputStream out : outs) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    exception = e;
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        void deleteSpillFiles() {
+            if (this.spillFiles == null) {
+                return;
+            }
+            if (this.outs != null) {
+                try {
+                    closeAll(this.outs);
+                } catch (IOException e) {
+                    // ignore: the files are deleted
+                }
+                this.outs = null;
+            }
+            for (File file : this.spillFiles) {
+                if (file != null && !file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+            this.spillFiles = null;
+        }
+    }
+}
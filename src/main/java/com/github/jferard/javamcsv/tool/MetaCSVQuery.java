@@ -0,0 +1,488 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.description.FieldDescription;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SQL subset understood by the driver:
+ * <pre>SELECT * | col [, col]* FROM table [WHERE cond [AND cond]*] [LIMIT n]</pre>
+ * where cond is {@code col op literal} (op in =, &lt;&gt;, !=, &lt;, &lt;=, &gt;, &gt;=) or
+ * {@code col IS [NOT] NULL}. A literal is a number, a 'string', TRUE or FALSE. A string
+ * literal compared to a non text column is parsed with the column description, hence it must
+ * be written as in the CSV file.
+ */
+class MetaCSVQuery {
+    public static MetaCSVQuery parse(String sql) throws SQLException {
+        return new Parser(sql).parse();
+    }
+
+    private final List<String> columnNames;
+    private final String tableName;
+    private final List<Condition> conditions;
+    private final long limit;
+
+    MetaCSVQuery(List<String> columnNames, String tableName, List<Condition> conditions,
+                 long limit) {
+        this.columnNames = columnNames;
+        this.tableName = tableName;
+        this.conditions = conditions;
+        this.limit = limit;
+    }
+
+    /**
+     * @return the selected column names, or null for all columns.
+     */
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public List<Condition> getConditions() {
+        return this.conditions;
+    }
+
+    /**
+     * @return the max number of rows, or -1.
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * @param header the header of the table
+     * @param columnName the name of a column
+     * @return the index of the column in the header. Case sensitive match first.
+     * @throws SQLException if the column does not exist or is ambiguous.
+     */
+    public static int findColumn(List<String> header, String columnName) throws SQLException {
+        int index = header.indexOf(columnName);
+        if (index != -1) {
+            return index;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).equalsIgnoreCase(columnName)) {
+                if (index != -1) {
+                    throw new SQLSyntaxErrorException("Ambiguous column: " + columnName);
+                }
+                index = i;
+            }
+        }
+        if (index == -1) {
+            throw new SQLSyntaxErrorException("Unknown column: " + columnName);
+        }
+        return index;
+    }
+
+    enum Operator {
+        EQ, NE, LT, LE, GT, GE, IS_NULL, IS_NOT_NULL;
+
+        boolean test(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case LT:
+                    return comparison < 0;
+                case LE:
+                    return comparison <= 0;
+                case GT:
+                    return comparison > 0;
+                case GE:
+                    return comparison >= 0;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * A condition on a column. The literal is converted to the column type once, when the
+     * condition is bound to a table, and the records are tested column by column: only the
+     * columns that are tested are decoded.
+     */
+    static class Condition {
+        private final String columnName;
+        private final Operator operator;
+        private final Object literal;
+        private int recordIndex;
+        private Object value;
+
+        Condition(String columnName, Operator operator, Object literal) {
+            this.columnName = columnName;
+            this.operator = operator;
+            this.literal = literal;
+            this.recordIndex = -1;
+        }
+
+        public String getColumnName() {
+            return this.columnName;
+        }
+
+        public Operator getOperator() {
+            return this.operator;
+        }
+
+        public Object getLiteral() {
+            return this.literal;
+        }
+
+        /**
+         * @param header the table header
+         * @param metaData the table metadata
+         * @return a copy of this condition, bound to the table.
+         * @throws SQLException if the column does not exist or the literal does not match the
+         *                      column type.
+         */
+        public Condition bind(List<String> header, MetaCSVMetaData metaData)
+                throws SQLException {
+            Condition condition = new Condition(this.columnName, this.operator, this.literal);
+            condition.recordIndex = findColumn(header, this.columnName);
+            if (this.literal != null) {
+                condition.value = toColumnValue(
+                        metaData.getDescription(condition.recordIndex), this.literal);
+            }
+            return condition;
+        }
+
+        private static Object toColumnValue(FieldDescription<?> description, Object literal)
+                throws SQLException {
+            DataType dataType = description.getDataType();
+            if (dataType == DataType.TEXT) {
+                return literal instanceof BigDecimal ? ((BigDecimal) literal).toPlainString() :
+                        literal.toString();
+            }
+            if (literal instanceof Boolean) {
+                if (dataType == DataType.BOOLEAN) {
+                    return literal;
+                }
+            } else if (literal instanceof BigDecimal) {
+                BigDecimal bd = (BigDecimal) literal;
+                switch (dataType) {
+                    case INTEGER:
+                    case CURRENCY_INTEGER:
+                        try {
+                            return bd.longValueExact();
+                        } catch (ArithmeticException e) {
+                            return bd;
+                        }
+                    case FLOAT:
+                    case PERCENTAGE_FLOAT:
+                        return bd.doubleValue();
+                    case DECIMAL:
+                    case CURRENCY_DECIMAL:
+                    case PERCENTAGE_DECIMAL:
+                        return bd;
+                    default:
+                        break;
+                }
+            } else {
+                try {
+                    Object value = description.toFieldProcessor(null).toObject((String) literal);
+                    if (value != null) {
+                        return value;
+                    }
+                } catch (MetaCSVReadException e) {
+                    throw new SQLSyntaxErrorException("Bad literal: " + literal, e);
+                }
+            }
+            throw new SQLSyntaxErrorException(
+                    "Can't compare " + dataType + " column to " + literal);
+        }
+
+        /**
+         * @param record the record
+         * @return true if the record matches the condition
+         * @throws SQLException if the value can't be read.
+         */
+        public boolean test(MetaCSVRecord record) throws SQLException {
+            Object o;
+            try {
+                o = record.getObject(this.recordIndex);
+            } catch (MetaCSVReadException e) {
+                throw new SQLException(e);
+            }
+            switch (this.operator) {
+                case IS_NULL:
+                    return o == null;
+                case IS_NOT_NULL:
+                    return o != null;
+                default:
+                    return o != null && this.operator.test(compare(o, this.value));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compare(Object o, Object value) throws SQLException {
+            if (o instanceof Long && value instanceof Long) {
+                long l = (Long) o;
+                long v = (Long) value;
+                return l < v ? -1 : (l == v ? 0 : 1);
+            } else if (o instanceof Number && value instanceof Number) {
+                if (o instanceof BigDecimal || value instanceof BigDecimal) {
+                    return toBigDecimal((Number) o).compareTo(toBigDecimal((Number) value));
+                }
+                return Double.compare(((Number) o).doubleValue(), ((Number) value).doubleValue());
+            } else if (o instanceof CharSequence && value instanceof String) {
+                return o.toString().compareTo((String) value);
+            } else if (o instanceof Comparable && o.getClass().isInstance(value)) {
+                return ((Comparable<Object>) o).compareTo(value);
+            }
+            throw new SQLException("Can't compare " + o + " to " + value);
+        }
+
+        private static BigDecimal toBigDecimal(Number n) {
+            if (n instanceof BigDecimal) {
+                return (BigDecimal) n;
+            } else if (n instanceof Long) {
+                return BigDecimal.valueOf(n.longValue());
+            } else {
+                return new BigDecimal(n.toString());
+            }
+        }
+    }
+
+    private static class Parser {
+        private final String sql;
+        private int i;
+        private String token;
+        private boolean quoted;
+        private boolean end;
+
+        Parser(String sql) {
+            this.sql = sql;
+            this.i = 0;
+        }
+
+        MetaCSVQuery parse() throws SQLException {
+            this.nextToken();
+            this.expectKeyword("SELECT");
+            List<String> columnNames;
+            if (this.isSymbol("*")) {
+                columnNames = null;
+                this.nextToken();
+            } else {
+                columnNames = new ArrayList<String>();
+                columnNames.add(this.identifier());
+                while (this.isSymbol(",")) {
+                    this.nextToken();
+                    columnNames.add(this.identifier());
+                }
+            }
+            this.expectKeyword("FROM");
+            String tableName = this.identifier();
+            List<Condition> conditions = Collections.emptyList();
+            if (this.isKeyword("WHERE")) {
+                this.nextToken();
+                conditions = new ArrayList<Condition>();
+                conditions.add(this.condition());
+                while (this.isKeyword("AND")) {
+                    this.nextToken();
+                    conditions.add(this.condition());
+                }
+            }
+            long limit = -1;
+            if (this.isKeyword("LIMIT")) {
+                this.nextToken();
+                try {
+                    limit = Long.parseLong(this.token);
+                } catch (NumberFormatException e) {
+                    throw this.error("a row count");
+                }
+                this.nextToken();
+            }
+            if (this.isSymbol(";")) {
+                this.nextToken();
+            }
+            if (!this.end) {
+                throw this.error("end of query");
+            }
+            return new MetaCSVQuery(columnNames, tableName, conditions, limit);
+        }
+
+        private Condition condition() throws SQLException {
+            String columnName = this.identifier();
+            if (this.isKeyword("IS")) {
+                this.nextToken();
+                Operator operator = Operator.IS_NULL;
+                if (this.isKeyword("NOT")) {
+                    this.nextToken();
+                    operator = Operator.IS_NOT_NULL;
+                }
+                this.expectKeyword("NULL");
+                return new Condition(columnName, operator, null);
+            }
+            Operator operator = this.operator();
+            this.nextToken();
+            Object literal = this.literal();
+            this.nextToken();
+            return new Condition(columnName, operator, literal);
+        }
+
+        private Operator operator() throws SQLException {
+            if (!this.quoted) {
+                if (this.token.equals("=")) {
+                    return Operator.EQ;
+                } else if (this.token.equals("<>") || this.token.equals("!=")) {
+                    return Operator.NE;
+                } else if (this.token.equals("<")) {
+                    return Operator.LT;
+                } else if (this.token.equals("<=")) {
+                    return Operator.LE;
+                } else if (this.token.equals(">")) {
+                    return Operator.GT;
+                } else if (this.token.equals(">=")) {
+                    return Operator.GE;
+                }
+            }
+            throw this.error("an operator");
+        }
+
+        private Object literal() throws SQLException {
+            if (this.token.startsWith("'") && this.quoted) {
+                return this.token.substring(1);
+            } else if (this.isKeyword("TRUE")) {
+                return Boolean.TRUE;
+            } else if (this.isKeyword("FALSE")) {
+                return Boolean.FALSE;
+            } else if (!this.quoted && !this.end) {
+                try {
+                    return new BigDecimal(this.token);
+                } catch (NumberFormatException e) {
+                    // fall through
+                }
+            }
+            throw this.error("a literal");
+        }
+
+        private String identifier() throws SQLException {
+            String identifier;
+            if (this.quoted && this.token.startsWith("\"")) {
+                identifier = this.token.substring(1);
+            } else if (!this.quoted && this.token.length() > 0 &&
+                    Character.isJavaIdentifierStart(this.token.charAt(0))) {
+                identifier = this.token;
+            } else {
+                throw this.error("an identifier");
+            }
+            this.nextToken();
+            return identifier;
+        }
+
+        private boolean isKeyword(String keyword) {
+            return !this.quoted && this.token.equalsIgnoreCase(keyword);
+        }
+
+        private boolean isSymbol(String symbol) {
+            return !this.quoted && this.token.equals(symbol);
+        }
+
+        private void expectKeyword(String keyword) throws SQLException {
+            if (!this.isKeyword(keyword)) {
+                throw this.error(keyword);
+            }
+            this.nextToken();
+        }
+
+        private SQLException error(String expected) {
+            String found = this.end ? "end of query" : "`" + this.token + "`";
+            return new SQLSyntaxErrorException(
+                    "Expected " + expected + ", found " + found + " in: " + this.sql);
+        }
+
+        /**
+         * Read the next token. Quoted tokens keep their opening quote as a marker.
+         */
+        private void nextToken() throws SQLException {
+            int length = this.sql.length();
+            while (this.i < length && Character.isWhitespace(this.sql.charAt(this.i))) {
+                this.i++;
+            }
+            this.quoted = false;
+            this.end = this.i == length;
+            if (this.end) {
+                this.token = "";
+                return;
+            }
+            char c = this.sql.charAt(this.i);
+            int start = this.i;
+            if (c == '\'' || c == '"') {
+                this.quoted = true;
+                StringBuilder sb = new StringBuilder().append(c);
+                this.i++;
+                while (true) {
+                    if (this.i == length) {
+                        throw new SQLSyntaxErrorException("Unterminated quote in: " + this.sql);
+                    }
+                    char d = this.sql.charAt(this.i++);
+                    if (d == c) {
+                        if (this.i < length && this.sql.charAt(this.i) == c) {
+                            this.i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    sb.append(d);
+                }
+                this.token = sb.toString();
+            } else if (Character.isJavaIdentifierStart(c)) {
+                do {
+                    this.i++;
+                } while (this.i < length &&
+                        Character.isJavaIdentifierPart(this.sql.charAt(this.i)));
+                this.token = this.sql.substring(start, this.i);
+            } else if (Character.isDigit(c) || c == '-' || c == '+' || c == '.') {
+                do {
+                    this.i++;
+                } while (this.i < length && isNumberPart(this.sql.charAt(this.i),
+                        this.sql.charAt(this.i - 1)));
+                this.token = this.sql.substring(start, this.i);
+            } else if ((c == '<' || c == '>' || c == '!') && this.i + 1 < length &&
+                    (this.sql.charAt(this.i + 1) == '=' ||
+                            c == '<' && this.sql.charAt(this.i + 1) == '>')) {
+                this.i += 2;
+                this.token = this.sql.substring(start, this.i);
+            } else {
+                this.i++;
+                this.token = this.sql.substring(start, this.i);
+            }
+        }
+
+        private static boolean isNumberPart(char c, char previous) {
+            return Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' ||
+                    ((c == '-' || c == '+') && (previous == 'e' || previous == 'E'));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.description.FieldDescription;
+
+import java.io.IOException;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a {@link MetaCSVQuery}. The conditions are tested on the records as they
+ * are read and only the selected columns are exposed: since a record decodes its values on
+ * demand, the other columns are never converted.
+ */
+class MetaCSVQueryResultSet extends MetaCSVReaderResultSet {
+    /**
+     * @param statement the statement, may be null
+     * @param reader the reader on the table
+     * @param query the query
+     * @param maxRows the max rows of the statement, 0 means no limit.
+     * @return the result set
+     * @throws SQLException if the query does not match the table
+     */
+    public static MetaCSVQueryResultSet create(MetaCSVStatement statement, MetaCSVReader reader,
+                                               MetaCSVQuery query, long maxRows)
+            throws SQLException {
+        MetaCSVQueryResultSet resultSet;
+        try {
+            resultSet = new MetaCSVQueryResultSet(statement, reader);
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        }
+        resultSet.prepare(query, maxRows);
+        return resultSet;
+    }
+
+    private final MetaCSVStatement statement;
+    private final MetaCSVReader reader;
+    private final List<String> tableHeader;
+    private int[] recordIndices;
+    private List<String> header;
+    private Map<String, Integer> indexByLabel;
+    private MetaCSVQuery.Condition[] conditions;
+    private long limit;
+    private int row;
+
+    private MetaCSVQueryResultSet(MetaCSVStatement statement, MetaCSVReader reader)
+            throws MetaCSVReadException {
+        super(reader);
+        this.statement = statement;
+        this.reader = reader;
+        this.tableHeader = this.getHeader();
+    }
+
+    private void prepare(MetaCSVQuery query, long maxRows) throws SQLException {
+        MetaCSVMetaData tableMetaData = this.reader.getMetaData();
+        List<String> columnNames = query.getColumnNames();
+        if (columnNames == null) {
+            columnNames = this.tableHeader;
+        }
+        this.recordIndices = new int[columnNames.size()];
+        this.header = new ArrayList<String>(columnNames.size());
+        this.indexByLabel = new HashMap<String, Integer>();
+        for (int i = 0; i < this.recordIndices.length; i++) {
+            int recordIndex = MetaCSVQuery.findColumn(this.tableHeader, columnNames.get(i));
+            this.recordIndices[i] = recordIndex;
+            String label = this.tableHeader.get(recordIndex);
+            this.header.add(label);
+            if (!this.indexByLabel.containsKey(label)) {
+                this.indexByLabel.put(label, i + 1);
+            }
+        }
+        List<MetaCSVQuery.Condition> queryConditions = query.getConditions();
+        this.conditions = new MetaCSVQuery.Condition[queryConditions.size()];
+        for (int i = 0; i < this.conditions.length; i++) {
+            this.conditions[i] = queryConditions.get(i).bind(this.tableHeader, tableMetaData);
+        }
+        this.limit = query.getLimit();
+        if (maxRows > 0 && (this.limit < 0 || maxRows < this.limit)) {
+            this.limit = maxRows;
+        }
+        this.row = 0;
+    }
+
+    @Override
+    protected int getRecordIndex(int columnIndex) {
+        return this.recordIndices[columnIndex - 1];
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (this.limit >= 0 && this.row >= this.limit) {
+            this.setCurrentRecord(null);
+            return false;
+        }
+        while (super.next()) {
+            if (this.accept(this.getCurrentRecord())) {
+                this.row++;
+                return true;
+            }
+        }
+        this.setCurrentRecord(null);
+        return false;
+    }
+
+    private boolean accept(MetaCSVRecord record) throws SQLException {
+        for (MetaCSVQuery.Condition condition : this.conditions) {
+            if (!condition.test(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        return this.row;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        super.close();
+        try {
+            this.reader.close();
+        } catch (IOException e) {
+            throw new SQLException(e);
+        } finally {
+            if (this.statement != null) {
+                this.statement.resultSetClosed(this);
+            }
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        MetaCSVMetaData tableMetaData = this.reader.getMetaData();
+        Map<Integer, FieldDescription<?>> descriptionByColIndex =
+                new HashMap<Integer, FieldDescription<?>>();
+        for (int i = 0; i < this.recordIndices.length; i++) {
+            descriptionByColIndex.put(i, tableMetaData.getDescription(this.recordIndices[i]));
+        }
+        return new MetaCSVResultSetMetaData(MetaCSVMetaData.create(descriptionByColIndex),
+                this.header, this.indexByLabel);
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        Integer columnIndex = this.indexByLabel.get(columnLabel);
+        if (columnIndex == null) {
+            return MetaCSVQuery.findColumn(this.header, columnLabel) + 1;
+        }
+        return columnIndex;
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        return this.statement;
+    }
+}
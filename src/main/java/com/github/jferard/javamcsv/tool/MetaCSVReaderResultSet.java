@@ -20,6 +20,8 @@
 
 package com.github.jferard.javamcsv.tool;
 
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.MetaCSVReader;
 import com.github.jferard.javamcsv.MetaCSVRecord;
@@ -47,7 +49,9 @@ import java.util.TimeZone;
 
 public class MetaCSVReaderResultSet extends AbstractResultSet {
     private final Map<String, Integer> indexByLabel;
+    private final Map<String, Integer> indexByOtherLabel;
     private final List<String> header;
+    private final DataType[] dataTypes;
     private Iterator<MetaCSVRecord> iterator;
     private MetaCSVReader reader;
     private MetaCSVRecord cur;
@@ -62,10 +66,45 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
         for (int i = 0; i < header.size(); i++) {
             this.indexByLabel.put(header.get(i), i + 1);
         }
+        this.indexByOtherLabel = new HashMap<String, Integer>();
+        MetaCSVMetaData metaData = reader.getMetaData();
+        this.dataTypes = new DataType[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            this.dataTypes[i] = metaData.getDataType(i);
+        }
         this.cur = null;
         this.wasNull = false;
     }
 
+    /**
+     * @param record the new current record, or null if the cursor is not on a row.
+     */
+    protected void setCurrentRecord(MetaCSVRecord record) {
+        this.cur = record;
+    }
+
+    /**
+     * @return the current record, or null if the cursor is not on a row.
+     */
+    protected MetaCSVRecord getCurrentRecord() {
+        return this.cur;
+    }
+
+    /**
+     * @return the header of the CSV file
+     */
+    protected List<String> getHeader() {
+        return this.header;
+    }
+
+    /**
+     * @param columnIndex the JDBC column index (1-based)
+     * @return the index of the column in the record (0-based)
+     */
+    protected int getRecordIndex(int columnIndex) {
+        return columnIndex - 1;
+    }
+
     @Override
     public boolean next() throws SQLException {
         if (iterator == null) {
@@ -100,9 +139,20 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
         }
     }
 
+    /**
+     * @param recordIndex the index of the column in the record
+     * @return the data type of the column
+     */
+    private DataType getDataType(int recordIndex) {
+        if (recordIndex < this.dataTypes.length) {
+            return this.dataTypes[recordIndex];
+        }
+        return DataType.TEXT;
+    }
+
     private Object getCurObject(int columnIndex) throws SQLException {
         try {
-            return this.cur.getObject(columnIndex - 1);
+            return this.cur.getObject(this.getRecordIndex(columnIndex));
         } catch (MetaCSVReadException e) {
             throw new SQLException(e);
         }
@@ -110,6 +160,15 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public boolean getBoolean(int columnIndex) throws SQLException {
+        int recordIndex = this.getRecordIndex(columnIndex);
+        if (this.getDataType(recordIndex) == DataType.BOOLEAN) {
+            try {
+                this.wasNull = this.cur.isNull(recordIndex);
+                return this.cur.getBooleanValue(recordIndex);
+            } catch (MetaCSVReadException e) {
+                throw new SQLException(e);
+            }
+        }
         Object o = getCurObject(columnIndex);
         if (o == null) {
             this.wasNull = true;
@@ -181,6 +240,16 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
     }
 
     private long getLong(String typeName, int columnIndex) throws SQLException {
+        int recordIndex = this.getRecordIndex(columnIndex);
+        DataType dataType = this.getDataType(recordIndex);
+        if (dataType == DataType.INTEGER || dataType == DataType.CURRENCY_INTEGER) {
+            try {
+                this.wasNull = this.cur.isNull(recordIndex);
+                return this.cur.getLongValue(recordIndex);
+            } catch (MetaCSVReadException e) {
+                throw new SQLException(e);
+            }
+        }
         Object o = getCurObject(columnIndex);
         if (o == null) {
             this.wasNull = true;
@@ -195,10 +264,35 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public float getFloat(int columnIndex) throws SQLException {
+        int recordIndex = this.getRecordIndex(columnIndex);
+        if (this.hasDoubleValue(recordIndex)) {
+            return (float) this.getDoubleValue(recordIndex);
+        }
         Number n = getNumber("float", columnIndex);
         return n.floatValue();
     }
 
+    private boolean hasDoubleValue(int recordIndex) {
+        switch (this.getDataType(recordIndex)) {
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+            case INTEGER:
+            case CURRENCY_INTEGER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private double getDoubleValue(int recordIndex) throws SQLException {
+        try {
+            this.wasNull = this.cur.isNull(recordIndex);
+            return this.cur.getDoubleValue(recordIndex);
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        }
+    }
+
     private Number getNumber(String typeName, int columnIndex) throws SQLException {
         Object o = getCurObject(columnIndex);
         if (o == null) {
@@ -219,6 +313,10 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public double getDouble(int columnIndex) throws SQLException {
+        int recordIndex = this.getRecordIndex(columnIndex);
+        if (this.hasDoubleValue(recordIndex)) {
+            return this.getDoubleValue(recordIndex);
+        }
         Number n = getNumber("double", columnIndex);
         return n.doubleValue();
     }
@@ -257,12 +355,20 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public Time getTime(int columnIndex) throws SQLException {
-        return new Time(getDate("Date", columnIndex).getTime());
+        java.util.Date date = getDate("Date", columnIndex);
+        if (date == null) {
+            return null;
+        }
+        return new Time(date.getTime());
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex) throws SQLException {
-        return new Timestamp(getDate("Date", columnIndex).getTime());
+        java.util.Date date = getDate("Date", columnIndex);
+        if (date == null) {
+            return null;
+        }
+        return new Timestamp(date.getTime());
     }
 
     @Override
@@ -301,21 +407,43 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public Object getObject(int columnIndex) throws SQLException {
-        return getCurObject(columnIndex);
+        Object o = getCurObject(columnIndex);
+        this.wasNull = o == null;
+        return o;
     }
 
+    /**
+     * Labels are case insensitive. An exact match is tried first, then a case insensitive
+     * match. The result is cached.
+     */
     @Override
     public int findColumn(String columnLabel) throws SQLException {
         Integer columnIndex = this.indexByLabel.get(columnLabel);
         if (columnIndex == null) {
-            throw new SQLException("Unknown label: " + columnLabel);
+            columnIndex = this.indexByOtherLabel.get(columnLabel);
+            if (columnIndex == null) {
+                for (int i = 0; i < this.header.size(); i++) {
+                    if (this.header.get(i).equalsIgnoreCase(columnLabel)) {
+                        columnIndex = i + 1;
+                        break;
+                    }
+                }
+                if (columnIndex == null) {
+                    throw new SQLException("Unknown label: " + columnLabel);
+                }
+                this.indexByOtherLabel.put(columnLabel, columnIndex);
+            }
         }
         return columnIndex;
     }
 
     @Override
     public Reader getCharacterStream(int columnIndex) throws SQLException {
-        return new StringReader(this.getString(columnIndex));
+        String s = this.getString(columnIndex);
+        if (s == null) {
+            return null;
+        }
+        return new StringReader(s);
     }
 
     @Override
@@ -375,6 +503,9 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
     @Override
     public Date getDate(int columnIndex, Calendar cal) throws SQLException {
         Date d = this.getDate(columnIndex);
+        if (d == null) {
+            return null;
+        }
         long millis = getMillis(d, cal);
         return new Date(millis);
     }
@@ -382,6 +513,9 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
     @Override
     public Time getTime(int columnIndex, Calendar cal) throws SQLException {
         Time t = this.getTime(columnIndex);
+        if (t == null) {
+            return null;
+        }
         long millis = getMillis(t, cal);
         return new Time(millis);
     }
@@ -389,6 +523,9 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
     @Override
     public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
         Timestamp t = this.getTimestamp(columnIndex);
+        if (t == null) {
+            return null;
+        }
         long millis = getMillis(t, cal);
         return new Timestamp(millis);
     }
@@ -416,6 +553,42 @@ public class MetaCSVReaderResultSet extends AbstractResultSet {
 
     @Override
     public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-        return (T) getObject(columnIndex);
+        Object o;
+        if (type == Long.class) {
+            o = this.getLong(columnIndex);
+        } else if (type == Integer.class) {
+            o = this.getInt(columnIndex);
+        } else if (type == Short.class) {
+            o = this.getShort(columnIndex);
+        } else if (type == Byte.class) {
+            o = this.getByte(columnIndex);
+        } else if (type == Double.class) {
+            o = this.getDouble(columnIndex);
+        } else if (type == Float.class) {
+            o = this.getFloat(columnIndex);
+        } else if (type == Boolean.class) {
+            o = this.getBoolean(columnIndex);
+        } else if (type == BigDecimal.class) {
+            o = this.getBigDecimal(columnIndex);
+        } else if (type == String.class) {
+            o = this.getString(columnIndex);
+        } else if (type == Date.class) {
+            o = this.getDate(columnIndex);
+        } else if (type == Time.class) {
+            o = this.getTime(columnIndex);
+        } else if (type == Timestamp.class) {
+            o = this.getTimestamp(columnIndex);
+        } else if (type == byte[].class) {
+            o = this.getBytes(columnIndex);
+        } else {
+            o = this.getObject(columnIndex);
+            if (o != null && !type.isInstance(o)) {
+                throw new SQLException("Bad " + type.getName() + ": " + o);
+            }
+        }
+        if (this.wasNull) {
+            return null;
+        }
+        return type.cast(o);
     }
 }
\ No newline at end of file
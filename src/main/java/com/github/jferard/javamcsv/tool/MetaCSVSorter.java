@@ -0,0 +1,583 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunk;
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVCastException;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVMetaData;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVRenderer;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.processor.PrimitiveReadFieldProcessor;
+import com.github.jferard.javamcsv.processor.ProcessorProvider;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sorts a CSV file by some columns, with the typed comparison of the columns: integers, dates
+ * and floats as numbers (primitive keys), decimals as BigDecimals, texts as Strings. The sort
+ * is stable. A value that can't be parsed is sorted as a null value.
+ *
+ * The file is split in record-aligned chunks that are sorted in parallel. Each sorted chunk is
+ * written to a temporary run file (the keys, then the raw bytes of the record). The runs are
+ * merged by groups of at most mergeFactor runs until the final merge writes the output file.
+ * The memory is bounded by threadCount chunks.
+ */
+public class MetaCSVSorter {
+    public static final int DEFAULT_MERGE_FACTOR = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MetaCSVData data;
+    private final List<SortKey> keys;
+    private final int threadCount;
+    private final long chunkSize;
+    private final int mergeFactor;
+    private final File tempDirectory;
+    private final DataType[] keyTypes;
+    private final boolean[] longKeys;
+    private final Comparator<SortRecord> comparator;
+
+    public MetaCSVSorter(MetaCSVData data, List<SortKey> keys) {
+        this(data, keys, Runtime.getRuntime().availableProcessors(),
+                CSVChunker.DEFAULT_CHUNK_SIZE, DEFAULT_MERGE_FACTOR, null);
+    }
+
+    /**
+     * @param data          the description of the file
+     * @param keys          the sort keys
+     * @param threadCount   the number of threads
+     * @param chunkSize     the approximate size of a chunk (and of a run) in bytes
+     * @param mergeFactor   the max number of runs merged at once (at least 2)
+     * @param tempDirectory the directory of the run files, null for the default temporary
+     *                      directory
+     */
+    public MetaCSVSorter(MetaCSVData data, List<SortKey> keys, int threadCount, long chunkSize,
+                         int mergeFactor, File tempDirectory) {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException("Merge factor must be at least 2");
+        }
+        this.data = data;
+        this.keys = keys;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+        this.mergeFactor = mergeFactor;
+        this.tempDirectory = tempDirectory;
+        MetaCSVMetaData metaData = data.getMetaData();
+        this.keyTypes = new DataType[keys.size()];
+        this.longKeys = new boolean[keys.size()];
+        final boolean[] descending = new boolean[keys.size()];
+        final boolean[] nullsFirst = new boolean[keys.size()];
+        for (int k = 0; k < this.keyTypes.length; k++) {
+            SortKey key = keys.get(k);
+            this.keyTypes[k] = metaData.getDataType(key.getColumn());
+            this.longKeys[k] = isLong(this.keyTypes[k]);
+            descending[k] = key.isDescending();
+            nullsFirst[k] = key.isNullsFirst();
+        }
+        this.comparator = new Comparator<SortRecord>() {
+            @Override
+            public int compare(SortRecord record1, SortRecord record2) {
+                return MetaCSVSorter.this.compare(record1, record2, descending, nullsFirst);
+            }
+        };
+    }
+
+    private static boolean isLong(DataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+            case CURRENCY_INTEGER:
+            case DATE:
+            case DATETIME:
+            case FLOAT:
+            case INTEGER:
+            case PERCENTAGE_FLOAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(SortRecord record1, SortRecord record2, boolean[] descending,
+                        boolean[] nullsFirst) {
+        for (int k = 0; k < this.longKeys.length; k++) {
+            boolean null1 = record1.nulls[k];
+            boolean null2 = record2.nulls[k];
+            if (null1 || null2) {
+                if (null1 == null2) {
+                    continue;
+                }
+                return null1 == nullsFirst[k] ? -1 : 1;
+            }
+            int comparison;
+            if (this.longKeys[k]) {
+                long value1 = record1.longs[k];
+                long value2 = record2.longs[k];
+                comparison = value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+            } else {
+                comparison = ((Comparable<Object>) record1.objects[k]).compareTo(
+                        record2.objects[k]);
+            }
+            if (comparison != 0) {
+                return descending[k] ? -comparison : comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Write the sorted file and its .mcsv file.
+     *
+     * @param csvFile the source file
+     * @param outFile the sorted file
+     * @return the number of records, header excluded
+     * @throws IOException if a file can't be read or written, or the source file is not valid.
+     */
+    public long sort(final File csvFile, File outFile) throws IOException {
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(outFile, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(this.data);
+        } finally {
+            metaOut.close();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        List<File> runs = new ArrayList<File>();
+        try {
+            List<CSVChunk> chunks =
+                    CSVChunker.create(this.data).split(csvFile, this.chunkSize, executor);
+            List<Future<Run>> futures = new ArrayList<Future<Run>>();
+            for (final CSVChunk chunk : chunks) {
+                futures.add(executor.submit(new Callable<Run>() {
+                    @Override
+                    public Run call() throws IOException {
+                        return MetaCSVSorter.this.sortChunk(csvFile, chunk);
+                    }
+                }));
+            }
+            byte[] header = null;
+            long count = 0;
+            for (Future<Run> future : futures) {
+                Run run = get(future);
+                runs.add(run.file);
+                count += run.count;
+                if (run.header != null) {
+                    header = run.header;
+                }
+            }
+            while (runs.size() > this.mergeFactor) {
+                runs = this.mergePass(runs);
+            }
+            this.writeOutput(runs, header, outFile);
+            return count;
+        } finally {
+            executor.shutdownNow();
+            for (File run : runs) {
+                deleteRun(run);
+            }
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void deleteRun(File run) {
+        if (!run.delete()) {
+            run.deleteOnExit();
+        }
+    }
+
+    private Run sortChunk(File csvFile, CSVChunk chunk) throws IOException {
+        Charset charset = this.data.getEncoding();
+        String text = this.readChunk(csvFile, chunk, charset);
+        ProcessorProvider provider = this.data.toProcessorProvider(this.data.getNullValue());
+        List<SortRecord> records = new ArrayList<SortRecord>();
+        byte[] header = null;
+        CSVParser parser = new CSVParser(new StringReader(text),
+                CSVFormatHelper.getCSVFormat(this.data));
+        try {
+            boolean isHeader = chunk.getIndex() == 0;
+            boolean previousIsHeader = false;
+            SortRecord previous = null;
+            int previousStart = 0;
+            for (CSVRecord record : parser) {
+                int start = (int) record.getCharacterPosition();
+                if (previousIsHeader) {
+                    header = this.getRaw(text, previousStart, start, charset);
+                } else if (previous != null) {
+                    previous.raw = this.getRaw(text, previousStart, start, charset);
+                }
+                previousIsHeader = isHeader;
+                if (isHeader) {
+                    isHeader = false;
+                } else {
+                    previous = this.toSortRecord(record, provider);
+                    records.add(previous);
+                }
+                previousStart = start;
+            }
+            if (previousIsHeader) {
+                header = this.getRaw(text, previousStart, text.length(), charset);
+            } else if (previous != null) {
+                previous.raw = this.getRaw(text, previousStart, text.length(), charset);
+            }
+        } finally {
+            parser.close();
+        }
+        Collections.sort(records, this.comparator);
+        File file = this.createRunFile();
+        DataOutputStream out = this.openRun(file);
+        try {
+            for (SortRecord record : records) {
+                this.writeRecord(out, record);
+            }
+        } finally {
+            out.close();
+        }
+        return new Run(file, records.size(), header);
+    }
+
+    private File createRunFile() throws IOException {
+        File file = File.createTempFile("mcsv-run", ".bin", this.tempDirectory);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private DataOutputStream openRun(File file) throws IOException {
+        return new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    }
+
+    private void writeRecord(DataOutputStream out, SortRecord record) throws IOException {
+        for (int k = 0; k < this.keyTypes.length; k++) {
+            out.writeBoolean(record.nulls[k]);
+            if (record.nulls[k]) {
+                continue;
+            }
+            if (this.longKeys[k]) {
+                out.writeLong(record.longs[k]);
+            } else {
+                this.writeBytes(out, record.objects[k].toString().getBytes(Util.UTF_8_CHARSET));
+            }
+        }
+        this.writeBytes(out, record.raw);
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @return the next record, or null at the end of the run.
+     */
+    private SortRecord readRecord(DataInputStream in) throws IOException {
+        SortRecord record = new SortRecord(this.keyTypes.length);
+        for (int k = 0; k < this.keyTypes.length; k++) {
+            boolean isNull;
+            try {
+                isNull = in.readBoolean();
+            } catch (EOFException e) {
+                if (k == 0) {
+                    return null;
+                }
+                throw e;
+            }
+            record.nulls[k] = isNull;
+            if (isNull) {
+                continue;
+            }
+            if (this.longKeys[k]) {
+                record.longs[k] = in.readLong();
+            } else {
+                String text = new String(this.readBytes(in), Util.UTF_8_CHARSET);
+                record.objects[k] = this.keyTypes[k] == DataType.TEXT ||
+                        this.keyTypes[k] == DataType.OBJECT ? text : new BigDecimal(text);
+            }
+        }
+        record.raw = this.readBytes(in);
+        return record;
+    }
+
+    private byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Merge the runs by groups of mergeFactor runs. The merged runs are deleted.
+     */
+    private List<File> mergePass(List<File> runs) throws IOException {
+        List<File> merged = new ArrayList<File>();
+        for (int i = 0; i < runs.size(); i += this.mergeFactor) {
+            List<File> group = runs.subList(i, Math.min(i + this.mergeFactor, runs.size()));
+            File file = this.createRunFile();
+            merged.add(file);
+            final DataOutputStream out = this.openRun(file);
+            try {
+                this.merge(group, new RecordSink() {
+                    @Override
+                    public void write(SortRecord record) throws IOException {
+                        MetaCSVSorter.this.writeRecord(out, record);
+                    }
+                });
+            } finally {
+                out.close();
+            }
+            for (File run : group) {
+                deleteRun(run);
+            }
+        }
+        return merged;
+    }
+
+    private void writeOutput(List<File> runs, byte[] header, File outFile) throws IOException {
+        final OutputStream out =
+                new BufferedOutputStream(new FileOutputStream(outFile), BUFFER_SIZE);
+        try {
+            if (header == null) {
+                return;
+            }
+            final byte[] terminator =
+                    this.data.getLineTerminator().getBytes(this.data.getEncoding());
+            if (this.data.isUtf8BOM()) {
+                out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            }
+            out.write(header);
+            out.write(terminator);
+            this.merge(runs, new RecordSink() {
+                @Override
+                public void write(SortRecord record) throws IOException {
+                    out.write(record.raw);
+                    out.write(terminator);
+                }
+            });
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * A k-way merge. The ties are broken by the index of the run, hence the merge is stable.
+     */
+    private void merge(List<File> runs, RecordSink sink) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(
+                Math.max(runs.size(), 1), new Comparator<RunReader>() {
+            @Override
+            public int compare(RunReader reader1, RunReader reader2) {
+                int comparison = MetaCSVSorter.this.comparator.compare(reader1.current,
+                        reader2.current);
+                return comparison != 0 ? comparison : reader1.index - reader2.index;
+            }
+        });
+        List<DataInputStream> ins = new ArrayList<DataInputStream>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        new FileInputStream(runs.get(i)), BUFFER_SIZE));
+                ins.add(in);
+                SortRecord record = this.readRecord(in);
+                if (record != null) {
+                    queue.add(new RunReader(in, record, i));
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                sink.write(reader.current);
+                reader.current = this.readRecord(reader.in);
+                if (reader.current != null) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (InputStream in : ins) {
+                in.close();
+            }
+        }
+    }
+
+    private byte[] getRaw(String text, int start, int end, Charset charset) {
+        while (end > start && (text.charAt(end - 1) == '\r' || text.charAt(end - 1) == '\n')) {
+            end--;
+        }
+        return text.substring(start, end).getBytes(charset);
+    }
+
+    private String readChunk(File csvFile, CSVChunk chunk, Charset charset) throws IOException {
+        byte[] bytes = new byte[(int) chunk.getLength()];
+        DataInputStream in = new DataInputStream(chunk.openInputStream(csvFile));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return new String(bytes, charset);
+    }
+
+    private SortRecord toSortRecord(CSVRecord record, ProcessorProvider provider) {
+        SortRecord sortRecord = new SortRecord(this.keyTypes.length);
+        for (int k = 0; k < this.keyTypes.length; k++) {
+            int c = this.keys.get(k).getColumn();
+            String text = c < record.size() ? record.get(c) : null;
+            PrimitiveReadFieldProcessor processor = provider.getPrimitiveProcessor(c);
+            if (text == null || processor.isNull(text)) {
+                sortRecord.nulls[k] = true;
+                continue;
+            }
+            try {
+                this.setKey(sortRecord, k, c, text, provider, processor);
+            } catch (MetaCSVReadException e) {
+                sortRecord.nulls[k] = true;
+            } catch (MetaCSVCastException e) {
+                sortRecord.nulls[k] = true;
+            }
+        }
+        return sortRecord;
+    }
+
+    private void setKey(SortRecord sortRecord, int k, int c, String text,
+                        ProcessorProvider provider, PrimitiveReadFieldProcessor processor)
+            throws MetaCSVReadException {
+        switch (this.keyTypes[k]) {
+            case BOOLEAN:
+                sortRecord.longs[k] = processor.toBoolean(text) ? 1 : 0;
+                break;
+            case CURRENCY_INTEGER:
+            case INTEGER:
+                sortRecord.longs[k] = processor.toLong(text);
+                break;
+            case DATE:
+            case DATETIME:
+                sortRecord.longs[k] = ((Date) provider.getProcessor(c).toObject(text)).getTime();
+                break;
+            case FLOAT:
+            case PERCENTAGE_FLOAT:
+                sortRecord.longs[k] = toSortableLong(processor.toDouble(text));
+                break;
+            case CURRENCY_DECIMAL:
+            case DECIMAL:
+            case PERCENTAGE_DECIMAL:
+                sortRecord.objects[k] = provider.getProcessor(c).toObject(text);
+                break;
+            default:
+                sortRecord.objects[k] = text;
+                break;
+        }
+    }
+
+    /**
+     * @param value a double
+     * @return a long with the same order as the double.
+     */
+    static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private interface RecordSink {
+        void write(SortRecord record) throws IOException;
+    }
+
+    private static class RunReader {
+        private final DataInputStream in;
+        private final int index;
+        private SortRecord current;
+
+        RunReader(DataInputStream in, SortRecord current, int index) {
+            this.in = in;
+            this.current = current;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A sorted run file.
+     */
+    private static class Run {
+        private final File file;
+        private final long count;
+        private final byte[] header;
+
+        Run(File file, long count, byte[] header) {
+            this.file = file;
+            this.count = count;
+            this.header = header;
+        }
+    }
+
+    /**
+     * A record: the keys and the raw bytes.
+     */
+    private static class SortRecord {
+        private final boolean[] nulls;
+        private final long[] longs;
+        private final Object[] objects;
+        private byte[] raw;
+
+        SortRecord(int keyCount) {
+            this.nulls = new boolean[keyCount];
+            this.longs = new long[keyCount];
+            this.objects = new Object[keyCount];
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVReader;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+
+/**
+ * A statement that executes {@link MetaCSVQuery} queries.
+ */
+public class MetaCSVStatement extends AbstractStatement {
+    private final MetaCSVConnection connection;
+    private ResultSet resultSet;
+    private int maxRows;
+    private boolean closed;
+    private boolean closeOnCompletion;
+
+    MetaCSVStatement(MetaCSVConnection connection) {
+        this.connection = connection;
+        this.maxRows = 0;
+        this.closed = false;
+        this.closeOnCompletion = false;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        this.checkOpen();
+        this.closeResultSet();
+        MetaCSVQuery query = MetaCSVQuery.parse(sql);
+        MetaCSVReader reader = this.connection.openReader(query.getTableName());
+        try {
+            this.resultSet = MetaCSVQueryResultSet.create(this, reader, query, this.maxRows);
+        } finally {
+            if (this.resultSet == null) { // the query is not valid
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return this.resultSet;
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        this.executeQuery(sql);
+        return true;
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Read only");
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return this.resultSet;
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return -1;
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        this.closeResultSet();
+        return false;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.closeResultSet();
+        this.closed = true;
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return this.closed;
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return this.maxRows;
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        if (max < 0) {
+            throw new SQLException("Bad max rows: " + max);
+        }
+        this.maxRows = max;
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return 0;
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        // ignore
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return 0;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        // ignore
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        // ignore
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return ResultSet.FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        if (direction != ResultSet.FETCH_FORWARD) {
+            throw new SQLException();
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return 0;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        // ignore
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return ResultSet.CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return ResultSet.HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.connection;
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        // ignore
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return false;
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        this.closeOnCompletion = true;
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return this.closeOnCompletion;
+    }
+
+    /**
+     * Called by a result set when it's closed.
+     * @param rs the result set
+     */
+    void resultSetClosed(ResultSet rs) {
+        if (rs == this.resultSet) {
+            this.resultSet = null;
+            if (this.closeOnCompletion) {
+                this.closed = true;
+            }
+        }
+    }
+
+    private void closeResultSet() throws SQLException {
+        if (this.resultSet != null) {
+            ResultSet rs = this.resultSet;
+            this.resultSet = null;
+            rs.close();
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (this.closed) {
+            throw new SQLException("Statement closed");
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVRenderer;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.FieldDescription;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts a CSV file from a dialect to another without typing the values: the records are
+ * re-tokenized, and the fields are copied, re-quoted or re-escaped only where the target
+ * dialect requires it. The charset and the BOM (file domain) are converted too.
+ *
+ * If both files have the same byte aligned charset and the special chars are ASCII, the
+ * records are tokenized at the byte level and the fields that need no change are copied as
+ * bytes (see {@link ByteTranscoder}). Otherwise, the file is decoded and encoded.
+ */
+public class MetaCSVTranscoder {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @param source the source data
+     * @param target the target dialect
+     * @return the target data: the file and csv domains of target, the meta and data domains
+     * of source.
+     */
+    public static MetaCSVData getTargetData(MetaCSVData source, MetaCSVData target) {
+        Map<Integer, FieldDescription<?>> descriptionByColIndex =
+                new HashMap<Integer, FieldDescription<?>>();
+        for (int c : source.getSortedColIndices()) {
+            descriptionByColIndex.put(c, source.getDescription(c));
+        }
+        Map<String, String> meta = new HashMap<String, String>();
+        for (String key : source.getSortedMetaKeys()) {
+            meta.put(key, source.getMeta(key));
+        }
+        return new MetaCSVData(source.getMetaVersion(), meta,
+                target.getEncoding(), target.isUtf8BOM(), target.getLineTerminator(),
+                target.getDelimiter(), target.getQuoteChar(), target.isDoubleQuote(),
+                target.getEscapeChar(), target.isSkipInitialSpace(), source.getNullValue(),
+                descriptionByColIndex);
+    }
+
+    private final MetaCSVData source;
+    private final MetaCSVData target;
+    private final int delimiter;
+    private final int quote;
+    private final int escape;
+    private final boolean trim;
+    private final char targetDelimiter;
+    private final int targetQuote;
+    private final int targetEscape;
+    private final boolean targetTrim;
+    private final String targetLineTerminator;
+    private final StringBuilder field;
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private Reader reader;
+    private Writer writer;
+
+    /**
+     * @param source the source dialect
+     * @param target the target dialect
+     */
+    public MetaCSVTranscoder(MetaCSVData source, MetaCSVData target) {
+        this.source = source;
+        this.target = target;
+        this.delimiter = source.getDelimiter();
+        this.quote = getQuote(source);
+        this.escape = getEscape(source);
+        this.trim = source.isSkipInitialSpace();
+        this.targetDelimiter = target.getDelimiter();
+        this.targetQuote = getQuote(target);
+        this.targetEscape = getEscape(target);
+        this.targetTrim = target.isSkipInitialSpace();
+        this.targetLineTerminator = target.getLineTerminator();
+        this.field = new StringBuilder();
+    }
+
+    static int getQuote(MetaCSVData data) {
+        char quoteChar = data.getQuoteChar();
+        return quoteChar == '\0' ? -1 : quoteChar;
+    }
+
+    /**
+     * @return the escape char, or -1 if quotes are doubled (see CSVFormatHelper).
+     */
+    static int getEscape(MetaCSVData data) {
+        char escapeChar = data.getEscapeChar();
+        if (data.isDoubleQuote() || escapeChar == '\0' || escapeChar == '"') {
+            return -1;
+        }
+        return escapeChar;
+    }
+
+    /**
+     * Write the target file and the target .mcsv file.
+     *
+     * @param csvFile the source file
+     * @param outFile the target file
+     * @throws IOException if a file can't be read or written, or the source file is not valid.
+     */
+    public void transcode(File csvFile, File outFile) throws IOException {
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(outFile, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(getTargetData(this.source, this.target));
+        } finally {
+            metaOut.close();
+        }
+        InputStream in = new FileInputStream(csvFile);
+        try {
+            OutputStream out = new FileOutputStream(outFile);
+            try {
+                this.transcode(in, out);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param in  the source stream. Not closed.
+     * @param out the target stream. Not closed.
+     * @throws IOException if a stream can't be read or written, or the source is not valid.
+     */
+    public void transcode(InputStream in, OutputStream out) throws IOException {
+        Charset sourceCharset = this.source.getEncoding();
+        Charset targetCharset = this.target.getEncoding();
+        if (this.source.isUtf8BOM()) {
+            in = this.skipBOM(in);
+        }
+        if (this.target.isUtf8BOM()) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        }
+        if (sourceCharset.equals(targetCharset) && CSVChunker.isByteAligned(sourceCharset) &&
+                this.isAscii()) {
+            new ByteTranscoder(this.source, this.target).transcode(in, out);
+            return;
+        }
+        this.reader = new InputStreamReader(in, sourceCharset);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, targetCharset),
+                BUFFER_SIZE);
+        this.buffer = new char[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.transcodeRecords();
+        this.writer.flush();
+    }
+
+    private boolean isAscii() {
+        return this.delimiter < 0x80 && this.quote < 0x80 && this.escape < 0x80 &&
+                this.targetDelimiter < 0x80 && this.targetQuote < 0x80 &&
+                this.targetEscape < 0x80;
+    }
+
+    private InputStream skipBOM(InputStream in) throws IOException {
+        PushbackInputStream pushbackIn = new PushbackInputStream(in, 3);
+        byte[] bom = new byte[3];
+        int count = 0;
+        while (count < 3) {
+            int n = pushbackIn.read(bom, count, 3 - count);
+            if (n == -1) {
+                break;
+            }
+            count += n;
+        }
+        if (count < 3 || (bom[0] & 0xFF) != 0xEF || (bom[1] & 0xFF) != 0xBB ||
+                (bom[2] & 0xFF) != 0xBF) {
+            pushbackIn.unread(bom, 0, count);
+        }
+        return pushbackIn;
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit) {
+            int count = this.reader.read(this.buffer);
+            if (count <= 0) {
+                return -1;
+            }
+            this.position = 0;
+            this.limit = count;
+        }
+        return this.buffer[this.position++];
+    }
+
+    private void transcodeRecords() throws IOException {
+        int c = this.read();
+        while (c != -1) {
+            if (c == '\n') { // empty line
+                c = this.read();
+                continue;
+            } else if (c == '\r') {
+                c = this.read();
+                if (c == '\n') {
+                    c = this.read();
+                }
+                continue;
+            }
+            int fieldCount = 0;
+            while (true) {
+                this.field.setLength(0);
+                c = this.parseField(c);
+                this.writeField();
+                fieldCount++;
+                if (c == this.delimiter) {
+                    this.writer.write(this.targetDelimiter);
+                    c = this.read();
+                } else {
+                    break;
+                }
+            }
+            if (fieldCount == 1 && this.field.length() == 0 && this.targetQuote != -1) {
+                // a lone empty field would be read as an empty line
+                this.writer.write(this.targetQuote);
+                this.writer.write(this.targetQuote);
+            }
+            this.writer.write(this.targetLineTerminator);
+            if (c == '\r') {
+                c = this.read();
+                if (c == '\n') {
+                    c = this.read();
+                }
+            } else if (c == '\n') {
+                c = this.read();
+            }
+        }
+    }
+
+    /**
+     * Parse a field into this.field, mimicking the commons-csv lexer.
+     *
+     * @param c the first char
+     * @return the char after the field: a delimiter, a line break or -1
+     * @throws IOException if the field is not valid
+     */
+    private int parseField(int c) throws IOException {
+        if (this.trim) {
+            while (c == ' ' || c == '\t') {
+                c = this.read();
+            }
+        }
+        if (c == this.quote && c != -1) {
+            return this.parseQuotedField();
+        }
+        while (c != this.delimiter && c != '\r' && c != '\n' && c != -1) {
+            if (c == this.escape) {
+                this.parseEscape();
+            } else {
+                this.field.append((char) c);
+            }
+            c = this.read();
+        }
+        if (this.trim) {
+            int len = this.field.length();
+            while (len > 0 && (this.field.charAt(len - 1) == ' ' ||
+                    this.field.charAt(len - 1) == '\t')) {
+                len--;
+            }
+            this.field.setLength(len);
+        }
+        return c;
+    }
+
+    private int parseQuotedField() throws IOException {
+        while (true) {
+            int c = this.read();
+            if (c == this.quote) {
+                c = this.read();
+                if (c == this.quote) {
+                    this.field.append((char) c);
+                    continue;
+                }
+                while (c == ' ' || c == '\t') {
+                    c = this.read();
+                }
+                if (c != this.delimiter && c != '\r' && c != '\n' && c != -1) {
+                    throw new IOException(
+                            "Invalid char between encapsulated token and delimiter: " +
+                                    (char) c);
+                }
+                return c;
+            } else if (c == this.escape && c != -1) {
+                this.parseEscape();
+            } else if (c == -1) {
+                throw new IOException("EOF reached before encapsulated token finished");
+            } else {
+                this.field.append((char) c);
+            }
+        }
+    }
+
+    private void parseEscape() throws IOException {
+        int c = this.read();
+        switch (c) {
+            case 'r':
+                this.field.append('\r');
+                break;
+            case 'n':
+                this.field.append('\n');
+                break;
+            case 't':
+                this.field.append('\t');
+                break;
+            case 'b':
+                this.field.append('\b');
+                break;
+            case 'f':
+                this.field.append('\f');
+                break;
+            case '\r':
+            case '\n':
+            case '\t':
+            case '\b':
+            case '\f':
+                this.field.append((char) c);
+                break;
+            case -1:
+                throw new IOException("EOF whilst processing escape sequence");
+            default:
+                if (c != this.delimiter && c != this.escape && c != this.quote) {
+                    this.field.append((char) this.escape);
+                }
+                this.field.append((char) c);
+                break;
+        }
+    }
+
+    private void writeField() throws IOException {
+        StringBuilder f = this.field;
+        int len = f.length();
+        boolean needsQuote = this.targetTrim && len > 0 &&
+                (isSpace(f.charAt(0)) || isSpace(f.charAt(len - 1)));
+        for (int i = 0; i < len && !needsQuote; i++) {
+            char c = f.charAt(i);
+            needsQuote = c == this.targetDelimiter || c == this.targetQuote ||
+                    c == this.targetEscape || c == '\r' || c == '\n';
+        }
+        if (!needsQuote) {
+            this.writer.append(f);
+        } else if (this.targetQuote != -1) {
+            this.writer.write(this.targetQuote);
+            for (int i = 0; i < len; i++) {
+                char c = f.charAt(i);
+                if (c == this.targetQuote) {
+                    this.writer.write(this.targetEscape == -1 ? this.targetQuote :
+                            this.targetEscape);
+                } else if (c == this.targetEscape) {
+                    this.writer.write(this.targetEscape);
+                }
+                this.writer.write(c);
+            }
+            this.writer.write(this.targetQuote);
+        } else if (this.targetEscape != -1) {
+            for (int i = 0; i < len; i++) {
+                char c = f.charAt(i);
+                if (c == '\r') {
+                    this.writer.write(this.targetEscape);
+                    this.writer.write('r');
+                } else if (c == '\n') {
+                    this.writer.write(this.targetEscape);
+                    this.writer.write('n');
+                } else {
+                    if (c == this.targetDelimiter || c == this.targetEscape) {
+                        this.writer.write(this.targetEscape);
+                    }
+                    this.writer.write(c);
+                }
+            }
+        } else {
+            throw new IOException("Can't write " + f + " without a quote or an escape char");
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVChunk;
+import com.github.jferard.javamcsv.CSVChunker;
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.description.FieldDescription;
+import com.github.jferard.javamcsv.processor.FieldProcessor;
+import com.github.jferard.javamcsv.processor.FieldProcessorFactory;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that every cell of a CSV file conforms to its description, without building the
+ * values. The file is split in record-aligned chunks that are checked in parallel.
+ */
+public class MetaCSVValidator {
+    public static final int DEFAULT_MAX_POSITIONS = 10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MetaCSVData data;
+    private final int threadCount;
+    private final long chunkSize;
+    private final int maxPositions;
+
+    public MetaCSVValidator(MetaCSVData data) {
+        this(data, Runtime.getRuntime().availableProcessors(), CSVChunker.DEFAULT_CHUNK_SIZE,
+                DEFAULT_MAX_POSITIONS);
+    }
+
+    /**
+     * @param data         the description of the file
+     * @param threadCount  the number of threads
+     * @param chunkSize    the approximate size of a chunk in bytes
+     * @param maxPositions the number of offending positions to keep
+     */
+    public MetaCSVValidator(MetaCSVData data, int threadCount, long chunkSize,
+                            int maxPositions) {
+        this.data = data;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+        this.maxPositions = maxPositions;
+    }
+
+    /**
+     * @param csvFile the file
+     * @return the report
+     * @throws IOException if the file can't be read or is not a valid CSV file.
+     */
+    public ValidationReport validate(final File csvFile) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            List<CSVChunk> chunks =
+                    CSVChunker.create(this.data).split(csvFile, this.chunkSize, executor);
+            List<Future<ChunkReport>> futures = new ArrayList<Future<ChunkReport>>();
+            for (final CSVChunk chunk : chunks) {
+                futures.add(executor.submit(new Callable<ChunkReport>() {
+                    @Override
+                    public ChunkReport call() throws IOException {
+                        return MetaCSVValidator.this.validateChunk(csvFile, chunk);
+                    }
+                }));
+            }
+            List<ChunkReport> reports = new ArrayList<ChunkReport>();
+            for (Future<ChunkReport> future : futures) {
+                reports.add(get(future));
+            }
+            return this.merge(reports);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private ChunkReport validateChunk(File csvFile, CSVChunk chunk) throws IOException {
+        FieldProcessor<?>[] processors = this.getProcessors();
+        ChunkReport report = new ChunkReport(processors.length, this.maxPositions);
+        CSVFormat format = CSVFormatHelper.getCSVFormat(this.data);
+        Reader reader = new InputStreamReader(
+                new BufferedInputStream(chunk.openInputStream(csvFile), BUFFER_SIZE),
+                this.data.getEncoding());
+        CSVParser parser = new CSVParser(reader, format);
+        try {
+            long row = 0;
+            for (CSVRecord record : parser) {
+                if (row == 0 && chunk.getIndex() == 0) { // header
+                    row++;
+                    continue;
+                }
+                int limit = Math.min(record.size(), processors.length);
+                for (int c = 0; c < limit; c++) {
+                    FieldProcessor<?> processor = processors[c];
+                    if (processor == null) {
+                        continue;
+                    }
+                    String text = record.get(c);
+                    if (!FieldProcessorFactory.isValid(processor, text)) {
+                        report.error(row, c, text);
+                    }
+                }
+                row++;
+            }
+            report.recordCount = row;
+        } finally {
+            parser.close();
+        }
+        return report;
+    }
+
+    /**
+     * @return one processor per thread and per column, since some processors are not
+     * thread-safe. Text columns have no processor.
+     */
+    private FieldProcessor<?>[] getProcessors() {
+        List<Integer> colIndices = this.data.getSortedColIndices();
+        int count = colIndices.isEmpty() ? 0 : colIndices.get(colIndices.size() - 1) + 1;
+        FieldProcessor<?>[] processors = new FieldProcessor<?>[count];
+        for (int c : colIndices) {
+            FieldDescription<?> description = this.data.getDescription(c);
+            if (description.getJavaType() != String.class) {
+                processors[c] = description.toFieldProcessor(this.data.getNullValue());
+            }
+        }
+        return processors;
+    }
+
+    private ValidationReport merge(List<ChunkReport> reports) {
+        int columnCount = reports.isEmpty() ? 0 : reports.get(0).errorCountByColumn.length;
+        long[] errorCountByColumn = new long[columnCount];
+        List<Long> rows = new ArrayList<Long>();
+        List<Integer> columns = new ArrayList<Integer>();
+        List<String> texts = new ArrayList<String>();
+        long rowOffset = 0;
+        for (ChunkReport report : reports) {
+            for (int c = 0; c < columnCount; c++) {
+                errorCountByColumn[c] += report.errorCountByColumn[c];
+            }
+            for (int i = 0; i < report.positionCount && rows.size() < this.maxPositions; i++) {
+                rows.add(rowOffset + report.positionRows[i]);
+                columns.add(report.positionColumns[i]);
+                texts.add(report.positionTexts[i]);
+            }
+            rowOffset += report.recordCount;
+        }
+        long[] positionRows = new long[rows.size()];
+        int[] positionColumns = new int[rows.size()];
+        for (int i = 0; i < positionRows.length; i++) {
+            positionRows[i] = rows.get(i);
+            positionColumns[i] = columns.get(i);
+        }
+        long rowCount = rowOffset == 0 ? 0 : rowOffset - 1; // header
+        return new ValidationReport(rowCount, errorCountByColumn, positionRows, positionColumns,
+                texts.toArray(new String[0]));
+    }
+
+    private static class ChunkReport {
+        private final long[] errorCountByColumn;
+        private final long[] positionRows;
+        private final int[] positionColumns;
+        private final String[] positionTexts;
+        private int positionCount;
+        private long recordCount;
+
+        ChunkReport(int columnCount, int maxPositions) {
+            this.errorCountByColumn = new long[columnCount];
+            this.positionRows = new long[maxPositions];
+            this.positionColumns = new int[maxPositions];
+            this.positionTexts = new String[maxPositions];
+        }
+
+        void error(long row, int column, String text) {
+            this.errorCountByColumn[column]++;
+            if (this.positionCount < this.positionRows.length) {
+                this.positionRows[this.positionCount] = row;
+                this.positionColumns[this.positionCount] = column;
+                this.positionTexts[this.positionCount] = text;
+                this.positionCount++;
+            }
+        }
+    }
+}
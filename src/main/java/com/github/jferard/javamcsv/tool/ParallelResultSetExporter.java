@@ -0,0 +1,374 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVInstrumentation;
+import com.github.jferard.javamcsv.MetaCSVRenderer;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.Util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports a query to MetaCSV with one cursor per partition, on several connections.
+ *
+ * The partition i of the query {@code q} is {@code SELECT * FROM (q) mcsv_part WHERE p(i)}.
+ * All the files share a single .mcsv file, computed from the metadata of the query.
+ */
+public class ParallelResultSetExporter {
+    public static final int DEFAULT_FETCH_SIZE = 10000;
+    public static final String QUEUE_NAME = "ParallelResultSetExporter";
+
+    /**
+     * @param csvFile the CSV file
+     * @param i       the partition index
+     * @return the file of the partition: "foo.csv" gives "foo-0.csv", "foo-1.csv", ...
+     */
+    public static File getPartFile(File csvFile, int i) {
+        String path = csvFile.getAbsolutePath();
+        int dotIndex = path.lastIndexOf('.');
+        if (dotIndex == -1 || dotIndex < path.lastIndexOf(File.separatorChar)) {
+            return new File(path + "-" + i);
+        }
+        return new File(path.substring(0, dotIndex) + "-" + i + path.substring(dotIndex));
+    }
+
+    private final ConnectionSupplier connectionSupplier;
+    private final String query;
+    private final Partitioning partitioning;
+    private final MetaCSVDataBuilder dataBuilder;
+    private final int threadCount;
+    private final int fetchSize;
+    private MetaCSVInstrumentation instrumentation;
+
+    /**
+     * @param connectionSupplier the connection supplier
+     * @param query              the query
+     * @param partitioning       the partitioning of the query
+     */
+    public ParallelResultSetExporter(ConnectionSupplier connectionSupplier, String query,
+                                     Partitioning partitioning) {
+        this(connectionSupplier, query, partitioning, new MetaCSVDataBuilder(),
+                partitioning.getCount(), DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * @param connectionSupplier the connection supplier
+     * @param query              the query
+     * @param partitioning       the partitioning of the query
+     * @param dataBuilder        the data builder (dialect and known column types)
+     * @param threadCount        the number of concurrent cursors
+     * @param fetchSize          the fetch size of each cursor
+     */
+    public ParallelResultSetExporter(ConnectionSupplier connectionSupplier, String query,
+                                     Partitioning partitioning,
+                                     MetaCSVDataBuilder dataBuilder, int threadCount,
+                                     int fetchSize) {
+        this.connectionSupplier = connectionSupplier;
+        this.query = query;
+        this.partitioning = partitioning;
+        this.dataBuilder = dataBuilder;
+        this.threadCount = threadCount;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param instrumentation the receiver of the number of pending partitions, may be null
+     */
+    public void setInstrumentation(MetaCSVInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Write the partitions to "foo-0.csv", "foo-1.csv", ... (with a header) and a single
+     * "foo.mcsv" file.
+     *
+     * @param csvFile the base file
+     * @return the number of rows
+     * @throws SQLException if the query fails
+     * @throws IOException  if a file can't be written
+     * @throws MetaCSVDataException if the data is not consistent
+     */
+    public long exportParts(File csvFile)
+            throws SQLException, IOException, MetaCSVDataException {
+        int count = this.partitioning.getCount();
+        List<File> files = new ArrayList<File>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(getPartFile(csvFile, i));
+        }
+        return this.export(csvFile, files, true);
+    }
+
+    /**
+     * Write all the partitions to a single file "foo.csv" and its "foo.mcsv" file. The
+     * partitions are written to temporary files, then concatenated in order.
+     *
+     * @param csvFile the file
+     * @return the number of rows
+     * @throws SQLException if the query fails
+     * @throws IOException  if a file can't be written
+     * @throws MetaCSVDataException if the data is not consistent
+     */
+    public long export(File csvFile) throws SQLException, IOException, MetaCSVDataException {
+        int count = this.partitioning.getCount();
+        File dir = csvFile.getAbsoluteFile().getParentFile();
+        List<File> files = new ArrayList<File>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                files.add(File.createTempFile("mcsv_part", ".csv", dir));
+            }
+            long rowCount = this.export(csvFile, files, false);
+            this.concat(files, csvFile);
+            return rowCount;
+        } finally {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * @return the data of the query, from the metadata of an empty result set.
+     * @throws SQLException if the query fails
+     * @throws MetaCSVDataException if the data is not consistent
+     */
+    public MetaCSVData getMetaCSVData() throws SQLException, MetaCSVDataException {
+        return this.readMetaCSVData(new ArrayList<String>());
+    }
+
+    private MetaCSVData readMetaCSVData(List<String> header)
+            throws SQLException, MetaCSVDataException {
+        Connection connection = this.connectionSupplier.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT * FROM (" + this.query + ") mcsv_part WHERE 1 = 0");
+                ResultSetMetaCSVWriter writer =
+                        new ResultSetMetaCSVWriter(resultSet, this.dataBuilder);
+                header.addAll(writer.getHeader());
+                return writer.getMetaCSVData();
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private long export(File csvFile, List<File> files, boolean withHeader)
+            throws SQLException, IOException, MetaCSVDataException {
+        List<String> header = new ArrayList<String>();
+        MetaCSVData data = this.readMetaCSVData(header);
+        this.writeMetaCSV(csvFile, data);
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threadCount);
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>(files.size());
+            AtomicInteger pending = new AtomicInteger(files.size());
+            this.reportQueueDepth(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                futures.add(executor.submit(this.createTask(i, files.get(i), data,
+                        withHeader || i == 0 ? header : null, pending)));
+            }
+            long rowCount = 0;
+            for (Future<Long> future : futures) {
+                rowCount += this.get(future);
+            }
+            // the tasks may report their depths out of order
+            this.reportQueueDepth(0);
+            return rowCount;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void writeMetaCSV(File csvFile, MetaCSVData data) throws IOException {
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(csvFile, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(data);
+        } finally {
+            metaOut.close();
+        }
+    }
+
+    private Callable<Long> createTask(final int i, final File file, final MetaCSVData data,
+                                      final List<String> header,
+                                      final AtomicInteger pending) {
+        return new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                try {
+                    return ParallelResultSetExporter.this
+                            .exportPartition(i, file, data, header);
+                } finally {
+                    ParallelResultSetExporter.this.reportQueueDepth(pending.decrementAndGet());
+                }
+            }
+        };
+    }
+
+    private void reportQueueDepth(int depth) {
+        if (this.instrumentation != null) {
+            this.instrumentation.queueDepth(QUEUE_NAME, depth);
+        }
+    }
+
+    private long exportPartition(int i, File file, MetaCSVData data, List<String> header)
+            throws SQLException, IOException {
+        Connection connection = this.connectionSupplier.getConnection();
+        try {
+            // some drivers (e.g. PostgreSQL) only stream the rows inside a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            boolean exported = false;
+            try {
+                long rowCount = this.exportPartition(connection, i, file, data, header);
+                exported = true;
+                return rowCount;
+            } finally {
+                if (exported) {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                } else {
+                    this.rollbackQuietly(connection, autoCommit);
+                }
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * A failure of the rollback must not hide the original exception.
+     */
+    private void rollbackQuietly(Connection connection, boolean autoCommit) {
+        try {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    private long exportPartition(Connection connection, int i, File file, MetaCSVData data,
+                                 List<String> header) throws SQLException, IOException {
+        PreparedStatement statement = connection.prepareStatement(
+                "SELECT * FROM (" + this.query + ") mcsv_part WHERE " +
+                        this.partitioning.getPredicate(i),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            statement.setFetchSize(this.fetchSize);
+            List<Object> parameters = this.partitioning.getParameters(i);
+            for (int p = 0; p < parameters.size(); p++) {
+                statement.setObject(p + 1, parameters.get(p));
+            }
+            ResultSet resultSet = statement.executeQuery();
+            OutputStream out = new FileOutputStream(file);
+            MetaCSVWriter writer = null;
+            try {
+                writer = MetaCSVWriter.create(out, data);
+            } finally {
+                if (writer == null) {
+                    out.close();
+                }
+            }
+            try {
+                if (header != null) {
+                    writer.writeHeader(header);
+                }
+                ColumnExtractor[] extractors =
+                        ColumnExtractor.create(data, resultSet.getMetaData().getColumnCount());
+                long rowCount = 0;
+                while (resultSet.next()) {
+                    for (ColumnExtractor extractor : extractors) {
+                        extractor.extract(resultSet, writer);
+                    }
+                    writer.endRow();
+                    rowCount++;
+                }
+                return rowCount;
+            } finally {
+                writer.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private long get(Future<Long> future) throws SQLException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void concat(List<File> files, File csvFile) throws IOException {
+        FileChannel out = new FileOutputStream(csvFile).getChannel();
+        try {
+            for (File file : files) {
+                FileChannel in = new FileInputStream(file).getChannel();
+                try {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
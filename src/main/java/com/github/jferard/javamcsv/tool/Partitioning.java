@@ -0,0 +1,155 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The partitions of a query on a column. Every row belongs to exactly one partition; the NULL
+ * keys belong to the first partition.
+ */
+public abstract class Partitioning {
+    /**
+     * Partitions by key ranges: with bounds b1, ..., bn, the partitions are
+     * {@code col < b1}, {@code b1 <= col < b2}, ..., {@code bn <= col}.
+     *
+     * @param column the column name, as it should appear in the SQL query
+     * @param bounds the sorted bounds
+     * @return the partitioning
+     */
+    public static Partitioning ranges(String column, Object... bounds) {
+        return new RangePartitioning(column, Arrays.asList(bounds));
+    }
+
+    /**
+     * Partitions by modulus: the partition i is {@code MOD(col, count) = i}.
+     *
+     * @param column the column name, as it should appear in the SQL query. Must be an
+     *               integer column
+     * @param count  the number of partitions
+     * @return the partitioning
+     */
+    public static Partitioning modulus(String column, int count) {
+        return new ModulusPartitioning(column, count);
+    }
+
+    protected final String column;
+
+    protected Partitioning(String column) {
+        this.column = column;
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public abstract int getCount();
+
+    /**
+     * @param i the partition index
+     * @return the SQL predicate, with ? placeholders
+     */
+    public abstract String getPredicate(int i);
+
+    /**
+     * @param i the partition index
+     * @return the parameters of the predicate
+     */
+    public abstract List<Object> getParameters(int i);
+
+    protected String orNull(int i, String predicate) {
+        if (i == 0) {
+            return "(" + predicate + " OR " + this.column + " IS NULL)";
+        } else {
+            return predicate;
+        }
+    }
+
+    private static class RangePartitioning extends Partitioning {
+        private final List<Object> bounds;
+
+        RangePartitioning(String column, List<Object> bounds) {
+            super(column);
+            this.bounds = bounds;
+        }
+
+        @Override
+        public int getCount() {
+            return this.bounds.size() + 1;
+        }
+
+        @Override
+        public String getPredicate(int i) {
+            if (this.bounds.isEmpty()) {
+                return "1 = 1";
+            } else if (i == 0) {
+                return this.orNull(i, this.column + " < ?");
+            } else if (i == this.bounds.size()) {
+                return this.column + " >= ?";
+            } else {
+                return this.column + " >= ? AND " + this.column + " < ?";
+            }
+        }
+
+        @Override
+        public List<Object> getParameters(int i) {
+            if (this.bounds.isEmpty()) {
+                return Collections.emptyList();
+            } else if (i == 0) {
+                return Collections.singletonList(this.bounds.get(0));
+            } else if (i == this.bounds.size()) {
+                return Collections.singletonList(this.bounds.get(i - 1));
+            } else {
+                List<Object> parameters = new ArrayList<Object>(2);
+                parameters.add(this.bounds.get(i - 1));
+                parameters.add(this.bounds.get(i));
+                return parameters;
+            }
+        }
+    }
+
+    private static class ModulusPartitioning extends Partitioning {
+        private final int count;
+
+        ModulusPartitioning(String column, int count) {
+            super(column);
+            this.count = count;
+        }
+
+        @Override
+        public int getCount() {
+            return this.count;
+        }
+
+        @Override
+        public String getPredicate(int i) {
+            // ABS: MOD of a negative value may be negative
+            return this.orNull(i, "ABS(MOD(" + this.column + ", " + this.count + ")) = ?");
+        }
+
+        @Override
+        public List<Object> getParameters(int i) {
+            return Collections.<Object>singletonList(i);
+        }
+    }
+}
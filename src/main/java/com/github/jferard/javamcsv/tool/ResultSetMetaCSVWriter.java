@@ -26,7 +26,6 @@ import com.github.jferard.javamcsv.MetaCSVDataBuilder;
 import com.github.jferard.javamcsv.MetaCSVDataException;
 import com.github.jferard.javamcsv.MetaCSVRenderer;
 import com.github.jferard.javamcsv.MetaCSVWriter;
-import com.github.jferard.javamcsv.Util;
 import com.github.jferard.javamcsv.description.FieldDescription;
 
 import java.io.IOException;
@@ -34,7 +33,6 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.GregorianCalendar;
 import java.util.List;
 
 public class ResultSetMetaCSVWriter {
@@ -93,9 +91,12 @@ public class ResultSetMetaCSVWriter {
         List<String> header = getHeader();
         int count = header.size();
         writer.writeHeader(header);
+        ColumnExtractor[] extractors = ColumnExtractor.create(metaCSVData, count);
         while (resultSet.next()) {
-            List<Object> values = this.getRow(metaCSVData, count);
-            writer.writeRow(values);
+            for (ColumnExtractor extractor : extractors) {
+                extractor.extract(resultSet, writer);
+            }
+            writer.endRow();
         }
         writer.close();
     }
@@ -109,46 +110,4 @@ public class ResultSetMetaCSVWriter {
         }
         return header;
     }
-
-    private List<Object> getRow(MetaCSVData metaCSVData, int count) throws SQLException {
-        List<Object> values = new ArrayList<Object>(count);
-        for (int i = 0; i < count; i++) {
-            DataType dataType = metaCSVData.getDescription(i).getDataType();
-            Object value;
-            switch (dataType) {
-                case BOOLEAN:
-                    value = resultSet.getBoolean(i + 1);
-                    break;
-                case CURRENCY_DECIMAL:
-                case DECIMAL:
-                case PERCENTAGE_DECIMAL:
-                    value = resultSet.getBigDecimal(i + 1);
-                    break;
-                case CURRENCY_INTEGER:
-                case INTEGER:
-                    value = resultSet.getLong(i + 1);
-                    break;
-                case DATE:
-                    value = resultSet
-                            .getDate(i + 1, GregorianCalendar.getInstance(Util.UTC_TIME_ZONE));
-                    break;
-                case DATETIME:
-                    value = resultSet
-                            .getTimestamp(i + 1, GregorianCalendar.getInstance(Util.UTC_TIME_ZONE));
-                    break;
-                case FLOAT:
-                case PERCENTAGE_FLOAT:
-                    value = resultSet.getDouble(i + 1);
-                    break;
-                case TEXT:
-                    value = resultSet.getString(i + 1);
-                    break;
-                default:
-                    value = resultSet.getObject(i + 1);
-                    break;
-            }
-            values.add(value);
-        }
-        return values;
-    }
 }
@@ -0,0 +1,379 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVRowIndex;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.description.FieldDescription;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A TYPE_SCROLL_INSENSITIVE result set on a CSV file. The rows are located with a
+ * {@link CSVRowIndex}: a move to a row costs a seek, then the rows are read sequentially. The
+ * index is built by the first forward read of the file; a move beyond the indexed rows scans
+ * the rest of the file.
+ */
+public class ScrollableMetaCSVReaderResultSet extends MetaCSVReaderResultSet {
+    /**
+     * @param csvFile the CSV file
+     * @param data    the data
+     * @return the result set, with an index built lazily
+     * @throws IOException if the file can't be read or the charset is not byte-aligned
+     */
+    public static ScrollableMetaCSVReaderResultSet create(File csvFile, MetaCSVData data)
+            throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException {
+        return create(csvFile, data, null);
+    }
+
+    /**
+     * @param csvFile   the CSV file
+     * @param data      the data
+     * @param indexFile the sidecar index file. If it's missing or stale, the index is built
+     *                  lazily and written on close, once the file was scanned.
+     * @return the result set
+     * @throws IOException if the file can't be read or the charset is not byte-aligned
+     */
+    public static ScrollableMetaCSVReaderResultSet create(File csvFile, MetaCSVData data,
+                                                          File indexFile)
+            throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException {
+        CSVRowIndex index;
+        if (indexFile == null) {
+            index = CSVRowIndex.create(data, csvFile);
+        } else {
+            index = CSVRowIndex.load(data, csvFile, indexFile);
+        }
+        InputStream in = new FileInputStream(csvFile);
+        MetaCSVReader headerReader = null;
+        try {
+            headerReader = MetaCSVReader.create(in, data);
+        } finally {
+            if (headerReader == null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        return new ScrollableMetaCSVReaderResultSet(headerReader, csvFile, withoutBOM(data),
+                index, indexFile);
+    }
+
+    private static MetaCSVData withoutBOM(MetaCSVData data) {
+        Map<Integer, FieldDescription<?>> descriptionByColIndex =
+                new HashMap<Integer, FieldDescription<?>>();
+        for (int c : data.getSortedColIndices()) {
+            descriptionByColIndex.put(c, data.getDescription(c));
+        }
+        return new MetaCSVData(data.getMetaVersion(), new HashMap<String, String>(),
+                data.getEncoding(), false, data.getLineTerminator(), data.getDelimiter(),
+                data.getQuoteChar(), data.isDoubleQuote(), data.getEscapeChar(),
+                data.isSkipInitialSpace(), data.getNullValue(), descriptionByColIndex);
+    }
+
+    private final MetaCSVReader headerReader;
+    private final File csvFile;
+    private final MetaCSVData rowData;
+    private final CSVRowIndex index;
+    private final File indexFile;
+    private final boolean indexLoaded;
+    /**
+     * The current row: 0 is before the first row, rowCount + 1 after the last row.
+     */
+    private int row;
+    private MetaCSVReader rowReader;
+    private Iterator<MetaCSVRecord> rowIterator;
+    /**
+     * True if rowReader builds the index.
+     */
+    private boolean rowReaderIndexing;
+    /**
+     * The row that rowIterator will return.
+     */
+    private int nextRow;
+    private byte[] headerBytes;
+    private boolean closed;
+
+    private ScrollableMetaCSVReaderResultSet(MetaCSVReader headerReader, File csvFile,
+                                             MetaCSVData rowData, CSVRowIndex index,
+                                             File indexFile) throws MetaCSVReadException {
+        super(headerReader);
+        this.headerReader = headerReader;
+        this.csvFile = csvFile;
+        this.rowData = rowData;
+        this.index = index;
+        this.indexFile = indexFile;
+        this.indexLoaded = index.isComplete();
+        this.row = 0;
+        this.nextRow = -1;
+        this.closed = false;
+    }
+
+    private boolean moveTo(int target) throws SQLException {
+        this.checkOpen();
+        if (target <= 0) {
+            this.row = 0;
+            this.setCurrentRecord(null);
+            return false;
+        }
+        try {
+            if (this.rowIterator == null || target != this.nextRow) {
+                this.closeRowReader();
+                if (this.index.isEmpty()) {
+                    // the first read of the file builds the index
+                    this.openRowReader(this.index.openIndexingStream(), 1);
+                    this.rowReaderIndexing = true;
+                } else if (this.index.ensure(target)) {
+                    // the reader reads the first record as a header
+                    byte[] headerBytes = this.getHeaderBytes();
+                    this.openRowReader(new SequenceInputStream(
+                            new ByteArrayInputStream(headerBytes),
+                            this.index.openInputStream(target)), target);
+                } else {
+                    this.row = this.index.getRecordCount();
+                    this.setCurrentRecord(null);
+                    return false;
+                }
+            }
+            while (this.nextRow < target && this.rowIterator.hasNext()) {
+                this.rowIterator.next();
+                this.nextRow++;
+            }
+        } catch (IOException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVReadException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVDataException e) {
+            throw new SQLException(e);
+        } catch (MetaCSVParseException e) {
+            throw new SQLException(e);
+        }
+        if (!this.rowIterator.hasNext()) {
+            // after the last row
+            this.row = this.nextRow;
+            this.setCurrentRecord(null);
+            return false;
+        }
+        this.setCurrentRecord(this.rowIterator.next());
+        this.row = target;
+        this.nextRow = target + 1;
+        return true;
+    }
+
+    private void openRowReader(InputStream in, int nextRow)
+            throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException {
+        MetaCSVReader reader = null;
+        try {
+            reader = MetaCSVReader.create(in, this.rowData);
+        } finally {
+            if (reader == null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        this.rowReader = reader;
+        this.rowIterator = reader.iterator();
+        this.rowIterator.next();
+        this.nextRow = nextRow;
+    }
+
+    private byte[] getHeaderBytes() throws IOException {
+        if (this.headerBytes == null) {
+            long start = this.index.getOffset(0);
+            long end = this.index.ensure(1) ? this.index.getOffset(1) : this.csvFile.length();
+            this.headerBytes = new byte[(int) (end - start)];
+            RandomAccessFile file = new RandomAccessFile(this.csvFile, "r");
+            try {
+                file.seek(start);
+                file.readFully(this.headerBytes);
+            } finally {
+                file.close();
+            }
+        }
+        return this.headerBytes;
+    }
+
+    private int getRowCount() throws SQLException {
+        try {
+            if (this.rowReaderIndexing && !this.index.isComplete()) {
+                // the index is extended by a scan of the rest of the file
+                this.closeRowReader();
+            }
+            return this.index.getRecordCount() - 1;
+        } catch (IOException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (this.closed) {
+            throw new SQLException("Result set is closed");
+        }
+    }
+
+    private void closeRowReader() throws IOException {
+        if (this.rowReader != null) {
+            this.rowReader.close();
+            this.rowReader = null;
+            this.rowIterator = null;
+            this.rowReaderIndexing = false;
+        }
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        return this.moveTo(this.row + 1);
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        return this.moveTo(this.row - 1);
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        return this.moveTo(1);
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        return this.moveTo(this.getRowCount());
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        this.moveTo(0);
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        this.checkOpen();
+        this.row = this.getRowCount() + 1;
+        this.setCurrentRecord(null);
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        if (row < 0) {
+            return this.moveTo(this.getRowCount() + 1 + row);
+        }
+        return this.moveTo(row);
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        return this.moveTo(this.row + rows);
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        if (this.row == 0 || this.row > this.getRowCount()) {
+            return 0;
+        }
+        return this.row;
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        return this.row == 0 && this.getRowCount() > 0;
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        int rowCount = this.getRowCount();
+        return this.row > rowCount && rowCount > 0;
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        return this.row == 1 && this.getRowCount() > 0;
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        return this.row > 0 && this.row == this.getRowCount();
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        return ResultSet.TYPE_SCROLL_INSENSITIVE;
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        if (direction != ResultSet.FETCH_FORWARD && direction != ResultSet.FETCH_REVERSE &&
+                direction != ResultSet.FETCH_UNKNOWN) {
+            throw new SQLException("Unknown direction: " + direction);
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return this.closed;
+    }
+
+    /**
+     * Close the files. If a sidecar index file was given and the whole file was scanned, the
+     * index is written.
+     *
+     * @throws SQLException if a file can't be closed or written
+     */
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        super.close();
+        try {
+            this.closeRowReader();
+            this.headerReader.close();
+            if (this.indexFile != null && !this.indexLoaded && this.index.isComplete()) {
+                this.index.save(this.indexFile);
+            }
+        } catch (IOException e) {
+            throw new SQLException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+/**
+ * A column to sort on, with a direction and the position of the null values.
+ */
+public class SortKey {
+    /**
+     * @param column the column
+     * @return an ascending key, nulls first
+     */
+    public static SortKey asc(int column) {
+        return new SortKey(column, false, true);
+    }
+
+    /**
+     * @param column the column
+     * @return a descending key, nulls last
+     */
+    public static SortKey desc(int column) {
+        return new SortKey(column, true, false);
+    }
+
+    private final int column;
+    private final boolean descending;
+    private final boolean nullsFirst;
+
+    /**
+     * @param column     the column
+     * @param descending true for a descending order
+     * @param nullsFirst true if the nulls come first, whatever the direction is
+     */
+    public SortKey(int column, boolean descending, boolean nullsFirst) {
+        this.column = column;
+        this.descending = descending;
+        this.nullsFirst = nullsFirst;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    public boolean isNullsFirst() {
+        return this.nullsFirst;
+    }
+}
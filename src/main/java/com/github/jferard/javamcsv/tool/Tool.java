@@ -20,17 +20,170 @@
 
 package com.github.jferard.javamcsv.tool;
 
+import com.github.jferard.javamcsv.CSVZoneMap;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
 import com.github.jferard.javamcsv.MetaCSVReadException;
 import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.Util;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.ResultSet;
+import java.util.Arrays;
 
 public class Tool {
     public static ResultSet readerToResultSet(MetaCSVReader reader) throws MetaCSVReadException {
         return new MetaCSVReaderResultSet(reader);
     }
 
+    /**
+     * @param csvFile the CSV file, described by the .mcsv file with the same name
+     * @return a scrollable result set. The row index is stored in a ".mcsvi" sidecar file.
+     */
+    public static ResultSet scrollableResultSet(File csvFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        return ScrollableMetaCSVReaderResultSet.create(csvFile, data,
+                Util.withExtension(csvFile, ".mcsvi"));
+    }
+
     public static ResultSetMetaCSVWriter resultSetWriter(ResultSet resultSet) {
         return new ResultSetMetaCSVWriter(resultSet);
     }
+
+    /**
+     * Validate a CSV file against the .mcsv file with the same name.
+     *
+     * @param csvFile the CSV file
+     * @return the report
+     * @throws IOException if a file can't be read
+     */
+    public static ValidationReport validate(File csvFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        return validate(csvFile, data);
+    }
+
+    public static ValidationReport validate(File csvFile, MetaCSVData data) throws IOException {
+        return new MetaCSVValidator(data).validate(csvFile);
+    }
+
+    /**
+     * Build the zone map of a CSV file described by the .mcsv file with the same name, and
+     * save it to the .mcsvz file with the same name.
+     *
+     * @param csvFile   the CSV file
+     * @param blockSize the number of data rows of a block
+     * @return the zone map
+     * @throws IOException if a file can't be read or written
+     */
+    public static CSVZoneMap buildZoneMap(File csvFile, int blockSize)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        CSVZoneMap zoneMap = CSVZoneMap.build(data, csvFile, blockSize);
+        zoneMap.save(csvFile, Util.withExtension(csvFile, ".mcsvz"));
+        return zoneMap;
+    }
+
+    /**
+     * Aggregate a CSV file described by the .mcsv file with the same name.
+     *
+     * @param csvFile    the CSV file
+     * @param keyColumns the key columns
+     * @param aggregates the aggregates
+     * @return the groups and their aggregates
+     * @throws IOException if a file can't be read
+     */
+    public static AggregationResult aggregate(File csvFile, int[] keyColumns,
+                                              Aggregate... aggregates)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        return new MetaCSVAggregator(data, keyColumns, Arrays.asList(aggregates))
+                .aggregate(csvFile);
+    }
+
+    /**
+     * Join two CSV files described by the .mcsv files with the same names (inner hash join).
+     *
+     * @param leftFile  the left CSV file
+     * @param leftKeys  the key columns of the left file
+     * @param rightFile the right CSV file
+     * @param rightKeys the key columns of the right file
+     * @param outFile   the joined file. The .mcsv file is written next to it.
+     * @return the number of rows
+     * @throws IOException if a file can't be read or written
+     */
+    public static long join(File leftFile, int[] leftKeys, File rightFile, int[] rightKeys,
+                            File outFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        MetaCSVReader left = MetaCSVReader.create(leftFile);
+        try {
+            MetaCSVReader right = MetaCSVReader.create(rightFile);
+            try {
+                return new MetaCSVJoiner(leftKeys, rightKeys, MetaCSVJoiner.JoinType.INNER)
+                        .hashJoin(left, right, outFile);
+            } finally {
+                right.close();
+            }
+        } finally {
+            left.close();
+        }
+    }
+
+    /**
+     * Sort a CSV file described by the .mcsv file with the same name. The output file has the
+     * same .mcsv file.
+     *
+     * @param csvFile the CSV file
+     * @param outFile the sorted file
+     * @param keys    the sort keys
+     * @return the number of records
+     * @throws IOException if a file can't be read or written
+     */
+    public static long sort(File csvFile, File outFile, SortKey... keys)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        return new MetaCSVSorter(data, Arrays.asList(keys)).sort(csvFile, outFile);
+    }
+
+    /**
+     * Write the canonical version of a CSV file described by the .mcsv file with the same
+     * name, and the canonical .mcsv file.
+     *
+     * @param csvFile the CSV file
+     * @param outFile the canonical CSV file
+     * @throws IOException if a file can't be read or written
+     */
+    public static void canonicalize(File csvFile, File outFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        new MetaCSVCanonicalizer(data).canonicalize(csvFile, outFile);
+    }
+
+    /**
+     * Convert a CSV file described by the .mcsv file with the same name to another dialect.
+     *
+     * @param csvFile the CSV file
+     * @param target  the target dialect (file and csv domains)
+     * @param outFile the target CSV file
+     * @throws IOException if a file can't be read or written
+     */
+    public static void transcode(File csvFile, MetaCSVData target, File outFile)
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        new MetaCSVTranscoder(data, target).transcode(csvFile, outFile);
+    }
 }
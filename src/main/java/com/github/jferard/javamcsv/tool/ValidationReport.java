@@ -0,0 +1,111 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+/**
+ * The result of a validation: row count, error counts per column and first offending positions.
+ */
+public class ValidationReport {
+    private final long rowCount;
+    private final long[] errorCountByColumn;
+    private final long[] positionRows;
+    private final int[] positionColumns;
+    private final String[] positionTexts;
+
+    public ValidationReport(long rowCount, long[] errorCountByColumn, long[] positionRows,
+                            int[] positionColumns, String[] positionTexts) {
+        this.rowCount = rowCount;
+        this.errorCountByColumn = errorCountByColumn;
+        this.positionRows = positionRows;
+        this.positionColumns = positionColumns;
+        this.positionTexts = positionTexts;
+    }
+
+    /**
+     * @return the number of rows, header excluded
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    public boolean isValid() {
+        return this.getTotalErrorCount() == 0;
+    }
+
+    public int getColumnCount() {
+        return this.errorCountByColumn.length;
+    }
+
+    public long getErrorCount(int column) {
+        if (column >= this.errorCountByColumn.length) {
+            return 0;
+        }
+        return this.errorCountByColumn[column];
+    }
+
+    public long getTotalErrorCount() {
+        long total = 0;
+        for (long count : this.errorCountByColumn) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of positions kept, at most the max positions of the validator.
+     */
+    public int getPositionCount() {
+        return this.positionRows.length;
+    }
+
+    /**
+     * @param i the index of the position
+     * @return the row (the header is row 0)
+     */
+    public long getPositionRow(int i) {
+        return this.positionRows[i];
+    }
+
+    public int getPositionColumn(int i) {
+        return this.positionColumns[i];
+    }
+
+    public String getPositionText(int i) {
+        return this.positionTexts[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ValidationReport{rows=").append(this.rowCount)
+                .append(", errors=").append(this.getTotalErrorCount());
+        for (int c = 0; c < this.errorCountByColumn.length; c++) {
+            if (this.errorCountByColumn[c] > 0) {
+                sb.append(", col/").append(c).append('=').append(this.errorCountByColumn[c]);
+            }
+        }
+        for (int i = 0; i < this.positionRows.length; i++) {
+            sb.append(", (").append(this.positionRows[i]).append(", ")
+                    .append(this.positionColumns[i]).append(")='").append(this.positionTexts[i])
+                    .append('\'');
+        }
+        return sb.append('}').toString();
+    }
+}
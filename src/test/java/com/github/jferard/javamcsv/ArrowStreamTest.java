@@ -0,0 +1,217 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ArrowStreamTest {
+    private MetaCSVData data;
+    private File csvFile;
+    private File cacheFile;
+
+    @Before
+    public void setUp()
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        this.data = new MetaCSVParserBuilder().metaCSVDirectives(
+                "data,col/0/type,boolean/T/F", "data,col/1/type,integer",
+                "data,col/2/type,float//.", "data,col/3/type,decimal//.",
+                "data,col/4/type,date/yyyy-MM-dd",
+                "data,col/5/type,datetime/yyyy-MM-dd HH:mm:ss", "data,col/6/type,text")
+                .buildData();
+        this.csvFile = File.createTempFile("test", ".csv");
+        this.csvFile.deleteOnExit();
+        this.cacheFile = File.createTempFile("test", ".mcsvc");
+        this.cacheFile.deleteOnExit();
+        Assert.assertTrue(this.cacheFile.delete());
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        StringBuilder sb = new StringBuilder("b,i,f,d,dt,ts,t\r\n");
+        for (int r = 0; r < 150; r++) {
+            if (r % 7 == 3) {
+                sb.append(",,,,,,\r\n");
+            } else {
+                sb.append(r % 2 == 0 ? "T" : "F").append(',').append(r - 75).append(',')
+                        .append(r / 4.0).append(',').append(-r).append(".125,")
+                        .append(String.format("19%02d-01-02", r % 100)).append(',')
+                        .append(String.format("2021-03-04 05:06:%02d", r % 60)).append(',')
+                        .append(r % 3 == 0 ? "é" + r : "foo").append("\r\n");
+            }
+        }
+        this.write(sb.toString());
+        String expected = this.toString(this.columnReader());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter.export(this.columnReader(), out);
+        ArrowStreamReader reader = ArrowStreamReader.create(
+                new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(Arrays.asList("b", "i", "f", "d", "dt", "ts", "t"),
+                reader.getHeader());
+        Assert.assertEquals(Arrays.asList(DataType.BOOLEAN, DataType.INTEGER, DataType.FLOAT,
+                DataType.DECIMAL, DataType.DATE, DataType.DATETIME, DataType.TEXT),
+                reader.getDataTypes());
+        Assert.assertEquals(expected, this.toString(reader));
+        reader.close();
+    }
+
+    @Test
+    public void testFraming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = ArrowStreamWriter.create(out,
+                Collections.singletonList("a"), Collections.singletonList(DataType.INTEGER));
+        ColumnBatchBuilder builder =
+                new ColumnBatchBuilder(new DataType[]{DataType.INTEGER}, 10);
+        writer.writeBatch(builder.build());
+        writer.close();
+
+        ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        int messageCount = 0;
+        while (true) {
+            Assert.assertEquals(0xFFFFFFFF, bytes.getInt(position));
+            int length = bytes.getInt(position + 4);
+            Assert.assertEquals(0, length % 8);
+            if (length == 0) {
+                break;
+            }
+            ByteBuffer metadata = bytes.duplicate();
+            metadata.position(position + 8);
+            FlatBufferReader reader = new FlatBufferReader(
+                    metadata.slice().order(ByteOrder.LITTLE_ENDIAN));
+            int message = reader.getRoot();
+            Assert.assertEquals(ArrowFormat.METADATA_V5, reader.getShort(message, 0, 0));
+            long bodyLength = reader.getLong(message, 3, -1);
+            Assert.assertEquals(0, bodyLength % 8);
+            position += 8 + length + (int) bodyLength;
+            messageCount++;
+        }
+        Assert.assertEquals(2, messageCount);
+        Assert.assertEquals(bytes.capacity(), position + 8);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter.create(out, Collections.singletonList("a"),
+                Collections.singletonList(DataType.TEXT)).close();
+        ArrowStreamReader reader =
+                ArrowStreamReader.create(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(Collections.singletonList("a"), reader.getHeader());
+        Assert.assertNull(reader.nextBatch());
+        reader.close();
+    }
+
+    @Test
+    public void testDecimalScale()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,ts,t\r\nT,1,1.5,1.125,2021-01-02,2021-01-02 00:00:00,foo\r\n");
+        MetaCSVColumnReader columnReader = this.columnReader();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = ArrowStreamWriter.create(out, columnReader.getHeader(),
+                columnReader.getDataTypes(), 2);
+        try {
+            writer.writeBatch(columnReader.nextBatch());
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Decimal 1.125 does not fit in Decimal128(38, 2)",
+                    e.getMessage());
+        }
+        columnReader.close();
+    }
+
+    private MetaCSVColumnReader columnReader()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        return MetaCSVColumnReader.create(this.csvFile, this.data, this.cacheFile, 64);
+    }
+
+    private void write(String text) throws IOException {
+        OutputStream out = new FileOutputStream(this.csvFile);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+
+    private String toString(MetaCSVColumnReader reader) throws IOException {
+        List<ColumnBatch> batches = new ArrayList<ColumnBatch>();
+        ColumnBatch batch = reader.nextBatch();
+        while (batch != null) {
+            batches.add(batch);
+            batch = reader.nextBatch();
+        }
+        reader.close();
+        return this.toString(batches);
+    }
+
+    private String toString(ArrowStreamReader reader) throws IOException {
+        List<ColumnBatch> batches = new ArrayList<ColumnBatch>();
+        ColumnBatch batch = reader.nextBatch();
+        while (batch != null) {
+            batches.add(batch);
+            batch = reader.nextBatch();
+        }
+        return this.toString(batches);
+    }
+
+    private String toString(List<ColumnBatch> batches) {
+        StringBuilder sb = new StringBuilder();
+        for (ColumnBatch batch : batches) {
+            sb.append(batch.getRowCount()).append(':');
+            for (int r = 0; r < batch.getRowCount(); r++) {
+                List<Object> row = new ArrayList<Object>();
+                for (int c = 0; c < batch.getColumnCount(); c++) {
+                    Object value = batch.getObject(c, r);
+                    if (value instanceof BigDecimal) {
+                        value = ((BigDecimal) value).stripTrailingZeros().toPlainString();
+                    } else if (value instanceof Date) {
+                        value = ((Date) value).getTime();
+                    }
+                    row.add(value);
+                }
+                sb.append(row);
+            }
+        }
+        return sb.toString();
+    }
+}
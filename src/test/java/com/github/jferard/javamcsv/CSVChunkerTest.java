@@ -0,0 +1,145 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CSVChunkerTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Test
+    public void testSimple() throws IOException, MetaCSVDataException {
+        this.checkAllChunkSizes(new MetaCSVDataBuilder().build(),
+                "a,b,c\r\n1,2,3\r\n4,5,6\r\n\r\n7,8,9");
+    }
+
+    @Test
+    public void testQuoted() throws IOException, MetaCSVDataException {
+        this.checkAllChunkSizes(new MetaCSVDataBuilder().build(),
+                "a,\"b\r\nc\"\r\n\"1\"\"\n\",2\n\"\",\"\"\"\"\r\n5\" in,6\n");
+    }
+
+    @Test
+    public void testCROnly() throws IOException, MetaCSVDataException {
+        this.checkAllChunkSizes(new MetaCSVDataBuilder().build(), "a,b\r1,2\r\r3,\"4\r5\"\r6,7");
+    }
+
+    @Test
+    public void testEscape() throws IOException, MetaCSVDataException {
+        this.checkAllChunkSizes(
+                new MetaCSVDataBuilder().delimiter(';').doubleQuote(false).escapeChar('\\')
+                        .build(),
+                "a;b\r\n\"x\\\"\r\ny\";\\\\\r\n1;\\;2\r\n\"\\\\\";3\r\n");
+    }
+
+    @Test
+    public void testBOM() throws IOException, MetaCSVDataException {
+        this.checkAllChunkSizes(new MetaCSVDataBuilder().bom(true).build(),
+                "﻿a,b\r\né,\"à\r\nè\"\r\n1,2\r\n");
+    }
+
+    @Test
+    public void testNotSplittable() throws MetaCSVDataException, IOException {
+        MetaCSVData data = new MetaCSVDataBuilder().encoding("UTF-16").build();
+        CSVChunker chunker = CSVChunker.create(data);
+        Assert.assertFalse(chunker.isSplittable());
+        File file = this.createFile("a,b\r\n1,2\r\n", data.getEncoding());
+        List<CSVChunk> chunks = chunker.split(file, 1, this.executor);
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(file.length(), chunks.get(0).getLength());
+    }
+
+    private void checkAllChunkSizes(MetaCSVData data, String text) throws IOException {
+        Charset charset = data.getEncoding();
+        File file = this.createFile(text, charset);
+        CSVFormat format = CSVFormatHelper.getCSVFormat(data);
+        String expected = this.toString(format.parse(new StringReader(
+                data.isUtf8BOM() ? text.substring(1) : text)));
+        CSVChunker chunker = CSVChunker.create(data);
+        Assert.assertTrue(chunker.isSplittable());
+        for (int chunkSize = 1; chunkSize <= file.length(); chunkSize++) {
+            List<CSVChunk> chunks = chunker.split(file, chunkSize, this.executor);
+            List<CSVRecord> records = new ArrayList<CSVRecord>();
+            long end = chunker.getBOMLength();
+            for (CSVChunk chunk : chunks) {
+                Assert.assertEquals(end, chunk.getStart());
+                end = chunk.getEnd();
+                CSVParser parser = format.parse(
+                        new InputStreamReader(chunk.openInputStream(file), charset));
+                records.addAll(parser.getRecords());
+                parser.close();
+            }
+            Assert.assertEquals(file.length(), end);
+            Assert.assertEquals("chunk size " + chunkSize, expected, this.toString(records));
+        }
+    }
+
+    private String toString(Iterable<CSVRecord> records) {
+        StringBuilder sb = new StringBuilder();
+        for (CSVRecord record : records) {
+            for (String value : record) {
+                sb.append('[').append(value).append(']');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private File createFile(String text, Charset charset) throws IOException {
+        File file = File.createTempFile("test", ".csv");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(charset));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
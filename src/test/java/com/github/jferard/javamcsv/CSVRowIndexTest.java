@@ -0,0 +1,149 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class CSVRowIndexTest {
+    @Test
+    public void testOffsets() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().build();
+        File file = this.createFile("a,b\r\n\"1\r\n\",2\r\n\r\n3,4\n5,6");
+        CSVRowIndex index = CSVRowIndex.create(data, file);
+        Assert.assertFalse(index.isComplete());
+        Assert.assertEquals(0, index.getOffset(0));
+        Assert.assertEquals(5, index.getOffset(1));
+        Assert.assertEquals(16, index.getOffset(2));
+        Assert.assertEquals(20, index.getOffset(3));
+        Assert.assertEquals(4, index.getRecordCount());
+        Assert.assertTrue(index.isComplete());
+        Assert.assertFalse(index.ensure(4));
+    }
+
+    @Test
+    public void testBOMAndCR() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().bom(true).build();
+        File file = this.createFile("﻿a,b\r\r1,é\r");
+        CSVRowIndex index = CSVRowIndex.create(data, file);
+        Assert.assertEquals(2, index.getRecordCount());
+        Assert.assertEquals(3, index.getOffset(0));
+        Assert.assertEquals(8, index.getOffset(1));
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().build();
+        File file = this.createFile("a\r\nb\r\nc\r\n");
+        File indexFile = File.createTempFile("test", ".mcsvi");
+        indexFile.deleteOnExit();
+        CSVRowIndex.create(data, file).save(indexFile);
+
+        CSVRowIndex index = CSVRowIndex.load(data, file, indexFile);
+        Assert.assertTrue(index.isComplete());
+        Assert.assertEquals(3, index.getRecordCount());
+        Assert.assertEquals(6, index.getOffset(2));
+    }
+
+    @Test
+    public void testLoadStale() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().build();
+        File file = this.createFile("a\r\nb\r\nc\r\n");
+        File indexFile = File.createTempFile("test", ".mcsvi");
+        indexFile.deleteOnExit();
+        CSVRowIndex.create(data, file).save(indexFile);
+        OutputStream out = new FileOutputStream(file, true);
+        out.write("d\r\n".getBytes(TestHelper.UTF_8_CHARSET));
+        out.close();
+
+        CSVRowIndex index = CSVRowIndex.load(data, file, indexFile);
+        Assert.assertFalse(index.isComplete());
+        Assert.assertEquals(4, index.getRecordCount());
+    }
+
+    @Test
+    public void testLoadOtherData() throws IOException, MetaCSVDataException {
+        File file = this.createFile("a;b\r\n\"1\r\n\";2\r\n");
+        File indexFile = File.createTempFile("test", ".mcsvi");
+        indexFile.deleteOnExit();
+        CSVRowIndex.create(new MetaCSVDataBuilder().build(), file).save(indexFile);
+
+        MetaCSVData data = new MetaCSVDataBuilder().quoteChar('\'').build();
+        CSVRowIndex index = CSVRowIndex.load(data, file, indexFile);
+        Assert.assertFalse(index.isComplete());
+        Assert.assertEquals(3, index.getRecordCount());
+    }
+
+    @Test
+    public void testIndexingStream() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().bom(true).build();
+        File file = this.createFile("\uFEFFa,b\r\n\"1\r\n\",2\r\n\r\n3,4");
+        CSVRowIndex index = CSVRowIndex.create(data, file);
+        Assert.assertTrue(index.isEmpty());
+        InputStream in = index.openIndexingStream();
+        try {
+            Assert.assertEquals('a', in.read());
+            byte[] bytes = new byte[100];
+            while (in.read(bytes) != -1) {
+                // read
+            }
+        } finally {
+            in.close();
+        }
+        Assert.assertTrue(index.isComplete());
+        Assert.assertEquals(3, index.getRecordCount());
+        Assert.assertEquals(3, index.getOffset(0));
+        Assert.assertEquals(8, index.getOffset(1));
+        Assert.assertEquals(19, index.getOffset(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIndexingStreamNotEmpty() throws IOException, MetaCSVDataException {
+        CSVRowIndex index = CSVRowIndex.create(new MetaCSVDataBuilder().build(),
+                this.createFile("a\r\nb\r\n"));
+        index.ensure(0);
+        index.openIndexingStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotByteAligned() throws IOException, MetaCSVDataException {
+        CSVRowIndex.create(new MetaCSVDataBuilder().encoding("UTF-16").build(),
+                this.createFile(""));
+    }
+
+    private File createFile(String text) throws IOException {
+        File file = File.createTempFile("test", ".csv");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
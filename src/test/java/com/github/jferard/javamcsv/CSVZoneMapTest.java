@@ -0,0 +1,267 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.description.BooleanFieldDescription;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.DatetimeFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class CSVZoneMapTest {
+    private static final long HOUR = 3600000L;
+    private static final long DAY = 24 * HOUR;
+    private static final long JAN_1ST = 1577836800000L; // 2020-01-01
+
+    @Test
+    public void testWriter() throws Exception {
+        File csvFile = this.writeFile(10, 3);
+        CSVZoneMap zoneMap = CSVZoneMap.load(this.getData(), csvFile,
+                Util.withExtension(csvFile, ".mcsvz"));
+        Assert.assertNotNull(zoneMap);
+        Assert.assertEquals(3, zoneMap.getBlockSize());
+        Assert.assertEquals(4, zoneMap.getBlockCount());
+        CSVRowIndex index = CSVRowIndex.create(this.getData(), csvFile);
+        for (int b = 0; b < 4; b++) {
+            Assert.assertEquals(index.getOffset(1 + 3 * b), zoneMap.getOffset(b));
+        }
+        Assert.assertEquals(1, zoneMap.getRowCount(3));
+        Assert.assertEquals(new Date(JAN_1ST + 3 * DAY), zoneMap.getMin(1, 0));
+        Assert.assertEquals(new Date(JAN_1ST + 5 * DAY), zoneMap.getMax(1, 0));
+        Assert.assertEquals(-5L, zoneMap.getMin(1, 1));
+        Assert.assertEquals(-3L, zoneMap.getMax(1, 1));
+        Assert.assertEquals("r3", zoneMap.getMin(1, 2));
+        Assert.assertEquals("r5", zoneMap.getMax(1, 2));
+        Assert.assertNull(zoneMap.getMin(0, 3));
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriterAppendable() throws Exception {
+        new MetaCSVWriterBuilder().writer(new StringBuilder()).metaOut(new ByteArrayOutputStream())
+                .metaData(this.getData()).zoneMap(2).build();
+    }
+
+    @Test
+    public void testRangeIOException() throws Exception {
+        File csvFile = this.writeFile(10, 3);
+        CSVZoneMap zoneMap = CSVZoneMap.build(this.getData(), csvFile, 3);
+        InputStream in = zoneMap.openInputStream(csvFile, 1, null, null);
+        in.close();
+        try {
+            in.read(new byte[10]);
+            Assert.fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        File csvFile = this.writeFile(10, 3);
+        CSVZoneMap written = CSVZoneMap.load(this.getData(), csvFile,
+                Util.withExtension(csvFile, ".mcsvz"));
+        CSVZoneMap built = CSVZoneMap.build(this.getData(), csvFile, 3);
+        Assert.assertEquals(written.getBlockCount(), built.getBlockCount());
+        for (int b = 0; b < built.getBlockCount(); b++) {
+            Assert.assertEquals(written.getOffset(b), built.getOffset(b));
+            Assert.assertEquals(written.getRowCount(b), built.getRowCount(b));
+            for (int c = 0; c < 4; c++) {
+                Assert.assertEquals(written.getMin(b, c), built.getMin(b, c));
+                Assert.assertEquals(written.getMax(b, c), built.getMax(b, c));
+            }
+        }
+    }
+
+    @Test
+    public void testWrittenValues() throws Exception {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Util.withExtension(csvFile, ".mcsv").deleteOnExit();
+        Util.withExtension(csvFile, ".mcsvz").deleteOnExit();
+        MetaCSVData data = new MetaCSVDataBuilder()
+                .colType(0, DateFieldDescription.create("yyyy-MM-dd"))
+                .colType(1, DatetimeFieldDescription.create("yyyy-MM-dd'T'HH:mm:ss")).build();
+        MetaCSVWriter writer = new MetaCSVWriterBuilder().csvFile(csvFile).metaData(data)
+                .zoneMap(2).collectStatistics(true).build();
+        writer.writeHeader(Arrays.asList("d", "dt"));
+        writer.writeRow(Arrays.<Object>asList(new Date(JAN_1ST + 15 * HOUR),
+                new Date(JAN_1ST + 1234)));
+        writer.writeValue(new Date(JAN_1ST + 16 * HOUR));
+        writer.writeValue(new Date(JAN_1ST + 1999));
+        writer.endRow();
+        writer.close();
+
+        // the values as they are read
+        Date date = new Date(JAN_1ST);
+        Date datetime = new Date(JAN_1ST + 1000);
+        CSVZoneMap written = writer.getZoneMap();
+        CSVZoneMap built = CSVZoneMap.build(data, csvFile, 2);
+        for (CSVZoneMap zoneMap : Arrays.asList(written, built)) {
+            Assert.assertEquals(date, zoneMap.getMin(0, 0));
+            Assert.assertEquals(date, zoneMap.getMax(0, 0));
+            Assert.assertEquals(datetime, zoneMap.getMin(0, 1));
+            Assert.assertEquals(datetime, zoneMap.getMax(0, 1));
+            Assert.assertEquals(1, zoneMap.getChunks(0, date, date).size());
+            Assert.assertEquals(1, zoneMap.getChunks(1, datetime, datetime).size());
+        }
+        Assert.assertEquals(date, writer.getStatistics().getMax(0));
+        Assert.assertEquals(datetime, writer.getStatistics().getMax(1));
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        File csvFile = this.writeFile(10, 3);
+        CSVZoneMap zoneMap = CSVZoneMap.build(this.getData(), csvFile, 3);
+        List<CSVChunk> chunks = zoneMap.getChunks(0, new Date(JAN_1ST + 4 * DAY),
+                new Date(JAN_1ST + 6 * DAY));
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(1, chunks.get(0).getIndex());
+        Assert.assertEquals(zoneMap.getOffset(1), chunks.get(0).getStart());
+        Assert.assertEquals(zoneMap.getOffset(3), chunks.get(0).getEnd());
+
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvFile(csvFile)
+                .range(zoneMap, 0, new Date(JAN_1ST + 4 * DAY), new Date(JAN_1ST + 6 * DAY))
+                .build();
+        List<Object> ids = new ArrayList<Object>();
+        for (MetaCSVRecord record : reader) {
+            ids.add(record.getObject(1));
+        }
+        reader.close();
+        Assert.assertEquals(Arrays.<Object>asList("n", -3L, -4L, -5L, -6L, -7L, -8L), ids);
+
+        Assert.assertEquals(0, zoneMap.getChunks(1, 1, null).size());
+        Assert.assertEquals(1, zoneMap.getChunks(1, null, -8.5).size());
+        chunks = zoneMap.getChunks(2, "r10", "r5");
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(zoneMap.getOffset(0), chunks.get(0).getStart());
+        Assert.assertEquals(zoneMap.getOffset(2), chunks.get(0).getEnd());
+        Assert.assertEquals(0, zoneMap.getChunks(3, 1, 2).size());
+    }
+
+    @Test
+    public void testRangeEmptyFile() throws Exception {
+        File csvFile = this.writeFile(0, 3);
+        CSVZoneMap zoneMap = CSVZoneMap.load(this.getData(), csvFile,
+                Util.withExtension(csvFile, ".mcsvz"));
+        Assert.assertEquals(0, zoneMap.getBlockCount());
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvFile(csvFile)
+                .range(zoneMap, 1, 0, 10).build();
+        List<Object> ids = new ArrayList<Object>();
+        for (MetaCSVRecord record : reader) {
+            ids.add(record.getObject(1));
+        }
+        reader.close();
+        Assert.assertEquals(Arrays.<Object>asList("n"), ids);
+    }
+
+    @Test
+    public void testUnknownAndNoValue() throws Exception {
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE)
+                .colType(1, BooleanFieldDescription.INSTANCE).build();
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        OutputStream out = new FileOutputStream(csvFile);
+        out.write("n,b\r\n1,true\r\nNULL,false\r\nfoo,true\r\n2,false\r\n".getBytes(
+                Util.UTF_8_CHARSET));
+        out.close();
+        CSVZoneMap zoneMap = CSVZoneMap.build(data, csvFile, 1);
+        Assert.assertEquals(4, zoneMap.getBlockCount());
+        List<CSVChunk> chunks = zoneMap.getChunks(0, 2, 5);
+        Assert.assertEquals(1, chunks.size());
+        Assert.assertEquals(2, chunks.get(0).getIndex());
+        Assert.assertEquals(csvFile.length(), chunks.get(0).getEnd());
+        try {
+            zoneMap.getChunks(1, true, true);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            zoneMap.getChunks(0, "a", null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStale() throws Exception {
+        File csvFile = this.writeFile(4, 2);
+        File zoneMapFile = Util.withExtension(csvFile, ".mcsvz");
+        Assert.assertNotNull(CSVZoneMap.load(this.getData(), csvFile, zoneMapFile));
+        Assert.assertNull(CSVZoneMap.load(new MetaCSVDataBuilder().build(), csvFile,
+                zoneMapFile));
+        OutputStream out = new FileOutputStream(csvFile, true);
+        out.write("2020-02-01,1,x,\r\n".getBytes(Util.UTF_8_CHARSET));
+        out.close();
+        Assert.assertNull(CSVZoneMap.load(this.getData(), csvFile, zoneMapFile));
+        Assert.assertTrue(zoneMapFile.delete());
+        Assert.assertNull(CSVZoneMap.load(this.getData(), csvFile, zoneMapFile));
+    }
+
+    /**
+     * Row i: date 2020-01-01 + i days, -i, "r" + i, null
+     */
+    private File writeFile(int rowCount, int blockSize) throws IOException,
+            MetaCSVDataException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Util.withExtension(csvFile, ".mcsv").deleteOnExit();
+        Util.withExtension(csvFile, ".mcsvz").deleteOnExit();
+        MetaCSVWriter writer = new MetaCSVWriterBuilder().csvFile(csvFile)
+                .metaData(this.getData()).zoneMap(blockSize).build();
+        writer.writeHeader(Arrays.asList("d", "n", "t", "e"));
+        for (int i = 0; i < rowCount; i++) {
+            if (i % 2 == 0) {
+                writer.writeRow(Arrays.<Object>asList(new Date(JAN_1ST + i * DAY), (long) -i,
+                        "r" + i, null));
+            } else {
+                writer.writeValue(new Date(JAN_1ST + i * DAY));
+                writer.writeLong(-i);
+                writer.writeValue("r" + i);
+                writer.writeNull();
+                writer.endRow();
+            }
+        }
+        writer.close();
+        return csvFile;
+    }
+
+    private MetaCSVData getData() throws MetaCSVDataException {
+        return new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, DateFieldDescription.create("yyyy-MM-dd"))
+                .colType(1, IntegerFieldDescription.INSTANCE)
+                .colType(3, IntegerFieldDescription.INSTANCE).build();
+    }
+}
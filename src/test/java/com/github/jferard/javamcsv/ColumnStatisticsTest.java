@@ -0,0 +1,152 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+public class ColumnStatisticsTest {
+    @Test
+    public void testWriter() throws Exception {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Util.withExtension(csvFile, ".mcsv").deleteOnExit();
+        MetaCSVData data = this.getData();
+        MetaCSVWriter writer = new MetaCSVWriterBuilder().csvFile(csvFile).metaData(data)
+                .collectStatistics(true).build();
+        writer.writeHeader(Arrays.asList("id", "day", "name", "ratio"));
+        writer.writeRow(Arrays.<Object>asList(10L, new Date(1577836800000L), "bob", 1.5));
+        writer.writeRow(Arrays.<Object>asList(-3L, null, "alice", null));
+        writer.writeLong(7);
+        writer.writeValue(new Date(1580515200000L));
+        writer.writeValue("carol");
+        writer.writeDouble(-0.25);
+        writer.endRow();
+        writer.close();
+
+        ColumnStatistics statistics = writer.getStatistics();
+        Assert.assertEquals(4, statistics.getColumnCount());
+        Assert.assertEquals(3, statistics.getRowCount(0));
+        Assert.assertEquals(-3L, statistics.getMin(0));
+        Assert.assertEquals(10L, statistics.getMax(0));
+        Assert.assertEquals(1, statistics.getNullCount(1));
+        Assert.assertEquals("alice", statistics.getMin(2));
+        Assert.assertEquals("carol", statistics.getMax(2));
+        Assert.assertEquals(5, statistics.getMaxLength(2));
+        Assert.assertEquals(-0.25, statistics.getMin(3));
+
+        MetaCSVData written = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(csvFile, ".mcsv")).buildData();
+        Assert.assertEquals("3", written.getMeta("col/0/row_count"));
+        Assert.assertEquals("0", written.getMeta("col/0/null_count"));
+        Assert.assertEquals("2", written.getMeta("col/0/max_length"));
+        Assert.assertEquals("-3", written.getMeta("col/0/min"));
+        Assert.assertEquals("10", written.getMeta("col/0/max"));
+        Assert.assertEquals("2020-01-01", written.getMeta("col/1/min"));
+        Assert.assertEquals("2020-02-01", written.getMeta("col/1/max"));
+        Assert.assertEquals("1", written.getMeta("col/1/null_count"));
+        Assert.assertEquals("-0.25", written.getMeta("col/3/min"));
+        Assert.assertEquals("1.5", written.getMeta("col/3/max"));
+        Assert.assertEquals(data.getMetaData().getDataType(1),
+                written.getMetaData().getDataType(1));
+    }
+
+    @Test
+    public void testWriterStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream metaOut = new ByteArrayOutputStream();
+        MetaCSVWriter writer = new MetaCSVWriterBuilder().out(out).metaOut(metaOut)
+                .metaData(new MetaCSVDataBuilder()
+                        .colType(0, IntegerFieldDescription.INSTANCE).build())
+                .collectStatistics(true).build();
+        writer.writeHeader(Arrays.asList("id"));
+        Assert.assertEquals(0, metaOut.size());
+        writer.writeRow(Arrays.<Object>asList(1L));
+        writer.writeRow(Arrays.<Object>asList(new Object[]{null}));
+        writer.close();
+        Assert.assertEquals("domain,key,value\r\n" +
+                "meta,col/0/max,1\r\n" +
+                "meta,col/0/max_length,1\r\n" +
+                "meta,col/0/min,1\r\n" +
+                "meta,col/0/null_count,1\r\n" +
+                "meta,col/0/row_count,2\r\n" +
+                "data,col/0/type,integer\r\n", metaOut.toString("UTF-8"));
+    }
+
+    @Test
+    public void testReader() throws Exception {
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(TestHelper.utf8InputStream(
+                "id,day,name,ratio\r\n" +
+                        "10,2020-01-01,bob,1.5\r\n" +
+                        "foo,NULL,alice,NULL\r\n" +
+                        "-3,2020-02-01,carol,-0.25\r\n" +
+                        "4\r\n")).metaData(this.getData()).collectStatistics(true).build();
+        for (MetaCSVRecord ignored : reader) {
+            // read all
+        }
+        reader.close();
+        ColumnStatistics statistics = reader.getStatistics();
+        Assert.assertEquals(4, statistics.getRowCount(0));
+        Assert.assertEquals(0, statistics.getNullCount(0));
+        Assert.assertEquals(-3L, statistics.getMin(0));
+        Assert.assertEquals(10L, statistics.getMax(0));
+        Assert.assertEquals(3, statistics.getMaxLength(0));
+        Assert.assertEquals(3, statistics.getRowCount(1));
+        Assert.assertEquals(1, statistics.getNullCount(1));
+        Assert.assertEquals(new Date(1577836800000L), statistics.getMin(1));
+        Assert.assertEquals(10, statistics.getMaxLength(1));
+        Assert.assertEquals("carol", statistics.getMax(2));
+        Assert.assertEquals(1.5, statistics.getMax(3));
+        Assert.assertNull(statistics.getMin(4));
+    }
+
+    @Test
+    public void testWithMeta() throws MetaCSVDataException, IOException {
+        MetaCSVData data = new MetaCSVDataBuilder().meta("foo", "bar")
+                .colType(0, new com.github.jferard.javamcsv.description.DecimalFieldDescription(
+                        "", ".")).build();
+        ColumnStatistics statistics = new ColumnStatistics(data);
+        statistics.addObject(0, new BigDecimal("2.50"), 4);
+        statistics.addObject(0, new BigDecimal("-1"), 2);
+        MetaCSVData newData = data.withMeta(statistics.toMeta());
+        Assert.assertEquals("bar", newData.getMeta("foo"));
+        Assert.assertEquals("-1.0", newData.getMeta("col/0/min"));
+        Assert.assertEquals("2.5", newData.getMeta("col/0/max"));
+        Assert.assertNull(data.getMeta("col/0/min"));
+    }
+
+    private MetaCSVData getData() throws MetaCSVDataException {
+        return new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE)
+                .colType(1, DateFieldDescription.create("yyyy-MM-dd"))
+                .colType(3, FloatFieldDescription.INSTANCE).build();
+    }
+}
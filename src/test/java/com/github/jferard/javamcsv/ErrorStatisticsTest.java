@@ -0,0 +1,66 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+public class ErrorStatisticsTest {
+    @Test
+    public void testEmpty() {
+        ErrorStatistics statistics = new ErrorStatistics();
+        Assert.assertEquals(0, statistics.getTotalErrorCount());
+        Assert.assertEquals(0, statistics.getErrorCount(3));
+        Assert.assertEquals(0, statistics.getSampleCount(3));
+        Assert.assertEquals("0 error(s)", statistics.getSummary());
+    }
+
+    @Test
+    public void testSamples() {
+        ErrorStatistics statistics = new ErrorStatistics(1);
+        statistics.error(2, 5, "foo");
+        statistics.error(2, 7, "bar");
+        statistics.error(0, 9, "baz");
+        Assert.assertEquals(3, statistics.getTotalErrorCount());
+        Assert.assertEquals(3, statistics.getColumnCount());
+        Assert.assertEquals(2, statistics.getErrorCount(2));
+        Assert.assertEquals(1, statistics.getSampleCount(2));
+        Assert.assertEquals(5, statistics.getSampleRow(2, 0));
+        Assert.assertEquals("foo", statistics.getSampleText(2, 0));
+        Assert.assertEquals(0, statistics.getErrorCount(1));
+        Assert.assertEquals("3 error(s)\n" +
+                "column 0: 1 error(s), e.g. row 9: 'baz'\n" +
+                "column 2: 2 error(s), e.g. row 5: 'foo'", statistics.getSummary());
+    }
+
+    @Test
+    public void testNoSample() {
+        final ErrorStatistics statistics = new ErrorStatistics(1);
+        statistics.error(0, 5, "foo");
+        Assert.assertThrows(IndexOutOfBoundsException.class, new ThrowingRunnable() {
+            @Override
+            public void run() {
+                statistics.getSampleText(0, 1);
+            }
+        });
+    }
+}
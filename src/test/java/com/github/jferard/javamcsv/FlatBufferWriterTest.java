@@ -0,0 +1,85 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public class FlatBufferWriterTest {
+    @Test
+    public void testRoundTrip() {
+        FlatBufferWriter.Table child = new FlatBufferWriter.Table().addInt(0, 64);
+        FlatBufferWriter.Table root = new FlatBufferWriter.Table()
+                .addByte(0, 3)
+                .addOffset(1, "foo")
+                .addLong(2, 1234567890123L)
+                .addShort(4, -2)
+                .addOffset(5, new FlatBufferWriter.TableVector(Arrays.asList(child, child)))
+                .addOffset(6, new FlatBufferWriter.StructVector(2, new long[]{1, 2, 3, 4}));
+        byte[] bytes = FlatBufferWriter.toBytes(root);
+        Assert.assertEquals(0, bytes.length % 8);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        FlatBufferReader reader = new FlatBufferReader(buffer);
+        int table = reader.getRoot();
+        Assert.assertEquals(0, table % 4);
+        Assert.assertEquals(3, reader.getByte(table, 0, 0));
+        Assert.assertEquals("foo", reader.getString(table, 1));
+        Assert.assertEquals(1234567890123L, reader.getLong(table, 2, 0));
+        Assert.assertEquals(7, reader.getInt(table, 3, 7));
+        Assert.assertEquals(-2, reader.getShort(table, 4, 0));
+        Assert.assertEquals(2, reader.getVectorLength(table, 5));
+        Assert.assertEquals(64, reader.getInt(reader.getTable(table, 5, 1), 0, 0));
+        Assert.assertEquals(2, reader.getVectorLength(table, 6));
+        Assert.assertEquals(3L, reader.getStructLong(table, 6, 2, 1, 0));
+        Assert.assertEquals(0, this.vtablePosition(buffer, table) % 2);
+    }
+
+    @Test
+    public void testAlignment() {
+        FlatBufferWriter.Table root = new FlatBufferWriter.Table()
+                .addByte(0, 1)
+                .addOffset(1, new FlatBufferWriter.Table().addByte(0, 1).addLong(1, 2))
+                .addOffset(2, new FlatBufferWriter.StructVector(2, new long[]{1, 2}))
+                .addLong(3, 4);
+        ByteBuffer buffer = ByteBuffer.wrap(FlatBufferWriter.toBytes(root))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        FlatBufferReader reader = new FlatBufferReader(buffer);
+        int table = reader.getRoot();
+        int child = reader.getOffset(table, 1);
+        Assert.assertTrue(child > table);
+        Assert.assertEquals(0, (child + this.fieldOffset(buffer, child, 1)) % 8);
+        Assert.assertEquals(0, (table + this.fieldOffset(buffer, table, 3)) % 8);
+        Assert.assertEquals(0, (reader.getOffset(table, 2) + 4) % 8);
+    }
+
+    private int vtablePosition(ByteBuffer buffer, int table) {
+        return table - buffer.getInt(table);
+    }
+
+    private int fieldOffset(ByteBuffer buffer, int table, int id) {
+        return buffer.getShort(this.vtablePosition(buffer, table) + 4 + 2 * id);
+    }
+}
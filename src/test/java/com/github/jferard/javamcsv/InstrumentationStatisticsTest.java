@@ -0,0 +1,67 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InstrumentationStatisticsTest {
+    @Test
+    public void testEmpty() {
+        InstrumentationStatistics statistics = new InstrumentationStatistics(false);
+        Assert.assertFalse(statistics.isColumnTimed());
+        Assert.assertEquals(0, statistics.getColumnCount());
+        Assert.assertEquals(0, statistics.getParseNanos(3));
+        Assert.assertEquals(0, statistics.getErrorCount(3));
+        Assert.assertTrue(Double.isNaN(statistics.getHitRate("cache")));
+        Assert.assertEquals(0, statistics.getMaxQueueDepth("queue"));
+    }
+
+    @Test
+    public void testColumns() {
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        statistics.cellParsed(2, 10);
+        statistics.cellParsed(2, 15);
+        statistics.cellParsed(0, 7);
+        statistics.cellError(1);
+        Assert.assertEquals(3, statistics.getColumnCount());
+        Assert.assertEquals(25, statistics.getParseNanos(2));
+        Assert.assertEquals(2, statistics.getParsedCount(2));
+        Assert.assertEquals(7, statistics.getParseNanos(0));
+        Assert.assertEquals(0, statistics.getParsedCount(1));
+        Assert.assertEquals(1, statistics.getErrorCount(1));
+    }
+
+    @Test
+    public void testCacheAndQueue() {
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        statistics.cacheAccess("cache", false);
+        statistics.cacheAccess("cache", true);
+        statistics.cacheAccess("cache", true);
+        statistics.cacheAccess("cache", true);
+        statistics.queueDepth("queue", 3);
+        statistics.queueDepth("queue", 5);
+        statistics.queueDepth("queue", 1);
+        Assert.assertEquals(0.75, statistics.getHitRate("cache"), 0.0);
+        Assert.assertEquals(1, statistics.getQueueDepth("queue"));
+        Assert.assertEquals(5, statistics.getMaxQueueDepth("queue"));
+    }
+}
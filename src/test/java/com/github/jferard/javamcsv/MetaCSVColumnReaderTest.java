@@ -0,0 +1,200 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class MetaCSVColumnReaderTest {
+    private MetaCSVData data;
+    private File csvFile;
+    private File cacheFile;
+
+    @Before
+    public void setUp()
+            throws IOException, MetaCSVParseException, MetaCSVDataException {
+        this.data = new MetaCSVParserBuilder().metaCSVDirectives(
+                "data,col/0/type,boolean/T/F", "data,col/1/type,integer",
+                "data,col/2/type,float//.", "data,col/3/type,decimal//.",
+                "data,col/4/type,date/yyyy-MM-dd", "data,col/5/type,text").buildData();
+        this.csvFile = File.createTempFile("test", ".csv");
+        this.csvFile.deleteOnExit();
+        this.cacheFile = File.createTempFile("test", ".mcsvc");
+        this.cacheFile.deleteOnExit();
+        Assert.assertTrue(this.cacheFile.delete());
+    }
+
+    @Test
+    public void testCache()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,t\r\n" +
+                "T,1,1.5,10.25,2021-01-02,foo\r\n" +
+                "F,,2.5,,2021-01-03,bar\r\n" +
+                ",-3,,0.5,,foo\r\n" +
+                "T,4,4.5,1.75,2021-01-05,é\r\n" +
+                "F,5,,2,2021-01-06,\r\n");
+
+        MetaCSVColumnReader reader = this.create();
+        Assert.assertFalse(reader.isCached());
+        String expected = this.toString(reader);
+        reader.close();
+        Assert.assertTrue(this.cacheFile.exists());
+        Assert.assertFalse(new File(this.cacheFile.getPath() + ".tmp").exists());
+        Assert.assertEquals("2/2/1/" +
+                        "[true, 1, 1.5, 10.25, 2021-01-02, foo]" +
+                        "[false, null, 2.5, null, 2021-01-03, bar]" +
+                        "[null, -3, null, 0.5, null, foo]" +
+                        "[true, 4, 4.5, 1.75, 2021-01-05, é]" +
+                        "[false, 5, null, 2, 2021-01-06, null]",
+                expected);
+
+        reader = this.create();
+        Assert.assertTrue(reader.isCached());
+        Assert.assertEquals(Arrays.asList("b", "i", "f", "d", "dt", "t"), reader.getHeader());
+        Assert.assertEquals(expected, this.toString(reader));
+        reader.close();
+    }
+
+    @Test
+    public void testTypedGetters()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,t\r\nT,1,1.5,10.25,2021-01-02,foo\r\n");
+        this.read();
+        MetaCSVColumnReader reader = this.create();
+        ColumnBatch batch = reader.nextBatch();
+        Assert.assertEquals(6, batch.getColumnCount());
+        Assert.assertEquals(DataType.DECIMAL, batch.getDataType(3));
+        Assert.assertTrue(batch.getBoolean(0, 0));
+        Assert.assertEquals(1L, batch.getLong(1, 0));
+        Assert.assertEquals(1.5, batch.getDouble(2, 0), 0.0);
+        Assert.assertEquals(new BigDecimal("10.25"), batch.getObject(3, 0));
+        Assert.assertTrue(batch.getObject(4, 0) instanceof Date);
+        Assert.assertEquals("foo", batch.getText(5, 0));
+        Assert.assertNull(reader.nextBatch());
+        reader.close();
+    }
+
+    @Test
+    public void testStale()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,t\r\nT,1,1.5,10.25,2021-01-02,foo\r\n");
+        this.read();
+        Assert.assertTrue(this.cacheFile.exists());
+        this.write("b,i,f,d,dt,t\r\nF,2,2.5,0.25,2021-01-03,barbaz\r\n");
+        Assert.assertTrue(this.csvFile.setLastModified(this.csvFile.lastModified() + 2000));
+
+        MetaCSVColumnReader reader = this.create();
+        Assert.assertFalse(reader.isCached());
+        Assert.assertEquals("1/[false, 2, 2.5, 0.25, 2021-01-03, barbaz]",
+                this.toString(reader));
+        reader.close();
+        reader = this.create();
+        Assert.assertTrue(reader.isCached());
+        reader.close();
+    }
+
+    @Test
+    public void testError()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,t\r\nT,foo,1.5,10.25,2021-01-02,foo\r\n");
+        MetaCSVColumnReader reader = this.create();
+        Assert.assertEquals("1/[true, null, 1.5, 10.25, 2021-01-02, foo]",
+                this.toString(reader));
+        reader.close();
+        Assert.assertFalse(this.cacheFile.exists());
+        Assert.assertFalse(new File(this.cacheFile.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testEarlyClose()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        this.write("b,i,f,d,dt,t\r\nT,1,1.5,10.25,2021-01-02,foo\r\n" +
+                "F,2,2.5,0.25,2021-01-03,bar\r\nT,3,3.5,0.5,2021-01-04,baz\r\n");
+        MetaCSVColumnReader reader = this.create();
+        Assert.assertEquals(2, reader.nextBatch().getRowCount());
+        reader.close();
+        Assert.assertFalse(this.cacheFile.exists());
+    }
+
+    private MetaCSVColumnReader create()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        return MetaCSVColumnReader.create(this.csvFile, this.data, this.cacheFile, 2);
+    }
+
+    private String read()
+            throws IOException, MetaCSVParseException, MetaCSVDataException,
+            MetaCSVReadException {
+        MetaCSVColumnReader reader = this.create();
+        try {
+            return this.toString(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void write(String text) throws IOException {
+        OutputStream out = new FileOutputStream(this.csvFile);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+
+    private String toString(MetaCSVColumnReader reader) throws IOException {
+        StringBuilder sizes = new StringBuilder();
+        StringBuilder rows = new StringBuilder();
+        ColumnBatch batch = reader.nextBatch();
+        while (batch != null) {
+            sizes.append(batch.getRowCount()).append('/');
+            for (int r = 0; r < batch.getRowCount(); r++) {
+                List<Object> row = new ArrayList<Object>();
+                for (int c = 0; c < batch.getColumnCount(); c++) {
+                    Object value = batch.getObject(c, r);
+                    if (value instanceof Date) {
+                        value = String.format("%tF", value);
+                    }
+                    row.add(value);
+                }
+                rows.append(row);
+            }
+            batch = reader.nextBatch();
+        }
+        return sizes.toString() + rows;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class MetaCSVFollowReaderTest {
+    private File csvFile;
+    private MetaCSVData data;
+
+    @Before
+    public void setUp() throws IOException, MetaCSVDataException {
+        this.csvFile = File.createTempFile("test", ".csv");
+        this.csvFile.deleteOnExit();
+        this.data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE).build();
+    }
+
+    @Test
+    public void testFollow() throws Exception {
+        this.append("id,na");
+        MetaCSVFollowReader reader = this.createReader(MetaCSVCheckpoint.START);
+        Assert.assertNull(reader.poll());
+        Assert.assertNull(reader.getHeader());
+        Assert.assertEquals(MetaCSVCheckpoint.START, reader.getCheckpoint());
+
+        this.append("me\r\n1,a\r\n2,");
+        Assert.assertEquals(1L, reader.poll().getObject(0));
+        Assert.assertEquals(Arrays.asList("id", "name"), reader.getHeader());
+        Assert.assertNull(reader.poll());
+        Assert.assertEquals(new MetaCSVCheckpoint(13, 1), reader.getCheckpoint());
+
+        this.append("b\r\n\r\nNULL,c\r\n3");
+        Assert.assertEquals(Arrays.<Object>asList(2L, "b"), reader.poll().toList());
+        Assert.assertEquals(Arrays.<Object>asList(null, "c"), reader.poll().toList());
+        Assert.assertNull(reader.poll());
+        Assert.assertEquals(new MetaCSVCheckpoint(28, 3), reader.getCheckpoint());
+        reader.close();
+    }
+
+    @Test
+    public void testQuotedLineBreak() throws Exception {
+        this.append("id,text\r\n1,\"a\r\n");
+        MetaCSVFollowReader reader = this.createReader(MetaCSVCheckpoint.START);
+        Assert.assertNull(reader.poll());
+        this.append("b\"\r\n2,c\r");
+        Assert.assertEquals(Arrays.<Object>asList(1L, "a\r\nb"), reader.poll().toList());
+        Assert.assertEquals(Arrays.<Object>asList(2L, "c"), reader.poll().toList());
+        Assert.assertNull(reader.poll());
+        this.append("\n3,d\r\n");
+        Assert.assertEquals(Arrays.<Object>asList(3L, "d"), reader.poll().toList());
+        reader.close();
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        this.append("id,name\r\n1,a\r\n2,b\r\n");
+        MetaCSVFollowReader reader = this.createReader(MetaCSVCheckpoint.START);
+        Assert.assertEquals(1L, reader.poll().getObject(0));
+        File checkpointFile = new File(this.csvFile.getPath() + ".checkpoint");
+        checkpointFile.deleteOnExit();
+        reader.getCheckpoint().save(checkpointFile);
+        reader.close();
+
+        this.append("3,c\r\n");
+        MetaCSVCheckpoint checkpoint = MetaCSVCheckpoint.load(checkpointFile);
+        Assert.assertEquals(new MetaCSVCheckpoint(13, 1), checkpoint);
+        reader = this.createReader(checkpoint);
+        Assert.assertEquals(Arrays.asList("id", "name"), reader.getHeader());
+        Assert.assertEquals(2L, reader.poll().getObject(0));
+        Assert.assertEquals(3L, reader.poll().getObject(0));
+        Assert.assertNull(reader.next(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(new MetaCSVCheckpoint(23, 3), reader.getCheckpoint());
+        reader.close();
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        this.append("id,name\r\n1,a\r\n");
+        MetaCSVFollowReader reader = this.createReader(MetaCSVCheckpoint.START);
+        Assert.assertNotNull(reader.poll());
+        OutputStream out = new FileOutputStream(this.csvFile);
+        out.close();
+        try {
+            reader.poll();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("The file was truncated"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testCheckpointText() throws IOException {
+        MetaCSVCheckpoint checkpoint = new MetaCSVCheckpoint(1234567890123L, 42);
+        Assert.assertEquals("1234567890123,42", checkpoint.toText());
+        Assert.assertEquals(checkpoint, MetaCSVCheckpoint.parse(checkpoint.toText()));
+        try {
+            MetaCSVCheckpoint.parse("foo");
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Not a checkpoint: foo", e.getMessage());
+        }
+    }
+
+    private MetaCSVFollowReader createReader(MetaCSVCheckpoint checkpoint) throws Exception {
+        return new MetaCSVReaderBuilder().csvFile(this.csvFile).metaData(this.data)
+                .checkpoint(checkpoint).pollInterval(1).buildFollowReader();
+    }
+
+    private void append(String text) throws IOException {
+        OutputStream out = new FileOutputStream(this.csvFile, true);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -106,6 +106,39 @@ public class MetaCSVReaderBuilderTest {
         }
     }
 
+    @Test
+    public void testCompileDecoder()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        ByteArrayInputStream is = TestHelper.utf8InputStream(
+                "boolean,currency,float,integer,text\r\n" +
+                        "T,$15,\"10,000.5\",12 354,Foo\r\n" +
+                        "X,NULL,-520.8,-1 000,NULL\r\n");
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(is).metaCSVTriplets(
+                Arrays.asList(
+                        Arrays.asList("data", "null_value", "NULL"),
+                        Arrays.asList("data", "col/0/type", "boolean/T/F"),
+                        Arrays.asList("data", "col/1/type", "currency/pre/$/decimal/,/."),
+                        Arrays.asList("data", "col/2/type", "float/,/."),
+                        Arrays.asList("data", "col/3/type", "integer/ ")
+                )
+        ).compileDecoder(true).build();
+        try {
+            Iterator<MetaCSVRecord> iterator = reader.iterator();
+            Assert.assertEquals(
+                    Arrays.asList("boolean", "currency", "float", "integer", "text"),
+                    iterator.next().toList());
+            Assert.assertEquals(
+                    Arrays.asList(true, new BigDecimal("15"), 10000.5, 12354L, "Foo"),
+                    iterator.next().toList());
+            Assert.assertEquals(
+                    Arrays.asList(new ReadError("X", "boolean/T/F"), null, -520.8, -1000L, null),
+                    iterator.next().toList());
+            Assert.assertFalse(iterator.hasNext());
+        } finally {
+            reader.close();
+        }
+    }
+
     @Test
     public void testCsvFile()
             throws MetaCSVDataException, MetaCSVReadException, MetaCSVParseException, IOException {
@@ -235,4 +268,108 @@ public class MetaCSVReaderBuilderTest {
             reader.close();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testErrorSink()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        this.testErrorSink(false);
+        this.testErrorSink(true);
+    }
+
+    private void testErrorSink(boolean compileDecoder)
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        ByteArrayInputStream is = TestHelper.utf8InputStream(
+                "boolean,integer\r\n" +
+                        "T,12\r\n" +
+                        "X,foo\r\n" +
+                        "Y,bar\r\n" +
+                        "Z,3\r\n");
+        ErrorStatistics statistics = new ErrorStatistics(2);
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(is).metaCSVTriplets(
+                Arrays.asList(
+                        Arrays.asList("data", "col/0/type", "boolean/T/F"),
+                        Arrays.asList("data", "col/1/type", "integer")
+                )
+        ).onError(OnError.NULL).errorSink(statistics).compileDecoder(compileDecoder).build();
+        for (MetaCSVRecord record : reader) {
+            record.toList();
+        }
+        Assert.assertFalse(statistics.isClosed());
+        reader.close();
+        Assert.assertTrue(statistics.isClosed());
+        Assert.assertEquals(5, statistics.getTotalErrorCount());
+        Assert.assertEquals(3, statistics.getErrorCount(0));
+        Assert.assertEquals(2, statistics.getSampleCount(0));
+        Assert.assertEquals(2, statistics.getSampleRow(0, 0));
+        Assert.assertEquals("X", statistics.getSampleText(0, 0));
+        Assert.assertEquals(3, statistics.getSampleRow(0, 1));
+        Assert.assertEquals(2, statistics.getErrorCount(1));
+        Assert.assertEquals("bar", statistics.getSampleText(1, 1));
+    }
+
+    @Test
+    public void testInstrumentation()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        this.testInstrumentation(false);
+        this.testInstrumentation(true);
+    }
+
+    private void testInstrumentation(boolean compileDecoder)
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        String csv = "boolean,integer\r\n" +
+                "T,12\r\n" +
+                "X,foo\r\n" +
+                "Y,bar\r\n" +
+                "Z,3\r\n";
+        ErrorStatistics errorStatistics = new ErrorStatistics();
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(TestHelper.utf8InputStream(csv))
+                .metaCSVDirectives("data,col/0/type,boolean/T/F", "data,col/1/type,integer")
+                .onError(OnError.NULL).errorSink(errorStatistics).instrumentation(statistics)
+                .compileDecoder(compileDecoder).build();
+        for (MetaCSVRecord record : reader) {
+            record.toList();
+        }
+        Assert.assertFalse(statistics.isClosed());
+        reader.close();
+        Assert.assertTrue(statistics.isClosed());
+        Assert.assertTrue(errorStatistics.isClosed());
+        Assert.assertEquals(5, errorStatistics.getTotalErrorCount());
+
+        Assert.assertEquals(csv.length(), statistics.getBytesRead());
+        Assert.assertEquals(4, statistics.getRowsRead());
+        Assert.assertEquals(3, statistics.getErrorCount(0));
+        Assert.assertEquals(2, statistics.getErrorCount(1));
+        Assert.assertEquals(4, statistics.getParsedCount(0));
+        Assert.assertEquals(4, statistics.getParsedCount(1));
+    }
+
+    @Test
+    public void testInstrumentationGetters()
+            throws IOException, MetaCSVReadException, MetaCSVDataException, MetaCSVParseException {
+        String csv = "boolean,integer,float\r\n" +
+                "T,12,1.5\r\n" +
+                "F,,2.5\r\n";
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        MetaCSVReader reader = new MetaCSVReaderBuilder().csvIn(TestHelper.utf8InputStream(csv))
+                .metaCSVDirectives("data,col/0/type,boolean/T/F", "data,col/1/type,integer",
+                        "data,col/2/type,float//.").instrumentation(statistics).build();
+        long sum = 0;
+        double total = 0.0;
+        Iterator<MetaCSVRecord> iterator = reader.iterator();
+        iterator.next(); // header
+        while (iterator.hasNext()) {
+            MetaCSVRecord record = iterator.next();
+            Assert.assertNotNull(record.getObject(0));
+            record.getBooleanValue(0);
+            sum += record.getLongValue(1);
+            total += record.getDoubleValue(2);
+        }
+        reader.close();
+        Assert.assertEquals(12L, sum);
+        Assert.assertEquals(4.0, total, 0.001);
+        Assert.assertEquals(4, statistics.getParsedCount(0));
+        Assert.assertEquals(1, statistics.getParsedCount(1));
+        Assert.assertEquals(2, statistics.getParsedCount(2));
+    }
+}
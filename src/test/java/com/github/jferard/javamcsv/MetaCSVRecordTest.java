@@ -177,4 +177,19 @@ public class MetaCSVRecordTest {
         Assert.assertNull(metaRecord.getInteger(0));
         Assert.assertNull(metaRecord.getText(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPrimitiveValues() throws IOException, MetaCSVReadException {
+        MetaCSVRecord metaRecord = TestHelper.createMetaRecord("foo", 12L, true);
+        Assert.assertFalse(metaRecord.isNull(1));
+        Assert.assertEquals(12L, metaRecord.getLongValue(1));
+        Assert.assertEquals(12.0, metaRecord.getDoubleValue(1), 0.001);
+        Assert.assertTrue(metaRecord.getBooleanValue(2));
+    }
+
+    @Test(expected = MetaCSVCastException.class)
+    public void testNotLongValue() throws IOException, MetaCSVReadException {
+        MetaCSVRecord metaRecord = TestHelper.createMetaRecord("foo", 12L, true);
+        metaRecord.getLongValue(0);
+    }
+}
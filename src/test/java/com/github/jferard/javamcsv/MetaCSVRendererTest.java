@@ -70,6 +70,19 @@ public class MetaCSVRendererTest {
                 "data,col/0/type,integer\r\n", sb.toString());
     }
 
+    @Test
+    public void testMeta() throws IOException, MetaCSVDataException {
+        StringBuilder sb = new StringBuilder();
+        MetaCSVRenderer renderer =
+                MetaCSVRenderer.create(new CSVPrinter(sb, CSVFormat.DEFAULT), true);
+        MetaCSVData data = new MetaCSVDataBuilder().meta("foo", "bar").meta("baz", "1,2")
+                .build();
+        renderer.render(data);
+        Assert.assertEquals("domain,key,value\r\n" +
+                "meta,baz,\"1,2\"\r\n" +
+                "meta,foo,bar\r\n", sb.toString());
+    }
+
     @Test
     public void testAsciiMinimal() throws IOException, MetaCSVDataException {
         StringBuilder sb = new StringBuilder();
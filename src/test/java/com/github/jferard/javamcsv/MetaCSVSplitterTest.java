@@ -0,0 +1,171 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv;
+
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class MetaCSVSplitterTest {
+    private static final String HEADER = "﻿id,text\r\n";
+    private static final String CSV = HEADER +
+            "1,\"a\r\nb\"\r\n" +
+            "2,\"c,\"\"d\"\"\"\r\n" +
+            "\r\n" +
+            "3,é\r\n" +
+            "4,f\r\n" +
+            "5,g\r\n";
+
+    private File directory;
+    private MetaCSVData data;
+
+    @Before
+    public void setUp() throws IOException, MetaCSVDataException {
+        this.directory = File.createTempFile("test", "");
+        Assert.assertTrue(this.directory.delete());
+        Assert.assertTrue(this.directory.mkdir());
+        this.directory.deleteOnExit();
+        this.data = new MetaCSVDataBuilder().bom(true)
+                .colType(0, IntegerFieldDescription.INSTANCE).build();
+    }
+
+    @Test
+    public void testSplitByRows() throws Exception {
+        File csvFile = this.createFile("source.csv", CSV, this.data);
+        List<File> parts = this.register(
+                new MetaCSVSplitter(this.data).splitByRows(csvFile, 2, this.directory));
+        Assert.assertEquals(3, parts.size());
+        Assert.assertEquals("source-00000.csv", parts.get(0).getName());
+        Assert.assertEquals(HEADER + "1,\"a\r\nb\"\r\n2,\"c,\"\"d\"\"\"\r\n",
+                TestHelper.toString(parts.get(0)));
+        Assert.assertEquals(HEADER + "\r\n3,é\r\n4,f\r\n", TestHelper.toString(parts.get(1)));
+        Assert.assertEquals(HEADER + "5,g\r\n", TestHelper.toString(parts.get(2)));
+        Assert.assertEquals("domain,key,value\r\n" +
+                        "file,bom,true\r\n" +
+                        "data,col/0/type,integer\r\n",
+                TestHelper.toString(Util.withExtension(parts.get(2), ".mcsv")));
+
+        File outFile = this.register(new File(this.directory, "out.csv"));
+        MetaCSVSplitter.concat(parts, outFile);
+        Assert.assertEquals(CSV, TestHelper.toString(outFile));
+        MetaCSVReader reader = MetaCSVReader.create(outFile);
+        int count = 0;
+        for (MetaCSVRecord ignored : reader) {
+            count++;
+        }
+        reader.close();
+        Assert.assertEquals(6, count);
+    }
+
+    @Test
+    public void testSplitBySize() throws Exception {
+        File csvFile = this.createFile("source.csv", CSV, this.data);
+        MetaCSVSplitter splitter = new MetaCSVSplitter(this.data, 2);
+        for (int partSize = 1; partSize <= csvFile.length(); partSize++) {
+            List<File> parts = this.register(
+                    splitter.splitBySize(csvFile, partSize, this.directory));
+            for (File part : parts) {
+                Assert.assertTrue(TestHelper.toString(part).startsWith(HEADER));
+            }
+            File outFile = this.register(new File(this.directory, "out.csv"));
+            MetaCSVSplitter.concat(parts, outFile);
+            Assert.assertEquals("part size " + partSize, CSV, TestHelper.toString(outFile));
+            for (File part : parts) {
+                Assert.assertTrue(part.delete());
+            }
+        }
+    }
+
+    @Test
+    public void testConcatMissingLineBreak() throws Exception {
+        File part1 = this.createFile("part1.csv", HEADER + "1,a", this.data);
+        File part2 = this.createFile("part2.csv", HEADER, this.data);
+        File part3 = this.createFile("part3.csv", HEADER + "2,b", this.data);
+        File outFile = this.register(new File(this.directory, "out.csv"));
+        MetaCSVSplitter.concat(Arrays.asList(part1, part2, part3), outFile);
+        Assert.assertEquals(HEADER + "1,a\r\n2,b", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testConcatIncompatible() throws Exception {
+        File part1 = this.createFile("part1.csv", HEADER + "1,a\r\n", this.data);
+        File part2 = this.createFile("part2.csv", HEADER + "2,b\r\n",
+                new MetaCSVDataBuilder().bom(true).build());
+        try {
+            MetaCSVSplitter.concat(Arrays.asList(part1, part2),
+                    this.register(new File(this.directory, "out.csv")));
+            Assert.fail();
+        } catch (MetaCSVDataException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Incompatible description of col 0"));
+        }
+    }
+
+    @Test
+    public void testConcatOtherHeader() throws Exception {
+        File part1 = this.createFile("part1.csv", HEADER + "1,a\r\n", this.data);
+        File part2 = this.createFile("part2.csv", "﻿id,name\r\n2,b\r\n", this.data);
+        try {
+            MetaCSVSplitter.concat(Arrays.asList(part1, part2),
+                    this.register(new File(this.directory, "out.csv")));
+            Assert.fail();
+        } catch (MetaCSVDataException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Incompatible header"));
+        }
+    }
+
+    private File createFile(String name, String text, MetaCSVData data) throws IOException {
+        File file = this.register(new File(this.directory, name));
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+        OutputStream metaOut = new FileOutputStream(Util.withExtension(file, ".mcsv"));
+        try {
+            MetaCSVRenderer.create(metaOut).render(data);
+        } finally {
+            metaOut.close();
+        }
+        return file;
+    }
+
+    private List<File> register(List<File> files) {
+        for (File file : files) {
+            this.register(file);
+        }
+        return files;
+    }
+
+    private File register(File file) {
+        file.deleteOnExit();
+        Util.withExtension(file, ".mcsv").deleteOnExit();
+        return file;
+    }
+}
@@ -125,4 +125,31 @@ public class MetaCSVWriterBuilderTest {
         Assert.assertEquals("domain,key,value\r\n" +
                 "data,col/1/type,integer\r\n", metaOut.toString(TestHelper.UTF_8_CHARSET_NAME));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInstrumentation()
+            throws MetaCSVDataException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+
+        MetaCSVData data =
+                new MetaCSVDataBuilder().colType(1, IntegerFieldDescription.INSTANCE).build();
+        MetaCSVWriter writer = new MetaCSVWriterBuilder().out(out).metaData(data)
+                .instrumentation(statistics).build();
+        try {
+            writer.writeHeader(Arrays.asList("a", "b", "c"));
+            writer.writeRow(Arrays.<Object>asList("1", 2L, "3"));
+            writer.writeValue("4");
+            writer.writeLong(5L);
+            writer.writeValue("6");
+            writer.endRow();
+        } finally {
+            writer.close();
+        }
+
+        Assert.assertTrue(statistics.isClosed());
+        Assert.assertEquals(2, statistics.getRowsWritten());
+        Assert.assertEquals(out.size(), statistics.getBytesWritten());
+        Assert.assertEquals(0, statistics.getRowsRead());
+    }
+}
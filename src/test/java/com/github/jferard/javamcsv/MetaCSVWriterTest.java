@@ -168,4 +168,36 @@ public class MetaCSVWriterTest {
         Assert.assertEquals("domain,key,value\r\n" +
                 "data,col/1/type,integer\r\n", TestHelper.toString(mcsvFile));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPrimitiveRow() throws IOException, MetaCSVDataException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MetaCSVData data =
+                new MetaCSVDataBuilder().nullValue("NULL").
+                        colType(0, new BooleanFieldDescription("T", "F")).
+                        colType(1, new FloatFieldDescription(",", ".")).
+                        colType(2, new IntegerFieldDescription(" ")).
+                        colType(3, new PercentageFloatFieldDescription(false, "%",
+                                new FloatFieldDescription(",", "."))).
+                        colType(4, new FloatFieldDescription(",", ".")).
+                        build();
+        MetaCSVWriter writer = MetaCSVWriter.create(out, data);
+        try {
+            writer.writeBoolean(true);
+            writer.writeDouble(10000.5);
+            writer.writeLong(12354L);
+            writer.writeDouble(0.565);
+            writer.writeLong(2L);
+            writer.writeValue("foo");
+            writer.endRow();
+            writer.writeNull();
+            writer.writeNull();
+            writer.writeNull();
+            writer.endRow();
+        } finally {
+            writer.close();
+        }
+        Assert.assertEquals("T,\"10,000.5\",12 354,56.49999999999999%,2.0,foo\r\n" +
+                "NULL,NULL,NULL\r\n", out.toString(TestHelper.UTF_8_CHARSET_NAME));
+    }
+}
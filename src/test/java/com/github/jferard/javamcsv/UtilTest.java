@@ -193,4 +193,48 @@ public class UtilTest extends TestCase {
     public void testCleanCurrencyText() throws MetaCSVReadException {
         Assert.assertEquals("10", Util.cleanCurrencyText("10 €", false, "€"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIsLongText() {
+        for (String text : Arrays.asList("0", "-12", "+12", "9223372036854775807",
+                "-9223372036854775808")) {
+            Assert.assertTrue(text, Util.isLongText(text));
+        }
+        for (String text : Arrays.asList("", "-", "+", "1.0", "a", " 1",
+                "9223372036854775808", "-9223372036854775809")) {
+            Assert.assertFalse(text, Util.isLongText(text));
+        }
+    }
+
+    @Test
+    public void testIsDoubleText() {
+        for (String text : Arrays.asList("0", "-1.5", "+.5", "1.", "1e10", "1E-3", " 2.0 ",
+                "NaN", "-Infinity", "1.0f", "2d", "0x1.8p1", "0X1P-2")) {
+            Assert.assertTrue(text, Util.isDoubleText(text));
+            Double.parseDouble(text);
+        }
+        for (String text : Arrays.asList("", ".", "-", "e1", "1e", "1e+", "1..0", "1,0", "nan",
+                "Infinityf", "0x1.8", "0xp1", "1 0")) {
+            Assert.assertFalse(text, Util.isDoubleText(text));
+        }
+    }
+
+    @Test
+    public void testIsBigDecimalText() {
+        for (String text : Arrays.asList("0", "-1.5", "+.5", "1.", "1e10", "1E-3")) {
+            Assert.assertTrue(text, Util.isBigDecimalText(text));
+            new BigDecimal(text);
+        }
+        for (String text : Arrays.asList("", ".", "-", "e1", "1e", "1..0", "1,0", " 1", "NaN")) {
+            Assert.assertFalse(text, Util.isBigDecimalText(text));
+        }
+    }
+
+    @Test
+    public void testTryCleanCurrencyText() {
+        Assert.assertEquals("10", Util.tryCleanCurrencyText("10 €", false, "€"));
+        Assert.assertEquals("10", Util.tryCleanCurrencyText("$10", true, "$"));
+        Assert.assertNull(Util.tryCleanCurrencyText("10", false, "€"));
+        Assert.assertNull(Util.tryCleanCurrencyText("10 €", true, "€"));
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.it;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.ErrorStatistics;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVReaderBuilder;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.MetaCSVWriter;
+import com.github.jferard.javamcsv.MetaCSVWriterBuilder;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.tool.MetaCSVGeneratorBuilder;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Bytes allocated per row on the hot paths, against the budgets of
+ * allocation-budgets.properties. Each workload is warmed up (JIT, escape analysis), then the
+ * best of a few runs is kept.
+ *
+ * If a budget fails after a deliberate change, run with -Dallocation.print=true and update
+ * the file.
+ */
+public class AllocationBudgetIT {
+    private static final int COLUMN_COUNT = 8;
+    private static final int ROW_COUNT = 5000;
+    private static final int WARMUP_COUNT = 30;
+    private static final int RUN_COUNT = 5;
+
+    private static com.sun.management.ThreadMXBean threadBean;
+    private static Properties budgets;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        budgets = new Properties();
+        InputStream in = TestHelper.getResourceAsStream("allocation-budgets.properties");
+        try {
+            budgets.load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testInteger() throws Exception {
+        final Workload workload = new Workload("integer", DataType.INTEGER, 0.0);
+        this.checkBudget("integer.read", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                MetaCSVReader reader = workload.openReader();
+                Iterator<MetaCSVRecord> iterator = reader.iterator();
+                iterator.next(); // header
+                while (iterator.hasNext()) {
+                    MetaCSVRecord record = iterator.next();
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getLongValue(c);
+                    }
+                }
+                reader.close();
+                return sum;
+            }
+        });
+        final List<MetaCSVRecord> records = workload.readRecords();
+        this.checkBudget("integer.get", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                for (MetaCSVRecord record : records) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getLongValue(c);
+                    }
+                }
+                return sum;
+            }
+        });
+        this.checkBudget("integer.write", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                MetaCSVWriter writer = workload.openWriter();
+                for (int r = 0; r < ROW_COUNT; r++) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        writer.writeLong(r * c);
+                    }
+                    writer.endRow();
+                }
+                writer.close();
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    public void testFloat() throws Exception {
+        final Workload workload = new Workload("float", DataType.FLOAT, 0.0);
+        this.checkBudget("float.read", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                double sum = 0;
+                MetaCSVReader reader = workload.openReader();
+                Iterator<MetaCSVRecord> iterator = reader.iterator();
+                iterator.next(); // header
+                while (iterator.hasNext()) {
+                    MetaCSVRecord record = iterator.next();
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getDoubleValue(c);
+                    }
+                }
+                reader.close();
+                return (long) sum;
+            }
+        });
+        final List<MetaCSVRecord> records = workload.readRecords();
+        this.checkBudget("float.get", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                double sum = 0;
+                for (MetaCSVRecord record : records) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getDoubleValue(c);
+                    }
+                }
+                return (long) sum;
+            }
+        });
+        this.checkBudget("float.write", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                MetaCSVWriter writer = workload.openWriter();
+                for (int r = 0; r < ROW_COUNT; r++) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        writer.writeDouble(r * c / 4.0);
+                    }
+                    writer.endRow();
+                }
+                writer.close();
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        final Workload workload = new Workload("date", DataType.DATE, 0.0);
+        this.checkBudget("date.read", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                MetaCSVReader reader = workload.openReader();
+                Iterator<MetaCSVRecord> iterator = reader.iterator();
+                iterator.next(); // header
+                while (iterator.hasNext()) {
+                    MetaCSVRecord record = iterator.next();
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getDate(c).getTime();
+                    }
+                }
+                reader.close();
+                return sum;
+            }
+        });
+        final Date date = new Date(0);
+        this.checkBudget("date.write", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                MetaCSVWriter writer = workload.openWriter();
+                for (int r = 0; r < ROW_COUNT; r++) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        writer.writeValue(date);
+                    }
+                    writer.endRow();
+                }
+                writer.close();
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    public void testText() throws Exception {
+        final Workload workload = new Workload("text", DataType.TEXT, 0.0);
+        this.checkBudget("text.read", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                MetaCSVReader reader = workload.openReader();
+                Iterator<MetaCSVRecord> iterator = reader.iterator();
+                iterator.next(); // header
+                while (iterator.hasNext()) {
+                    MetaCSVRecord record = iterator.next();
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getText(c).length();
+                    }
+                }
+                reader.close();
+                return sum;
+            }
+        });
+        final List<MetaCSVRecord> records = workload.readRecords();
+        this.checkBudget("text.get", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                for (MetaCSVRecord record : records) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        sum += record.getText(c).length();
+                    }
+                }
+                return sum;
+            }
+        });
+        this.checkBudget("text.write", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                MetaCSVWriter writer = workload.openWriter();
+                for (int r = 0; r < ROW_COUNT; r++) {
+                    for (int c = 0; c < COLUMN_COUNT; c++) {
+                        writer.writeValue("text");
+                    }
+                    writer.endRow();
+                }
+                writer.close();
+                return 0;
+            }
+        });
+    }
+
+    @Test
+    public void testError() throws Exception {
+        final Workload workload = new Workload("error", DataType.INTEGER, 0.5);
+        this.checkBudget("error.read", new Runnable() {
+            @Override
+            public long run() throws Exception {
+                long sum = 0;
+                ErrorStatistics statistics = new ErrorStatistics();
+                MetaCSVReader reader = new MetaCSVReaderBuilder()
+                        .csvIn(new ByteArrayInputStream(workload.csv)).metaData(workload.data)
+                        .onError(OnError.NULL).errorSink(statistics).build();
+                for (MetaCSVRecord record : reader) {
+                    sum += record.toList().size();
+                }
+                reader.close();
+                return sum + statistics.getTotalErrorCount();
+            }
+        });
+    }
+
+    private void checkBudget(String name, Runnable runnable) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_COUNT; i++) {
+            checksum += runnable.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUN_COUNT; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            checksum += runnable.run();
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+            best = Math.min(best, allocated);
+        }
+        long perRow = best / ROW_COUNT;
+        if (Boolean.getBoolean("allocation.print")) {
+            System.out.println(name + "=" + perRow + " (checksum " + checksum + ")");
+        }
+        String budget = budgets.getProperty(name);
+        Assert.assertNotNull("No budget for " + name, budget);
+        Assert.assertTrue(name + ": " + perRow + " bytes/row > budget " + budget,
+                perRow <= Long.parseLong(budget));
+    }
+
+    private interface Runnable {
+        /**
+         * @return a checksum, to keep the work alive
+         */
+        long run() throws Exception;
+    }
+
+    private static class Workload {
+        private final MetaCSVData data;
+        private final byte[] csv;
+
+        Workload(String name, DataType dataType, double errorRatio)
+                throws MetaCSVDataException, IOException {
+            MetaCSVDataBuilder dataBuilder = new MetaCSVDataBuilder();
+            for (int c = 0; c < COLUMN_COUNT; c++) {
+                dataBuilder.colType(c, dataType.getDefaultDescription());
+            }
+            this.data = dataBuilder.build();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new MetaCSVGeneratorBuilder().metaData(this.data).rowCount(ROW_COUNT)
+                    .errorRatio(errorRatio).seed(name.hashCode()).build().generate(out);
+            this.csv = out.toByteArray();
+        }
+
+        MetaCSVReader openReader() throws Exception {
+            return new MetaCSVReaderBuilder().csvIn(new ByteArrayInputStream(this.csv))
+                    .metaData(this.data).build();
+        }
+
+        List<MetaCSVRecord> readRecords() throws Exception {
+            List<MetaCSVRecord> records = new ArrayList<MetaCSVRecord>(ROW_COUNT + 1);
+            MetaCSVReader reader = this.openReader();
+            Iterator<MetaCSVRecord> iterator = reader.iterator();
+            iterator.next(); // header
+            while (iterator.hasNext()) {
+                records.add(iterator.next());
+            }
+            reader.close();
+            return records;
+        }
+
+        MetaCSVWriter openWriter() throws IOException {
+            return new MetaCSVWriterBuilder().out(NullOutputStream.INSTANCE).metaData(this.data)
+                    .build();
+        }
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        static final OutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
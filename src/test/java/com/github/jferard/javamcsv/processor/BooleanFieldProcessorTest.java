@@ -100,4 +100,13 @@ public class BooleanFieldProcessorTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Boolean> tryProcessor = (TryFieldProcessor<Boolean>) processor;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(true, tryProcessor.tryToObject("t"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("foo"));
+        Assert.assertNull(tryProcessor.tryToCanonicalString("foo"));
+    }
+}
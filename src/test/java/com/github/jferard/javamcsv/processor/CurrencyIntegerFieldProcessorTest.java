@@ -107,4 +107,14 @@ public class CurrencyIntegerFieldProcessorTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Long> tryProcessor = (TryFieldProcessor<Long>) processorPre;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(10L, tryProcessor.tryToObject("$10"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("€10.0"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("$1.0"));
+        Assert.assertNull(tryProcessor.tryToCanonicalString("€10.0"));
+    }
+}
@@ -186,4 +186,13 @@ public class DateFieldProcessorTest {
                         Util.CANONICAL_DATE_FORMAT);
         Assert.assertEquals("1975-04-20", processor2.toCanonicalString("20/04/1975"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Date> tryProcessor = (TryFieldProcessor<Date>) processor;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("foo"));
+        Assert.assertEquals("", tryProcessor.tryToCanonicalString("NULL"));
+        Assert.assertNull(tryProcessor.tryToCanonicalString("foo"));
+    }
+}
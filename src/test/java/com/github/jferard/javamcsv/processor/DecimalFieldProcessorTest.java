@@ -78,4 +78,12 @@ public class DecimalFieldProcessorTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<BigDecimal> tryProcessor = (TryFieldProcessor<BigDecimal>) processor;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(new BigDecimal("10.0"), tryProcessor.tryToObject("10,0"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("€10.0"));
+    }
+}
@@ -20,6 +20,9 @@
 
 package com.github.jferard.javamcsv.processor;
 
+import com.github.jferard.javamcsv.ErrorStatistics;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVUncheckedReadException;
 import com.github.jferard.javamcsv.OnError;
 import com.github.jferard.javamcsv.ReadError;
 import com.github.jferard.javamcsv.description.IntegerFieldDescription;
@@ -77,6 +80,35 @@ public class FieldProcessorFactoryTest {
         });
     }
 
+    @Test
+    public void testReadReporter() {
+        ErrorStatistics statistics = new ErrorStatistics();
+        ErrorReporter reporter = new ErrorReporter(statistics);
+        ReadFieldProcessor<Long> wrap = this.factory.toReadFieldProcessor(
+                IntegerFieldDescription.INSTANCE, "<NULL>", OnError.WRAP, 0, reporter);
+        ReadFieldProcessor<Long> nullProcessor = this.factory.toReadFieldProcessor(
+                IntegerFieldDescription.INSTANCE, "<NULL>", OnError.NULL, 1, reporter);
+        ReadFieldProcessor<Long> text = this.factory.toReadFieldProcessor(
+                IntegerFieldDescription.INSTANCE, "<NULL>", OnError.TEXT, 2, reporter);
+        final ReadFieldProcessor<Long> exception = this.factory.toReadFieldProcessor(
+                IntegerFieldDescription.INSTANCE, "<NULL>", OnError.EXCEPTION, 3, reporter);
+        Assert.assertEquals(10L, wrap.toObject("10"));
+        Assert.assertEquals(new ReadError("foo", "integer"), wrap.toObject("foo"));
+        Assert.assertNull(nullProcessor.toObject("foo"));
+        Assert.assertEquals("foo", text.toObject("foo"));
+        Assert.assertEquals(10L, exception.toObject("10"));
+        Assert.assertThrows(MetaCSVUncheckedReadException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                exception.toObject("foo");
+            }
+        });
+        Assert.assertEquals(1, statistics.getErrorCount(0));
+        Assert.assertEquals(1, statistics.getErrorCount(1));
+        Assert.assertEquals(1, statistics.getErrorCount(2));
+        Assert.assertEquals(1, statistics.getErrorCount(3));
+    }
+
     @Test
     public void testWriteWrapLenient() {
         Assert.assertThrows(RuntimeException.class, new ThrowingRunnable() {
@@ -166,4 +198,36 @@ public class FieldProcessorFactoryTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObjectFallback() {
+        FieldProcessor<Long> processor =
+                new IntegerFieldProcessor(null, "<NULL>") {
+                };
+        final FieldProcessor<Long> plainProcessor = new FieldProcessor<Long>() {
+            @Override
+            public Long toObject(String text) throws MetaCSVReadException {
+                throw new MetaCSVReadException("foo");
+            }
+
+            @Override
+            public String toString(Long value) {
+                return null;
+            }
+
+            @Override
+            public String toCanonicalString(String text) throws MetaCSVReadException {
+                throw new MetaCSVReadException("foo");
+            }
+
+            @Override
+            public Long cast(Object o) {
+                return null;
+            }
+        };
+        Assert.assertEquals(10L, FieldProcessorFactory.tryToObject(processor, "10"));
+        Assert.assertSame(TryFieldProcessor.INVALID,
+                FieldProcessorFactory.tryToObject(plainProcessor, "10"));
+        Assert.assertNull(FieldProcessorFactory.tryToCanonicalString(plainProcessor, "10"));
+    }
+}
@@ -80,4 +80,12 @@ public class FloatFieldProcessorTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Double> tryProcessor = (TryFieldProcessor<Double>) processor;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(10.0, tryProcessor.tryToObject("10,0"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("€10.0"));
+    }
+}
@@ -62,4 +62,22 @@ public class IntegerFieldProcessorTest {
     public void testToString() {
         Assert.assertEquals("1 030", processor.toString(1030L));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Long> tryProcessor = (TryFieldProcessor<Long>) processor;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(1030L, tryProcessor.tryToObject("1\u00A0030"));
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("foo"));
+        Assert.assertSame(TryFieldProcessor.INVALID,
+                tryProcessor.tryToObject("9223372036854775808"));
+    }
+
+    @Test
+    public void testIsValid() {
+        TryFieldProcessor<Long> tryProcessor = (TryFieldProcessor<Long>) processor;
+        Assert.assertTrue(tryProcessor.isValid("NULL"));
+        Assert.assertTrue(tryProcessor.isValid("1\u00A0030"));
+        Assert.assertFalse(tryProcessor.isValid("foo"));
+    }
+}
@@ -82,4 +82,13 @@ public class PercentageFloatFieldProcessorTest {
     public void testPostToString() {
         Assert.assertEquals("1720,0%", processorPost.toString(17.2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTryToObject() {
+        TryFieldProcessor<Double> tryProcessor = (TryFieldProcessor<Double>) processorPost;
+        Assert.assertNull(tryProcessor.tryToObject("NULL"));
+        Assert.assertEquals(0.1, (Double) tryProcessor.tryToObject("10,0 %"), 0.01);
+        Assert.assertSame(TryFieldProcessor.INVALID, tryProcessor.tryToObject("%10,0"));
+        Assert.assertNull(tryProcessor.tryToCanonicalString("%10,0"));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.processor;
+
+import com.github.jferard.javamcsv.MetaCSVUncheckedReadException;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.ReadError;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.description.BooleanFieldDescription;
+import com.github.jferard.javamcsv.description.FieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RowDecoderCompilerTest {
+    private Map<Integer, FieldDescription<?>> descriptionByColIndex;
+    private RowDecoderCompiler compiler;
+
+    @Before
+    public void setUp() {
+        this.compiler = new RowDecoderCompiler();
+        this.descriptionByColIndex = new HashMap<Integer, FieldDescription<?>>();
+        this.descriptionByColIndex.put(0, IntegerFieldDescription.INSTANCE);
+        this.descriptionByColIndex.put(1, new BooleanFieldDescription("T", "F"));
+        this.descriptionByColIndex.put(3, new FloatFieldDescription("", ","));
+    }
+
+    @Test
+    public void testCompileWrap() throws IOException {
+        RowDecoder decoder = this.compiler.compile(this.descriptionByColIndex, "NULL",
+                OnError.WRAP);
+        Assert.assertFalse(decoder instanceof ArrayRowDecoder);
+        CSVRecord record = TestHelper.createRecord("10", "T", "foo", "1,5", "NULL");
+        Assert.assertEquals(Arrays.<Object>asList(10L, true, "foo", 1.5, null),
+                decoder.decode(record));
+        CSVRecord badRecord = TestHelper.createRecord("x", "NULL", "NULL");
+        Assert.assertEquals(Arrays.<Object>asList(new ReadError("x", "integer"), null, null),
+                decoder.decode(badRecord));
+    }
+
+    @Test
+    public void testCompileText() throws IOException {
+        RowDecoder decoder = this.compiler.compile(this.descriptionByColIndex, "NULL",
+                OnError.TEXT);
+        CSVRecord record = TestHelper.createRecord("x", "y", "z", "1,5");
+        Assert.assertEquals(Arrays.<Object>asList("x", "y", "z", 1.5), decoder.decode(record));
+    }
+
+    @Test
+    public void testCompileNull() throws IOException {
+        RowDecoder decoder = this.compiler.compile(this.descriptionByColIndex, "NULL",
+                OnError.NULL);
+        CSVRecord record = TestHelper.createRecord("x", "y", "z", "1,5");
+        Assert.assertEquals(Arrays.<Object>asList(null, null, "z", 1.5), decoder.decode(record));
+    }
+
+    @Test
+    public void testCompileException() throws IOException {
+        final RowDecoder decoder = this.compiler.compile(this.descriptionByColIndex, "NULL",
+                OnError.EXCEPTION);
+        Assert.assertFalse(decoder instanceof ArrayRowDecoder);
+        final CSVRecord record = TestHelper.createRecord("x", "y", "z", "1,5");
+        MetaCSVUncheckedReadException e = Assert.assertThrows(
+                MetaCSVUncheckedReadException.class, new ThrowingRunnable() {
+                    @Override
+                    public void run() {
+                        decoder.decode(record);
+                    }
+                });
+        Assert.assertNotNull(e.getCause());
+    }
+
+    @Test
+    public void testInterpretException() throws IOException {
+        final RowDecoder decoder = this.compiler.interpret(this.descriptionByColIndex, "NULL",
+                OnError.EXCEPTION);
+        final CSVRecord record = TestHelper.createRecord("x", "y", "z", "1,5");
+        Assert.assertThrows(MetaCSVUncheckedReadException.class, new ThrowingRunnable() {
+            @Override
+            public void run() {
+                decoder.decode(record);
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentCompile() throws Exception {
+        final Map<Integer, FieldDescription<?>> descriptions =
+                new HashMap<Integer, FieldDescription<?>>(this.descriptionByColIndex);
+        descriptions.put(5, IntegerFieldDescription.INSTANCE);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<RowDecoder>> futures = new ArrayList<Future<RowDecoder>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(new Callable<RowDecoder>() {
+                    @Override
+                    public RowDecoder call() {
+                        return new RowDecoderCompiler().compile(descriptions, "NULL",
+                                OnError.NULL);
+                    }
+                }));
+            }
+            Class<?> decoderClass = futures.get(0).get().getClass();
+            Assert.assertNotSame(ArrayRowDecoder.class, decoderClass);
+            for (Future<RowDecoder> future : futures) {
+                Assert.assertSame(decoderClass, future.get().getClass());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameSchemaSameClass() {
+        RowDecoder decoder1 = this.compiler.compile(this.descriptionByColIndex, "NULL",
+                OnError.WRAP);
+        RowDecoder decoder2 = this.compiler.compile(this.descriptionByColIndex, "",
+                OnError.WRAP);
+        Assert.assertSame(decoder1.getClass(), decoder2.getClass());
+    }
+
+    @Test
+    public void testCachedClassSurvivesGC() {
+        Map<Integer, FieldDescription<?>> descriptions =
+                new HashMap<Integer, FieldDescription<?>>(this.descriptionByColIndex);
+        descriptions.put(6, IntegerFieldDescription.INSTANCE);
+        String className = this.compiler.compile(descriptions, "NULL", OnError.TEXT)
+                .getClass().getName();
+        System.gc();
+        Assert.assertEquals(className, this.compiler.compile(descriptions, "NULL",
+                OnError.TEXT).getClass().getName());
+    }
+
+    @Test
+    public void testInterpret() throws IOException {
+        RowDecoder decoder = this.compiler.interpret(this.descriptionByColIndex, "NULL",
+                OnError.WRAP);
+        Assert.assertTrue(decoder instanceof ArrayRowDecoder);
+        CSVRecord record = TestHelper.createRecord("x", "T", "foo", "1,5", "NULL");
+        Assert.assertEquals(
+                Arrays.<Object>asList(new ReadError("x", "integer"), true, "foo", 1.5, null),
+                decoder.decode(record));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.DecimalFieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class MetaCSVAggregatorTest {
+    private static final String CSV = "city,day,amount,price\r\n" +
+            "Paris,2020-01-01,1,1.5\r\n" +
+            "\"New\r\nYork\",2020-01-01,2,2.5\r\n" +
+            "Paris,2020-01-02,3,NULL\r\n" +
+            "Paris,2020-01-01,foo,4.0\r\n" +
+            "NULL,2020-01-02,5,0.5\r\n" +
+            "\"New\r\nYork\",2020-01-01,-6,-1.0\r\n" +
+            "Paris,2020-01-01,7,3.0\r\n";
+
+    @Test
+    public void testAggregate() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        List<Aggregate> aggregates = Arrays.asList(Aggregate.count(), Aggregate.count(2),
+                Aggregate.sum(2), Aggregate.min(3), Aggregate.max(3), Aggregate.avg(2));
+        for (int chunkSize = 1; chunkSize < 120; chunkSize += 13) {
+            AggregationResult result = new MetaCSVAggregator(this.getData(), new int[]{0},
+                    aggregates, 3, chunkSize, MetaCSVAggregator.DEFAULT_MAX_GROUPS, null)
+                    .aggregate(csvFile);
+            Assert.assertEquals(Arrays.asList("city", "count(*)", "count(amount)",
+                    "sum(amount)", "min(price)", "max(price)", "avg(amount)"),
+                    result.getHeader());
+            Assert.assertEquals("[[null, 1, 1, 5, 0.5, 0.5, 5.0], " +
+                            "[New\r\nYork, 2, 2, -4, -1.0, 2.5, -2.0], " +
+                            "[Paris, 4, 4, 11, 1.5, 4.0, 3.6666666666666665]]",
+                    result.getRows().toString());
+            Assert.assertEquals(7, result.getRecordCount());
+            Assert.assertEquals(2, result.getErrorCount()); // foo, by sum and avg
+            Assert.assertEquals(0, result.getSpillCount());
+            Assert.assertEquals("AggregationResult{groups=3, records=7}", result.toString());
+        }
+    }
+
+    @Test
+    public void testSpill() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        AggregationResult result = new MetaCSVAggregator(this.getData(), new int[]{1, 0},
+                Arrays.asList(Aggregate.sum(2), Aggregate.sum(3)), 2, 40, 1, null)
+                .aggregate(csvFile);
+        Assert.assertTrue(result.getSpillCount() > 0);
+        List<String> rows = new ArrayList<String>();
+        for (List<Object> row : result.getRows()) {
+            rows.add(String.format("%tF %s %s %s", (Date) row.get(0), row.get(1), row.get(2),
+                    row.get(3)));
+        }
+        Assert.assertEquals(Arrays.asList("2020-01-01 New\r\nYork -4 1.5",
+                "2020-01-01 Paris 8 8.5", "2020-01-02 null 5 0.5",
+                "2020-01-02 Paris 3 null"), rows);
+    }
+
+    @Test
+    public void testNoKey() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        AggregationResult result = new MetaCSVAggregator(this.getData(), new int[0],
+                Arrays.asList(Aggregate.count(), Aggregate.max(2))).aggregate(csvFile);
+        Assert.assertEquals("[[7, 7]]", result.getRows().toString());
+    }
+
+    @Test
+    public void testToolAggregate()
+            throws IOException, MetaCSVDataException, MetaCSVParseException {
+        File csvFile = this.createFile("a,b\r\nx,1\r\ny,2\r\nx,3\r\n");
+        File mcsvFile = Util.withExtension(csvFile, ".mcsv");
+        mcsvFile.deleteOnExit();
+        Writer mw = new OutputStreamWriter(new FileOutputStream(mcsvFile),
+                TestHelper.UTF_8_CHARSET);
+        mw.write("domain,key,value\r\ndata,col/1/type,integer\r\n");
+        mw.close();
+        AggregationResult result = Tool.aggregate(csvFile, new int[]{0}, Aggregate.sum(1));
+        Assert.assertEquals("[[x, 4], [y, 2]]", result.getRows().toString());
+    }
+
+    @Test
+    public void testDatesAndDecimals() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile("city,day,amount\r\n" +
+                "Paris,2020-01-03,0.1\r\n" +
+                "Paris,2020-01-01,0.2\r\n" +
+                "Lyon,NULL,0.3\r\n" +
+                "Paris,2020-01-02,0.1\r\n" +
+                "Lyon,2020-01-05,bar\r\n");
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(1, DateFieldDescription.create("yyyy-MM-dd"))
+                .colType(2, new DecimalFieldDescription("", "."))
+                .build();
+        List<Aggregate> aggregates = Arrays.asList(Aggregate.min(1), Aggregate.max(1),
+                Aggregate.sum(2), Aggregate.avg(2), Aggregate.max(2));
+        for (int chunkSize = 1; chunkSize < 120; chunkSize += 7) {
+            AggregationResult result = new MetaCSVAggregator(data, new int[]{0}, aggregates,
+                    3, chunkSize, 1, null).aggregate(csvFile);
+            List<List<Object>> rows = result.getRows();
+            Assert.assertEquals(Arrays.<Object>asList("Lyon", new Date(1578182400000L),
+                    new Date(1578182400000L), new BigDecimal("0.3"), new BigDecimal("0.3"),
+                    new BigDecimal("0.3")), rows.get(0));
+            Assert.assertEquals(Arrays.<Object>asList("Paris", new Date(1577836800000L),
+                    new Date(1578009600000L), new BigDecimal("0.4"),
+                    new BigDecimal("0.1333333333333333333333333333333333"),
+                    new BigDecimal("0.2")), rows.get(1));
+            Assert.assertEquals(3, result.getErrorCount()); // bar, by sum, avg and max
+        }
+    }
+
+    @Test
+    public void testKeyError() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV.replace("NULL,2020-01-02,5", "Lyon,2020-01-02,NULL"));
+        List<Aggregate> aggregates = Collections.singletonList(Aggregate.count());
+        AggregationResult result = new MetaCSVAggregator(this.getData(), new int[]{2},
+                aggregates, 3, 20, MetaCSVAggregator.DEFAULT_MAX_GROUPS, null,
+                OnError.NULL).aggregate(csvFile);
+        // foo is not counted in the null group
+        Assert.assertEquals("[[null, 1], [-6, 1], [1, 1], [2, 1], [3, 1], [7, 1]]",
+                result.getRows().toString());
+        Assert.assertEquals(7, result.getRecordCount());
+        Assert.assertEquals(1, result.getErrorCount());
+        try {
+            new MetaCSVAggregator(this.getData(), new int[]{2}, aggregates, 3, 20,
+                    MetaCSVAggregator.DEFAULT_MAX_GROUPS, null, OnError.EXCEPTION)
+                    .aggregate(csvFile);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Can't read the value 'foo' of column 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testValueErrorException() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        try {
+            new MetaCSVAggregator(this.getData(), new int[]{0},
+                    Collections.singletonList(Aggregate.sum(2)), 3, 20,
+                    MetaCSVAggregator.DEFAULT_MAX_GROUPS, null, OnError.EXCEPTION)
+                    .aggregate(csvFile);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Can't read the value 'foo' of column 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnsupportedAggregate() throws MetaCSVDataException {
+        for (Aggregate aggregate : Arrays.asList(Aggregate.sum(1), Aggregate.avg(1),
+                Aggregate.min(0), Aggregate.sum(0))) {
+            try {
+                new MetaCSVAggregator(this.getData(), new int[0],
+                        Collections.singletonList(aggregate));
+                Assert.fail(aggregate.toString());
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        new MetaCSVAggregator(this.getData(), new int[0],
+                Arrays.asList(Aggregate.count(0), Aggregate.count(1), Aggregate.max(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingColumn() {
+        Aggregate.sum(-1);
+    }
+
+    private MetaCSVData getData() throws MetaCSVDataException {
+        return new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(1, DateFieldDescription.create("yyyy-MM-dd"))
+                .colType(2, IntegerFieldDescription.INSTANCE)
+                .colType(3, FloatFieldDescription.INSTANCE)
+                .build();
+    }
+
+    private File createFile(String text) throws IOException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Writer w = new OutputStreamWriter(new FileOutputStream(csvFile), TestHelper.UTF_8_CHARSET);
+        w.write(text);
+        w.close();
+        return csvFile;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.description.BooleanFieldDescription;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.DecimalFieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+public class MetaCSVBulkLoaderTest {
+    private static final String URL = "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+    private Connection connection;
+    private ConnectionSupplier supplier;
+    private MetaCSVData data;
+
+    @Before
+    public void setUp() throws SQLException, MetaCSVDataException {
+        this.connection = DriverManager.getConnection(URL);
+        Statement statement = this.connection.createStatement();
+        statement.executeUpdate("DROP TABLE IF EXISTS load");
+        statement.executeUpdate("CREATE TABLE load (id INTEGER, val DOUBLE, ok BOOLEAN, " +
+                "amount DECIMAL(10, 2), day DATE, name VARCHAR)");
+        this.supplier = new ConnectionSupplier() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(URL);
+            }
+        };
+        this.data = new MetaCSVDataBuilder()
+                .colType(0, new IntegerFieldDescription(null))
+                .colType(1, new FloatFieldDescription("", "."))
+                .colType(2, new BooleanFieldDescription("true", "false"))
+                .colType(3, new DecimalFieldDescription("", "."))
+                .colType(4, DateFieldDescription.create("yyyy-MM-dd"))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testLoad() throws SQLException, IOException, MetaCSVReadException,
+            MetaCSVParseException, MetaCSVDataException {
+        StringBuilder sb = new StringBuilder("id,val,ok,amount,day,name\r\n");
+        for (int i = 0; i < 2500; i++) {
+            sb.append(i).append(',').append(i / 4.0).append(',').append(i % 2 == 0)
+                    .append(',').append(i).append(".25,2021-01-0").append(1 + i % 9)
+                    .append(",name ").append(i).append("\r\n");
+        }
+        sb.append(",,,,,\r\n");
+        MetaCSVReader reader = MetaCSVReader.create(
+                TestHelper.utf8InputStream(sb.toString()), this.data);
+        long count = new MetaCSVBulkLoader(this.supplier, "load", 100, 500, 3).load(reader);
+        reader.close();
+        Assert.assertEquals(2501, count);
+
+        ResultSet rs = this.connection.createStatement().executeQuery(
+                "SELECT COUNT(*), SUM(id), SUM(val), SUM(CASE WHEN ok THEN 1 ELSE 0 END), " +
+                        "SUM(amount), COUNT(name), MAX(day) FROM load");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(2501, rs.getLong(1));
+        Assert.assertEquals(2499 * 2500 / 2, rs.getLong(2));
+        Assert.assertEquals(2499 * 2500 / 8.0, rs.getDouble(3), 1e-9);
+        Assert.assertEquals(1250, rs.getLong(4));
+        Assert.assertEquals(new BigDecimal("3124375.00"), rs.getBigDecimal(5));
+        Assert.assertEquals(2500, rs.getLong(6));
+        Assert.assertEquals("2021-01-09", rs.getString(7));
+    }
+
+    @Test
+    public void testLoadFile() throws SQLException, IOException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Writer w = new OutputStreamWriter(new FileOutputStream(csvFile),
+                TestHelper.UTF_8_CHARSET);
+        w.write("id,val,ok,amount,day,name\r\n");
+        for (int i = 0; i < 2500; i++) {
+            w.write(i + "," + i / 4.0 + "," + (i % 2 == 0) + "," + i + ".25,2021-01-0" +
+                    (1 + i % 9) + ",\"name\r\n" + i + "\"\r\n");
+        }
+        w.write("x,,,,,\r\n");
+        w.close();
+        long count = new MetaCSVBulkLoader(this.supplier, "load", 100, 500, 3, 4096)
+                .load(csvFile, this.data, OnError.NULL);
+        Assert.assertEquals(2501, count);
+
+        ResultSet rs = this.connection.createStatement().executeQuery(
+                "SELECT COUNT(*), COUNT(id), SUM(id), SUM(val), SUM(amount), COUNT(name), " +
+                        "MAX(day) FROM load");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(2501, rs.getLong(1));
+        Assert.assertEquals(2500, rs.getLong(2));
+        Assert.assertEquals(2499 * 2500 / 2, rs.getLong(3));
+        Assert.assertEquals(2499 * 2500 / 8.0, rs.getDouble(4), 1e-9);
+        Assert.assertEquals(new BigDecimal("3124375.00"), rs.getBigDecimal(5));
+        Assert.assertEquals(2500, rs.getLong(6));
+        Assert.assertEquals("2021-01-09", rs.getString(7));
+    }
+
+    @Test
+    public void testLoadQuotedColumns() throws SQLException, IOException,
+            MetaCSVReadException, MetaCSVParseException, MetaCSVDataException {
+        Statement statement = this.connection.createStatement();
+        statement.executeUpdate("DROP TABLE IF EXISTS quoted");
+        statement.executeUpdate("CREATE TABLE quoted (\"the id\" INTEGER, \"order\" DOUBLE)");
+        MetaCSVReader reader = MetaCSVReader.create(
+                TestHelper.utf8InputStream("the id,order\r\n1,2.5\r\n"), this.data);
+        Assert.assertEquals(1, new MetaCSVBulkLoader(this.supplier, "quoted").load(reader));
+        reader.close();
+        ResultSet rs = statement.executeQuery("SELECT \"the id\", \"order\" FROM quoted");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(1, rs.getInt(1));
+        Assert.assertEquals(2.5, rs.getDouble(2), 1e-9);
+    }
+
+    @Test
+    public void testLoadColumns() throws SQLException, IOException, MetaCSVReadException,
+            MetaCSVParseException, MetaCSVDataException {
+        MetaCSVReader reader = MetaCSVReader.create(
+                TestHelper.utf8InputStream("a,b\r\n1,2.5\r\n"), this.data);
+        MetaCSVBulkLoader loader = new MetaCSVBulkLoader(this.supplier, "load");
+        Assert.assertEquals(1, loader.load(reader, Arrays.asList("id", "val")));
+        reader.close();
+        ResultSet rs = this.connection.createStatement().executeQuery(
+                "SELECT id, val, name FROM load");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(1, rs.getInt(1));
+        Assert.assertEquals(2.5, rs.getDouble(2), 1e-9);
+        Assert.assertNull(rs.getString(3));
+        Assert.assertFalse(rs.next());
+    }
+
+    @Test
+    public void testInsertStatement() {
+        MetaCSVBulkLoader loader = new MetaCSVBulkLoader(this.supplier, "t");
+        Assert.assertEquals("INSERT INTO t (\"a\", \"b c\") VALUES (?, ?)",
+                loader.getInsertStatement(Arrays.asList("a", "b c")));
+        Assert.assertEquals("INSERT INTO t (`a`, `b``c`) VALUES (?, ?)",
+                loader.getInsertStatement(Arrays.asList("a", "b`c"), "`"));
+        Assert.assertEquals("INSERT INTO t (a, b) VALUES (?, ?)",
+                loader.getInsertStatement(Arrays.asList("a", "b"), " "));
+    }
+
+    @Test
+    public void testError() throws IOException, MetaCSVReadException, MetaCSVParseException,
+            MetaCSVDataException {
+        StringBuilder sb = new StringBuilder("id,val\r\n");
+        for (int i = 0; i < 100; i++) {
+            sb.append(i).append(",1.0\r\n");
+        }
+        final MetaCSVReader reader = MetaCSVReader.create(
+                TestHelper.utf8InputStream(sb.toString()), this.data);
+        Assert.assertThrows(SQLException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                new MetaCSVBulkLoader(MetaCSVBulkLoaderTest.this.supplier, "missing", 10, 10,
+                        2).load(reader);
+            }
+        });
+        reader.close();
+    }
+
+    @Test
+    public void testRollback() throws SQLException, IOException, MetaCSVReadException,
+            MetaCSVParseException, MetaCSVDataException {
+        Statement statement = this.connection.createStatement();
+        statement.executeUpdate("ALTER TABLE load ADD CONSTRAINT positive CHECK (id >= 0)");
+        StringBuilder sb = new StringBuilder("id\r\n");
+        for (int i = 0; i < 50; i++) {
+            sb.append(i == 35 ? -1 : i).append("\r\n");
+        }
+        final MetaCSVReader reader = MetaCSVReader.create(
+                TestHelper.utf8InputStream(sb.toString()), this.data);
+        Assert.assertThrows(SQLException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                new MetaCSVBulkLoader(MetaCSVBulkLoaderTest.this.supplier, "load", 10, 1000,
+                        1).load(reader);
+            }
+        });
+        reader.close();
+        ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM load");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(0, rs.getLong(1));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.OnError;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.BooleanFieldDescription;
+import com.github.jferard.javamcsv.description.CurrencyIntegerFieldDescription;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import com.github.jferard.javamcsv.description.PercentageFloatFieldDescription;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MetaCSVCanonicalizerTest {
+    private MetaCSVData data;
+    private File csvFile;
+
+    @Before
+    public void setUp() throws MetaCSVDataException, IOException {
+        this.data = new MetaCSVDataBuilder().delimiter(';').bom(true).nullValue("NULL")
+                .colType(0, new IntegerFieldDescription(" "))
+                .colType(1, new FloatFieldDescription(".", ","))
+                .colType(2, DateFieldDescription.create("dd/MM/yyyy"))
+                .colType(3, new BooleanFieldDescription("T", "F"))
+                .colType(4, new CurrencyIntegerFieldDescription(false, "€",
+                        new IntegerFieldDescription(" ")))
+                .colType(5, new PercentageFloatFieldDescription(false, "%",
+                        new FloatFieldDescription("", ",")))
+                .build();
+        this.csvFile = File.createTempFile("test", ".csv");
+        this.csvFile.deleteOnExit();
+        OutputStream out = new FileOutputStream(this.csvFile);
+        out.write(("﻿i;f;d;b;c;p;t\r\n" +
+                "1 000;1.000,5;01/02/2020;T;12 €;50%;\"a;b\"\r\n" +
+                "NULL;-2,5;NULL;f;NULL;NULL;\"x\r\ny\"\r\n" +
+                "foo;3;31/12/1999;F;7 €;1,5%;NULL\r\n").getBytes(TestHelper.UTF_8_CHARSET));
+        out.close();
+    }
+
+    @Test
+    public void testCanonicalize() throws IOException, MetaCSVReadException {
+        String expected = "i,f,d,b,c,p,t\r\n" +
+                "1000,1000.5,2020-02-01,true,12,0.5,a;b\r\n" +
+                ",-2.5,,false,,,\"x\r\ny\"\r\n" +
+                "foo,3,1999-12-31,false,7,0.015,\r\n";
+        for (int chunkSize = 1; chunkSize < 120; chunkSize += 13) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new MetaCSVCanonicalizer(this.data, OnError.TEXT, 2, chunkSize)
+                    .canonicalize(this.csvFile, out);
+            Assert.assertEquals(expected, new String(out.toByteArray(), TestHelper.UTF_8_CHARSET));
+        }
+    }
+
+    @Test
+    public void testCanonicalizeNullOrException() throws IOException, MetaCSVReadException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MetaCSVCanonicalizer(this.data, OnError.NULL, 2, 10).canonicalize(this.csvFile, out);
+        Assert.assertTrue(new String(out.toByteArray(), TestHelper.UTF_8_CHARSET)
+                .endsWith("\r\n,3,1999-12-31,false,7,0.015,\r\n"));
+        Assert.assertThrows(MetaCSVReadException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                new MetaCSVCanonicalizer(MetaCSVCanonicalizerTest.this.data, OnError.EXCEPTION,
+                        2, 10).canonicalize(MetaCSVCanonicalizerTest.this.csvFile,
+                        new ByteArrayOutputStream());
+            }
+        });
+    }
+
+    @Test
+    public void testCanonicalFiles()
+            throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException {
+        File outFile = File.createTempFile("test", ".csv");
+        outFile.deleteOnExit();
+        File mcsvFile = Util.withExtension(outFile, ".mcsv");
+        mcsvFile.deleteOnExit();
+        new MetaCSVCanonicalizer(this.data, OnError.NULL, 2, 1024)
+                .canonicalize(this.csvFile, outFile);
+        Assert.assertEquals("domain,key,value\r\n" +
+                "data,col/0/type,integer\r\n" +
+                "data,col/1/type,float//.\r\n" +
+                "data,col/2/type,date/yyyy-MM-dd\r\n" +
+                "data,col/3/type,boolean/true/false\r\n" +
+                "data,col/4/type,integer\r\n" +
+                "data,col/5/type,float//.\r\n", this.readAll(mcsvFile));
+
+        MetaCSVReader reader = MetaCSVReader.create(outFile);
+        List<List<Object>> rows = new ArrayList<List<Object>>();
+        for (MetaCSVRecord record : reader) {
+            rows.add(record.toList());
+        }
+        reader.close();
+        Assert.assertEquals(4, rows.size());
+        Assert.assertEquals(Arrays.<Object>asList(null, 3.0, rows.get(3).get(2), false, 7L, 0.015,
+                null), rows.get(3));
+    }
+
+    private String readAll(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int count = in.read(buffer);
+        while (count != -1) {
+            out.write(buffer, 0, count);
+            count = in.read(buffer);
+        }
+        in.close();
+        return new String(out.toByteArray(), TestHelper.UTF_8_CHARSET);
+    }
+}
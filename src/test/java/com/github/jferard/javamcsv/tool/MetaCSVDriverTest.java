@@ -0,0 +1,223 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.InstrumentationStatistics;
+import com.github.jferard.javamcsv.TestHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.sql.Types;
+
+public class MetaCSVDriverTest {
+    private File directory;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        this.directory = File.createTempFile("test", "");
+        Assert.assertTrue(this.directory.delete());
+        Assert.assertTrue(this.directory.mkdir());
+        this.directory.deleteOnExit();
+        this.write("people.csv", "id,name,age,score\r\n" +
+                "1,alice,31,\"12,5\"\r\n" +
+                "2,bob,25,\"8,25\"\r\n" +
+                "3,carol,,\"15,0\"\r\n" +
+                "4,dave,40,\"9,75\"\r\n");
+        this.write("people.mcsv", "domain,key,value\r\n" +
+                "data,col/0/type,integer\r\n" +
+                "data,col/2/type,integer\r\n" +
+                "data,col/3/type,\"float//,\"\r\n");
+        this.write("orphan.csv", "a\r\n1\r\n");
+        this.connection = DriverManager.getConnection("jdbc:mcsv:" + this.directory.getPath());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testSelect() throws SQLException {
+        Statement statement = this.connection.createStatement();
+        ResultSet rs = statement.executeQuery(
+                "SELECT name, AGE FROM people WHERE age >= 30 AND name <> 'dave'");
+        ResultSetMetaData metaData = rs.getMetaData();
+        Assert.assertEquals(2, metaData.getColumnCount());
+        Assert.assertEquals("name", metaData.getColumnName(1));
+        Assert.assertEquals("age", metaData.getColumnName(2));
+        Assert.assertEquals(Types.INTEGER, metaData.getColumnType(2));
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("alice", rs.getString(1));
+        Assert.assertEquals(31, rs.getInt("age"));
+        Assert.assertEquals(1, rs.getRow());
+        Assert.assertFalse(rs.next());
+        rs.close();
+        statement.close();
+    }
+
+    @Test
+    public void testCacheInstrumentation() throws SQLException {
+        MetaCSVDriver driver = (MetaCSVDriver) DriverManager.getDriver(MetaCSVDriver.URL_PREFIX);
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        driver.setInstrumentation(statistics);
+        try {
+            Statement statement = this.connection.createStatement();
+            statement.executeQuery("SELECT name FROM people").close();
+            double firstHitRate = statistics.getHitRate(MetaCSVDataCache.NAME);
+            statement.executeQuery("SELECT name FROM people").close();
+            statement.close();
+            Assert.assertTrue(firstHitRate < 1.0);
+            Assert.assertTrue(statistics.getHitRate(MetaCSVDataCache.NAME) > firstHitRate);
+        } finally {
+            driver.setInstrumentation(null);
+        }
+    }
+
+    @Test
+    public void testSelectStar() throws SQLException {
+        Statement statement = this.connection.createStatement();
+        ResultSet rs = statement.executeQuery("select * from \"people\" where score < 10.5;");
+        Assert.assertEquals(4, rs.getMetaData().getColumnCount());
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(2, rs.getLong("id"));
+        Assert.assertEquals(8.25, rs.getDouble("score"), 0.001);
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("dave", rs.getString("name"));
+        Assert.assertFalse(rs.next());
+        rs.close();
+    }
+
+    @Test
+    public void testNullAndLimit() throws SQLException {
+        Statement statement = this.connection.createStatement();
+        ResultSet rs = statement.executeQuery("SELECT name FROM people WHERE age IS NULL");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("carol", rs.getString(1));
+        Assert.assertFalse(rs.next());
+
+        rs = statement.executeQuery("SELECT id FROM people WHERE age IS NOT NULL LIMIT 2");
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(1, rs.getInt(1));
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(2, rs.getInt(1));
+        Assert.assertFalse(rs.next());
+
+        statement.setMaxRows(1);
+        rs = statement.executeQuery("SELECT id FROM people");
+        Assert.assertTrue(rs.next());
+        Assert.assertFalse(rs.next());
+        statement.close();
+    }
+
+    @Test
+    public void testErrors() throws SQLException {
+        final Statement statement = this.connection.createStatement();
+        Assert.assertThrows(SQLSyntaxErrorException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                statement.executeQuery("SELECT FROM people");
+            }
+        });
+        Assert.assertThrows(SQLSyntaxErrorException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                statement.executeQuery("SELECT foo FROM people");
+            }
+        });
+        Assert.assertThrows(SQLSyntaxErrorException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                statement.executeQuery("SELECT * FROM people WHERE age = 'x'");
+            }
+        });
+        Assert.assertThrows(SQLException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                statement.executeQuery("SELECT * FROM orphan");
+            }
+        });
+    }
+
+    @Test
+    public void testDatabaseMetaData() throws SQLException {
+        DatabaseMetaData metaData = this.connection.getMetaData();
+        Assert.assertTrue(metaData.isReadOnly());
+        ResultSet tables = metaData.getTables(null, null, "%", null);
+        Assert.assertTrue(tables.next());
+        Assert.assertEquals("people", tables.getString("TABLE_NAME"));
+        Assert.assertEquals("TABLE", tables.getString("TABLE_TYPE"));
+        Assert.assertFalse(tables.next());
+
+        ResultSet columns = metaData.getColumns(null, null, "peo_le", "%e");
+        Assert.assertTrue(columns.next());
+        Assert.assertEquals("name", columns.getString("COLUMN_NAME"));
+        Assert.assertEquals(Types.VARCHAR, columns.getInt("DATA_TYPE"));
+        Assert.assertEquals(2, columns.getInt("ORDINAL_POSITION"));
+        Assert.assertTrue(columns.next());
+        Assert.assertEquals("age", columns.getString("COLUMN_NAME"));
+        Assert.assertEquals(Types.INTEGER, columns.getInt("DATA_TYPE"));
+        Assert.assertTrue(columns.next());
+        Assert.assertEquals("score", columns.getString("COLUMN_NAME"));
+        Assert.assertFalse(columns.next());
+    }
+
+    @Test
+    public void testMetaCSVDataCache() throws SQLException, IOException {
+        MetaCSVConnection mcsvConnection = this.connection.unwrap(MetaCSVConnection.class);
+        Assert.assertSame(mcsvConnection.getMetaCSVData("people"),
+                mcsvConnection.getMetaCSVData("people"));
+
+        File metaCSVFile = new File(this.directory, "people.mcsv");
+        this.write("people.mcsv", "domain,key,value\r\n");
+        Assert.assertTrue(metaCSVFile.setLastModified(metaCSVFile.lastModified() + 2000));
+        ResultSet rs = this.connection.createStatement().executeQuery(
+                "SELECT age FROM people WHERE id = '1'");
+        Assert.assertEquals(Types.VARCHAR, rs.getMetaData().getColumnType(1));
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals("31", rs.getObject(1));
+    }
+
+    private void write(String name, String text) throws IOException {
+        File file = new File(this.directory, name);
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(TestHelper.UTF_8_CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+}
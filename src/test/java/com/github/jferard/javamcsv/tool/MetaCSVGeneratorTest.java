@@ -0,0 +1,139 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.DataType;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.MetaCSVRecord;
+import com.github.jferard.javamcsv.TestHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class MetaCSVGeneratorTest {
+    @Test
+    public void testReproducible() throws IOException, MetaCSVDataException {
+        MetaCSVGeneratorBuilder builder = new MetaCSVGeneratorBuilder().rowCount(100)
+                .nullRatio(0.1).errorRatio(0.1).newlineRatio(0.1);
+        byte[] first = this.generate(builder.seed(1L).build());
+        Assert.assertArrayEquals(first, this.generate(builder.seed(1L).build()));
+        Assert.assertFalse(Arrays.equals(first, this.generate(builder.seed(2L).build())));
+    }
+
+    @Test
+    public void testAllTypes()
+            throws IOException, MetaCSVDataException, MetaCSVParseException,
+            MetaCSVReadException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        new MetaCSVGeneratorBuilder().rowCount(500).seed(3L).build().generate(csvFile);
+        Assert.assertTrue(Tool.validate(csvFile).isValid());
+
+        MetaCSVReader reader = MetaCSVReader.create(csvFile);
+        DataType[] dataTypes = DataType.values();
+        int count = 0;
+        for (MetaCSVRecord record : reader) {
+            if (count > 0) {
+                for (int c = 0; c < dataTypes.length; c++) {
+                    Object value = record.getObject(c);
+                    Assert.assertNotNull(value);
+                    Assert.assertTrue(dataTypes[c] + ": " + value,
+                            dataTypes[c].getDefaultDescription().getJavaType()
+                                    .isInstance(value));
+                }
+            }
+            count++;
+        }
+        reader.close();
+        Assert.assertEquals(501, count);
+    }
+
+    @Test
+    public void testNullsAndErrors()
+            throws IOException, MetaCSVDataException, MetaCSVParseException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        new MetaCSVGeneratorBuilder().rowCount(1000).nullRatio(0.2).errorRatio(0.1)
+                .errorRatio(0, 0.5).build().generate(csvFile);
+        ValidationReport report = Tool.validate(csvFile);
+        Assert.assertEquals(1000, report.getRowCount());
+        DataType[] dataTypes = DataType.values();
+        for (int c = 0; c < dataTypes.length; c++) {
+            long errorCount = report.getErrorCount(c);
+            if (dataTypes[c] == DataType.TEXT || dataTypes[c] == DataType.OBJECT) {
+                Assert.assertEquals(0, errorCount);
+            } else if (c == 0) {
+                Assert.assertTrue(errorCount > 400 && errorCount < 600);
+            } else {
+                Assert.assertTrue(dataTypes[c] + ": " + errorCount,
+                        errorCount > 50 && errorCount < 150);
+            }
+        }
+    }
+
+    @Test
+    public void testLocaleCardinalityAndNewlines()
+            throws IOException, MetaCSVDataException, MetaCSVParseException,
+            MetaCSVReadException {
+        MetaCSVData data = new MetaCSVParserBuilder().metaCSVDirectives(
+                "csv,delimiter,;",
+                "data,col/0/type,\"currency/post/€/decimal/ /,\"",
+                "data,col/1/type,text").buildData();
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        new MetaCSVGeneratorBuilder().metaData(data).rowCount(200).cardinality(0, 5)
+                .newlineRatio(1.0).build().generate(csvFile);
+
+        MetaCSVReader reader = MetaCSVReader.create(csvFile);
+        Set<BigDecimal> values = new HashSet<BigDecimal>();
+        int count = 0;
+        for (MetaCSVRecord record : reader) {
+            if (count > 0) {
+                values.add(record.getDecimal(0));
+                Assert.assertTrue(record.getText(1).toString().contains("\r\n"));
+            }
+            count++;
+        }
+        reader.close();
+        Assert.assertEquals(201, count);
+        Assert.assertTrue(values.size() <= 5);
+        String text = TestHelper.toString(csvFile);
+        Assert.assertTrue(text.matches("(?s).*\\n-?\\d{1,3} \\d{3},\\d{2} €;.*"));
+    }
+
+    private byte[] generate(MetaCSVGenerator generator) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(out);
+        return out.toByteArray();
+    }
+}
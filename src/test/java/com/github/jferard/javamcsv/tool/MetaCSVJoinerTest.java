@@ -0,0 +1,208 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.MetaCSVReader;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.DecimalFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class MetaCSVJoinerTest {
+    private static final String LEFT = "id,name\r\n" +
+            "1,a\r\n" +
+            "2,b\r\n" +
+            "NULL,c\r\n" +
+            "3,d\r\n" +
+            "1,e\r\n";
+    private static final String RIGHT = "score,id\r\n" +
+            "20,2\r\n" +
+            "10,1\r\n" +
+            "11,1\r\n" +
+            "NULL,NULL\r\n" +
+            "40,4\r\n";
+
+    @Test
+    public void testHashInner() throws Exception {
+        File outFile = this.createOutFile();
+        long count = new MetaCSVJoiner(new int[]{0}, new int[]{1},
+                MetaCSVJoiner.JoinType.INNER).hashJoin(this.left(LEFT), this.right(RIGHT),
+                outFile);
+        Assert.assertEquals(5, count);
+        Assert.assertEquals("id,name,score\r\n" +
+                "1,a,10\r\n" +
+                "1,a,11\r\n" +
+                "2,b,20\r\n" +
+                "1,e,10\r\n" +
+                "1,e,11\r\n", TestHelper.toString(outFile));
+        Assert.assertEquals("domain,key,value\r\n" +
+                        "data,col/0/type,integer\r\n" +
+                        "data,col/2/type,integer\r\n",
+                TestHelper.toString(Util.withExtension(outFile, ".mcsv")));
+    }
+
+    @Test
+    public void testHashLeft() throws Exception {
+        File outFile = this.createOutFile();
+        long count = new MetaCSVJoiner(new int[]{0}, new int[]{1},
+                MetaCSVJoiner.JoinType.LEFT).hashJoin(this.left(LEFT), this.right(RIGHT),
+                outFile);
+        Assert.assertEquals(7, count);
+        Assert.assertEquals("id,name,score\r\n" +
+                "1,a,10\r\n" +
+                "1,a,11\r\n" +
+                "2,b,20\r\n" +
+                "\"\",c,\r\n" +
+                "3,d,\r\n" +
+                "1,e,10\r\n" +
+                "1,e,11\r\n", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testGraceHash() throws Exception {
+        StringBuilder left = new StringBuilder("id,name\r\n");
+        StringBuilder right = new StringBuilder("score,id\r\n");
+        for (int i = 0; i < 500; i++) {
+            left.append(i % 120).append(",n").append(i).append("\r\n");
+            right.append(i).append(',').append(i % 100).append("\r\n");
+        }
+        left.append("NULL,x\r\n");
+        File inMemoryFile = this.createOutFile();
+        File spilledFile = this.createOutFile();
+        long inMemoryCount = new MetaCSVJoiner(new int[]{0}, new int[]{1},
+                MetaCSVJoiner.JoinType.LEFT).hashJoin(this.left(left.toString()),
+                this.right(right.toString()), inMemoryFile);
+        long spilledCount = new MetaCSVJoiner(new int[]{0}, new int[]{1},
+                MetaCSVJoiner.JoinType.LEFT, 1024, null).hashJoin(this.left(left.toString()),
+                this.right(right.toString()), spilledFile);
+        Assert.assertEquals(420 * 5 + 80 + 1, inMemoryCount);
+        Assert.assertEquals(inMemoryCount, spilledCount);
+        Assert.assertEquals(this.sortedLines(inMemoryFile), this.sortedLines(spilledFile));
+    }
+
+    @Test
+    public void testGraceHashText() throws Exception {
+        StringBuilder left = new StringBuilder("code,name\r\n");
+        StringBuilder right = new StringBuilder("code,score\r\n");
+        for (int i = 0; i < 300; i++) {
+            left.append("c").append(i % 70).append(",n").append(i).append("\r\n");
+            right.append("c").append(i % 50).append(',').append(i).append("\r\n");
+        }
+        MetaCSVData data = new MetaCSVDataBuilder().build();
+        File inMemoryFile = this.createOutFile();
+        File spilledFile = this.createOutFile();
+        long inMemoryCount = new MetaCSVJoiner(new int[]{0}, new int[]{0},
+                MetaCSVJoiner.JoinType.INNER).hashJoin(
+                MetaCSVReader.create(this.toStream(left.toString()), data),
+                MetaCSVReader.create(this.toStream(right.toString()), data), inMemoryFile);
+        long spilledCount = new MetaCSVJoiner(new int[]{0}, new int[]{0},
+                MetaCSVJoiner.JoinType.INNER, 1024, null).hashJoin(
+                MetaCSVReader.create(this.toStream(left.toString()), data),
+                MetaCSVReader.create(this.toStream(right.toString()), data), spilledFile);
+        Assert.assertEquals(inMemoryCount, spilledCount);
+        Assert.assertTrue(spilledCount > 0);
+        Assert.assertEquals(this.sortedLines(inMemoryFile), this.sortedLines(spilledFile));
+    }
+
+    @Test
+    public void testMergeDecimal() throws Exception {
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, new DecimalFieldDescription("", ".")).build();
+        MetaCSVReader left = MetaCSVReader.create(this.toStream(
+                "amount,l\r\nNULL,n\r\n1.0,a\r\n1.00,b\r\n2.5,c\r\n7,d\r\n"), data);
+        MetaCSVReader right = MetaCSVReader.create(this.toStream(
+                "amount,r\r\nNULL,z\r\n0.5,w\r\n1,x\r\n1.000,y\r\n7.00,v\r\n"), data);
+        File outFile = this.createOutFile();
+        long count = new MetaCSVJoiner(new int[]{0}, new int[]{0},
+                MetaCSVJoiner.JoinType.LEFT).mergeJoin(left, right, outFile);
+        Assert.assertEquals(7, count);
+        Assert.assertEquals("amount,l,r\r\n" +
+                "\"\",n,\r\n" +
+                "1.0,a,x\r\n" +
+                "1.0,a,y\r\n" +
+                "1.0,b,x\r\n" +
+                "1.0,b,y\r\n" +
+                "2.5,c,\r\n" +
+                "7.0,d,v\r\n", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testMergeNotSorted() throws Exception {
+        MetaCSVJoiner joiner = new MetaCSVJoiner(new int[]{0}, new int[]{1},
+                MetaCSVJoiner.JoinType.INNER);
+        try {
+            joiner.mergeJoin(this.left(LEFT), this.right(RIGHT), this.createOutFile());
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("not sorted"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyTypes() throws Exception {
+        new MetaCSVJoiner(new int[]{1}, new int[]{1}, MetaCSVJoiner.JoinType.INNER)
+                .hashJoin(this.left(LEFT), this.right(RIGHT), this.createOutFile());
+    }
+
+    private MetaCSVReader left(String text) throws IOException, MetaCSVDataException,
+            MetaCSVReadException, MetaCSVParseException {
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE).build();
+        return MetaCSVReader.create(this.toStream(text), data);
+    }
+
+    private MetaCSVReader right(String text) throws IOException, MetaCSVDataException,
+            MetaCSVReadException, MetaCSVParseException {
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE)
+                .colType(1, IntegerFieldDescription.INSTANCE).build();
+        return MetaCSVReader.create(this.toStream(text), data);
+    }
+
+    private ByteArrayInputStream toStream(String text) {
+        return new ByteArrayInputStream(text.getBytes(TestHelper.UTF_8_CHARSET));
+    }
+
+    private String sortedLines(File file) throws IOException {
+        String[] lines = TestHelper.toString(file).split("\r\n");
+        Arrays.sort(lines);
+        return Arrays.toString(lines);
+    }
+
+    private File createOutFile() throws IOException {
+        File outFile = File.createTempFile("test", ".csv");
+        outFile.deleteOnExit();
+        Util.withExtension(outFile, ".mcsv").deleteOnExit();
+        return outFile;
+    }
+}
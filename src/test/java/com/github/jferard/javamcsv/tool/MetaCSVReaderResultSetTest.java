@@ -38,6 +38,7 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
@@ -432,4 +433,30 @@ public class MetaCSVReaderResultSetTest {
             }
         });
     }
+
+    @Test
+    public void testPrimitiveGetters() throws SQLException {
+        Assert.assertTrue(rs.next());
+        Assert.assertTrue(rs.getBoolean(1));
+        Assert.assertFalse(rs.wasNull());
+        Assert.assertEquals(10000.5, rs.getDouble(5), 0.001);
+        Assert.assertEquals(0.565, rs.getDouble(7), 0.001);
+        Assert.assertEquals(12354L, rs.getLong("INTEGER"));
+        Assert.assertEquals(12354.0, rs.getDouble("Integer"), 0.001);
+        Assert.assertFalse(rs.wasNull());
+        Assert.assertNull(rs.getObject(4));
+        Assert.assertTrue(rs.wasNull());
+        Assert.assertNull(rs.getTime(4));
+        Assert.assertTrue(rs.wasNull());
+        Assert.assertEquals(Long.valueOf(12354L), rs.getObject(6, Long.class));
+        Assert.assertEquals(Double.valueOf(10000.5), rs.getObject(5, Double.class));
+        Assert.assertNull(rs.getObject(4, Timestamp.class));
+        Assert.assertNull(rs.getObject(4, BigDecimal.class));
+        Assert.assertThrows(SQLException.class, new ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                rs.getObject(8, Integer.class);
+            }
+        });
+    }
 }
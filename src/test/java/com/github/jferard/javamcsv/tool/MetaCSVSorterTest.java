@@ -0,0 +1,147 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.DecimalFieldDescription;
+import com.github.jferard.javamcsv.description.FloatFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MetaCSVSorterTest {
+    private static final String CSV = "id,day,amount,ratio\r\n" +
+            "a,02/01/2020,10.5,1.5\r\n" +
+            "b,01/02/2019,9.25,-2.0\r\n" +
+            "c,NULL,-1,0.0\r\n" +
+            "\"d\r\nd\",02/01/2020,9.25,-0.5\r\n" +
+            "e,31/12/2019,foo,NULL\r\n" +
+            "f,01/02/2019,100,3.0\r\n" +
+            "g,02/01/2020,10.5,1.5";
+
+    @Test
+    public void testSortByDate() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        for (int chunkSize = 1; chunkSize < 160; chunkSize += 11) {
+            File outFile = this.createOutFile();
+            long count = new MetaCSVSorter(this.getData(), Collections.singletonList(
+                    SortKey.asc(1)), 3, chunkSize, 2, null).sort(csvFile, outFile);
+            Assert.assertEquals(7, count);
+            Assert.assertEquals("id,day,amount,ratio\r\n" +
+                    "c,NULL,-1,0.0\r\n" +
+                    "b,01/02/2019,9.25,-2.0\r\n" +
+                    "f,01/02/2019,100,3.0\r\n" +
+                    "e,31/12/2019,foo,NULL\r\n" +
+                    "a,02/01/2020,10.5,1.5\r\n" +
+                    "\"d\r\nd\",02/01/2020,9.25,-0.5\r\n" +
+                    "g,02/01/2020,10.5,1.5\r\n", TestHelper.toString(outFile));
+            Assert.assertTrue(Util.withExtension(outFile, ".mcsv").exists());
+        }
+    }
+
+    @Test
+    public void testSortByDecimalAndFloat() throws IOException, MetaCSVDataException {
+        File csvFile = this.createFile(CSV);
+        File outFile = this.createOutFile();
+        new MetaCSVSorter(this.getData(), Arrays.asList(SortKey.desc(2), SortKey.asc(3)), 2,
+                20, 3, null).sort(csvFile, outFile);
+        Assert.assertEquals("id,day,amount,ratio\r\n" +
+                "f,01/02/2019,100,3.0\r\n" +
+                "a,02/01/2020,10.5,1.5\r\n" +
+                "g,02/01/2020,10.5,1.5\r\n" +
+                "b,01/02/2019,9.25,-2.0\r\n" +
+                "\"d\r\nd\",02/01/2020,9.25,-0.5\r\n" +
+                "c,NULL,-1,0.0\r\n" +
+                "e,31/12/2019,foo,NULL\r\n", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testBOM() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().bom(true).build();
+        File csvFile = this.createFile("﻿a,b\r\nz,1\r\né,2\r\ny,3\r\n");
+        File outFile = this.createOutFile();
+        new MetaCSVSorter(data, Collections.singletonList(SortKey.desc(0)), 2, 5, 2, null)
+                .sort(csvFile, outFile);
+        Assert.assertEquals("﻿a,b\r\né,2\r\nz,1\r\ny,3\r\n", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testToolSort()
+            throws IOException, MetaCSVDataException, MetaCSVParseException {
+        File csvFile = this.createFile("a,b\r\nx,10\r\ny,9\r\n");
+        File mcsvFile = Util.withExtension(csvFile, ".mcsv");
+        mcsvFile.deleteOnExit();
+        Writer mw = new OutputStreamWriter(new FileOutputStream(mcsvFile),
+                TestHelper.UTF_8_CHARSET);
+        mw.write("domain,key,value\r\ndata,col/1/type,integer\r\n");
+        mw.close();
+        File outFile = this.createOutFile();
+        Assert.assertEquals(2, Tool.sort(csvFile, outFile, SortKey.asc(1)));
+        Assert.assertEquals("a,b\r\ny,9\r\nx,10\r\n", TestHelper.toString(outFile));
+    }
+
+    @Test
+    public void testSortableLong() {
+        double[] values = {Double.NEGATIVE_INFINITY, -1e10, -1.5, -0.0, 0.0, 1e-10, 2.5,
+                Double.POSITIVE_INFINITY};
+        for (int i = 1; i < values.length; i++) {
+            Assert.assertTrue(MetaCSVSorter.toSortableLong(values[i - 1]) <
+                    MetaCSVSorter.toSortableLong(values[i]));
+        }
+    }
+
+    private MetaCSVData getData() throws MetaCSVDataException {
+        return new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(1, DateFieldDescription.create("dd/MM/yyyy"))
+                .colType(2, new DecimalFieldDescription("", "."))
+                .colType(3, FloatFieldDescription.INSTANCE)
+                .build();
+    }
+
+    private File createOutFile() throws IOException {
+        File outFile = File.createTempFile("sorted", ".csv");
+        outFile.deleteOnExit();
+        Util.withExtension(outFile, ".mcsv").deleteOnExit();
+        return outFile;
+    }
+
+    private File createFile(String text) throws IOException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Writer w = new OutputStreamWriter(new FileOutputStream(csvFile), TestHelper.UTF_8_CHARSET);
+        w.write(text);
+        w.close();
+        return csvFile;
+    }
+}
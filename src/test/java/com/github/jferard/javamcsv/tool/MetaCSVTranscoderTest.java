@@ -0,0 +1,234 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.CSVFormatHelper;
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVParserBuilder;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MetaCSVTranscoderTest {
+    @Test
+    public void testSameDialect() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().build();
+        String text = "a,b\r\n\"x,y\",\"z\"\"\"\r\n\"\"\r\n1,é\r\n";
+        Assert.assertEquals(text, this.transcode(data, data, text));
+    }
+
+    @Test
+    public void testDelimiterAndQuotes() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().build();
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter(';').lineTerminator("\n")
+                .build();
+        String text = "a,b\r\n\"x,y\",\"z;\"\"\"\r\n\r\n\"1\",\"é\nè\"";
+        Assert.assertEquals("a;b\nx,y;\"z;\"\"\"\n1;\"é\nè\"\n",
+                this.transcode(source, target, text));
+        this.checkRecords(source, target, text);
+    }
+
+    @Test
+    public void testEscape() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().delimiter(';').doubleQuote(false)
+                .escapeChar('\\').build();
+        MetaCSVData target = new MetaCSVDataBuilder().build();
+        String text = "a;b\r\n\"x\\\"\r\ny\";\\\\\r\n1;\\;2\r\n";
+        Assert.assertEquals("a,b\r\n\"x\"\"\r\ny\",\\\r\n1,;2\r\n",
+                this.transcode(source, target, text));
+        this.checkRecords(source, target, text);
+        this.checkRecords(target, source, this.transcode(source, target, text));
+    }
+
+    @Test
+    public void testSkipInitialSpace() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().skipInitialSpace(true).build();
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter('\t').build();
+        Assert.assertEquals("a\tb\r\nc d\t e\r\n",
+                this.transcode(source, target, "a, b \r\n c d , \" e\"\r\n"));
+    }
+
+    @Test
+    public void testCharsetAndBOM() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().bom(true).build();
+        MetaCSVData target = new MetaCSVDataBuilder().encoding("ISO-8859-1").build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MetaCSVTranscoder(source, target).transcode(
+                new ByteArrayInputStream("﻿a,é\r\n".getBytes(TestHelper.UTF_8_CHARSET)),
+                out);
+        Assert.assertArrayEquals("a,é\r\n".getBytes(Charset.forName("ISO-8859-1")),
+                out.toByteArray());
+
+        out = new ByteArrayOutputStream();
+        new MetaCSVTranscoder(target, source).transcode(
+                new ByteArrayInputStream("a,é\r\n".getBytes(Charset.forName("ISO-8859-1"))),
+                out);
+        Assert.assertArrayEquals("﻿a,é\r\n".getBytes(TestHelper.UTF_8_CHARSET),
+                out.toByteArray());
+    }
+
+    @Test
+    public void testSameQuoting() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().build();
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter(';').build();
+        Assert.assertEquals("\"a\"\"b\";\"c;\";d,e\r\n",
+                this.transcode(source, target, "\"a\"\"b\",\"c;\",\"d,e\"\r\n"));
+    }
+
+    @Test
+    public void testBytesAndChars() throws IOException, MetaCSVDataException {
+        MetaCSVData comma = new MetaCSVDataBuilder().build();
+        MetaCSVData semicolon = new MetaCSVDataBuilder().delimiter(';').lineTerminator("\n")
+                .skipInitialSpace(true).build();
+        MetaCSVData escape = new MetaCSVDataBuilder().delimiter(';').doubleQuote(false)
+                .escapeChar('\\').build();
+        MetaCSVData[] dialects = {comma, semicolon, escape};
+        String[] texts = {
+                "a,b\r\n\"x,y\",\"z\"\"\"\r\n\"\"\r\n1, 2 \r\n",
+                "a;b\n\"x;y\"; \"z\"\"\" \n\"\"\n1; 2 ;\n",
+                "a;b\r\n\"x\\\"\r\ny\";\\\\\r\n1;\\;2\r\n\"\";\r\n",
+        };
+        for (int i = 0; i < dialects.length; i++) {
+            for (MetaCSVData target : dialects) {
+                MetaCSVData charTarget = new MetaCSVDataBuilder().encoding("US-ASCII")
+                        .delimiter(target.getDelimiter())
+                        .lineTerminator(target.getLineTerminator())
+                        .doubleQuote(target.isDoubleQuote()).escapeChar(target.getEscapeChar())
+                        .skipInitialSpace(target.isSkipInitialSpace()).build();
+                Assert.assertEquals(this.transcode(dialects[i], charTarget, texts[i]),
+                        this.transcode(dialects[i], target, texts[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testLongFields() throws IOException, MetaCSVDataException {
+        MetaCSVData source = new MetaCSVDataBuilder().build();
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter(';').build();
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append(i).append(",\"a\"\"").append(i).append("\",\"b,").append(i)
+                    .append("\"\r\n");
+            expected.append(i).append(";\"a\"\"").append(i).append("\";b,").append(i)
+                    .append("\r\n");
+        }
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            longField.append((char) ('a' + i % 26));
+        }
+        text.append('"').append(longField).append("\"\r\n");
+        expected.append(longField).append("\r\n");
+        Assert.assertEquals(expected.toString(),
+                this.transcode(source, target, text.toString()));
+    }
+
+    @Test
+    public void testMeta() throws MetaCSVDataException {
+        Map<String, String> meta = new HashMap<String, String>();
+        meta.put("author", "me");
+        MetaCSVData source = new MetaCSVDataBuilder().build().withMeta(meta);
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter(';').build();
+        MetaCSVData data = MetaCSVTranscoder.getTargetData(source, target);
+        Assert.assertEquals(';', data.getDelimiter());
+        Assert.assertEquals("me", data.getMeta("author"));
+    }
+
+    @Test
+    public void testInvalid() throws MetaCSVDataException {
+        final MetaCSVData data = new MetaCSVDataBuilder().build();
+        Assert.assertThrows(IOException.class, new org.junit.function.ThrowingRunnable() {
+            @Override
+            public void run() throws Throwable {
+                MetaCSVTranscoderTest.this.transcode(data, data, "a,\"b\"c\r\n");
+            }
+        });
+    }
+
+    @Test
+    public void testFiles() throws IOException, MetaCSVDataException, MetaCSVParseException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        File outFile = File.createTempFile("test", ".csv");
+        outFile.deleteOnExit();
+        Util.withExtension(outFile, ".mcsv").deleteOnExit();
+        OutputStream out = new FileOutputStream(csvFile);
+        out.write("a,b\r\n1,2\r\n".getBytes(TestHelper.UTF_8_CHARSET));
+        out.close();
+        MetaCSVData source = new MetaCSVDataBuilder()
+                .colType(0, new IntegerFieldDescription(null)).build();
+        MetaCSVData target = new MetaCSVDataBuilder().delimiter(';').build();
+        new MetaCSVTranscoder(source, target).transcode(csvFile, outFile);
+
+        MetaCSVData data = new MetaCSVParserBuilder()
+                .metaCSVFile(Util.withExtension(outFile, ".mcsv")).buildData();
+        Assert.assertEquals(';', data.getDelimiter());
+        Assert.assertEquals(source.getDescription(0).toString(),
+                data.getDescription(0).toString());
+        Assert.assertEquals(3 + 2 + 3 + 2, outFile.length());
+    }
+
+    private String transcode(MetaCSVData source, MetaCSVData target, String text)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MetaCSVTranscoder(source, target).transcode(
+                new ByteArrayInputStream(text.getBytes(source.getEncoding())), out);
+        return new String(out.toByteArray(), target.getEncoding());
+    }
+
+    private void checkRecords(MetaCSVData source, MetaCSVData target, String text)
+            throws IOException {
+        Assert.assertEquals(this.parse(source, text),
+                this.parse(target, this.transcode(source, target, text)));
+    }
+
+    private List<List<String>> parse(MetaCSVData data, String text) throws IOException {
+        List<List<String>> rows = new ArrayList<List<String>>();
+        for (CSVRecord record : CSVFormatHelper.getCSVFormat(data)
+                .parse(new StringReader(text))) {
+            List<String> row = new ArrayList<String>();
+            for (String value : record) {
+                row.add(value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
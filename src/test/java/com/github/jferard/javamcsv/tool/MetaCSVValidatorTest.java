@@ -0,0 +1,102 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import com.github.jferard.javamcsv.description.BooleanFieldDescription;
+import com.github.jferard.javamcsv.description.DateFieldDescription;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+public class MetaCSVValidatorTest {
+    private static final String CSV = "a,b,c,d\r\n" +
+            "1,T,2020-01-01,x\r\n" +
+            "foo,F,2020-01-02,\"y\r\nz\"\r\n" +
+            "3,X,bar,\"\"\r\n" +
+            "4,T,NULL,u\r\n" +
+            "five,T,2020-01-05,v\r\n";
+
+    @Test
+    public void testValidate() throws IOException, MetaCSVDataException {
+        MetaCSVData data = new MetaCSVDataBuilder().nullValue("NULL")
+                .colType(0, IntegerFieldDescription.INSTANCE)
+                .colType(1, new BooleanFieldDescription("T", "F"))
+                .colType(2, DateFieldDescription.create("yyyy-MM-dd"))
+                .build();
+        File csvFile = this.createFile(CSV);
+        for (int chunkSize = 1; chunkSize < 100; chunkSize += 7) {
+            ValidationReport report =
+                    new MetaCSVValidator(data, 3, chunkSize, 3).validate(csvFile);
+            Assert.assertEquals(5, report.getRowCount());
+            Assert.assertFalse(report.isValid());
+            Assert.assertEquals(4, report.getTotalErrorCount());
+            Assert.assertEquals(2, report.getErrorCount(0));
+            Assert.assertEquals(1, report.getErrorCount(1));
+            Assert.assertEquals(1, report.getErrorCount(2));
+            Assert.assertEquals(0, report.getErrorCount(3));
+            Assert.assertEquals(3, report.getPositionCount());
+            Assert.assertEquals(2, report.getPositionRow(0));
+            Assert.assertEquals(0, report.getPositionColumn(0));
+            Assert.assertEquals("foo", report.getPositionText(0));
+            Assert.assertEquals(3, report.getPositionRow(1));
+            Assert.assertEquals(1, report.getPositionColumn(1));
+            Assert.assertEquals(3, report.getPositionRow(2));
+            Assert.assertEquals(2, report.getPositionColumn(2));
+        }
+    }
+
+    @Test
+    public void testToolValidate()
+            throws IOException, MetaCSVDataException, MetaCSVParseException {
+        File csvFile = this.createFile("a,b\r\n1,2\r\n3,4\r\n");
+        File mcsvFile = Util.withExtension(csvFile, ".mcsv");
+        mcsvFile.deleteOnExit();
+        Writer mw = new OutputStreamWriter(new FileOutputStream(mcsvFile),
+                TestHelper.UTF_8_CHARSET);
+        mw.write("domain,key,value\r\ndata,col/1/type,integer\r\n");
+        mw.close();
+        ValidationReport report = Tool.validate(csvFile);
+        Assert.assertTrue(report.isValid());
+        Assert.assertEquals(2, report.getRowCount());
+        Assert.assertEquals("ValidationReport{rows=2, errors=0}", report.toString());
+    }
+
+    private File createFile(String text) throws IOException {
+        File csvFile = File.createTempFile("test", ".csv");
+        csvFile.deleteOnExit();
+        Writer w = new OutputStreamWriter(new FileOutputStream(csvFile), TestHelper.UTF_8_CHARSET);
+        w.write(text);
+        w.close();
+        return csvFile;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.InstrumentationStatistics;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.Util;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ParallelResultSetExporterTest {
+    private static final String URL = "jdbc:h2:mem:export;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+    private ConnectionSupplier supplier;
+
+    @Before
+    public void setUp() throws SQLException {
+        this.connection = DriverManager.getConnection(URL);
+        Statement statement = this.connection.createStatement();
+        statement.executeUpdate("DROP TABLE IF EXISTS export");
+        statement.executeUpdate("CREATE TABLE export (id INTEGER, val DOUBLE, name VARCHAR)");
+        PreparedStatement insert =
+                this.connection.prepareStatement("INSERT INTO export VALUES (?, ?, ?)");
+        for (int i = -5; i < 95; i++) {
+            insert.setInt(1, i);
+            insert.setDouble(2, i / 2.0);
+            insert.setString(3, "name " + i);
+            insert.executeUpdate();
+        }
+        statement.executeUpdate("INSERT INTO export VALUES (NULL, NULL, 'null')");
+        this.supplier = new ConnectionSupplier() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return DriverManager.getConnection(URL);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testModulusMerged() throws SQLException, IOException, MetaCSVDataException {
+        File csvFile = this.createTempFile();
+        ParallelResultSetExporter exporter = new ParallelResultSetExporter(this.supplier,
+                "SELECT id, val, name FROM export", Partitioning.modulus("id", 3));
+        InstrumentationStatistics statistics = new InstrumentationStatistics();
+        exporter.setInstrumentation(statistics);
+        Assert.assertEquals(101, exporter.export(csvFile));
+        Assert.assertEquals(3, statistics.getMaxQueueDepth(ParallelResultSetExporter.QUEUE_NAME));
+        Assert.assertEquals(0, statistics.getQueueDepth(ParallelResultSetExporter.QUEUE_NAME));
+
+        List<String> lines = this.readLines(csvFile);
+        Assert.assertEquals("ID,VAL,NAME", lines.get(0));
+        Assert.assertEquals(102, lines.size());
+        Assert.assertEquals(this.expectedRows(), this.sorted(lines.subList(1, lines.size())));
+        Assert.assertTrue(this.readLines(Util.withExtension(csvFile, ".mcsv"))
+                .contains("data,col/0/type,integer"));
+    }
+
+    @Test
+    public void testRangesParts() throws SQLException, IOException, MetaCSVDataException {
+        File csvFile = this.createTempFile();
+        ParallelResultSetExporter exporter = new ParallelResultSetExporter(this.supplier,
+                "SELECT * FROM export", Partitioning.ranges("id", 0, 50),
+                new MetaCSVDataBuilder().delimiter(';'), 2, 7);
+        Assert.assertEquals(101, exporter.exportParts(csvFile));
+
+        List<String> rows = new ArrayList<String>();
+        int[] expectedSizes = {6, 50, 45};
+        for (int i = 0; i < 3; i++) {
+            File partFile = ParallelResultSetExporter.getPartFile(csvFile, i);
+            partFile.deleteOnExit();
+            List<String> lines = this.readLines(partFile);
+            Assert.assertEquals("ID;VAL;NAME", lines.get(0));
+            Assert.assertEquals(expectedSizes[i] + 1, lines.size());
+            for (String line : lines.subList(1, lines.size())) {
+                rows.add(line.replace(';', ','));
+            }
+        }
+        Assert.assertEquals(this.expectedRows(), this.sorted(rows));
+    }
+
+    @Test
+    public void testRollbackDoesNotHideError() throws IOException {
+        File csvFile = this.createTempFile();
+        ConnectionSupplier failingRollback = new ConnectionSupplier() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                final Connection connection = DriverManager.getConnection(URL);
+                return (Connection) Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        new InvocationHandler() {
+                            @Override
+                            public Object invoke(Object proxy, Method method, Object[] args)
+                                    throws Throwable {
+                                if (method.getName().equals("rollback")) {
+                                    throw new SQLException("rollback failed");
+                                }
+                                try {
+                                    return method.invoke(connection, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            }
+                        });
+            }
+        };
+        ParallelResultSetExporter exporter = new ParallelResultSetExporter(failingRollback,
+                "SELECT id, val, name FROM export", Partitioning.modulus("missing", 2));
+        try {
+            exporter.exportParts(csvFile);
+            Assert.fail();
+        } catch (SQLException e) {
+            Assert.assertFalse(e.getMessage().contains("rollback failed"));
+        } catch (MetaCSVDataException e) {
+            Assert.fail();
+        }
+    }
+
+    @Test
+    public void testGetPartFile() {
+        Assert.assertEquals(new File("foo-2.csv").getAbsoluteFile(),
+                ParallelResultSetExporter.getPartFile(new File("foo.csv"), 2));
+        Assert.assertEquals(new File("foo-2").getAbsoluteFile(),
+                ParallelResultSetExporter.getPartFile(new File("foo"), 2));
+    }
+
+    private List<String> expectedRows() {
+        List<String> rows = new ArrayList<String>();
+        for (int i = -5; i < 95; i++) {
+            rows.add(i + "," + (i / 2.0) + ",name " + i);
+        }
+        rows.add(",,null");
+        return this.sorted(rows);
+    }
+
+    private List<String> sorted(List<String> lines) {
+        List<String> copy = new ArrayList<String>(lines.size());
+        for (String line : lines) {
+            // the printer quotes the first field if it starts with a '-' or is empty
+            copy.add(line.replace("\"", ""));
+        }
+        Collections.sort(copy);
+        return copy;
+    }
+
+    private File createTempFile() throws IOException {
+        File csvFile = File.createTempFile("export", ".csv");
+        csvFile.deleteOnExit();
+        Util.withExtension(csvFile, ".mcsv").deleteOnExit();
+        return csvFile;
+    }
+
+    private List<String> readLines(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), TestHelper.UTF_8_CHARSET));
+        try {
+            List<String> lines = new ArrayList<String>();
+            String line = reader.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = reader.readLine();
+            }
+            return lines;
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -154,4 +154,20 @@ public class ResultSetMetaCSVWriterTest {
                         "data,col/7/type,datetime/yyyy-MM-dd'T'HH:mm:ss\r\n",
                 mout.toString(TestHelper.UTF_8_CHARSET_NAME));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNulls() throws SQLException, MetaCSVDataException, IOException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:test");
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("DELETE FROM test");
+        statement.executeUpdate(
+                "INSERT INTO test VALUES (NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+        ResultSet nullRs = statement.executeQuery("SELECT * FROM test");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetMetaCSVWriter rsWriter = new ResultSetMetaCSVWriter(nullRs);
+        MetaCSVWriter writer = MetaCSVWriter.create(out, rsWriter.getMetaCSVData());
+        rsWriter.writeCSV(writer);
+        Assert.assertEquals("INT,BIGD,FLOAT,TEXT,OBJECT,DATE,BOOL,DT\r\n" +
+                        "\"\",,,,,,,\r\n", out.toString(TestHelper.UTF_8_CHARSET_NAME));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * java-mcsv - A MetaCSV library for Java
+ *     Copyright (C) 2020-2021 J. Férard <https://github.com/jferard>
+ *
+ * This file is part of java-mcsv.
+ *
+ * java-mcsv is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * java-mcsv is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses />.
+ */
+
+package com.github.jferard.javamcsv.tool;
+
+import com.github.jferard.javamcsv.MetaCSVData;
+import com.github.jferard.javamcsv.MetaCSVDataBuilder;
+import com.github.jferard.javamcsv.MetaCSVDataException;
+import com.github.jferard.javamcsv.MetaCSVParseException;
+import com.github.jferard.javamcsv.MetaCSVReadException;
+import com.github.jferard.javamcsv.TestHelper;
+import com.github.jferard.javamcsv.description.IntegerFieldDescription;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ScrollableMetaCSVReaderResultSetTest {
+    private File file;
+    private MetaCSVData data;
+
+    @Before
+    public void setUp() throws IOException, MetaCSVDataException {
+        this.file = File.createTempFile("test", ".csv");
+        this.file.deleteOnExit();
+        StringBuilder sb = new StringBuilder("﻿id,name\r\n");
+        for (int i = 1; i <= 100; i++) {
+            sb.append(i).append(",\"name\r\n").append(i).append("\"\r\n");
+        }
+        OutputStream out = new FileOutputStream(this.file);
+        out.write(sb.toString().getBytes(TestHelper.UTF_8_CHARSET));
+        out.close();
+        this.data = new MetaCSVDataBuilder().bom(true)
+                .colType(0, new IntegerFieldDescription(null)).build();
+    }
+
+    @Test
+    public void testScroll() throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException, SQLException {
+        ResultSet rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data);
+        Assert.assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+        Assert.assertTrue(rs.isBeforeFirst());
+        Assert.assertEquals(0, rs.getRow());
+        Assert.assertTrue(rs.next());
+        Assert.assertTrue(rs.isFirst());
+        Assert.assertEquals(1, rs.getLong(1));
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(2, rs.getRow());
+        Assert.assertEquals("name\r\n2", rs.getString(2));
+
+        Assert.assertTrue(rs.absolute(50));
+        Assert.assertEquals(50, rs.getLong("id"));
+        Assert.assertTrue(rs.previous());
+        Assert.assertEquals(49, rs.getLong(1));
+        Assert.assertTrue(rs.relative(10));
+        Assert.assertEquals(59, rs.getLong(1));
+        Assert.assertTrue(rs.absolute(-1));
+        Assert.assertTrue(rs.isLast());
+        Assert.assertEquals(100, rs.getLong(1));
+        Assert.assertFalse(rs.next());
+        Assert.assertTrue(rs.isAfterLast());
+        Assert.assertEquals(0, rs.getRow());
+        Assert.assertTrue(rs.previous());
+        Assert.assertEquals(100, rs.getLong(1));
+        Assert.assertTrue(rs.first());
+        Assert.assertEquals(1, rs.getLong(1));
+        Assert.assertFalse(rs.previous());
+        Assert.assertTrue(rs.isBeforeFirst());
+        Assert.assertFalse(rs.absolute(101));
+        Assert.assertTrue(rs.last());
+        Assert.assertEquals(100, rs.getRow());
+        rs.beforeFirst();
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(1, rs.getLong(1));
+        rs.close();
+        Assert.assertTrue(rs.isClosed());
+    }
+
+    @Test
+    public void testSidecar() throws IOException, MetaCSVReadException, MetaCSVDataException,
+            MetaCSVParseException, SQLException {
+        File indexFile = File.createTempFile("test", ".mcsvi");
+        indexFile.delete();
+        indexFile.deleteOnExit();
+        ResultSet rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data,
+                indexFile);
+        Assert.assertTrue(rs.absolute(30));
+        rs.close();
+        Assert.assertFalse(indexFile.exists());
+
+        rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data, indexFile);
+        Assert.assertTrue(rs.last());
+        rs.close();
+        Assert.assertTrue(indexFile.exists());
+
+        rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data, indexFile);
+        Assert.assertTrue(rs.absolute(77));
+        Assert.assertEquals("name\r\n77", rs.getString(2));
+        rs.close();
+    }
+
+    @Test
+    public void testForwardReadBuildsIndex() throws IOException, MetaCSVReadException,
+            MetaCSVDataException, MetaCSVParseException, SQLException {
+        File indexFile = File.createTempFile("test", ".mcsvi");
+        indexFile.delete();
+        indexFile.deleteOnExit();
+        ResultSet rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data,
+                indexFile);
+        long sum = 0;
+        while (rs.next()) {
+            sum += rs.getLong(1);
+        }
+        Assert.assertEquals(5050, sum);
+        Assert.assertEquals(0, rs.getRow());
+        Assert.assertTrue(rs.previous());
+        Assert.assertEquals(100, rs.getLong(1));
+        rs.close();
+        Assert.assertTrue(indexFile.exists());
+    }
+
+    @Test
+    public void testForwardReadInterrupted() throws IOException, MetaCSVReadException,
+            MetaCSVDataException, MetaCSVParseException, SQLException {
+        ResultSet rs = ScrollableMetaCSVReaderResultSet.create(this.file, this.data);
+        Assert.assertTrue(rs.absolute(3));
+        Assert.assertEquals(3, rs.getLong(1));
+        Assert.assertFalse(rs.isLast());
+        Assert.assertTrue(rs.next());
+        Assert.assertEquals(4, rs.getLong(1));
+        Assert.assertTrue(rs.absolute(99));
+        Assert.assertTrue(rs.next());
+        Assert.assertTrue(rs.isLast());
+        Assert.assertFalse(rs.next());
+        rs.close();
+    }
+}